@@ -5,6 +5,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import io.github.cdimascio.dotenv.Dotenv;
 
@@ -19,7 +20,10 @@ import io.github.cdimascio.dotenv.Dotenv;
 @SpringBootApplication
 @ComponentScan(basePackages = { "com.books" })
 @EntityScan("com.books.domain.model")
-@EnableJpaRepositories(basePackages = "com.books.domain.repository")
+@EnableJpaRepositories(basePackages = "com.books.domain.repository",
+        entityManagerFactoryRef = "auditEntityManagerFactory",
+        transactionManagerRef = "auditTransactionManager")
+@EnableScheduling
 public class BooksAuthorsApiApplication {
 
     /**
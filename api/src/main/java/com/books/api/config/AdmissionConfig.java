@@ -0,0 +1,55 @@
+package com.books.api.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for fair admission of requests to the controllers.
+ * Reads values from application.yml under the 'admission' prefix.
+ *
+ * @author books-authors-api
+ */
+@Configuration
+@ConfigurationProperties(prefix = "admission")
+@Data
+public class AdmissionConfig {
+
+    /**
+     * Flag to enable/disable the admission scheduler
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of requests executing in the controllers at once;
+     * further requests wait in per-client queues
+     */
+    private int maxConcurrent = 64;
+
+    /**
+     * Maximum time a request waits for admission before it is rejected with
+     * 503 (in milliseconds)
+     */
+    private long maxQueueWaitMs = 2000;
+
+    /**
+     * Weight of clients without an explicit weight
+     */
+    private int defaultWeight = 1;
+
+    /**
+     * Weights of specific clients, keyed by "user:&lt;subject&gt;" or
+     * "ip:&lt;address&gt;"; a client with weight 3 is served three requests
+     * per round for every one of a default client
+     */
+    private Map<String, Integer> weights = new HashMap<>();
+
+    /**
+     * Ant patterns of the paths subject to admission control
+     */
+    private String[] paths = { "/api/**" };
+}
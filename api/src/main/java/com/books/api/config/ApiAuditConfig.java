@@ -1,12 +1,27 @@
 package com.books.api.config;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
 /**
  * Configuration properties for the API audit system.
  * Controls various aspects of the audit logging functionality.
+ * <p>
+ * The request-level settings are the startup values: they are compiled into
+ * an {@link AuditPolicy} on first use, and a policy reload replaces that
+ * snapshot rather than these fields, so code serving requests reads
+ * {@link #currentPolicy()}.
  *
  * @author books
  */
@@ -46,13 +61,14 @@ public class ApiAuditConfig {
     private boolean logQueryParams = true;
 
     /**
-     * List of paths to exclude from audit logging (e.g., health checks, metrics)
+     * List of paths to exclude from audit logging (e.g., health checks, metrics).
+     * The leading "/**" also matches these paths under a context path.
      */
     private String[] excludePaths = {
-            "/actuator/**",
-            "/swagger-ui/**",
-            "/v3/api-docs/**",
-            "/favicon.ico"
+            "/**/actuator/**",
+            "/**/swagger-ui/**",
+            "/**/v3/api-docs/**",
+            "/**/favicon.ico"
     };
 
     /**
@@ -65,4 +81,251 @@ public class ApiAuditConfig {
      * (should typically be false in production)
      */
     private boolean retainSensitiveInfo = false;
+
+    /**
+     * Maximum page size accepted by the audit search endpoints
+     */
+    private int maxPageSize = 200;
+
+    /**
+     * Hard cap on the number of entries returned by the alert and metrics
+     * endpoints
+     */
+    private int maxResultSize = 500;
+
+    /**
+     * Hard cap on the number of entries written by a single export
+     */
+    private int maxExportRows = 100_000;
+
+    /**
+     * Number of entries fetched per database round trip during exports
+     */
+    private int exportBatchSize = 500;
+
+    /**
+     * Paths whose responses are streamed and must not be buffered for auditing,
+     * besides the book summaries and author biographies
+     */
+    private String[] streamingPaths = {
+            "/api/audit/export"
+    };
+
+    /**
+     * Path prefix of the book and author controllers, whose summary and
+     * biography endpoints always stream
+     */
+    @Value("${CONTEXT_PATH:/api}")
+    private String contextPath = "/api";
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final AtomicReference<AuditPolicy> policy = new AtomicReference<>();
+
+    /**
+     * Returns the current request-level audit settings
+     *
+     * @return the current policy
+     */
+    public AuditPolicy currentPolicy() {
+        AuditPolicy current = policy.get();
+        if (current == null) {
+            policy.compareAndSet(null, compile(this));
+            current = policy.get();
+        }
+        return current;
+    }
+
+    /**
+     * Compiles validated audit settings, such as those of a policy file, for
+     * this application's context path
+     *
+     * @param candidate the settings
+     * @return the snapshot
+     */
+    public AuditPolicy compile(ApiAuditConfig candidate) {
+        return AuditPolicy.compile(candidate, contextPath);
+    }
+
+    /**
+     * Replaces the request-level audit settings in a single step
+     *
+     * @param compiled the new policy
+     */
+    public void applyPolicy(AuditPolicy compiled) {
+        policy.set(compiled);
+    }
+
+    /**
+     * Checks whether requests to the path are audited, under the current
+     * policy
+     *
+     * @param path the request path
+     * @return true if the request is audited
+     */
+    public boolean audits(String path) {
+        return currentPolicy().audits(path);
+    }
+
+    /**
+     * Checks whether the path is left out of auditing, under the current
+     * policy
+     *
+     * @param path the request path
+     * @return true if the path is excluded
+     */
+    public boolean isExcludedPath(String path) {
+        return currentPolicy().isExcludedPath(path);
+    }
+
+    /**
+     * Checks whether the path belongs to an endpoint that streams its
+     * response, under the current policy
+     *
+     * @param path the request path
+     * @return true if the response must not be buffered
+     */
+    public boolean isStreamingPath(String path) {
+        return currentPolicy().isStreamingPath(path);
+    }
+
+    /**
+     * Checks the request-level audit settings before they are applied at
+     * runtime
+     *
+     * @return the problems found, empty if the settings are valid
+     */
+    public List<String> validate() {
+        List<String> errors = new ArrayList<>();
+        if (maxBodySize < 0) {
+            errors.add("api.audit.max-body-size must not be negative");
+        }
+        if (maxPageSize <= 0) {
+            errors.add("api.audit.max-page-size must be positive");
+        }
+        if (maxResultSize <= 0) {
+            errors.add("api.audit.max-result-size must be positive");
+        }
+        if (maxExportRows <= 0) {
+            errors.add("api.audit.max-export-rows must be positive");
+        }
+        if (exportBatchSize <= 0) {
+            errors.add("api.audit.export-batch-size must be positive");
+        }
+        validatePatterns("api.audit.exclude-paths", excludePaths, errors);
+        validatePatterns("api.audit.streaming-paths", streamingPaths, errors);
+        return errors;
+    }
+
+    private static void validatePatterns(String name, String[] patterns, List<String> errors) {
+        if (patterns == null) {
+            errors.add(name + " is required");
+            return;
+        }
+        for (String pattern : patterns) {
+            if (pattern == null || !pattern.startsWith("/")) {
+                errors.add(name + " entries must start with '/': " + pattern);
+            }
+        }
+    }
+
+    /**
+     * Cold-tier archive settings
+     */
+    private Archive archive = new Archive();
+
+    /**
+     * Streaming traffic sketch settings
+     */
+    private Sketches sketches = new Sketches();
+
+    /**
+     * Settings for the in-memory heavy-hitter and unique-client sketches
+     */
+    @Data
+    public static class Sketches {
+        /**
+         * Whether requests are recorded in the traffic sketches
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of heavy-hitter clients tracked per endpoint
+         */
+        private int topK = 20;
+
+        /**
+         * Count-Min counters per row (rounded up to a power of two)
+         */
+        private int countMinWidth = 1024;
+
+        /**
+         * Count-Min rows
+         */
+        private int countMinDepth = 4;
+
+        /**
+         * Length of a heavy-hitter counting interval (in seconds)
+         */
+        private int heavyHitterIntervalSeconds = 3600;
+
+        /**
+         * HyperLogLog precision; 10 gives about 3% error in 1 KB per window
+         */
+        private int hyperLogLogPrecision = 10;
+
+        /**
+         * Length of a unique-client window (in seconds)
+         */
+        private int windowSeconds = 300;
+
+        /**
+         * Number of unique-client windows kept per endpoint
+         */
+        private int windowCount = 12;
+
+        /**
+         * Maximum number of endpoints tracked separately; further endpoints
+         * share a single "OTHER" entry
+         */
+        private int maxEndpoints = 128;
+    }
+
+    /**
+     * Settings for moving old audit entries to compressed archive files
+     */
+    @Data
+    public static class Archive {
+        /**
+         * Whether old entries are archived and archived ranges are searched
+         */
+        private boolean enabled = false;
+
+        /**
+         * Directory holding the archive segments and dictionaries
+         */
+        private String directory = "audit-archive";
+
+        /**
+         * Entries older than this number of days are moved to the archive
+         */
+        private int olderThanDays = 30;
+
+        /**
+         * Maximum number of entries per archive segment
+         */
+        private int segmentRows = 10_000;
+
+        /**
+         * Maximum size of the shared compression dictionary (in bytes)
+         */
+        private int dictionarySize = 16 * 1024;
+
+        /**
+         * Number of decoded segments kept in memory for repeated searches
+         */
+        private int cachedSegments = 8;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package com.books.api.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.util.AntPathMatcher;
+
+/**
+ * Immutable snapshot of the request-level audit settings. A reload of the
+ * policy file replaces the snapshot as a whole, so a request reading it once
+ * never combines settings from two policies.
+ *
+ * @param enabled                  whether requests are audited
+ * @param logRequestBody           whether request bodies are logged
+ * @param logResponseBody          whether response bodies are logged
+ * @param maxBodySize              maximum logged body size, in characters
+ * @param logHeaders               whether headers are logged
+ * @param logQueryParams           whether query parameters are logged
+ * @param excludePaths             patterns of paths left out of auditing
+ * @param detailedRateLimitLogging whether rate limit violations are logged in detail
+ * @param retainSensitiveInfo      whether sensitive information is kept
+ * @param maxPageSize              maximum page size of the audit searches
+ * @param maxResultSize            maximum result size of the alert and metrics endpoints
+ * @param maxExportRows            maximum number of entries written by one export
+ * @param exportBatchSize          number of entries fetched per export round trip
+ * @param streamingPaths           patterns of paths whose responses are streamed
+ * @author books-authors-api
+ */
+public record AuditPolicy(boolean enabled, boolean logRequestBody, boolean logResponseBody, int maxBodySize,
+        boolean logHeaders, boolean logQueryParams, List<String> excludePaths, boolean detailedRateLimitLogging,
+        boolean retainSensitiveInfo, int maxPageSize, int maxResultSize, int maxExportRows, int exportBatchSize,
+        List<String> streamingPaths) {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    /**
+     * Compiles audit settings, which must have been validated
+     *
+     * @param settings    the settings
+     * @param contextPath the path prefix of the book and author controllers,
+     *                    whose summary and biography endpoints always stream
+     * @return the snapshot
+     */
+    public static AuditPolicy compile(ApiAuditConfig settings, String contextPath) {
+        List<String> streamingPaths = new ArrayList<>(List.of(settings.getStreamingPaths()));
+        streamingPaths.add(contextPath + "/books/*/summary");
+        streamingPaths.add(contextPath + "/authors/*/biography");
+        return new AuditPolicy(settings.isEnabled(), settings.isLogRequestBody(), settings.isLogResponseBody(),
+                settings.getMaxBodySize(), settings.isLogHeaders(), settings.isLogQueryParams(),
+                List.of(settings.getExcludePaths()), settings.isDetailedRateLimitLogging(),
+                settings.isRetainSensitiveInfo(), settings.getMaxPageSize(), settings.getMaxResultSize(),
+                settings.getMaxExportRows(), settings.getExportBatchSize(), List.copyOf(streamingPaths));
+    }
+
+    /**
+     * Checks whether requests to the path are audited
+     *
+     * @param path the request path
+     * @return true if auditing is enabled and the path is not excluded
+     */
+    public boolean audits(String path) {
+        return enabled && !isExcludedPath(path);
+    }
+
+    /**
+     * Checks whether the path is left out of auditing, like health checks,
+     * API docs and static resources
+     *
+     * @param path the request path
+     * @return true if the path matches an excluded pattern
+     */
+    public boolean isExcludedPath(String path) {
+        return matches(excludePaths, path);
+    }
+
+    /**
+     * Checks whether the path belongs to an endpoint that streams its response
+     *
+     * @param path the request path
+     * @return true if the response must not be buffered
+     */
+    public boolean isStreamingPath(String path) {
+        return matches(streamingPaths, path);
+    }
+
+    private static boolean matches(List<String> patterns, String path) {
+        for (String pattern : patterns) {
+            if (PATH_MATCHER.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,74 @@
+package com.books.api.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the client IP access filter.
+ * Reads values from application.yml under the 'ip-access' prefix.
+ *
+ * @author books-authors-api
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ip-access")
+@Data
+public class IpAccessConfig {
+
+    /**
+     * Flag to enable/disable the IP access filter
+     */
+    private boolean enabled = true;
+
+    /**
+     * CIDR ranges that are always allowed, even inside a denied range
+     */
+    private List<String> allow = new ArrayList<>();
+
+    /**
+     * CIDR ranges that are rejected before any other processing
+     */
+    private List<String> deny = new ArrayList<>();
+
+    /**
+     * Optional file with one "allow CIDR" or "deny CIDR" rule per line,
+     * re-read on every reload
+     */
+    private String rulesFile;
+
+    /**
+     * Automatic temporary bans for clients that keep hitting the rate limit
+     */
+    private AutoBan autoBan = new AutoBan();
+
+    /**
+     * Settings for banning clients based on their rate limit violations
+     */
+    @Data
+    public static class AutoBan {
+        /**
+         * Whether clients are banned automatically
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of rate-limited (429) responses within the window that
+         * triggers a ban
+         */
+        private int threshold = 50;
+
+        /**
+         * Length of the counting window (in seconds)
+         */
+        private int windowSeconds = 60;
+
+        /**
+         * Duration of a ban (in seconds)
+         */
+        private int banSeconds = 600;
+    }
+}
@@ -0,0 +1,63 @@
+package com.books.api.config;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.books.domain.model.Author;
+import com.books.domain.model.Book;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * JSON settings of the responses.
+ * The books and authors embedded in responses are domain entities, whose
+ * row versions are only known for the entity read, not for the embedded
+ * ones. Versions reach clients through the {@code ETag} and
+ * {@code Last-Modified} headers instead, so they are left out of the JSON
+ * of both the message converters and the application object mapper.
+ *
+ * @author books-authors-api
+ */
+@Configuration
+public class JacksonConfig implements WebMvcConfigurer {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer rowVersionMixins() {
+        return builder -> builder.postConfigurer(JacksonConfig::hideRowVersions);
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.stream()
+                .filter(MappingJackson2HttpMessageConverter.class::isInstance)
+                .map(MappingJackson2HttpMessageConverter.class::cast)
+                .forEach(converter -> hideRowVersions(converter.getObjectMapper()));
+    }
+
+    /**
+     * Leaves the row versions of books and authors out of the JSON written
+     * by an object mapper
+     *
+     * @param objectMapper the mapper to configure
+     */
+    static void hideRowVersions(ObjectMapper objectMapper) {
+        objectMapper.addMixIn(Book.class, RowVersionMixin.class);
+        objectMapper.addMixIn(Author.class, RowVersionMixin.class);
+    }
+
+    private abstract static class RowVersionMixin {
+
+        @JsonIgnore
+        abstract Long getVersion();
+
+        @JsonIgnore
+        abstract Instant getUpdatedAt();
+    }
+}
@@ -0,0 +1,70 @@
+package com.books.api.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import com.books.api.service.quota.QuotaPeriod;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for long-window per-client quotas.
+ * Reads values from application.yml under the 'quota' prefix.
+ *
+ * @author books-authors-api
+ */
+@Configuration
+@ConfigurationProperties(prefix = "quota")
+@Data
+public class QuotaConfig {
+
+    /**
+     * Flag to enable/disable quota enforcement
+     */
+    private boolean enabled = true;
+
+    /**
+     * Quota of clients without a specific plan; a limit of 0 means unlimited
+     */
+    private Plan defaultPlan = new Plan();
+
+    /**
+     * Plans of specific clients, keyed by "user:&lt;subject&gt;" or
+     * "ip:&lt;address&gt;"
+     */
+    private Map<String, Plan> clients = new HashMap<>();
+
+    /**
+     * File the usage counters are checkpointed to and restored from
+     */
+    private String checkpointFile = "quota-usage.dat";
+
+    /**
+     * Interval between checkpoints (in milliseconds)
+     */
+    private long checkpointIntervalMs = 30_000;
+
+    /**
+     * Ant patterns of the paths that count against the quota
+     */
+    private String[] paths = { "/api/**" };
+
+    /**
+     * Quota of one client
+     */
+    @Data
+    public static class Plan {
+        /**
+         * Maximum number of requests per period; 0 means unlimited
+         */
+        private long limit = 0;
+
+        /**
+         * Length of the quota period (DAILY or MONTHLY, in UTC)
+         */
+        private QuotaPeriod period = QuotaPeriod.DAILY;
+    }
+}
@@ -6,7 +6,10 @@ import org.springframework.context.annotation.Configuration;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * Configuration properties for rate limiting functionality.
@@ -19,6 +22,8 @@ import java.util.concurrent.TimeUnit;
 @Data
 public class RateLimitingConfig {
 
+    private static final Set<String> STRATEGIES = Set.of("IP_ADDRESS", "USER", "TOKEN");
+
     /**
      * Flag to enable/disable rate limiting globally
      */
@@ -45,6 +50,56 @@ public class RateLimitingConfig {
      */
     private boolean responseHeaders = true;
 
+    /**
+     * Checks the settings before they are applied at runtime
+     *
+     * @return the problems found, empty if the settings are valid
+     */
+    public List<String> validate() {
+        List<String> errors = new ArrayList<>();
+        if (!STRATEGIES.contains(strategy)) {
+            errors.add("rate-limiting.strategy must be one of " + STRATEGIES + ": " + strategy);
+        }
+        if (defaultSettings == null) {
+            errors.add("rate-limiting.default-settings is required");
+        } else {
+            validateLimit("rate-limiting.default-settings", defaultSettings.getLimit(),
+                    defaultSettings.getRefreshPeriod(), defaultSettings.getTimeUnit(), errors);
+        }
+        if (endpoints == null) {
+            errors.add("rate-limiting.endpoints is required");
+            return errors;
+        }
+        for (int i = 0; i < endpoints.size(); i++) {
+            EndpointLimit endpoint = endpoints.get(i);
+            String name = "rate-limiting.endpoints[" + i + "]";
+            if (endpoint.getPattern() == null || endpoint.getPattern().isBlank()) {
+                errors.add(name + ".pattern is required");
+            } else {
+                try {
+                    Pattern.compile(endpoint.getPattern());
+                } catch (PatternSyntaxException e) {
+                    errors.add(name + ".pattern is not a valid regular expression: " + endpoint.getPattern());
+                }
+            }
+            validateLimit(name, endpoint.getLimit(), endpoint.getRefreshPeriod(), endpoint.getTimeUnit(), errors);
+        }
+        return errors;
+    }
+
+    private static void validateLimit(String name, int limit, int refreshPeriod, TimeUnit timeUnit,
+            List<String> errors) {
+        if (limit <= 0) {
+            errors.add(name + ".limit must be positive");
+        }
+        if (refreshPeriod <= 0) {
+            errors.add(name + ".refresh-period must be positive");
+        }
+        if (timeUnit == null) {
+            errors.add(name + ".time-unit is required");
+        }
+    }
+
     /**
      * Settings for a specific endpoint rate limit
      */
@@ -1,8 +1,8 @@
 package com.books.api.config;
 
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -11,6 +11,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 import org.springframework.web.cors.CorsConfigurationSource;
 
 import com.books.api.security.JwtTokenFilter;
+import com.books.api.security.JwtTokenVerifier;
 import com.books.api.security.RateLimitingFilter;
 
 /**
@@ -21,17 +22,18 @@ import com.books.api.security.RateLimitingFilter;
  */
 @Configuration
 @EnableWebSecurity
+@EnableMethodSecurity // Enforces the @PreAuthorize rules of the controllers
 public class SecurityConfig {
 
-    @Value("${security.secret-key}")
-    private String secretKey;
-
     private final RateLimitingFilter rateLimitingFilter;
     private final CorsConfigurationSource corsConfigurationSource;
+    private final JwtTokenVerifier jwtTokenVerifier;
 
-    public SecurityConfig(RateLimitingFilter rateLimitingFilter, CorsConfigurationSource corsConfigurationSource) {
+    public SecurityConfig(RateLimitingFilter rateLimitingFilter, CorsConfigurationSource corsConfigurationSource,
+            JwtTokenVerifier jwtTokenVerifier) {
         this.rateLimitingFilter = rateLimitingFilter;
         this.corsConfigurationSource = corsConfigurationSource;
+        this.jwtTokenVerifier = jwtTokenVerifier;
     }
 
     /**
@@ -49,13 +51,17 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(requests -> requests
                         .requestMatchers("/api/authors/generate-token").permitAll()
+                        // Administration endpoints require a token granting the ADMIN role
+                        .requestMatchers("/api/audit/**", "/api/cache/**", "/api/ip-access/**", "/api/policies/**",
+                                "/api/quotas/**", "/api/rate-limits/**", "/api/tokens/revocations")
+                        .hasRole("ADMIN")
                         .requestMatchers("/api/**").permitAll() // .authenticated()
                         .anyRequest().permitAll())
                 .sessionManagement(management -> management.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 // Apply rate limiting filter first
                 .addFilterBefore(rateLimitingFilter, UsernamePasswordAuthenticationFilter.class)
                 // Then JWT authentication filter
-                .addFilterBefore(new JwtTokenFilter(secretKey), UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(new JwtTokenFilter(jwtTokenVerifier), UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
@@ -2,21 +2,33 @@ package com.books.api.controller;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.books.api.dto.ApiAuditLogDTO;
+import com.books.api.dto.AuditCursor;
+import com.books.api.dto.AuditLogWindowDTO;
+import com.books.api.dto.AuditSearchCriteria;
+import com.books.api.dto.EndpointTrafficDTO;
+import com.books.api.dto.HeavyHittersDTO;
+import com.books.api.dto.UniqueClientsDTO;
 import com.books.api.service.ApiAuditService;
+import com.books.api.service.ApiAuditService.AuditLogWindow;
+import com.books.api.service.ApiAuditService.ExportFormat;
+import com.books.api.service.TrafficSketchService;
 import com.books.domain.model.ApiAuditLog;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -39,6 +51,7 @@ import lombok.extern.slf4j.Slf4j;
 public class ApiAuditController {
 
     private final ApiAuditService apiAuditService;
+    private final TrafficSketchService trafficSketchService;
 
     /**
      * Get audit logs with pagination and filtering options
@@ -50,7 +63,8 @@ public class ApiAuditController {
      * @param startTime      Filter by start time
      * @param endTime        Filter by end time
      * @param rateLimitAlert Filter for rate limit alerts only
-     * @param pageable       Pagination information
+     * @param pageable       Pagination information (size capped by
+     *                       configuration)
      * @return Page of matching audit logs
      */
     @GetMapping
@@ -61,7 +75,7 @@ public class ApiAuditController {
 
             @Parameter(description = "Filter by user ID") @RequestParam(required = false) String userId,
 
-            @Parameter(description = "Filter by endpoint path") @RequestParam(required = false) String endpoint,
+            @Parameter(description = "Filter by endpoint path prefix") @RequestParam(required = false) String endpoint,
 
             @Parameter(description = "Filter by HTTP status code") @RequestParam(required = false) Integer statusCode,
 
@@ -73,58 +87,171 @@ public class ApiAuditController {
 
             Pageable pageable) {
 
-        // Build specification based on filter criteria
-        Specification<ApiAuditLog> spec = Specification.where(null);
+        AuditSearchCriteria criteria = AuditSearchCriteria.builder()
+                .clientIp(clientIp)
+                .userId(userId)
+                .endpoint(endpoint)
+                .statusCode(statusCode)
+                .startTime(startTime)
+                .endTime(endTime)
+                .rateLimitOnly(rateLimitAlert != null && rateLimitAlert)
+                .build();
 
-        if (clientIp != null) {
-            spec = spec.and((root, query, cb) -> cb.equal(root.get("clientIp"), clientIp));
-        }
+        // Execute the query with the criteria and a capped page size
+        Page<ApiAuditLog> auditLogs = apiAuditService.searchAuditLogs(criteria, pageable);
 
-        if (userId != null) {
-            spec = spec.and((root, query, cb) -> cb.equal(root.get("userId"), userId));
-        }
+        // Convert entities to DTOs
+        Page<ApiAuditLogDTO> auditLogDTOs = auditLogs.map(ApiAuditLogDTO::fromEntity);
 
-        if (endpoint != null) {
-            spec = spec.and((root, query, cb) -> cb.like(root.get("endpoint"), "%" + endpoint + "%"));
-        }
+        return ResponseEntity.ok(auditLogDTOs);
+    }
 
-        if (statusCode != null) {
-            spec = spec.and((root, query, cb) -> cb.equal(root.get("statusCode"), statusCode));
-        }
+    /**
+     * Get audit logs with keyset pagination on (timestamp, id).
+     * Does not run a count query; follow {@code nextCursor} to get the next
+     * window.
+     *
+     * @param clientIp       Filter by client IP address
+     * @param userId         Filter by user ID
+     * @param endpoint       Filter by endpoint path prefix
+     * @param statusCode     Filter by HTTP status code
+     * @param startTime      Filter by start time
+     * @param endTime        Filter by end time
+     * @param rateLimitAlert Filter for rate limit alerts only
+     * @param cursor         Cursor returned by the previous window
+     * @param limit          Maximum number of entries to return
+     * @return Window of matching audit logs, newest first
+     */
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Search audit logs with keyset pagination", description = "Retrieves API audit logs newest first using an opaque cursor instead of page numbers")
+    public ResponseEntity<AuditLogWindowDTO> searchAuditLogs(
+            @Parameter(description = "Filter by client IP address") @RequestParam(required = false) String clientIp,
 
-        if (startTime != null) {
-            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("timestamp"), startTime));
-        }
+            @Parameter(description = "Filter by user ID") @RequestParam(required = false) String userId,
 
-        if (endTime != null) {
-            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("timestamp"), endTime));
-        }
+            @Parameter(description = "Filter by endpoint path prefix") @RequestParam(required = false) String endpoint,
+
+            @Parameter(description = "Filter by HTTP status code") @RequestParam(required = false) Integer statusCode,
+
+            @Parameter(description = "Filter by start time (ISO format)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+
+            @Parameter(description = "Filter by end time (ISO format)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+
+            @Parameter(description = "Filter for rate limit alerts only") @RequestParam(required = false) Boolean rateLimitAlert,
+
+            @Parameter(description = "Cursor returned by the previous window") @RequestParam(required = false) String cursor,
 
-        if (rateLimitAlert != null && rateLimitAlert) {
-            spec = spec.and((root, query, cb) -> cb.isTrue(root.get("rateLimitExceeded")));
+            @Parameter(description = "Maximum number of entries to return") @RequestParam(defaultValue = "50") int limit) {
+
+        AuditCursor position;
+        try {
+            position = AuditCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
 
-        // Execute the query with the specification and pagination
-        Page<ApiAuditLog> auditLogs = apiAuditService.searchAuditLogs(spec, pageable);
+        AuditSearchCriteria criteria = AuditSearchCriteria.builder()
+                .clientIp(clientIp)
+                .userId(userId)
+                .endpoint(endpoint)
+                .statusCode(statusCode)
+                .startTime(startTime)
+                .endTime(endTime)
+                .rateLimitOnly(rateLimitAlert != null && rateLimitAlert)
+                .build();
+
+        AuditLogWindow window = apiAuditService.searchAuditLogsAfter(criteria, position, limit);
+
+        return ResponseEntity.ok(AuditLogWindowDTO.builder()
+                .content(window.content().stream()
+                        .map(ApiAuditLogDTO::fromEntity)
+                        .collect(Collectors.toList()))
+                .nextCursor(window.hasNext() ? window.next().encode() : null)
+                .hasNext(window.hasNext())
+                .build());
+    }
 
-        // Convert entities to DTOs
-        Page<ApiAuditLogDTO> auditLogDTOs = auditLogs.map(ApiAuditLogDTO::fromEntity);
+    /**
+     * Export audit logs for a time range as a streamed NDJSON or CSV document
+     *
+     * @param clientIp       Filter by client IP address
+     * @param userId         Filter by user ID
+     * @param endpoint       Filter by endpoint path prefix
+     * @param statusCode     Filter by HTTP status code
+     * @param startTime      Start of the exported range
+     * @param endTime        End of the exported range
+     * @param rateLimitAlert Filter for rate limit alerts only
+     * @param format         Output format (ndjson or csv)
+     * @return Streamed export body
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Export audit logs", description = "Streams matching audit logs as NDJSON or CSV without loading the whole range in memory")
+    public ResponseEntity<StreamingResponseBody> exportAuditLogs(
+            @Parameter(description = "Filter by client IP address") @RequestParam(required = false) String clientIp,
 
-        return ResponseEntity.ok(auditLogDTOs);
+            @Parameter(description = "Filter by user ID") @RequestParam(required = false) String userId,
+
+            @Parameter(description = "Filter by endpoint path prefix") @RequestParam(required = false) String endpoint,
+
+            @Parameter(description = "Filter by HTTP status code") @RequestParam(required = false) Integer statusCode,
+
+            @Parameter(description = "Start of the exported range (ISO format)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+
+            @Parameter(description = "End of the exported range (ISO format)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+
+            @Parameter(description = "Filter for rate limit alerts only") @RequestParam(required = false) Boolean rateLimitAlert,
+
+            @Parameter(description = "Output format: ndjson or csv") @RequestParam(defaultValue = "ndjson") String format) {
+
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        AuditSearchCriteria criteria = AuditSearchCriteria.builder()
+                .clientIp(clientIp)
+                .userId(userId)
+                .endpoint(endpoint)
+                .statusCode(statusCode)
+                .startTime(startTime)
+                .endTime(endTime)
+                .rateLimitOnly(rateLimitAlert != null && rateLimitAlert)
+                .build();
+
+        MediaType mediaType = exportFormat == ExportFormat.CSV
+                ? new MediaType("text", "csv")
+                : new MediaType("application", "x-ndjson");
+        String fileName = "audit-logs." + exportFormat.name().toLowerCase(Locale.ROOT);
+
+        StreamingResponseBody body = outputStream -> apiAuditService.exportAuditLogs(criteria, exportFormat,
+                outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
     }
 
     /**
      * Get rate limit violation alerts
      *
-     * @return List of audit logs for rate limit violations
+     * @param limit Maximum number of alerts to return (capped by configuration)
+     * @return List of the most recent audit logs for rate limit violations
      */
     @GetMapping("/rate-limit-alerts")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Get rate limit violation alerts", description = "Retrieves audit logs for requests that exceeded rate limits")
-    public ResponseEntity<List<ApiAuditLogDTO>> getRateLimitAlerts() {
-        Specification<ApiAuditLog> spec = (root, query, cb) -> cb.isTrue(root.get("rateLimitExceeded"));
+    @Operation(summary = "Get rate limit violation alerts", description = "Retrieves the most recent audit logs for requests that exceeded rate limits")
+    public ResponseEntity<List<ApiAuditLogDTO>> getRateLimitAlerts(
+            @Parameter(description = "Maximum number of alerts to return") @RequestParam(defaultValue = "100") int limit) {
+        AuditSearchCriteria criteria = AuditSearchCriteria.builder()
+                .rateLimitOnly(true)
+                .build();
 
-        List<ApiAuditLog> alerts = apiAuditService.searchAuditLogs(spec, Pageable.unpaged()).getContent();
+        List<ApiAuditLog> alerts = apiAuditService.findRecent(criteria, limit);
 
         List<ApiAuditLogDTO> alertDTOs = alerts.stream()
                 .map(ApiAuditLogDTO::fromEntity)
@@ -148,13 +275,14 @@ public class ApiAuditController {
 
             @Parameter(description = "End time for metrics period (ISO format)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime) {
 
-        Specification<ApiAuditLog> spec = (root, query, cb) -> cb.and(
-                cb.greaterThanOrEqualTo(root.get("timestamp"), startTime),
-                cb.lessThanOrEqualTo(root.get("timestamp"), endTime));
+        AuditSearchCriteria criteria = AuditSearchCriteria.builder()
+                .startTime(startTime)
+                .endTime(endTime)
+                .build();
 
         // In a real implementation, you would use a custom query to group by endpoint
-        // For now, we'll just return the matching logs
-        List<ApiAuditLog> metrics = apiAuditService.searchAuditLogs(spec, Pageable.unpaged()).getContent();
+        // For now, we'll just return the most recent matching logs
+        List<ApiAuditLog> metrics = apiAuditService.findRecent(criteria, Integer.MAX_VALUE);
 
         List<ApiAuditLogDTO> metricDTOs = metrics.stream()
                 .map(ApiAuditLogDTO::fromEntity)
@@ -178,13 +306,14 @@ public class ApiAuditController {
 
             @Parameter(description = "End time for metrics period (ISO format)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime) {
 
-        Specification<ApiAuditLog> spec = (root, query, cb) -> cb.and(
-                cb.greaterThanOrEqualTo(root.get("timestamp"), startTime),
-                cb.lessThanOrEqualTo(root.get("timestamp"), endTime));
+        AuditSearchCriteria criteria = AuditSearchCriteria.builder()
+                .startTime(startTime)
+                .endTime(endTime)
+                .build();
 
         // In a real implementation, you would use a custom query to group by client
-        // For now, we'll just return the matching logs
-        List<ApiAuditLog> metrics = apiAuditService.searchAuditLogs(spec, Pageable.unpaged()).getContent();
+        // For now, we'll just return the most recent matching logs
+        List<ApiAuditLog> metrics = apiAuditService.findRecent(criteria, Integer.MAX_VALUE);
 
         List<ApiAuditLogDTO> metricDTOs = metrics.stream()
                 .map(ApiAuditLogDTO::fromEntity)
@@ -192,4 +321,59 @@ public class ApiAuditController {
 
         return ResponseEntity.ok(metricDTOs);
     }
-}
\ No newline at end of file
+
+    /**
+     * Get the heaviest clients from the streaming traffic sketches
+     *
+     * @param endpoint Endpoint pattern (e.g. /api/books/{id}), all endpoints if
+     *                 omitted
+     * @param limit    Maximum number of clients
+     * @param previous Whether to return the last completed interval
+     * @return Estimated request counts of the heaviest clients
+     */
+    @GetMapping("/metrics/top-clients")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get heavy-hitter clients", description = "Returns the clients with the most requests in the current counting interval, estimated in constant memory")
+    public ResponseEntity<HeavyHittersDTO> getTopClients(
+            @Parameter(description = "Endpoint pattern, all endpoints if omitted") @RequestParam(required = false) String endpoint,
+
+            @Parameter(description = "Maximum number of clients") @RequestParam(defaultValue = "10") int limit,
+
+            @Parameter(description = "Return the last completed interval instead of the current one") @RequestParam(defaultValue = "false") boolean previous) {
+
+        return ResponseEntity.ok(trafficSketchService.topClients(endpoint, limit, previous));
+    }
+
+    /**
+     * Get the number of distinct clients from the streaming traffic sketches
+     *
+     * @param endpoint Endpoint pattern, all endpoints if omitted
+     * @param windows  Number of most recent time windows to cover
+     * @return Estimated number of distinct clients
+     */
+    @GetMapping("/metrics/unique-clients")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get unique client count", description = "Estimates the distinct clients of an endpoint over the most recent time windows")
+    public ResponseEntity<UniqueClientsDTO> getUniqueClients(
+            @Parameter(description = "Endpoint pattern, all endpoints if omitted") @RequestParam(required = false) String endpoint,
+
+            @Parameter(description = "Number of most recent time windows") @RequestParam(defaultValue = "12") int windows) {
+
+        return ResponseEntity.ok(trafficSketchService.uniqueClients(endpoint, windows));
+    }
+
+    /**
+     * Get the busiest endpoints from the streaming traffic sketches
+     *
+     * @param limit Maximum number of endpoints
+     * @return Request counts of the busiest endpoints
+     */
+    @GetMapping("/metrics/hot-endpoints")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get hot endpoints", description = "Returns the endpoints with the most requests in the current counting interval")
+    public ResponseEntity<List<EndpointTrafficDTO>> getHotEndpoints(
+            @Parameter(description = "Maximum number of endpoints") @RequestParam(defaultValue = "10") int limit) {
+
+        return ResponseEntity.ok(trafficSketchService.hotEndpoints(limit));
+    }
+}
@@ -1,7 +1,9 @@
 package com.books.api.controller;
 
 import java.util.List;
+import java.util.Objects;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -10,14 +12,17 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.books.api.security.JwtTokenProvider;
 import com.books.application.dto.AuthorDTO;
 import com.books.application.dto.CreateAuthorDTO;
+import com.books.application.dto.MultiGetDTO;
 import com.books.application.dto.UpdateAuthorDTO;
 import com.books.application.service.AuthorService;
 
@@ -47,6 +52,11 @@ import lombok.extern.slf4j.Slf4j;
 @Tag(name = "authors", description = "Authors management API")
 public class AuthorController {
 
+        /**
+         * Maximum number of distinct IDs of one multi-get request
+         */
+        static final int MAX_IDS_PER_REQUEST = 100;
+
         private final AuthorService authorService;
         private final JwtTokenProvider jwtTokenProvider;
 
@@ -73,6 +83,32 @@ public class AuthorController {
                 return ResponseEntity.ok(authors);
         }
 
+        /**
+         * Gets several authors by their IDs with one database call.
+         * At most {@value #MAX_IDS_PER_REQUEST} distinct IDs are accepted.
+         *
+         * @param ids the IDs of the authors, e.g. {@code ?ids=3,1,2}
+         * @return the authors found in the order of their IDs, and the IDs not
+         *         found; 400 Bad Request if no IDs, an empty ID or too many
+         *         IDs are requested
+         */
+        @GetMapping(params = "ids")
+        @Operation(summary = "Get authors by IDs", description = "Retrieves the authors with the given IDs in one call, in the requested order, and lists the IDs that do not exist")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Authors retrieved, missing IDs listed"),
+                        @ApiResponse(responseCode = "400", description = "No IDs, an empty ID or more than " + MAX_IDS_PER_REQUEST + " IDs requested", content = @Content)
+        })
+        public ResponseEntity<MultiGetDTO<AuthorDTO>> getAuthorsByIds(
+                        @Parameter(description = "Comma-separated IDs of the authors to retrieve", required = true) @RequestParam List<Long> ids) {
+                log.debug("REST request to get authors with IDs: {}", ids);
+                // "?ids=1,,2" binds an empty element as null
+                if (ids.isEmpty() || ids.stream().anyMatch(Objects::isNull)
+                                || ids.stream().distinct().count() > MAX_IDS_PER_REQUEST) {
+                        return ResponseEntity.badRequest().build();
+                }
+                return ResponseEntity.ok(authorService.findAuthorsByIds(ids));
+        }
+
         @PostMapping("/generate-token")
         @Operation(summary = "Generate JWT token", description = "Generates a valid JWT token for testing purposes")
         @ApiResponse(responseCode = "200", description = "Token generated successfully")
@@ -100,6 +136,32 @@ public class AuthorController {
                                 .orElse(ResponseEntity.notFound().build());
         }
 
+        /**
+         * Streams the full biography of an author.
+         * Lists and searches leave biographies out; this endpoint returns the
+         * whole text, or the characters of a {@code Range: chars=start-end}
+         * request, without loading it at once.
+         *
+         * @param id    the ID of the author
+         * @param range the requested character range, if any
+         * @return the biography as plain text, 206 for a range, 404 if the
+         *         author does not exist or 416 if the range starts past the end
+         */
+        @GetMapping("/{id}/biography")
+        @Operation(summary = "Get the biography of an author", description = "Streams the full biography as plain text, supporting character ranges such as Range: chars=0-9999")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Biography streamed", content = @Content(mediaType = "text/plain")),
+                        @ApiResponse(responseCode = "206", description = "Requested range streamed", content = @Content(mediaType = "text/plain")),
+                        @ApiResponse(responseCode = "404", description = "Author not found", content = @Content),
+                        @ApiResponse(responseCode = "416", description = "Range starts past the end of the biography", content = @Content)
+        })
+        public ResponseEntity<StreamingResponseBody> getAuthorBiography(
+                        @Parameter(description = "ID of the author", required = true) @PathVariable Long id,
+                        @Parameter(description = "Character range, e.g. chars=0-9999") @RequestHeader(value = HttpHeaders.RANGE, required = false) String range) {
+                log.debug("REST request to get the biography of author with ID: {}, range: {}", id, range);
+                return TextRangeResponse.of(range, (offset, length) -> authorService.readBiography(id, offset, length));
+        }
+
         /**
          * Creates a new author.
          *
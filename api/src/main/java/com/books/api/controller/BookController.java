@@ -1,7 +1,9 @@
 package com.books.api.controller;
 
 import java.util.List;
+import java.util.Objects;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -10,12 +12,15 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.books.application.dto.BookDTO;
 import com.books.application.dto.CreateBookDTO;
+import com.books.application.dto.MultiGetDTO;
 import com.books.application.dto.UpdateBookDTO;
 import com.books.application.service.BookService;
 import com.books.domain.model.Book;
@@ -45,6 +50,11 @@ import lombok.extern.slf4j.Slf4j;
 @Tag(name = "books", description = "Book management API")
 public class BookController {
 
+        /**
+         * Maximum number of distinct IDs of one multi-get request
+         */
+        static final int MAX_IDS_PER_REQUEST = 100;
+
         private final BookService bookService;
 
         /**
@@ -72,6 +82,32 @@ public class BookController {
                 return ResponseEntity.ok(books);
         }
 
+        /**
+         * Gets several books by their IDs with one database call.
+         * At most {@value #MAX_IDS_PER_REQUEST} distinct IDs are accepted.
+         *
+         * @param ids the IDs of the books, e.g. {@code ?ids=3,1,2}
+         * @return the books found in the order of their IDs, and the IDs not
+         *         found; 400 Bad Request if no IDs, an empty ID or too many
+         *         IDs are requested
+         */
+        @GetMapping(params = "ids")
+        @Operation(summary = "Get books by IDs", description = "Retrieves the books with the given IDs in one call, in the requested order, and lists the IDs that do not exist")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Books retrieved, missing IDs listed"),
+                        @ApiResponse(responseCode = "400", description = "No IDs, an empty ID or more than " + MAX_IDS_PER_REQUEST + " IDs requested", content = @Content)
+        })
+        public ResponseEntity<MultiGetDTO<BookDTO>> getBooksByIds(
+                        @Parameter(description = "Comma-separated IDs of the books to retrieve", required = true) @RequestParam List<Long> ids) {
+                log.debug("REST request to get books with IDs: {}", ids);
+                // "?ids=1,,2" binds an empty element as null
+                if (ids.isEmpty() || ids.stream().anyMatch(Objects::isNull)
+                                || ids.stream().distinct().count() > MAX_IDS_PER_REQUEST) {
+                        return ResponseEntity.badRequest().build();
+                }
+                return ResponseEntity.ok(bookService.findBooksByIds(ids));
+        }
+
         /**
          * Retrieves a book by its ID.
          *
@@ -91,6 +127,32 @@ public class BookController {
                                 .orElse(ResponseEntity.notFound().build());
         }
 
+        /**
+         * Streams the full summary of a book.
+         * Lists and searches leave summaries out; this endpoint returns the
+         * whole text, or the characters of a {@code Range: chars=start-end}
+         * request, without loading it at once.
+         *
+         * @param id    the ID of the book
+         * @param range the requested character range, if any
+         * @return the summary as plain text, 206 for a range, 404 if the book
+         *         does not exist or 416 if the range starts past the end
+         */
+        @GetMapping("/{id}/summary")
+        @Operation(summary = "Get the summary of a book", description = "Streams the full summary as plain text, supporting character ranges such as Range: chars=0-9999")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Summary streamed", content = @Content(mediaType = "text/plain")),
+                        @ApiResponse(responseCode = "206", description = "Requested range streamed", content = @Content(mediaType = "text/plain")),
+                        @ApiResponse(responseCode = "404", description = "Book not found"),
+                        @ApiResponse(responseCode = "416", description = "Range starts past the end of the summary")
+        })
+        public ResponseEntity<StreamingResponseBody> getBookSummary(
+                        @Parameter(description = "ID of the book") @PathVariable Long id,
+                        @Parameter(description = "Character range, e.g. chars=0-9999") @RequestHeader(value = HttpHeaders.RANGE, required = false) String range) {
+                log.debug("REST request to get the summary of book with ID: {}, range: {}", id, range);
+                return TextRangeResponse.of(range, (offset, length) -> bookService.readSummary(id, offset, length));
+        }
+
         /**
          * Creates a new book.
          *
@@ -0,0 +1,81 @@
+package com.books.api.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.books.infrastructure.cache.CatalogCache;
+import com.books.infrastructure.cache.CatalogCache.CacheStatistics;
+import com.books.infrastructure.cache.QueryCache;
+import com.books.infrastructure.cache.ResponseCache;
+import com.books.infrastructure.cache.invalidation.InvalidationBus;
+import com.books.infrastructure.cache.invalidation.InvalidationBus.BusStatistics;
+import com.books.infrastructure.repository.PointLookupLoader;
+import com.books.infrastructure.repository.PointLookupLoader.LoaderStatistics;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST controller for inspecting the catalog caches.
+ *
+ * @author books-authors-api
+ */
+@RestController
+@RequestMapping("/api/cache")
+@RequiredArgsConstructor
+@Tag(name = "Cache", description = "Endpoints for inspecting the catalog caches")
+public class CacheController {
+
+    private final CatalogCache catalogCache;
+    private final QueryCache queryCache;
+    private final ResponseCache responseCache;
+    private final InvalidationBus invalidationBus;
+    private final PointLookupLoader pointLookupLoader;
+
+    /**
+     * Returns the statistics of the book, author, search result and
+     * serialized response caches
+     *
+     * @return cache name to statistics
+     */
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get cache statistics", description = "Returns hits, misses, evictions and size of the book, author, search result and serialized response caches")
+    public ResponseEntity<Map<String, CacheStatistics>> getStatistics() {
+        Map<String, CacheStatistics> statistics = new LinkedHashMap<>(catalogCache.getStatistics());
+        statistics.put("queries", queryCache.getStatistics());
+        statistics.put("responses", responseCache.getStatistics());
+        return ResponseEntity.ok(statistics);
+    }
+
+    /**
+     * Returns the counters of the cross-node invalidation bus
+     *
+     * @return the bus statistics
+     */
+    @GetMapping("/invalidation")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get invalidation bus statistics", description = "Returns the events published and received by this node and the gaps it recovered from")
+    public ResponseEntity<BusStatistics> getInvalidationStatistics() {
+        return ResponseEntity.ok(invalidationBus.getStatistics());
+    }
+
+    /**
+     * Returns the counters of the coalescing book and author loaders
+     *
+     * @return loader name to statistics
+     */
+    @GetMapping("/lookups")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get lookup batching statistics", description = "Returns how many lookups by ID were coalesced and how many IDs each database call loaded")
+    public ResponseEntity<Map<String, LoaderStatistics>> getLookupStatistics() {
+        return ResponseEntity.ok(pointLookupLoader.getStatistics());
+    }
+}
@@ -0,0 +1,183 @@
+package com.books.api.controller;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * The fields of books or authors a client asked for with the {@code fields}
+ * and {@code expand} query parameters.
+ * <p>
+ * {@code fields} is a comma-separated list of the properties to return.
+ * {@code expand} names the related entities to embed: {@code authors} for
+ * books and {@code books} for authors. Without {@code expand}, they are
+ * embedded unless {@code fields} leaves them out.
+ * <p>
+ * Lists and searches never return the long texts, biographies and
+ * summaries, not even of embedded entities; they are streamed by their own
+ * endpoints.
+ *
+ * @author books-authors-api
+ */
+public final class FieldSelection {
+
+    /**
+     * Request attribute holding the selection of the current request
+     */
+    public static final String ATTRIBUTE = FieldSelection.class.getName();
+
+    public static final String FIELDS_PARAMETER = "fields";
+    public static final String EXPAND_PARAMETER = "expand";
+
+    /**
+     * Resources that support field selection, with their properties
+     */
+    public enum Resource {
+        BOOKS("authors", "authorIds", null, "biography",
+                "bookId", "title", "isbn", "publicationDate", "authorIds"),
+        AUTHORS("books", "bookBookIds", "biography", "summary",
+                "authorId", "firstName", "lastName", "birthDate", "biography", "fullName", "bookBookIds");
+
+        private final String relation;
+        private final String embeddedField;
+        private final String lobField;
+        private final String embeddedLobField;
+        private final Set<String> fields;
+
+        Resource(String relation, String embeddedField, String lobField, String embeddedLobField,
+                String... fields) {
+            this.relation = relation;
+            this.embeddedField = embeddedField;
+            this.lobField = lobField;
+            this.embeddedLobField = embeddedLobField;
+            this.fields = Set.of(fields);
+        }
+    }
+
+    private final Resource resource;
+    private final boolean collection;
+    private final Set<String> fields;
+    private final boolean expanded;
+
+    private FieldSelection(Resource resource, boolean collection, Set<String> fields, boolean expanded) {
+        this.resource = resource;
+        this.collection = collection;
+        this.fields = fields;
+        this.expanded = expanded;
+    }
+
+    /**
+     * Parses the parameters of a request
+     *
+     * @param resource   the resource requested
+     * @param collection whether the response is a list or search result
+     *                   rather than a single entity
+     * @param fields     the {@code fields} parameter, or null to return every property
+     * @param expand     the {@code expand} parameter, or null
+     * @return the selection
+     * @throws IllegalArgumentException if a field or relation is unknown, or
+     *                                  a long text is selected for a list
+     */
+    public static FieldSelection parse(Resource resource, boolean collection, String fields, String expand) {
+        Set<String> selected = null;
+        if (fields != null) {
+            selected = split(fields);
+            if (selected.isEmpty()) {
+                throw new IllegalArgumentException("fields must name at least one field.");
+            }
+            List<String> unknown = selected.stream().filter(field -> !resource.fields.contains(field)).toList();
+            if (!unknown.isEmpty()) {
+                throw new IllegalArgumentException("Unknown fields " + unknown + "; available: "
+                        + resource.fields.stream().sorted().collect(Collectors.joining(", ")) + ".");
+            }
+            if (collection && selected.contains(resource.lobField)) {
+                throw new IllegalArgumentException(resource.lobField + " is not returned by lists and searches; read it from "
+                        + "/" + resource.name().toLowerCase(Locale.ROOT) + "/{id}/" + resource.lobField + ".");
+            }
+        }
+
+        boolean expanded;
+        if (expand != null) {
+            Set<String> relations = split(expand);
+            expanded = relations.remove(resource.relation);
+            if (!relations.isEmpty()) {
+                throw new IllegalArgumentException("Unknown expand " + relations + "; available: "
+                        + resource.relation + ".");
+            }
+        } else {
+            expanded = selected == null || selected.contains(resource.embeddedField);
+        }
+        return new FieldSelection(resource, collection, selected, expanded);
+    }
+
+    /**
+     * Whether the related entities must be read
+     *
+     * @return true if they are embedded in the response
+     */
+    public boolean includesRelated() {
+        return expanded;
+    }
+
+    /**
+     * Whether the CLOB columns must be read
+     *
+     * @return true if a CLOB-backed property is returned
+     */
+    public boolean includesLobs() {
+        return resource.lobField != null && !collection && (fields == null || fields.contains(resource.lobField));
+    }
+
+    /**
+     * Removes the properties that were not asked for from a response body:
+     * a single entity, a list of them or a multi-get result
+     *
+     * @param body the body as a JSON tree; changed in place
+     * @return the body
+     */
+    public JsonNode apply(JsonNode body) {
+        Set<String> kept = new LinkedHashSet<>(fields != null ? fields : resource.fields);
+        if (expanded) {
+            kept.add(resource.embeddedField);
+        } else {
+            kept.remove(resource.embeddedField);
+        }
+        if (collection) {
+            kept.remove(resource.lobField);
+        }
+
+        JsonNode items = body.isArray() ? body : body.path("items");
+        if (items.isArray()) {
+            items.forEach(item -> retain(item, kept));
+        } else {
+            retain(body, kept);
+        }
+        return body;
+    }
+
+    private void retain(JsonNode node, Set<String> kept) {
+        if (node instanceof ObjectNode object) {
+            object.retain(kept);
+            if (collection) {
+                object.path(resource.embeddedField).forEach(embedded -> {
+                    if (embedded instanceof ObjectNode embeddedObject) {
+                        embeddedObject.remove(resource.embeddedLobField);
+                    }
+                });
+            }
+        }
+    }
+
+    private static Set<String> split(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(part -> !part.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+}
@@ -0,0 +1,48 @@
+package com.books.api.controller;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Trims book and author responses to the fields the client asked for.
+ * The selection is parsed by the field selection filter, which also tells
+ * the repositories to skip the reads it makes unnecessary.
+ *
+ * @author books-authors-api
+ */
+@RestControllerAdvice(assignableTypes = { BookController.class, AuthorController.class })
+@RequiredArgsConstructor
+public class FieldSelectionAdvice implements ResponseBodyAdvice<Object> {
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+            ServerHttpResponse response) {
+        if (body == null || !(request instanceof ServletServerHttpRequest servletRequest)) {
+            return body;
+        }
+        Object selection = servletRequest.getServletRequest().getAttribute(FieldSelection.ATTRIBUTE);
+        if (!(selection instanceof FieldSelection fieldSelection)) {
+            return body;
+        }
+        return fieldSelection.apply(objectMapper.valueToTree(body));
+    }
+}
@@ -0,0 +1,100 @@
+package com.books.api.controller;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.books.api.service.IpAccessService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * REST controller for managing the client IP access rules and bans.
+ *
+ * @author books-authors-api
+ */
+@RestController
+@RequestMapping("/api/ip-access")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "IP Access", description = "Endpoints for managing IP allow/deny rules and bans")
+public class IpAccessController {
+
+    private final IpAccessService ipAccessService;
+
+    /**
+     * Reloads the CIDR rules from the configuration and the rules file
+     *
+     * @return the number of ranges loaded, or 400 if a rule is invalid
+     * @throws IOException if the rules file cannot be read
+     */
+    @PostMapping("/reload")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Reload IP access rules", description = "Rebuilds the allow/deny ranges; the previous rules stay active if a rule is invalid")
+    public ResponseEntity<Map<String, Object>> reload() throws IOException {
+        try {
+            return ResponseEntity.ok(Map.of("ranges", ipAccessService.reload()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Lists the active bans
+     *
+     * @return client IP to end of ban
+     */
+    @GetMapping("/bans")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "List banned clients", description = "Returns the temporarily banned client IPs and when their bans end")
+    public ResponseEntity<Map<String, Instant>> getBans() {
+        return ResponseEntity.ok(ipAccessService.getBans());
+    }
+
+    /**
+     * Bans a client manually
+     *
+     * @param ip      the client IP
+     * @param minutes duration of the ban
+     * @return 204 once banned
+     */
+    @PostMapping("/bans/{ip}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Ban a client", description = "Rejects all requests of the client IP for the given duration")
+    public ResponseEntity<Void> ban(
+            @Parameter(description = "Client IP") @PathVariable String ip,
+            @Parameter(description = "Duration of the ban in minutes") @RequestParam(defaultValue = "10") long minutes) {
+        ipAccessService.ban(ip, Duration.ofMinutes(minutes));
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Lifts the ban of a client
+     *
+     * @param ip the client IP
+     * @return 204 if the client was banned, 404 otherwise
+     */
+    @DeleteMapping("/bans/{ip}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Lift a ban", description = "Allows a banned client IP again")
+    public ResponseEntity<Void> unban(@Parameter(description = "Client IP") @PathVariable String ip) {
+        return ipAccessService.unban(ip)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+}
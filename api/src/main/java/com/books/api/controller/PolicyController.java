@@ -0,0 +1,48 @@
+package com.books.api.controller;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.books.api.service.PolicyReloadService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST controller for reloading the rate limit and audit policies at
+ * runtime.
+ *
+ * @author books-authors-api
+ */
+@RestController
+@RequestMapping("/api/policies")
+@RequiredArgsConstructor
+@Tag(name = "Policies", description = "Endpoints for reloading rate limit and audit policies")
+public class PolicyController {
+
+    private final PolicyReloadService policyReloadService;
+
+    /**
+     * Reloads the policies from the policy file
+     *
+     * @return the sections applied, or 400 if the file is missing or invalid
+     * @throws IOException if the policy file cannot be read
+     */
+    @PostMapping("/reload")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Reload policies", description = "Applies the rate limit and audit settings of the policy file; the current policies stay active if any setting is invalid")
+    public ResponseEntity<Map<String, Object>> reload() throws IOException {
+        try {
+            return ResponseEntity.ok(Map.of("applied", policyReloadService.reload()));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.books.api.controller;
+
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.books.api.service.QuotaService;
+import com.books.api.service.quota.QuotaStatus;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST controller for inspecting per-client quota usage.
+ *
+ * @author books-authors-api
+ */
+@RestController
+@RequestMapping("/api/quotas")
+@RequiredArgsConstructor
+@Tag(name = "Quotas", description = "Endpoints for inspecting daily and monthly client quotas")
+public class QuotaController {
+
+    private final QuotaService quotaService;
+
+    /**
+     * Lists the quota usage of all clients with requests in their current
+     * period
+     *
+     * @return client key to quota status
+     */
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "List quota usage", description = "Returns the usage of every client with requests in its current quota period")
+    public ResponseEntity<Map<String, QuotaStatus>> getUsage() {
+        return ResponseEntity.ok(quotaService.getUsage());
+    }
+
+    /**
+     * Returns the quota usage of one client
+     *
+     * @param client the client key, e.g. "user:partner-a" or "ip:10.0.0.1"
+     * @return the quota status, or 404 if the client has no quota
+     */
+    @GetMapping("/{client}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get quota usage of a client", description = "Returns the limit, usage and reset time of the client's current quota period")
+    public ResponseEntity<QuotaStatus> getStatus(
+            @Parameter(description = "Client key, e.g. user:partner-a or ip:10.0.0.1") @PathVariable String client) {
+        QuotaStatus status = quotaService.getStatus(client);
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+}
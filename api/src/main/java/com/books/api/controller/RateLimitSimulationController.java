@@ -0,0 +1,64 @@
+package com.books.api.controller;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.books.api.config.RateLimitingConfig;
+import com.books.api.service.RateLimitSimulationService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST controller for evaluating rate limit configurations against recorded
+ * traffic.
+ *
+ * @author books-authors-api
+ */
+@RestController
+@RequestMapping("/api/rate-limits")
+@RequiredArgsConstructor
+@Tag(name = "Rate Limits", description = "Endpoints for simulating rate limit configurations")
+public class RateLimitSimulationController {
+
+    private final RateLimitSimulationService rateLimitSimulationService;
+
+    /**
+     * Replays the audit traffic of a time range through a candidate
+     * configuration
+     *
+     * @param candidate the candidate rate limit settings
+     * @param startTime the start of the replayed range
+     * @param endTime   the end of the replayed range
+     * @param top       the number of clients and endpoints to list
+     * @return the simulation report, or 400 if the candidate is invalid
+     */
+    @PostMapping("/simulations")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Simulate a rate limit configuration", description = "Reports how many recorded requests the candidate configuration would have rejected, per client and endpoint, and the peak admitted load")
+    public ResponseEntity<Object> simulate(
+            @RequestBody RateLimitingConfig candidate,
+
+            @Parameter(description = "Start of the replayed range (ISO format)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+
+            @Parameter(description = "End of the replayed range (ISO format)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+
+            @Parameter(description = "Number of clients and endpoints to list") @RequestParam(defaultValue = "20") int top) {
+        try {
+            return ResponseEntity.ok(rateLimitSimulationService.simulate(candidate, startTime, endTime, top));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.books.api.controller;
+
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.books.domain.model.TextChunk;
+
+/**
+ * Builds streamed plain-text responses for long texts stored as CLOBs, with
+ * support for range requests.
+ * <p>
+ * Ranges count characters, with the {@code chars} unit, e.g.
+ * {@code Range: chars=0-9999}: the texts are read by character, and the byte
+ * offset of a character in the UTF-8 response cannot be known without
+ * reading everything before it. Range headers with other units, several
+ * ranges or invalid syntax are ignored and the whole text is returned.
+ * <p>
+ * The text is read and written in chunks, so neither the API nor the client
+ * holds more than one chunk of it.
+ *
+ * @author books-authors-api
+ */
+final class TextRangeResponse {
+
+    /**
+     * Characters read per database call; the procedures accept up to 8000
+     */
+    static final int CHUNK_CHARACTERS = 8000;
+
+    static final String RANGE_UNIT = "chars";
+
+    private static final Pattern RANGE = Pattern.compile("^" + RANGE_UNIT + "=(\\d{0,18})-(\\d{0,18})$");
+
+    private static final MediaType TEXT_PLAIN_UTF8 = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+
+    private TextRangeResponse() {
+    }
+
+    /**
+     * Reads part of a text
+     */
+    @FunctionalInterface
+    interface TextReader {
+
+        /**
+         * @param offset the 0-based offset of the first character
+         * @param length the maximum number of characters
+         * @return the characters read and the length of the text, or empty if
+         *         its entity does not exist
+         */
+        Optional<TextChunk> read(long offset, int length);
+    }
+
+    /**
+     * Answers a request for a text
+     *
+     * @param range  the Range header, or null
+     * @param reader reads the text
+     * @return 404 if the entity does not exist, 416 if the range starts past
+     *         the end of the text, 206 with the range, or 200 with the whole
+     *         text
+     */
+    static ResponseEntity<StreamingResponseBody> of(String range, TextReader reader) {
+        Optional<TextChunk> head = reader.read(0, 0);
+        if (head.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        long length = head.get().length();
+
+        Matcher matcher = range != null ? RANGE.matcher(range.trim()) : null;
+        if (matcher == null || !matcher.matches()) {
+            return whole(reader, length);
+        }
+        String first = matcher.group(1);
+        String last = matcher.group(2);
+
+        long start;
+        long end;
+        if (first.isEmpty()) {
+            if (last.isEmpty()) {
+                return whole(reader, length);
+            }
+            // Suffix range: the last N characters
+            start = Math.max(0, length - Long.parseLong(last));
+            end = length - 1;
+        } else {
+            start = Long.parseLong(first);
+            end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+            if (end < start) {
+                // Invalid, so ignored
+                return whole(reader, length);
+            }
+            end = Math.min(end, length - 1);
+        }
+        if (start >= length) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.ACCEPT_RANGES, RANGE_UNIT)
+                    .header(HttpHeaders.CONTENT_RANGE, RANGE_UNIT + " */" + length)
+                    .build();
+        }
+        return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                .header(HttpHeaders.ACCEPT_RANGES, RANGE_UNIT)
+                .header(HttpHeaders.CONTENT_RANGE, RANGE_UNIT + " " + start + "-" + end + "/" + length)
+                .contentType(TEXT_PLAIN_UTF8)
+                .body(body(reader, start, end));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> whole(TextReader reader, long length) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.ACCEPT_RANGES, RANGE_UNIT)
+                .contentType(TEXT_PLAIN_UTF8)
+                .body(body(reader, 0, length - 1));
+    }
+
+    /**
+     * Streams the characters from start to end, inclusive, one chunk at a time
+     */
+    private static StreamingResponseBody body(TextReader reader, long start, long end) {
+        return outputStream -> {
+            // One writer for all chunks, so that a surrogate pair split between chunks is encoded whole
+            Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+            long offset = start;
+            while (offset <= end) {
+                int amount = (int) Math.min(CHUNK_CHARACTERS, end - offset + 1);
+                String text = reader.read(offset, amount).map(TextChunk::text).orElse("");
+                if (text.isEmpty()) {
+                    // Deleted or shortened while streaming
+                    break;
+                }
+                writer.write(text);
+                writer.flush();
+                offset += text.length();
+            }
+            writer.flush();
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package com.books.api.controller;
+
+import java.io.IOException;
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.books.api.dto.TokenRevocationDTO;
+import com.books.api.security.JwtPrincipal;
+import com.books.api.service.TokenRevocationService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * REST controller for revoking JWT tokens before they expire.
+ *
+ * @author books-authors-api
+ */
+@RestController
+@RequestMapping("/api/tokens")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Tokens", description = "Endpoints for revoking JWT tokens")
+public class TokenRevocationController {
+
+    private final TokenRevocationService tokenRevocationService;
+
+    @Value("${security.expiration}")
+    private long validityInMilliseconds;
+
+    /**
+     * Revokes any token by its ID
+     *
+     * @param tokenRevocationDTO the token to revoke
+     * @return 204 once the revocation is persisted
+     * @throws IOException if the revocation cannot be persisted
+     */
+    @PostMapping("/revocations")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Revoke a token", description = "Rejects the token with the given ID on every node until it expires")
+    @ApiResponse(responseCode = "204", description = "Token revoked")
+    public ResponseEntity<Void> revoke(@Valid @RequestBody TokenRevocationDTO tokenRevocationDTO) throws IOException {
+        Instant expiresAt = tokenRevocationDTO.getExpiresAt() != null
+                ? tokenRevocationDTO.getExpiresAt()
+                : Instant.now().plusMillis(validityInMilliseconds);
+        log.debug("REST request to revoke token {}", tokenRevocationDTO.getTokenId());
+        tokenRevocationService.revoke(tokenRevocationDTO.getTokenId(), expiresAt);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Revokes the token of the current request, e.g. on logout
+     *
+     * @param request the HTTP request
+     * @return 204 once the revocation is persisted, 400 if the request carries
+     *         no revocable token
+     * @throws IOException if the revocation cannot be persisted
+     */
+    @PostMapping("/revoke-current")
+    @Operation(summary = "Revoke the current token", description = "Rejects the bearer token of this request on every node until it expires")
+    @ApiResponse(responseCode = "204", description = "Token revoked")
+    @ApiResponse(responseCode = "400", description = "No verified token with an ID and expiration")
+    public ResponseEntity<Void> revokeCurrent(HttpServletRequest request) throws IOException {
+        JwtPrincipal principal = JwtPrincipal.current(request);
+        if (principal == null || principal.tokenId() == null || principal.expiresAt() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        tokenRevocationService.revoke(principal.tokenId(), principal.expiresAt());
+        return ResponseEntity.noContent().build();
+    }
+}
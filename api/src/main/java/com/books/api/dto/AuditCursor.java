@@ -0,0 +1,64 @@
+package com.books.api.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.books.domain.model.ApiAuditLog;
+
+/**
+ * Opaque keyset position in the audit log, ordered by (timestamp, id)
+ * descending. Encoded as URL-safe Base64 so clients can pass it back
+ * unchanged in the {@code cursor} query parameter.
+ *
+ * @param timestamp timestamp of the last returned entry
+ * @param id        id of the last returned entry
+ * @author books-authors-api
+ */
+public record AuditCursor(LocalDateTime timestamp, Long id) {
+
+    /**
+     * Creates the cursor pointing right after the given entry
+     *
+     * @param auditLog the last entry of a page
+     * @return the cursor for the next page
+     */
+    public static AuditCursor after(ApiAuditLog auditLog) {
+        return new AuditCursor(auditLog.getTimestamp(), auditLog.getId());
+    }
+
+    /**
+     * Encodes the cursor as an opaque token
+     *
+     * @return the encoded cursor
+     */
+    public String encode() {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor token produced by {@link #encode()}
+     *
+     * @param token the encoded cursor, may be null
+     * @return the decoded cursor, or null if no token was given
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static AuditCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid audit cursor");
+            }
+            return new AuditCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid audit cursor", e);
+        }
+    }
+}
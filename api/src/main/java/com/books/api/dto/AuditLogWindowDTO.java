@@ -0,0 +1,33 @@
+package com.books.api.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for a keyset-paginated window of audit logs.
+ * Unlike a Page, it carries no total count: clients follow
+ * {@code nextCursor} until {@code hasNext} is false.
+ *
+ * @author books-authors-api
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditLogWindowDTO {
+
+    @Builder.Default
+    private List<ApiAuditLogDTO> content = new ArrayList<>();
+
+    /**
+     * Cursor to request the next window, null when there are no more entries
+     */
+    private String nextCursor;
+
+    private boolean hasNext;
+}
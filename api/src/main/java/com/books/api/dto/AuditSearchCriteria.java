@@ -0,0 +1,69 @@
+package com.books.api.dto;
+
+import java.time.LocalDateTime;
+
+import com.books.domain.model.ApiAuditLog;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Filter criteria for searching API audit logs.
+ * Shared by the paged, keyset and export audit endpoints so that all of
+ * them apply exactly the same filtering rules.
+ *
+ * @author books-authors-api
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditSearchCriteria {
+
+    private String clientIp;
+    private String userId;
+
+    /**
+     * Endpoint path prefix (e.g. "/api/books" matches "/api/books/42")
+     */
+    private String endpoint;
+    private Integer statusCode;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+
+    /**
+     * Whether only requests that exceeded rate limits should be returned
+     */
+    private boolean rateLimitOnly;
+
+    /**
+     * Checks whether an audit log entry satisfies these criteria.
+     * Mirrors the database filter for sources that are not queried through JPA.
+     *
+     * @param auditLog the audit log entry
+     * @return true if the entry matches
+     */
+    public boolean matches(ApiAuditLog auditLog) {
+        if (clientIp != null && !clientIp.equals(auditLog.getClientIp())) {
+            return false;
+        }
+        if (userId != null && !userId.equals(auditLog.getUserId())) {
+            return false;
+        }
+        if (endpoint != null && (auditLog.getEndpoint() == null || !auditLog.getEndpoint().startsWith(endpoint))) {
+            return false;
+        }
+        if (statusCode != null && !statusCode.equals(auditLog.getStatusCode())) {
+            return false;
+        }
+        if (startTime != null && auditLog.getTimestamp().isBefore(startTime)) {
+            return false;
+        }
+        if (endTime != null && auditLog.getTimestamp().isAfter(endTime)) {
+            return false;
+        }
+        return !rateLimitOnly || Boolean.TRUE.equals(auditLog.getRateLimitExceeded());
+    }
+}
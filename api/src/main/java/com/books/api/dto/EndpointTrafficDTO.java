@@ -0,0 +1,25 @@
+package com.books.api.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for the request volume of an endpoint in the current
+ * counting interval.
+ *
+ * @author books-authors-api
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EndpointTrafficDTO {
+
+    private String endpoint;
+    private LocalDateTime intervalStart;
+    private long requests;
+}
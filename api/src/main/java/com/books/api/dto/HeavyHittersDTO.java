@@ -0,0 +1,43 @@
+package com.books.api.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for the heaviest clients of an endpoint in a
+ * counting interval. Counts are estimates that never undercount and
+ * overcount by at most {@code maxError}.
+ *
+ * @author books-authors-api
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HeavyHittersDTO {
+
+    private String endpoint;
+    private LocalDateTime intervalStart;
+    private long totalRequests;
+    private long maxError;
+
+    @Builder.Default
+    private List<ClientCount> clients = new ArrayList<>();
+
+    /**
+     * Estimated request count of a single client
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ClientCount {
+        private String client;
+        private long estimatedRequests;
+    }
+}
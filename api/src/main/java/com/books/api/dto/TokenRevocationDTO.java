@@ -0,0 +1,32 @@
+package com.books.api.dto;
+
+import java.time.Instant;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for revoking a token before it expires.
+ *
+ * @author books-authors-api
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRevocationDTO {
+
+    /**
+     * The {@code jti} claim of the token
+     */
+    @NotBlank(message = "Token ID is required")
+    private String tokenId;
+
+    /**
+     * Expiration of the token; defaults to the longest possible token lifetime
+     */
+    private Instant expiresAt;
+}
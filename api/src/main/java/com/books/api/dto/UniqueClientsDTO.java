@@ -0,0 +1,31 @@
+package com.books.api.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for the estimated number of distinct clients of an
+ * endpoint over a time range.
+ *
+ * @author books-authors-api
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UniqueClientsDTO {
+
+    private String endpoint;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private long estimatedUniqueClients;
+
+    /**
+     * Relative standard error of the estimate
+     */
+    private double standardError;
+}
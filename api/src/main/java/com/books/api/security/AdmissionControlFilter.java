@@ -0,0 +1,99 @@
+package com.books.api.security;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.books.api.config.AdmissionConfig;
+import com.books.api.service.admission.AdmissionScheduler;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Filter that admits requests to the controllers through an
+ * {@link AdmissionScheduler}, so that concurrent execution is shared fairly
+ * between clients. Runs after the security chain: rejected and rate-limited
+ * requests never take a queue slot, and authenticated clients are keyed by
+ * their token subject instead of their IP. Requests that wait longer than
+ * the configured maximum are answered with 503.
+ *
+ * @author books-authors-api
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 10) // Right after the Spring Security chain
+@Slf4j
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final AdmissionConfig admissionConfig;
+    private final AdmissionScheduler scheduler;
+
+    public AdmissionControlFilter(AdmissionConfig admissionConfig) {
+        this.admissionConfig = admissionConfig;
+        this.scheduler = new AdmissionScheduler(admissionConfig.getMaxConcurrent());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!admissionConfig.isEnabled()) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String pattern : admissionConfig.getPaths()) {
+            if (PATH_MATCHER.match(pattern, path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String client = RequestEnvelope.resolveClientKey(request);
+        int weight = admissionConfig.getWeights().getOrDefault(client, admissionConfig.getDefaultWeight());
+
+        boolean admitted;
+        try {
+            admitted = scheduler.acquire(client, weight, admissionConfig.getMaxQueueWaitMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+
+        if (!admitted) {
+            log.warn("Admission queue wait exceeded for client {}", client);
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            response.getWriter().write("Server busy. Please try again later.");
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            scheduler.release();
+        }
+    }
+
+    /**
+     * Number of requests currently waiting for admission
+     *
+     * @return the queued request count
+     */
+    public int getQueuedRequests() {
+        return scheduler.queuedRequests();
+    }
+}
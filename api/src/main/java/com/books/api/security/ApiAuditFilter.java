@@ -6,10 +6,11 @@ import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import org.springframework.web.util.ContentCachingRequestWrapper;
-import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.servlet.HandlerMapping;
 
+import com.books.api.config.ApiAuditConfig;
 import com.books.api.service.ApiAuditService;
+import com.books.api.service.TrafficSketchService;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -33,50 +34,69 @@ import lombok.extern.slf4j.Slf4j;
 public class ApiAuditFilter extends OncePerRequestFilter {
 
     private final ApiAuditService apiAuditService;
+    private final ApiAuditConfig apiAuditConfig;
+    private final TrafficSketchService trafficSketchService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
-        // Wrap request and response to cache their content
-        ContentCachingRequestWrapper requestWrapper = new ContentCachingRequestWrapper(request);
-        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
-
-        long startTime = System.currentTimeMillis();
-        boolean rateLimitExceeded = false;
+        // Reuse the envelope opened at the front of the chain; only wrap here
+        // when this filter runs on its own. Streamed responses are left
+        // untouched so they are not buffered in memory.
+        RequestEnvelope envelope = RequestEnvelope.current(request);
+        boolean owner = envelope == null;
+        if (owner) {
+            envelope = RequestEnvelope.open(request, response,
+                    !apiAuditConfig.isStreamingPath(request.getRequestURI()));
+        }
 
         try {
             // Continue with the filter chain
-            filterChain.doFilter(requestWrapper, responseWrapper);
+            filterChain.doFilter(envelope.getRequest(), envelope.getResponse());
         } catch (Exception e) {
             // Capture any exceptions that occur during processing
             log.error("Exception during request processing", e);
             throw e;
         } finally {
             // Calculate request processing time
-            long executionTime = System.currentTimeMillis() - startTime;
+            long executionTime = envelope.elapsedMillis();
 
-            // Check if rate limit was exceeded (based on response status)
-            if (response.getStatus() == 429) { // 429 Too Many Requests
-                rateLimitExceeded = true;
-            }
+            // Check if rate limit was exceeded (flagged by the rate limiter or
+            // based on response status)
+            boolean rateLimitExceeded = envelope.isRateLimitExceeded()
+                    || envelope.getResponse().getStatus() == 429; // 429 Too Many Requests
 
             // Create audit log entry
-            apiAuditService.createAuditLog(requestWrapper, responseWrapper, executionTime, rateLimitExceeded);
+            apiAuditService.createAuditLog(envelope.getRequest(), envelope.getResponse(), executionTime,
+                    rateLimitExceeded);
+
+            // Update the traffic sketches, keyed by the matched handler pattern
+            // so that path variables do not multiply the tracked endpoints
+            trafficSketchService.record(endpointPattern(request), envelope.getClientIp());
 
             // Copy content back to the original response
-            responseWrapper.copyBodyToResponse();
+            if (owner) {
+                envelope.close();
+            }
         }
     }
 
+    /**
+     * Returns the handler pattern that matched the request
+     *
+     * @param request the HTTP request
+     * @return the pattern, or "UNMATCHED" if no handler matched
+     */
+    private String endpointPattern(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern instanceof String value ? value : "UNMATCHED";
+    }
+
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
-        String path = request.getRequestURI();
-
-        // Skip auditing for specific paths like health checks or static resources
-        return path.contains("/actuator/health") ||
-                path.contains("/swagger-ui") ||
-                path.contains("/v3/api-docs") ||
-                path.contains("/favicon.ico");
+        // Skip auditing when it is disabled and for the excluded paths, like
+        // health checks or static resources
+        return !apiAuditConfig.audits(request.getRequestURI());
     }
 }
\ No newline at end of file
@@ -0,0 +1,476 @@
+package com.books.api.security;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.books.api.controller.FieldSelection;
+import com.books.application.service.AuthorService;
+import com.books.application.service.BookService;
+import com.books.domain.model.RowVersion;
+import com.books.infrastructure.cache.ReadFreshness;
+import com.books.infrastructure.cache.ResponseCache;
+import com.books.infrastructure.cache.ResponseCache.CachedResponse;
+import com.books.infrastructure.repository.WriteCondition;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Filter that answers conditional requests for books and authors from their
+ * row versions, without reading them.
+ * <p>
+ * {@code GET /books/{id}}, {@code GET /authors/{id}} and the pages of
+ * {@code GET /books} and {@code GET /authors} carry a strong {@code ETag}
+ * derived from the versions of the rows returned, and the entities a
+ * {@code Last-Modified} date. A request whose {@code If-None-Match}, or else
+ * {@code If-Modified-Since}, still holds is answered with 304 after a
+ * version lookup, which reads the cached entity or page when there is one
+ * and otherwise a single row, or a page of rows, without joins or CLOBs.
+ * Pages have no {@code Last-Modified}: removing a row from a page changes it
+ * without making it newer.
+ * <p>
+ * Successful reads are also kept serialized in the {@link ResponseCache},
+ * under their tag. A later request for the same URL whose tag is still the
+ * same gets the stored bytes, gzipped if it accepts gzip, without running
+ * the controller, the mapping or the JSON serialization. A response is only
+ * stored if the tag is unchanged after it was written, so that a write
+ * committed during the read does not leave a body older than its tag.
+ * <p>
+ * {@code PUT} requests with {@code If-Match} are answered with 412 unless the
+ * entity is still at the version of one of the tags. The update then reads
+ * the entity from the primary database and only applies if both the entity
+ * it read and the row it writes are at that version, so that a write
+ * committed in between is not overwritten either.
+ *
+ * @author books-authors-api
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 25) // Inside the field selection filter, whose projection picks the cached data
+public class ConditionalRequestFilter extends OncePerRequestFilter {
+
+    private static final Pattern ENTITY_PATH = Pattern.compile("/(\\d{1,18})");
+
+    private static final String PAGE_PARAMETER = "page";
+    private static final String SIZE_PARAMETER = "size";
+    private static final String IDS_PARAMETER = "ids";
+    private static final int DEFAULT_PAGE = 1;
+    private static final int DEFAULT_SIZE = 10;
+    private static final String GZIP = "gzip";
+
+    private final String booksPath;
+    private final String authorsPath;
+    private final BookService bookService;
+    private final AuthorService authorService;
+    private final ResponseCache responseCache;
+
+    public ConditionalRequestFilter(@Value("${CONTEXT_PATH}") String contextPath, BookService bookService,
+            AuthorService authorService, ResponseCache responseCache) {
+        this.booksPath = contextPath + "/books";
+        this.authorsPath = contextPath + "/authors";
+        this.bookService = bookService;
+        this.authorService = authorService;
+        this.responseCache = responseCache;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        Target target = target(request);
+        if (target == null) {
+            return true;
+        }
+        if ("PUT".equals(request.getMethod())) {
+            return target.id() == null || request.getHeader(HttpHeaders.IF_MATCH) == null;
+        }
+        return !"GET".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        Target target = target(request);
+        if ("PUT".equals(request.getMethod())) {
+            conditionalUpdate(target, request, response, filterChain);
+            return;
+        }
+
+        Validators current = validators(target, request);
+        if (current != null && notModified(request, current)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            current.applyTo(response);
+            return;
+        }
+        ValidatorHeaderResponse wrapped = new ValidatorHeaderResponse(response, current);
+        if (current == null || !responseCache.isEnabled()) {
+            filterChain.doFilter(request, wrapped);
+            wrapped.applyHeaders();
+            return;
+        }
+
+        if (responseCache.isGzip()) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        String key = cacheKey(request);
+        CachedResponse cached = responseCache.get(key, current.etag());
+        if (cached != null) {
+            writeCached(cached, request, wrapped);
+            return;
+        }
+        ContentCachingResponseWrapper capturing = new ContentCachingResponseWrapper(wrapped);
+        filterChain.doFilter(request, capturing);
+        store(key, current, target, request, capturing);
+        capturing.copyBodyToResponse();
+        wrapped.applyHeaders();
+    }
+
+    private static String cacheKey(HttpServletRequest request) {
+        String query = request.getQueryString();
+        return query != null ? request.getRequestURI() + "?" + query : request.getRequestURI();
+    }
+
+    /**
+     * Writes a cached body as it was stored, gzipped when the client accepts it
+     */
+    private static void writeCached(CachedResponse cached, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        boolean compressed = cached.gzippedBody() != null && acceptsGzip(request);
+        byte[] body = compressed ? cached.gzippedBody() : cached.body();
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(cached.contentType());
+        if (compressed) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Caches a successful response if the rows it was written from have not
+     * changed since its tag was computed
+     */
+    private void store(String key, Validators current, Target target, HttpServletRequest request,
+            ContentCachingResponseWrapper written) {
+        if (written.getStatus() != HttpStatus.OK.value() || written.getContentType() == null
+                || written.getHeader(HttpHeaders.CONTENT_ENCODING) != null
+                || !responseCache.accepts(written.getContentSize())) {
+            return;
+        }
+        Validators after = validators(target, request);
+        if (after != null && after.etag().equals(current.etag())) {
+            responseCache.put(key, current.etag(), written.getContentType(), written.getContentAsByteArray());
+        }
+    }
+
+    /**
+     * Whether {@code Accept-Encoding} lists gzip, or any encoding, without
+     * refusing it with {@code q=0}
+     */
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String candidate : acceptEncoding.split(",")) {
+            String[] parts = candidate.split(";");
+            String coding = parts[0].trim();
+            if (!coding.equalsIgnoreCase(GZIP) && !coding.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim().toLowerCase(Locale.ROOT);
+                if (parameter.startsWith("q=")) {
+                    refused = parameter.substring(2).trim().matches("0(\\.0{0,3})?");
+                }
+            }
+            if (!refused) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runs an update only if the entity is at a version of the
+     * {@code If-Match} header, checked against the primary database
+     */
+    private void conditionalUpdate(Target target, HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        Optional<RowVersion> current;
+        // Read the primary database rather than the caches
+        ReadFreshness.begin(0);
+        try {
+            current = version(target);
+        } finally {
+            ReadFreshness.end();
+        }
+        if (current.isEmpty() || !matches(request.getHeader(HttpHeaders.IF_MATCH),
+                entityTag(current.get().version(), ""), false)) {
+            preconditionFailed(target, response);
+            return;
+        }
+
+        WriteCondition.expectVersion(current.get().version());
+        try {
+            filterChain.doFilter(request, response);
+        } catch (ServletException | RuntimeException e) {
+            if (!isVersionMismatch(e) || response.isCommitted()) {
+                throw e;
+            }
+            // Written by someone else since the check
+            response.resetBuffer();
+            preconditionFailed(target, response);
+        } finally {
+            WriteCondition.clear();
+        }
+    }
+
+    private static void preconditionFailed(Target target, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.PRECONDITION_FAILED.value());
+        response.getWriter().write("The " + target.resource() + " has changed since it was read, "
+                + "or does not exist; read it again before updating it.");
+    }
+
+    private static boolean isVersionMismatch(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof WriteCondition.VersionMismatchException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Computes the validators of the response to a read, from the versions
+     * of the rows it returns
+     *
+     * @return the validators, or null if they cannot be known
+     */
+    private Validators validators(Target target, HttpServletRequest request) {
+        String selection = selectionSuffix(request);
+        if (target.id() != null) {
+            return version(target)
+                    .map(version -> new Validators(entityTag(version.version(), selection), version.updatedAt()))
+                    .orElse(null);
+        }
+
+        int page;
+        int size;
+        try {
+            page = intParameter(request, PAGE_PARAMETER, DEFAULT_PAGE);
+            size = intParameter(request, SIZE_PARAMETER, DEFAULT_SIZE);
+        } catch (NumberFormatException e) {
+            // Rejected by the controller
+            return null;
+        }
+        List<RowVersion> versions = target.resource() == Resource.BOOK
+                ? bookService.findBookPageVersions(page, size)
+                : authorService.findAuthorPageVersions(page, size);
+        StringBuilder rows = new StringBuilder();
+        versions.forEach(version -> rows.append(version.id()).append(':').append(version.version()).append(';'));
+        return new Validators("\"p" + digest(rows.toString(), 16) + selection + "\"", null);
+    }
+
+    private Optional<RowVersion> version(Target target) {
+        return target.resource() == Resource.BOOK
+                ? bookService.findBookVersion(target.id())
+                : authorService.findAuthorVersion(target.id());
+    }
+
+    private static String entityTag(long version, String selection) {
+        return "\"v" + version + selection + "\"";
+    }
+
+    /**
+     * Tells apart the tags of the same rows returned with different
+     * {@code fields} and {@code expand} parameters, whose bodies differ
+     */
+    private static String selectionSuffix(HttpServletRequest request) {
+        String fields = request.getParameter(FieldSelection.FIELDS_PARAMETER);
+        String expand = request.getParameter(FieldSelection.EXPAND_PARAMETER);
+        if (fields == null && expand == null) {
+            return "";
+        }
+        return "-" + digest(fields + "\n" + expand, 8);
+    }
+
+    private static String digest(String value, int bytes) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(Arrays.copyOf(hash, bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static int intParameter(HttpServletRequest request, String name, int defaultValue) {
+        String value = request.getParameter(name);
+        return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+    }
+
+    /**
+     * Whether the client's copy is current: {@code If-None-Match} if sent,
+     * and otherwise {@code If-Modified-Since}
+     */
+    private static boolean notModified(HttpServletRequest request, Validators current) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return matches(ifNoneMatch, current.etag(), true);
+        }
+        if (current.lastModified() == null) {
+            return false;
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            // Invalid dates are ignored
+            return false;
+        }
+        return ifModifiedSince >= 0
+                && current.lastModified().truncatedTo(ChronoUnit.SECONDS).toEpochMilli() <= ifModifiedSince;
+    }
+
+    /**
+     * Matches an {@code If-None-Match} or {@code If-Match} header against a
+     * tag. {@code If-None-Match} compares weakly, ignoring {@code W/}
+     * prefixes; {@code If-Match} requires identical strong tags.
+     */
+    private static boolean matches(String header, String etag, boolean weak) {
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (weak && tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the book or author a request is about
+     *
+     * @return the target, or null for searches, multi-gets and other endpoints
+     */
+    private Target target(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith(booksPath)) {
+            return target(Resource.BOOK, path.substring(booksPath.length()), request);
+        }
+        if (path.startsWith(authorsPath)) {
+            return target(Resource.AUTHOR, path.substring(authorsPath.length()), request);
+        }
+        return null;
+    }
+
+    private static Target target(Resource resource, String subPath, HttpServletRequest request) {
+        if (subPath.isEmpty()) {
+            return request.getParameter(IDS_PARAMETER) == null ? new Target(resource, null) : null;
+        }
+        Matcher entity = ENTITY_PATH.matcher(subPath);
+        return entity.matches() ? new Target(resource, Long.valueOf(entity.group(1))) : null;
+    }
+
+    private enum Resource {
+        BOOK, AUTHOR;
+
+        @Override
+        public String toString() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * A single entity, or a page if the ID is null
+     */
+    private record Target(Resource resource, Long id) {
+    }
+
+    /**
+     * The validators of a response
+     *
+     * @param etag         the strong entity tag, quoted
+     * @param lastModified the last write, or null for pages
+     */
+    private record Validators(String etag, Instant lastModified) {
+
+        void applyTo(HttpServletResponse response) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+            if (lastModified != null) {
+                response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified.toEpochMilli());
+            }
+        }
+    }
+
+    /**
+     * Adds the validators before the first byte of a successful body
+     */
+    private static final class ValidatorHeaderResponse extends HttpServletResponseWrapper {
+        private final Validators validators;
+        private boolean applied;
+
+        ValidatorHeaderResponse(HttpServletResponse response, Validators validators) {
+            super(response);
+            this.validators = validators;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            applyHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            applyHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            applyHeaders();
+            super.flushBuffer();
+        }
+
+        void applyHeaders() {
+            if (applied || isCommitted()) {
+                return;
+            }
+            applied = true;
+            if (validators != null && getStatus() == HttpStatus.OK.value()) {
+                validators.applyTo(this);
+            }
+        }
+    }
+}
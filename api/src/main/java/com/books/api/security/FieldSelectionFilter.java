@@ -0,0 +1,110 @@
+package com.books.api.security;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.books.api.controller.FieldSelection;
+import com.books.infrastructure.repository.ReadProjection;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Filter that reads the {@code fields} and {@code expand} parameters of book
+ * and author reads.
+ * Unknown fields are rejected with 400. Otherwise the selection is handed to
+ * the repositories, which skip the join with the related entities and the
+ * CLOB columns when the response does not need them, and to the response
+ * advice, which trims the body to the selected fields. Lists and searches
+ * always pass through, so that their long texts are left out.
+ *
+ * @author books-authors-api
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 20) // Inside the freshness filter, right around the controllers
+public class FieldSelectionFilter extends OncePerRequestFilter {
+
+    private static final Pattern ENTITY_PATH = Pattern.compile("/\\d+");
+
+    private final String booksPath;
+    private final String authorsPath;
+
+    public FieldSelectionFilter(@Value("${CONTEXT_PATH}") String contextPath) {
+        this.booksPath = contextPath + "/books";
+        this.authorsPath = contextPath + "/authors";
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) {
+            return true;
+        }
+        Target target = target(request);
+        return target == null || (!target.collection()
+                && request.getParameter(FieldSelection.FIELDS_PARAMETER) == null
+                && request.getParameter(FieldSelection.EXPAND_PARAMETER) == null);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        Target target = target(request);
+        FieldSelection selection;
+        try {
+            selection = FieldSelection.parse(target.resource(), target.collection(),
+                    request.getParameter(FieldSelection.FIELDS_PARAMETER),
+                    request.getParameter(FieldSelection.EXPAND_PARAMETER));
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            response.getWriter().write(e.getMessage());
+            return;
+        }
+
+        request.setAttribute(FieldSelection.ATTRIBUTE, selection);
+        ReadProjection.set(selection.includesRelated(), selection.includesLobs());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadProjection.clear();
+        }
+    }
+
+    /**
+     * Finds the resource of a read, and whether it returns a list
+     *
+     * @return the target, or null for other endpoints such as the streamed texts
+     */
+    private Target target(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith(booksPath)) {
+            return target(FieldSelection.Resource.BOOKS, path.substring(booksPath.length()));
+        }
+        if (path.startsWith(authorsPath)) {
+            return target(FieldSelection.Resource.AUTHORS, path.substring(authorsPath.length()));
+        }
+        return null;
+    }
+
+    private static Target target(FieldSelection.Resource resource, String subPath) {
+        if (subPath.isEmpty() || subPath.startsWith("/search/")) {
+            return new Target(resource, true);
+        }
+        if (ENTITY_PATH.matcher(subPath).matches()) {
+            return new Target(resource, false);
+        }
+        return null;
+    }
+
+    private record Target(FieldSelection.Resource resource, boolean collection) {
+    }
+}
@@ -0,0 +1,273 @@
+package com.books.api.security;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.SignatureException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rotating keyring used to sign and verify HS512 tokens.
+ * Each rotation period has its own key, derived from the configured master
+ * secret and tagged with the period number as {@code kid}. Every node and
+ * every restart derives the same keys, so tokens stay valid across both.
+ * Tokens signed with the previous key are accepted during the overlap window
+ * after a rotation. Signing and verification reuse one initialized
+ * {@link Mac} per thread and key.
+ *
+ * @author books-authors-api
+ */
+@Component
+@Slf4j
+public class JwtKeyring {
+
+    static final String ALGORITHM = "HS512";
+    private static final String MAC_ALGORITHM = "HmacSHA512";
+    private static final String KEY_LABEL = "books-authors-api/jwt/";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKey masterKey;
+    private final long rotationMillis;
+    private final long overlapMillis;
+    private final Clock clock;
+    private final Map<Long, SigningKey> keys = new ConcurrentHashMap<>();
+
+    @Autowired
+    public JwtKeyring(@Value("${security.secret-key}") String secretKey,
+            @Value("${security.keyring.rotation-period:PT24H}") Duration rotationPeriod,
+            @Value("${security.keyring.overlap:PT1H}") Duration overlap) {
+        this(secretKey, rotationPeriod, overlap, Clock.systemUTC());
+    }
+
+    JwtKeyring(String secretKey, Duration rotationPeriod, Duration overlap, Clock clock) {
+        if (rotationPeriod.isNegative() || rotationPeriod.isZero() || overlap.compareTo(rotationPeriod) > 0) {
+            throw new IllegalArgumentException("Overlap must not exceed a positive rotation period");
+        }
+        this.masterKey = new SecretKeySpec(Decoders.BASE64.decode(secretKey), MAC_ALGORITHM);
+        this.rotationMillis = rotationPeriod.toMillis();
+        this.overlapMillis = overlap.toMillis();
+        this.clock = clock;
+        rotate();
+    }
+
+    /**
+     * Derives the key of the current period and retires keys that left the
+     * overlap window
+     */
+    @Scheduled(fixedDelayString = "${security.keyring.refresh-ms:60000}")
+    public void rotate() {
+        long now = clock.millis();
+        long current = Math.floorDiv(now, rotationMillis);
+        if (keys.putIfAbsent(current, new SigningKey(current, derive(current))) == null) {
+            log.info("JWT signing key rotated to kid {}", current);
+        }
+        keys.keySet().removeIf(epoch -> !isAccepted(epoch, now));
+    }
+
+    /**
+     * Signs the claims with the current key
+     *
+     * @param claims the token claims; dates must be in epoch seconds
+     * @return the compact token
+     */
+    public String sign(Map<String, Object> claims) {
+        SigningKey key = currentKey();
+        Map<String, Object> header = new LinkedHashMap<>();
+        header.put("alg", ALGORITHM);
+        header.put("typ", "JWT");
+        header.put("kid", key.kid());
+
+        String signingInput = encode(header) + "." + encode(claims);
+        return signingInput + "." + ENCODER.encodeToString(key.sign(signingInput));
+    }
+
+    /**
+     * Verifies the signature and expiration of a token
+     *
+     * @param token the compact token
+     * @return the verified claims
+     * @throws MalformedJwtException if the token cannot be parsed
+     * @throws SignatureException    if the key is unknown or retired or the
+     *                               signature does not match
+     * @throws ExpiredJwtException   if the token has expired
+     */
+    public Claims verify(String token) {
+        return verifyToken(token).claims();
+    }
+
+    /**
+     * Verifies a token like {@link #verify(String)} and tells until when its
+     * signing key is accepted, so that a verification cached for longer than
+     * the overlap window ends when the key is retired
+     *
+     * @param token the compact token
+     * @return the verified claims and the retirement time of their key
+     * @throws MalformedJwtException if the token cannot be parsed
+     * @throws SignatureException    if the key is unknown or retired or the
+     *                               signature does not match
+     * @throws ExpiredJwtException   if the token has expired
+     */
+    public VerifiedToken verifyToken(String token) {
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot <= 0 || lastDot == firstDot || lastDot == token.length() - 1) {
+            throw new MalformedJwtException("Token is not a signed JWT");
+        }
+
+        Map<String, Object> header = decode(token.substring(0, firstDot));
+        if (!ALGORITHM.equals(header.get("alg"))) {
+            throw new MalformedJwtException("Unsupported signature algorithm");
+        }
+        long epoch = epochOf(header.get("kid"));
+        SigningKey key = keyFor(epoch);
+
+        byte[] signature;
+        try {
+            signature = DECODER.decode(token.substring(lastDot + 1));
+        } catch (IllegalArgumentException e) {
+            throw new MalformedJwtException("Invalid signature encoding", e);
+        }
+        if (!MessageDigest.isEqual(signature, key.sign(token.substring(0, lastDot)))) {
+            throw new SignatureException("JWT signature does not match");
+        }
+
+        Claims claims = Jwts.claims(decode(token.substring(firstDot + 1, lastDot)));
+        Date expiration = claims.getExpiration();
+        if (expiration != null && expiration.getTime() <= clock.millis()) {
+            throw new ExpiredJwtException(null, claims, "JWT expired at " + expiration.toInstant());
+        }
+        // Accepted for the rest of its period and the overlap window of the next one
+        return new VerifiedToken(claims, Instant.ofEpochMilli((epoch + 1) * rotationMillis + overlapMillis));
+    }
+
+    /**
+     * Returns the key currently used for signing
+     *
+     * @return the signing key
+     */
+    public SecretKey currentSigningKey() {
+        return currentKey().secretKey();
+    }
+
+    private SigningKey currentKey() {
+        long current = Math.floorDiv(clock.millis(), rotationMillis);
+        return keys.computeIfAbsent(current, epoch -> new SigningKey(epoch, derive(epoch)));
+    }
+
+    private static long epochOf(Object kid) {
+        try {
+            return Long.parseLong(String.valueOf(kid));
+        } catch (NumberFormatException e) {
+            throw new SignatureException("Unknown signing key");
+        }
+    }
+
+    private SigningKey keyFor(long epoch) {
+        if (!isAccepted(epoch, clock.millis())) {
+            throw new SignatureException("Signing key " + epoch + " is not active");
+        }
+        return keys.computeIfAbsent(epoch, e -> new SigningKey(e, derive(e)));
+    }
+
+    /**
+     * The current key is always accepted; the previous one only until the
+     * overlap window after the rotation has passed
+     */
+    private boolean isAccepted(long epoch, long now) {
+        long current = Math.floorDiv(now, rotationMillis);
+        return epoch == current || (epoch == current - 1 && now - current * rotationMillis < overlapMillis);
+    }
+
+    private SecretKey derive(long epoch) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(masterKey);
+            byte[] material = mac.doFinal((KEY_LABEL + epoch).getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(material, MAC_ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot derive signing key", e);
+        }
+    }
+
+    private static String encode(Map<String, Object> json) {
+        try {
+            return ENCODER.encodeToString(OBJECT_MAPPER.writeValueAsBytes(json));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot serialize token", e);
+        }
+    }
+
+    private static Map<String, Object> decode(String part) {
+        try {
+            return OBJECT_MAPPER.readValue(DECODER.decode(part), MAP_TYPE);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new MalformedJwtException("Invalid token encoding", e);
+        }
+    }
+
+    /**
+     * Claims of a verified token
+     *
+     * @param claims       the verified claims
+     * @param keyRetiresAt when the key that signed the token stops being accepted
+     */
+    public record VerifiedToken(Claims claims, Instant keyRetiresAt) {
+    }
+
+    /**
+     * A derived key with its per-thread initialized Mac instances
+     */
+    private record SigningKey(String kid, SecretKey secretKey, ThreadLocal<Mac> macs) {
+
+        SigningKey(long epoch, SecretKey secretKey) {
+            this(Long.toString(epoch), secretKey, ThreadLocal.withInitial(() -> newMac(secretKey)));
+        }
+
+        byte[] sign(String signingInput) {
+            // doFinal resets the Mac, so the instance is ready for the next call
+            return macs.get().doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        private static Mac newMac(SecretKey secretKey) {
+            try {
+                Mac mac = Mac.getInstance(MAC_ALGORITHM);
+                mac.init(secretKey);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot initialize " + MAC_ALGORITHM, e);
+            }
+        }
+    }
+}
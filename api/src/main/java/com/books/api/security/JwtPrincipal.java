@@ -0,0 +1,71 @@
+package com.books.api.security;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Principal of a request carrying a verified JWT.
+ * Stored as a request attribute by {@link JwtTokenVerifier}, so that the rate
+ * limiter, the JWT filter and the audit service share a single verification.
+ * Instances are cached across requests and the claims must not be modified.
+ *
+ * @param subject     the token subject, null if the token has none
+ * @param claims      the verified claims
+ * @param tokenDigest hex SHA-256 digest of the raw token
+ * @param expiresAt   the token expiration, null if the token never expires
+ * @author books-authors-api
+ */
+public record JwtPrincipal(String subject, Claims claims, String tokenDigest, Instant expiresAt) {
+
+    /**
+     * Request attribute under which the principal is stored
+     */
+    public static final String ATTRIBUTE = JwtPrincipal.class.getName();
+
+    /**
+     * Claim listing the roles granted to the token, such as {@code ADMIN}
+     */
+    public static final String ROLES_CLAIM = "roles";
+
+    /**
+     * Returns the principal verified for the request, if any
+     *
+     * @param request the HTTP request
+     * @return the principal, or null if no token was verified
+     */
+    public static JwtPrincipal current(HttpServletRequest request) {
+        Object principal = request.getAttribute(ATTRIBUTE);
+        return principal instanceof JwtPrincipal jwtPrincipal ? jwtPrincipal : null;
+    }
+
+    /**
+     * Returns the {@code jti} claim of the token
+     *
+     * @return the token ID, or null if the token has none
+     */
+    public String tokenId() {
+        return claims != null ? claims.getId() : null;
+    }
+
+    /**
+     * Returns the authorities of the roles granted by the token
+     *
+     * @return the {@code ROLE_} authorities, empty if the token grants no roles
+     */
+    public Collection<GrantedAuthority> authorities() {
+        Object roles = claims != null ? claims.get(ROLES_CLAIM) : null;
+        if (!(roles instanceof Collection<?> names)) {
+            return List.of();
+        }
+        return names.stream()
+                .map(name -> (GrantedAuthority) new SimpleGrantedAuthority("ROLE_" + name))
+                .toList();
+    }
+}
@@ -5,34 +5,49 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 
 public class JwtTokenFilter extends OncePerRequestFilter {
 
-    private final String secretKey;
+    private final JwtTokenVerifier jwtTokenVerifier;
 
+    /**
+     * Creates a filter with its own token cache
+     *
+     * @param secretKey the base64 signing key
+     */
     public JwtTokenFilter(String secretKey) {
-        this.secretKey = secretKey;
+        this(new JwtTokenVerifier(secretKey, JwtTokenVerifier.DEFAULT_CACHE_SIZE));
+    }
+
+    /**
+     * Creates a filter sharing the verifier, and its cache, with the other
+     * filters
+     *
+     * @param jwtTokenVerifier the token verifier
+     */
+    public JwtTokenFilter(JwtTokenVerifier jwtTokenVerifier) {
+        this.jwtTokenVerifier = jwtTokenVerifier;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        String header = request.getHeader("Authorization");
+        String token = bearerToken(request);
 
-        if (header != null && header.startsWith("Bearer ")) {
-            String token = header.substring(7);
+        if (token != null) {
             try {
-                Claims claims = Jwts.parser()
-                        .setSigningKey(secretKey)
-                        .parseClaimsJws(token)
-                        .getBody();
-
-                // Set authentication from this point
-                // SecurityContextHolder.getContext().setAuthentication(...);
-            } catch (ExpiredJwtException | UnsupportedJwtException | MalformedJwtException | SignatureException e) {
+                // Verified once per token; the principal is bound to the request
+                JwtPrincipal principal = jwtTokenVerifier.verify(request, token);
+
+                // Authenticate the request with the roles the token grants
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(principal, null, principal.authorities()));
+            } catch (JwtException | IllegalArgumentException e) {
                 response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid JWT token");
                 return;
             }
@@ -40,4 +55,14 @@ public class JwtTokenFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private String bearerToken(HttpServletRequest request) {
+        // The envelope has already parsed the Authorization header
+        RequestEnvelope envelope = RequestEnvelope.current(request);
+        if (envelope != null) {
+            return envelope.getBearerToken();
+        }
+        String header = request.getHeader("Authorization");
+        return header != null && header.startsWith("Bearer ") ? header.substring(7) : null;
+    }
 }
\ No newline at end of file
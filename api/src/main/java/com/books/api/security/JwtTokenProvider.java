@@ -1,40 +1,58 @@
 package com.books.api.security;
 
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
-
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
-import java.util.Date;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @Component
 public class JwtTokenProvider {
 
-    private final SecretKey secretKey = Keys.secretKeyFor(SignatureAlgorithm.HS512);
+    private final JwtKeyring jwtKeyring;
 
     @Value("${security.expiration}")
     private long validityInMilliseconds; // 1 hour
 
+    public JwtTokenProvider(JwtKeyring jwtKeyring) {
+        this.jwtKeyring = jwtKeyring;
+    }
+
     /*
-     * Generate a JWT token and set its expiration time.
+     * Generate a JWT token, signed with the current key of the keyring, and
+     * set its expiration time.
      *
      * @return The generated JWT token.
      */
     public String createToken() {
-        Date now = new Date();
-        Date validity = new Date(now.getTime() + validityInMilliseconds);
-
-        return Jwts.builder()
-                .setIssuedAt(now)
-                .setExpiration(validity)
-                .signWith(secretKey)
-                .compact();
+        return createToken(List.of());
+    }
+
+    /*
+     * Generate a JWT token granting the given roles, such as ADMIN for the
+     * administration endpoints.
+     *
+     * @param roles The roles granted by the token.
+     * @return The generated JWT token.
+     */
+    public String createToken(Collection<String> roles) {
+        long now = System.currentTimeMillis();
+
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("jti", UUID.randomUUID().toString()); // Allows revoking the token
+        claims.put("iat", now / 1000);
+        claims.put("exp", (now + validityInMilliseconds) / 1000);
+        if (!roles.isEmpty()) {
+            claims.put(JwtPrincipal.ROLES_CLAIM, List.copyOf(roles));
+        }
+        return jwtKeyring.sign(claims);
     }
 
     public SecretKey getSecretKey() {
-        return secretKey;
+        return jwtKeyring.currentSigningKey();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,197 @@
+package com.books.api.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.HexFormat;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.books.api.service.TokenRevocationService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Verifies JWT tokens and caches the result until the token expires.
+ * Clients reuse the same token for its whole lifetime, so the signature is
+ * checked once per token instead of once per request. The cache is bounded,
+ * keyed by the token digest, and each entry expires with its token or when
+ * the keyring retires the key that signed it, whichever comes first; tokens
+ * without an expiration are never cached, so a revoked secret always takes
+ * effect.
+ *
+ * @author books-authors-api
+ */
+@Component
+public class JwtTokenVerifier {
+
+    /**
+     * Default maximum number of cached tokens
+     */
+    public static final int DEFAULT_CACHE_SIZE = 10_000;
+
+    private final String secretKey;
+    private final JwtKeyring jwtKeyring;
+    private final TokenRevocationService tokenRevocationService;
+    private final Cache<String, CachedToken> cache;
+    private final Clock clock;
+
+    @Autowired
+    public JwtTokenVerifier(JwtKeyring jwtKeyring, TokenRevocationService tokenRevocationService,
+            @Value("${security.token-cache.max-entries:10000}") int maxEntries) {
+        this(null, jwtKeyring, tokenRevocationService, maxEntries, Clock.systemUTC());
+    }
+
+    /**
+     * Creates a verifier for tokens signed with a single static key
+     *
+     * @param secretKey  the base64 signing key
+     * @param maxEntries the maximum number of cached tokens
+     */
+    public JwtTokenVerifier(String secretKey, int maxEntries) {
+        this(secretKey, null, null, maxEntries, Clock.systemUTC());
+    }
+
+    JwtTokenVerifier(String secretKey, JwtKeyring jwtKeyring, TokenRevocationService tokenRevocationService,
+            int maxEntries, Clock clock) {
+        this.secretKey = secretKey;
+        this.jwtKeyring = jwtKeyring;
+        this.tokenRevocationService = tokenRevocationService;
+        this.clock = clock;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(Math.max(maxEntries, 0))
+                .expireAfter(new TokenExpiry())
+                // Expiry follows the verifier clock, which tests control
+                .ticker(() -> ChronoUnit.NANOS.between(Instant.EPOCH, clock.instant()))
+                .build();
+    }
+
+    /**
+     * Verifies the token of a request, reusing the principal already bound to
+     * the request and binding it otherwise
+     *
+     * @param request the HTTP request
+     * @param token   the raw bearer token
+     * @return the verified principal
+     * @throws JwtException if the token is invalid or expired
+     */
+    public JwtPrincipal verify(HttpServletRequest request, String token) {
+        JwtPrincipal principal = JwtPrincipal.current(request);
+        if (principal == null) {
+            principal = verify(token);
+            request.setAttribute(JwtPrincipal.ATTRIBUTE, principal);
+        }
+        return principal;
+    }
+
+    /**
+     * Verifies a token, using the cache when the token was verified before.
+     * Revocation is checked on every call, cached or not.
+     *
+     * @param token the raw bearer token
+     * @return the verified principal
+     * @throws JwtException if the token is invalid, expired or revoked
+     */
+    public JwtPrincipal verify(String token) {
+        JwtPrincipal principal = verifySignature(token);
+        if (tokenRevocationService != null && tokenRevocationService.isRevoked(principal.tokenId())) {
+            throw new RevokedTokenException("JWT " + principal.tokenId() + " has been revoked");
+        }
+        return principal;
+    }
+
+    @SuppressWarnings("deprecation")
+    private JwtPrincipal verifySignature(String token) {
+        String digest = digest(token);
+        Instant now = clock.instant();
+        CachedToken cached = cache.getIfPresent(digest);
+        if (cached != null) {
+            return cached.principal();
+        }
+
+        Claims claims;
+        Instant keyRetiresAt = null;
+        if (jwtKeyring != null) {
+            JwtKeyring.VerifiedToken verified = jwtKeyring.verifyToken(token);
+            claims = verified.claims();
+            keyRetiresAt = verified.keyRetiresAt();
+        } else {
+            claims = Jwts.parser()
+                    .setSigningKey(secretKey)
+                    .parseClaimsJws(token)
+                    .getBody();
+        }
+
+        Date expiration = claims.getExpiration();
+        JwtPrincipal principal = new JwtPrincipal(claims.getSubject(), claims, digest,
+                expiration != null ? expiration.toInstant() : null);
+        if (principal.expiresAt() != null) {
+            Instant until = keyRetiresAt != null && keyRetiresAt.isBefore(principal.expiresAt())
+                    ? keyRetiresAt
+                    : principal.expiresAt();
+            if (until.isAfter(now)) {
+                cache.put(digest, new CachedToken(principal, until));
+            }
+        }
+        return principal;
+    }
+
+    /**
+     * Number of tokens currently cached
+     *
+     * @return the cache size
+     */
+    public int cachedTokens() {
+        cache.cleanUp();
+        return (int) cache.estimatedSize();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * A verified principal and the time until which it may be served
+     */
+    private record CachedToken(JwtPrincipal principal, Instant until) {
+    }
+
+    /**
+     * Expires a cached principal when its token expires or its key is retired
+     */
+    private final class TokenExpiry implements Expiry<String, CachedToken> {
+
+        @Override
+        public long expireAfterCreate(String digest, CachedToken token, long currentTime) {
+            return Math.max(Duration.between(clock.instant(), token.until()).toNanos(), 0);
+        }
+
+        @Override
+        public long expireAfterUpdate(String digest, CachedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(digest, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String digest, CachedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
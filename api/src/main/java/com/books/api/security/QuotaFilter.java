@@ -0,0 +1,83 @@
+package com.books.api.security;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.books.api.config.QuotaConfig;
+import com.books.api.service.QuotaService;
+import com.books.api.service.quota.QuotaStatus;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Filter that counts requests against the daily or monthly quota of their
+ * client and rejects them with 429 once it is used up. Runs after the
+ * security chain so that authenticated clients are counted by token
+ * subject, and before admission so that rejected requests never queue.
+ *
+ * @author books-authors-api
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 5) // After the security chain, before admission control
+@RequiredArgsConstructor
+@Slf4j
+public class QuotaFilter extends OncePerRequestFilter {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final QuotaConfig quotaConfig;
+    private final QuotaService quotaService;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!quotaConfig.isEnabled()) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String pattern : quotaConfig.getPaths()) {
+            if (PATH_MATCHER.match(pattern, path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String client = RequestEnvelope.resolveClientKey(request);
+        QuotaStatus status = quotaService.consume(client);
+        if (status == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        response.setHeader("X-Quota-Limit", String.valueOf(status.limit()));
+        response.setHeader("X-Quota-Remaining", String.valueOf(status.remaining()));
+        response.setHeader("X-Quota-Reset", String.valueOf(status.resetAt().getEpochSecond()));
+
+        if (status.allowed()) {
+            filterChain.doFilter(request, response);
+        } else {
+            log.warn("Quota exhausted for client {}", client);
+            long retryAfter = Math.max(1, Duration.between(Instant.now(), status.resetAt()).getSeconds());
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", String.valueOf(retryAfter));
+            response.getWriter().write("Quota exceeded. Please try again after the quota resets.");
+        }
+    }
+}
@@ -9,16 +9,16 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.util.ContentCachingRequestWrapper;
-import org.springframework.web.util.ContentCachingResponseWrapper;
-import org.springframework.web.util.UrlPathHelper;
 
-import com.books.api.config.RateLimitingConfig;
 import com.books.api.config.RateLimitingConfig.EndpointLimit;
 import com.books.api.service.ApiAuditService;
+import com.books.api.service.IpAccessService;
 import com.books.api.service.RateLimitingService;
 import com.books.api.service.RateLimitingService.RateLimitInfo;
+import com.books.api.service.ratelimit.RateLimitPolicy;
 import com.books.domain.model.ApiAuditLog;
 
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -40,51 +40,77 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class RateLimitingFilter extends OncePerRequestFilter {
 
-    private final RateLimitingConfig rateLimitingConfig;
     private final RateLimitingService rateLimitingService;
     private final ApiAuditService apiAuditService;
-    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+    private final JwtTokenVerifier jwtTokenVerifier;
+    private final IpAccessService ipAccessService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
-        // Ensure we have cacheable request/response for audit logging
-        ContentCachingRequestWrapper requestWrapper = request instanceof ContentCachingRequestWrapper
-                ? (ContentCachingRequestWrapper) request
-                : new ContentCachingRequestWrapper(request);
-        ContentCachingResponseWrapper responseWrapper = response instanceof ContentCachingResponseWrapper
-                ? (ContentCachingResponseWrapper) response
-                : new ContentCachingResponseWrapper(response);
+        // Reuse the envelope opened at the front of the chain, so the request
+        // is wrapped and its headers are parsed only once
+        RequestEnvelope envelope = RequestEnvelope.current(request);
+        boolean owner = envelope == null;
+        if (owner) {
+            envelope = RequestEnvelope.open(request, response, true);
+        }
 
-        // Skip rate limiting if disabled
-        if (!rateLimitingConfig.isEnabled()) {
-            filterChain.doFilter(requestWrapper, responseWrapper);
-            return;
+        try {
+            // Read once, so a concurrent reload cannot mix two policies
+            RateLimitPolicy policy = rateLimitingService.currentPolicy();
+
+            // Skip rate limiting if disabled
+            if (!policy.enabled()) {
+                filterChain.doFilter(envelope.getRequest(), envelope.getResponse());
+                return;
+            }
+            applyRateLimit(policy, envelope, filterChain);
+        } finally {
+            if (owner) {
+                envelope.close();
+            }
         }
+    }
+
+    /**
+     * Checks the request against its endpoint limit and either continues the
+     * chain or rejects the request
+     *
+     * @param policy      The current rate limit policy
+     * @param envelope    The request envelope
+     * @param filterChain The filter chain
+     */
+    private void applyRateLimit(RateLimitPolicy policy, RequestEnvelope envelope, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContentCachingRequestWrapper requestWrapper = envelope.getRequest();
+        HttpServletResponse responseWrapper = envelope.getResponse();
 
         // Get the request path
-        String path = urlPathHelper.getPathWithinApplication(requestWrapper);
+        String path = envelope.getPath();
 
         // Find matching endpoint limit configuration
-        EndpointLimit endpointLimit = rateLimitingService.findEndpointLimit(path);
+        EndpointLimit endpointLimit = policy.find(path);
+        envelope.setEndpointLimit(endpointLimit);
 
         // Get the key for rate limiting based on strategy
-        String key = getRateLimitKey(requestWrapper, path);
+        String key = getRateLimitKey(policy.strategy(), envelope, path);
+        envelope.setRateLimitKey(key);
 
         // Check if request is allowed
         boolean allowed = rateLimitingService.isRequestAllowed(key, endpointLimit);
 
         // Add rate limit headers if configured
-        if (rateLimitingConfig.isResponseHeaders()) {
+        if (policy.responseHeaders()) {
             addRateLimitHeaders(responseWrapper, key, endpointLimit);
         }
 
         if (allowed) {
             filterChain.doFilter(requestWrapper, responseWrapper);
-            responseWrapper.copyBodyToResponse();
         } else {
             log.warn("Rate limit exceeded for key: {}, path: {}", key, path);
+            envelope.setRateLimitExceeded(true);
             responseWrapper.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
             responseWrapper.getWriter().write("Rate limit exceeded. Please try again later.");
 
@@ -93,9 +119,9 @@ public class RateLimitingFilter extends OncePerRequestFilter {
                     .httpMethod(requestWrapper.getMethod())
                     .endpoint(requestWrapper.getRequestURI())
                     .queryParams(requestWrapper.getQueryString())
-                    .clientIp(requestWrapper.getRemoteAddr())
-                    .userId(extractUserId(requestWrapper))
-                    .sessionId(extractSessionId(requestWrapper))
+                    .clientIp(envelope.getClientIp())
+                    .userId(envelope.getUserId())
+                    .sessionId(envelope.getSessionId())
                     .statusCode(HttpStatus.TOO_MANY_REQUESTS.value())
                     .timestamp(LocalDateTime.now())
                     .processingTimeMs(0L) // Not processed
@@ -106,36 +132,61 @@ public class RateLimitingFilter extends OncePerRequestFilter {
             // Save the rate limit violation log
             apiAuditService.saveRateLimitViolation(rateLimitLog);
 
-            // Ensure response body is copied back
-            responseWrapper.copyBodyToResponse();
+            // Clients that keep exceeding the limit get banned temporarily
+            ipAccessService.recordRateLimitViolation(envelope.getClientIp());
         }
     }
 
     /**
      * Get the key for rate limiting based on the configured strategy
      *
-     * @param request The HTTP request
-     * @param path    The request path
+     * @param strategy The rate limiting strategy
+     * @param envelope The request envelope
+     * @param path     The request path
      * @return The rate limiting key
      */
-    private String getRateLimitKey(HttpServletRequest request, String path) {
-        String strategy = rateLimitingConfig.getStrategy();
-
+    private String getRateLimitKey(String strategy, RequestEnvelope envelope, String path) {
         return switch (strategy) {
-            case "IP_ADDRESS" -> request.getRemoteAddr() + ":" + path;
+            case "IP_ADDRESS" -> envelope.getClientIp() + ":" + path;
             case "USER" -> {
-                // Assuming user information is available in the security context
-                // This would need to be adapted based on your authentication setup
-                yield "user:" + path;
+                // Keyed by the subject of the verified token when available
+                JwtPrincipal principal = resolvePrincipal(envelope);
+                yield principal != null && principal.subject() != null
+                        ? "user:" + principal.subject() + ":" + path
+                        : "user:" + path;
             }
             case "TOKEN" -> {
-                String token = request.getHeader("Authorization");
+                // A verified token is keyed by its digest rather than the raw header
+                JwtPrincipal principal = resolvePrincipal(envelope);
+                if (principal != null) {
+                    yield "token:" + principal.tokenDigest() + ":" + path;
+                }
+                String token = envelope.getAuthorizationHeader();
                 yield (token != null ? token : "anonymous") + ":" + path;
             }
-            default -> request.getRemoteAddr() + ":" + path;
+            default -> envelope.getClientIp() + ":" + path;
         };
     }
 
+    /**
+     * Resolves the principal of the bearer token, verifying it at most once
+     * per request. Invalid tokens are left to {@link JwtTokenFilter} to reject.
+     *
+     * @param envelope The request envelope
+     * @return The verified principal or null
+     */
+    private JwtPrincipal resolvePrincipal(RequestEnvelope envelope) {
+        String token = envelope.getBearerToken();
+        if (token == null) {
+            return null;
+        }
+        try {
+            return jwtTokenVerifier.verify(envelope.getRequest(), token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     /**
      * Add rate limit headers to the response
      *
@@ -150,37 +201,4 @@ public class RateLimitingFilter extends OncePerRequestFilter {
         response.addHeader("X-RateLimit-Remaining", String.valueOf(info.remaining()));
         response.addHeader("X-RateLimit-Reset", String.valueOf(info.resetTimeMillis()));
     }
-
-    /**
-     * Extracts the user ID from the request
-     *
-     * @param request The HTTP request
-     * @return The user ID or null if not available
-     */
-    private String extractUserId(HttpServletRequest request) {
-        // This implementation depends on your authentication mechanism
-        // For JWT, you might extract it from the token
-        return request.getHeader("X-User-ID");
-    }
-
-    /**
-     * Extracts the session ID from the request
-     *
-     * @param request The HTTP request
-     * @return The session ID or token
-     */
-    private String extractSessionId(HttpServletRequest request) {
-        // Try to get from session first
-        if (request.getSession(false) != null) {
-            return request.getSession().getId();
-        }
-
-        // Otherwise, try to get from Authorization header (for token-based auth)
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            return authHeader.substring(7); // Extract the token part
-        }
-
-        return null;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,158 @@
+package com.books.api.security;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.books.infrastructure.cache.ReadFreshness;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Filter that lets clients bound how old the catalog data they read may be,
+ * and tells them how old it is.
+ * The bound is the {@code maxStaleness} query parameter in seconds, or
+ * else {@code Cache-Control: max-age=N}; {@code Cache-Control: no-cache} and
+ * {@code maxStaleness=0} read the primary database. The catalog caches pick
+ * the cheapest source that satisfies it.
+ * <p>
+ * Responses carry an {@code Age} header with the age of their oldest value
+ * in seconds and an {@code X-Data-Source} header listing the sources read;
+ * stale values add {@code Warning: 110}, and values whose refresh failed add
+ * {@code Warning: 111}. The headers are set just before the body is
+ * written, once the controller has read all its data.
+ *
+ * @author books-authors-api
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 15) // Innermost, right around the controllers
+public class ReadFreshnessFilter extends OncePerRequestFilter {
+
+    static final String MAX_STALENESS_PARAMETER = "maxStaleness";
+
+    private static final Pattern MAX_AGE = Pattern.compile("(?i)(?:^|,)\\s*max-age\\s*=\\s*\"?(\\d+)\"?");
+    private static final Pattern NO_CACHE = Pattern.compile("(?i)(?:^|,)\\s*no-cache\\s*(?:,|$)");
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        long maxAgeMillis;
+        try {
+            maxAgeMillis = maxAgeMillis(request);
+        } catch (NumberFormatException e) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            response.getWriter().write("maxStaleness must be a whole number of seconds, 0 or more.");
+            return;
+        }
+
+        FreshnessHeaderResponse wrapped = new FreshnessHeaderResponse(response);
+        ReadFreshness.begin(maxAgeMillis);
+        try {
+            filterChain.doFilter(request, wrapped);
+            wrapped.applyHeaders();
+        } finally {
+            ReadFreshness.end();
+        }
+    }
+
+    /**
+     * Reads the max-staleness of a request
+     *
+     * @return the limit in milliseconds, or -1 if the client set none
+     * @throws NumberFormatException if the parameter is not a valid number of seconds
+     */
+    private static long maxAgeMillis(HttpServletRequest request) {
+        String parameter = request.getParameter(MAX_STALENESS_PARAMETER);
+        if (parameter != null) {
+            return seconds(parameter.trim());
+        }
+        String cacheControl = request.getHeader(HttpHeaders.CACHE_CONTROL);
+        if (cacheControl == null) {
+            return -1;
+        }
+        if (NO_CACHE.matcher(cacheControl).find()) {
+            return 0;
+        }
+        Matcher maxAge = MAX_AGE.matcher(cacheControl);
+        return maxAge.find() ? seconds(maxAge.group(1)) : -1;
+    }
+
+    private static long seconds(String value) {
+        long seconds = Long.parseLong(value);
+        if (seconds < 0 || seconds > Long.MAX_VALUE / 1000) {
+            throw new NumberFormatException(value);
+        }
+        return seconds * 1000;
+    }
+
+    /**
+     * Adds the freshness headers before the first byte of the body
+     */
+    private static final class FreshnessHeaderResponse extends HttpServletResponseWrapper {
+        private boolean applied;
+
+        FreshnessHeaderResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            applyHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            applyHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            applyHeaders();
+            super.flushBuffer();
+        }
+
+        void applyHeaders() {
+            if (applied || isCommitted()) {
+                return;
+            }
+            applied = true;
+            ReadFreshness.Scope scope = ReadFreshness.current();
+            if (scope == null || !scope.isCached()) {
+                return;
+            }
+            setHeader(HttpHeaders.AGE, Long.toString(scope.getAgeMillis() / 1000));
+            setHeader("X-Data-Source", scope.getSources().stream()
+                    .map(source -> source.name().toLowerCase(Locale.ROOT))
+                    .collect(Collectors.joining(", ")));
+            if (scope.isStale()) {
+                addHeader(HttpHeaders.WARNING, "110 - \"Response is Stale\"");
+            }
+            if (scope.isRevalidateFailed()) {
+                addHeader(HttpHeaders.WARNING, "111 - \"Revalidation Failed\"");
+            }
+        }
+    }
+}
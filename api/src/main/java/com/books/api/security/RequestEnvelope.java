@@ -0,0 +1,266 @@
+package com.books.api.security;
+
+import java.io.IOException;
+
+import org.springframework.web.util.ContentCachingRequestWrapper;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+
+import com.books.api.config.RateLimitingConfig.EndpointLimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * Per-request context shared by all API filters.
+ * Created once at the front of the chain by {@link RequestEnvelopeFilter}, it
+ * holds the capture wrappers, the start time and everything derived from the
+ * request headers, so that downstream filters and services never wrap the
+ * request again or re-parse the same headers.
+ *
+ * @author books-authors-api
+ */
+public final class RequestEnvelope {
+
+    /**
+     * Request attribute under which the envelope is stored
+     */
+    public static final String ATTRIBUTE = RequestEnvelope.class.getName();
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String USER_ID_HEADER = "X-User-ID";
+
+    private final ContentCachingRequestWrapper request;
+    private final HttpServletResponse response;
+    private final long startMillis;
+    private final String clientIp;
+    private final String authorizationHeader;
+    private final String bearerToken;
+    private final String userId;
+
+    private String path;
+    private EndpointLimit endpointLimit;
+    private String rateLimitKey;
+    private boolean rateLimitExceeded;
+    private boolean closed;
+
+    private RequestEnvelope(ContentCachingRequestWrapper request, HttpServletResponse response) {
+        this.request = request;
+        this.response = response;
+        this.startMillis = System.currentTimeMillis();
+        this.clientIp = request.getRemoteAddr();
+        this.authorizationHeader = request.getHeader("Authorization");
+        this.bearerToken = bearerToken(authorizationHeader);
+        this.userId = request.getHeader(USER_ID_HEADER);
+    }
+
+    /**
+     * Returns the envelope bound to the request, if any
+     *
+     * @param request the HTTP request, possibly wrapped
+     * @return the envelope, or null if none was opened for this request
+     */
+    public static RequestEnvelope current(HttpServletRequest request) {
+        Object envelope = request.getAttribute(ATTRIBUTE);
+        return envelope instanceof RequestEnvelope requestEnvelope ? requestEnvelope : null;
+    }
+
+    /**
+     * Wraps the request (and optionally the response) for content capture and
+     * binds a new envelope to it. The caller that opens an envelope must
+     * {@link #close()} it.
+     *
+     * @param request        the HTTP request
+     * @param response       the HTTP response
+     * @param bufferResponse whether to buffer the response body; false for
+     *                       streamed responses
+     * @return the new envelope
+     */
+    public static RequestEnvelope open(HttpServletRequest request, HttpServletResponse response,
+            boolean bufferResponse) {
+        ContentCachingRequestWrapper requestWrapper = request instanceof ContentCachingRequestWrapper wrapper
+                ? wrapper
+                : new ContentCachingRequestWrapper(request);
+        HttpServletResponse responseWrapper = !bufferResponse || response instanceof ContentCachingResponseWrapper
+                ? response
+                : new ContentCachingResponseWrapper(response);
+
+        RequestEnvelope envelope = new RequestEnvelope(requestWrapper, responseWrapper);
+        requestWrapper.setAttribute(ATTRIBUTE, envelope);
+        return envelope;
+    }
+
+    /**
+     * Copies any buffered response body to the client. Safe to call more
+     * than once.
+     *
+     * @throws IOException if writing the response fails
+     */
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (response instanceof ContentCachingResponseWrapper cachingResponse) {
+            cachingResponse.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * Milliseconds elapsed since the envelope was opened
+     *
+     * @return the elapsed time
+     */
+    public long elapsedMillis() {
+        return System.currentTimeMillis() - startMillis;
+    }
+
+    /**
+     * Returns the bearer token of the Authorization header
+     *
+     * @return the token, or null if the request has no bearer token
+     */
+    public String getBearerToken() {
+        return bearerToken;
+    }
+
+    /**
+     * Returns the session ID, or the bearer token for stateless requests
+     *
+     * @return the session ID or null
+     */
+    public String getSessionId() {
+        HttpSession session = request.getSession(false);
+        return session != null ? session.getId() : bearerToken;
+    }
+
+    public ContentCachingRequestWrapper getRequest() {
+        return request;
+    }
+
+    public HttpServletResponse getResponse() {
+        return response;
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public String getClientIp() {
+        return clientIp;
+    }
+
+    /**
+     * Request path within the application, as used for endpoint policies.
+     * Resolved on first use.
+     *
+     * @return the path
+     */
+    public String getPath() {
+        if (path == null) {
+            path = UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+        }
+        return path;
+    }
+
+    public String getAuthorizationHeader() {
+        return authorizationHeader;
+    }
+
+    /**
+     * Returns the subject of the verified token, falling back to the
+     * X-User-ID header
+     *
+     * @return the user ID or null
+     */
+    public String getUserId() {
+        JwtPrincipal principal = JwtPrincipal.current(request);
+        return principal != null && principal.subject() != null ? principal.subject() : userId;
+    }
+
+    /**
+     * Rate limit policy resolved for the request path, null until resolved
+     *
+     * @return the endpoint policy
+     */
+    public EndpointLimit getEndpointLimit() {
+        return endpointLimit;
+    }
+
+    public void setEndpointLimit(EndpointLimit endpointLimit) {
+        this.endpointLimit = endpointLimit;
+    }
+
+    public String getRateLimitKey() {
+        return rateLimitKey;
+    }
+
+    public void setRateLimitKey(String rateLimitKey) {
+        this.rateLimitKey = rateLimitKey;
+    }
+
+    public boolean isRateLimitExceeded() {
+        return rateLimitExceeded;
+    }
+
+    public void setRateLimitExceeded(boolean rateLimitExceeded) {
+        this.rateLimitExceeded = rateLimitExceeded;
+    }
+
+    /**
+     * Extracts the user ID of a request
+     *
+     * @param request the HTTP request
+     * @return the user ID or null if not available
+     */
+    public static String resolveUserId(HttpServletRequest request) {
+        RequestEnvelope envelope = current(request);
+        if (envelope != null) {
+            return envelope.getUserId();
+        }
+        JwtPrincipal principal = JwtPrincipal.current(request);
+        return principal != null && principal.subject() != null
+                ? principal.subject()
+                : request.getHeader(USER_ID_HEADER);
+    }
+
+    /**
+     * Identifies the client of a request for per-client scheduling and
+     * quotas: the verified token subject, or the client IP for anonymous
+     * requests
+     *
+     * @param request the HTTP request
+     * @return "user:&lt;subject&gt;" or "ip:&lt;address&gt;"
+     */
+    public static String resolveClientKey(HttpServletRequest request) {
+        JwtPrincipal principal = JwtPrincipal.current(request);
+        if (principal != null && principal.subject() != null) {
+            return "user:" + principal.subject();
+        }
+        RequestEnvelope envelope = current(request);
+        return "ip:" + (envelope != null ? envelope.getClientIp() : request.getRemoteAddr());
+    }
+
+    /**
+     * Extracts the session ID of a request, falling back to the bearer token
+     * for stateless requests
+     *
+     * @param request the HTTP request
+     * @return the session ID or null
+     */
+    public static String resolveSessionId(HttpServletRequest request) {
+        RequestEnvelope envelope = current(request);
+        if (envelope != null) {
+            return envelope.getSessionId();
+        }
+        HttpSession session = request.getSession(false);
+        return session != null ? session.getId() : bearerToken(request.getHeader("Authorization"));
+    }
+
+    private static String bearerToken(String authorizationHeader) {
+        return authorizationHeader != null && authorizationHeader.startsWith(BEARER_PREFIX)
+                ? authorizationHeader.substring(BEARER_PREFIX.length())
+                : null;
+    }
+}
@@ -0,0 +1,52 @@
+package com.books.api.security;
+
+import java.io.IOException;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.books.api.config.ApiAuditConfig;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Front filter that opens the {@link RequestEnvelope} of each request.
+ * Wraps the request and response exactly once and copies the buffered
+ * response back after the whole chain has run.
+ *
+ * @author books-authors-api
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1) // After IpAccessFilter, before every filter reading the envelope
+@RequiredArgsConstructor
+public class RequestEnvelopeFilter extends OncePerRequestFilter {
+
+    private final ApiAuditConfig apiAuditConfig;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        // Streamed responses are left unbuffered so they are not held in memory
+        RequestEnvelope envelope = RequestEnvelope.open(request, response,
+                !apiAuditConfig.isStreamingPath(request.getRequestURI()));
+        try {
+            filterChain.doFilter(envelope.getRequest(), envelope.getResponse());
+        } finally {
+            envelope.close();
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Excluded paths are never audited, so they need no capture wrappers;
+        // with auditing disabled the envelope is still shared by the filters
+        return apiAuditConfig.isExcludedPath(request.getRequestURI());
+    }
+}
@@ -0,0 +1,15 @@
+package com.books.api.security;
+
+import io.jsonwebtoken.JwtException;
+
+/**
+ * Thrown when a correctly signed token has been revoked before its expiration.
+ *
+ * @author books-authors-api
+ */
+public class RevokedTokenException extends JwtException {
+
+    public RevokedTokenException(String message) {
+        super(message);
+    }
+}
@@ -1,23 +1,42 @@
 package com.books.api.service;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.ContentCachingRequestWrapper;
 import org.springframework.web.util.ContentCachingResponseWrapper;
 
 import com.books.api.config.ApiAuditConfig;
+import com.books.api.config.AuditPolicy;
+import com.books.api.dto.ApiAuditLogDTO;
+import com.books.api.dto.AuditCursor;
+import com.books.api.dto.AuditSearchCriteria;
+import com.books.api.security.RequestEnvelope;
 import com.books.domain.model.ApiAuditLog;
 import com.books.domain.repository.ApiAuditLogRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -34,6 +53,35 @@ public class ApiAuditService {
 
     private final ApiAuditLogRepository apiAuditLogRepository;
     private final ApiAuditConfig apiAuditConfig;
+    private final ObjectMapper objectMapper;
+    private final AuditArchiveService auditArchiveService;
+
+    /**
+     * Keyset order of the audit log: newest first, ties broken by id
+     */
+    private static final Sort KEYSET_SORT = Sort.by(Sort.Direction.DESC, "timestamp")
+            .and(Sort.by(Sort.Direction.DESC, "id"));
+
+    /**
+     * Supported formats for streamed audit exports
+     */
+    public enum ExportFormat {
+        NDJSON, CSV
+    }
+
+    /**
+     * A window of audit logs obtained with keyset pagination
+     *
+     * @param content the entries of the window, newest first
+     * @param next    the cursor for the following window, or null if this is
+     *                the last one
+     */
+    public record AuditLogWindow(List<ApiAuditLog> content, AuditCursor next) {
+
+        public boolean hasNext() {
+            return next != null;
+        }
+    }
 
     /**
      * Creates an audit log entry for an API request/response
@@ -46,24 +94,26 @@ public class ApiAuditService {
      */
     public ApiAuditLog createAuditLog(
             ContentCachingRequestWrapper request,
-            ContentCachingResponseWrapper response,
+            HttpServletResponse response,
             long executionTimeMs,
             boolean rateLimitExceeded) {
 
+        // Read the policy once, so the entry follows a single policy
+        AuditPolicy policy = apiAuditConfig.currentPolicy();
         try {
             ApiAuditLog auditLog = ApiAuditLog.builder()
                     .httpMethod(request.getMethod())
                     .endpoint(request.getRequestURI())
-                    .queryParams(request.getQueryString())
-                    .requestHeaders(extractHeadersAsString(request))
+                    .queryParams(policy.logQueryParams() ? request.getQueryString() : null)
+                    .requestHeaders(policy.logHeaders() ? extractHeadersAsString(request, policy) : null)
                     .clientIp(request.getRemoteAddr())
-                    .userId(extractUserId(request))
-                    .sessionId(extractSessionId(request))
+                    .userId(RequestEnvelope.resolveUserId(request))
+                    .sessionId(RequestEnvelope.resolveSessionId(request))
                     .statusCode(response.getStatus())
                     .timestamp(LocalDateTime.now())
                     .processingTimeMs(executionTimeMs)
-                    .requestBody(extractRequestBody(request))
-                    .responseBody(extractResponseBody(response))
+                    .requestBody(policy.logRequestBody() ? extractRequestBody(request, policy) : null)
+                    .responseBody(policy.logResponseBody() ? extractResponseBody(response, policy) : null)
                     .rateLimitExceeded(rateLimitExceeded)
                     .build();
 
@@ -86,73 +136,288 @@ public class ApiAuditService {
     }
 
     /**
-     * Keeps a record of rate limit violations
+     * Searches for audit logs matching the given criteria using offset
+     * pagination. The page size is capped at the configured maximum.
+     * When the archive is enabled and the page is in keyset order (the
+     * default), archived entries follow the database entries transparently.
      *
-     * @param auditLog The audit log of the violation
-     * @return The saved audit log
+     * @param criteria the filter criteria
+     * @param pageable the pagination information
+     * @return a page of matching audit logs
      */
-    public ApiAuditLog saveRateLimitViolation(ApiAuditLog auditLog) {
-        try {
-            if (apiAuditConfig.isDetailedRateLimitLogging()) {
-                log.warn("Rate limit violation detected: {} {} from IP: {}",
-                        auditLog.getHttpMethod(), auditLog.getEndpoint(), auditLog.getClientIp());
-            }
-            return apiAuditLogRepository.save(auditLog);
-        } catch (Exception e) {
-            log.error("Error saving rate limit violation", e);
-            return null;
+    public Page<ApiAuditLog> searchAuditLogs(AuditSearchCriteria criteria, Pageable pageable) {
+        Pageable capped = capPageable(pageable);
+        if (!auditArchiveService.isEnabled()) {
+            return searchAuditLogs(buildSpecification(criteria), capped);
+        }
+        if (capped.getSort().isUnsorted()) {
+            capped = PageRequest.of(capped.getPageNumber(), capped.getPageSize(), KEYSET_SORT);
+        } else if (!capped.getSort().equals(KEYSET_SORT)) {
+            // Archived entries can only be merged in keyset order
+            return searchAuditLogs(buildSpecification(criteria), capped);
+        }
+
+        Page<ApiAuditLog> page = searchAuditLogs(buildSpecification(criteria), capped);
+        long databaseTotal = page.getTotalElements();
+        List<ApiAuditLog> content = new ArrayList<>(page.getContent());
+        int missing = capped.getPageSize() - content.size();
+        if (missing > 0) {
+            long archiveOffset = Math.max(0, capped.getOffset() - databaseTotal);
+            content.addAll(auditArchiveService.find(criteria, archiveOffset, missing));
         }
+        return new PageImpl<>(content, capped, databaseTotal + auditArchiveService.count(criteria));
     }
 
     /**
-     * Extracts the user ID from the request
+     * Searches for audit logs matching the given criteria using keyset
+     * pagination on (timestamp, id). No count query is issued: one extra row
+     * is fetched to know whether a further window exists.
      *
-     * @param request The HTTP request
-     * @return The user ID or null if not available
+     * @param criteria the filter criteria
+     * @param cursor   the position after which to continue, or null to start
+     *                 with the newest entry
+     * @param limit    the requested window size, capped at the configured
+     *                 maximum
+     * @return the window of matching audit logs
      */
-    private String extractUserId(HttpServletRequest request) {
-        // This implementation depends on your authentication mechanism
-        // For JWT, you might extract it from the token
-        // For now, we'll use a placeholder implementation
-        return request.getHeader("X-User-ID");
+    public AuditLogWindow searchAuditLogsAfter(AuditSearchCriteria criteria, AuditCursor cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, apiAuditConfig.currentPolicy().maxPageSize()));
+        return fetchWindow(criteria, cursor, size);
     }
 
     /**
-     * Extracts the session ID from the request
+     * Finds the most recent audit logs matching the given criteria, never
+     * returning more than the configured result cap.
      *
-     * @param request The HTTP request
-     * @return The session ID or token
+     * @param criteria the filter criteria
+     * @param limit    the requested number of entries
+     * @return the most recent matching audit logs, newest first
+     */
+    public List<ApiAuditLog> findRecent(AuditSearchCriteria criteria, int limit) {
+        int size = Math.max(1, Math.min(limit, apiAuditConfig.currentPolicy().maxResultSize()));
+        return fetchWindow(criteria, null, size).content();
+    }
+
+    /**
+     * Streams all audit logs matching the given criteria to the output stream.
+     * Entries are read in keyset batches so memory use does not depend on the
+     * size of the range, and the export stops at the configured row cap.
+     *
+     * @param criteria     the filter criteria
+     * @param format       the output format
+     * @param outputStream the stream to write to
+     * @return the number of exported entries
+     * @throws IOException if writing to the stream fails
      */
-    private String extractSessionId(HttpServletRequest request) {
-        // Try to get from session first
-        if (request.getSession(false) != null) {
-            return request.getSession().getId();
+    public long exportAuditLogs(AuditSearchCriteria criteria, ExportFormat format, OutputStream outputStream)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV) {
+            writer.write("id,timestamp,httpMethod,endpoint,queryParams,clientIp,userId,statusCode,"
+                    + "processingTimeMs,rateLimitExceeded,additionalInfo\n");
         }
 
-        // Otherwise, try to get from Authorization header (for token-based auth)
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            return authHeader.substring(7); // Extract the token part
+        // One policy for the whole export, even if it is reloaded meanwhile
+        AuditPolicy policy = apiAuditConfig.currentPolicy();
+        long exported = 0;
+        AuditCursor cursor = null;
+        do {
+            int batchSize = (int) Math.min(policy.exportBatchSize(), policy.maxExportRows() - exported);
+            AuditLogWindow window = fetchWindow(criteria, cursor, batchSize);
+            for (ApiAuditLog auditLog : window.content()) {
+                ApiAuditLogDTO dto = ApiAuditLogDTO.fromEntity(auditLog);
+                if (format == ExportFormat.CSV) {
+                    writeCsvLine(writer, dto);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(dto));
+                    writer.write('\n');
+                }
+            }
+            exported += window.content().size();
+            writer.flush();
+            cursor = window.next();
+        } while (cursor != null && exported < policy.maxExportRows());
+
+        if (cursor != null) {
+            log.warn("Audit export truncated at {} rows", exported);
         }
+        return exported;
+    }
 
-        return null;
+    /**
+     * Builds the JPA specification equivalent to the given criteria.
+     * The endpoint filter is a prefix match so it can use an index.
+     *
+     * @param criteria the filter criteria
+     * @return the specification
+     */
+    public Specification<ApiAuditLog> buildSpecification(AuditSearchCriteria criteria) {
+        Specification<ApiAuditLog> spec = Specification.where(null);
+
+        if (criteria.getClientIp() != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("clientIp"), criteria.getClientIp()));
+        }
+
+        if (criteria.getUserId() != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("userId"), criteria.getUserId()));
+        }
+
+        if (criteria.getEndpoint() != null) {
+            String prefix = escapeLike(criteria.getEndpoint()) + "%";
+            spec = spec.and((root, query, cb) -> cb.like(root.get("endpoint"), prefix, '\\'));
+        }
+
+        if (criteria.getStatusCode() != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("statusCode"), criteria.getStatusCode()));
+        }
+
+        if (criteria.getStartTime() != null) {
+            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("timestamp"),
+                    criteria.getStartTime()));
+        }
+
+        if (criteria.getEndTime() != null) {
+            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("timestamp"),
+                    criteria.getEndTime()));
+        }
+
+        if (criteria.isRateLimitOnly()) {
+            spec = spec.and((root, query, cb) -> cb.isTrue(root.get("rateLimitExceeded")));
+        }
+
+        return spec;
+    }
+
+    /**
+     * Fetches one keyset window, reading a single extra row to detect whether
+     * more entries follow. Archived entries are older than any entry still in
+     * the database, so they are only read once the database is exhausted.
+     */
+    private AuditLogWindow fetchWindow(AuditSearchCriteria criteria, AuditCursor cursor, int size) {
+        Specification<ApiAuditLog> spec = buildSpecification(criteria);
+        if (cursor != null) {
+            spec = spec.and((root, query, cb) -> cb.or(
+                    cb.lessThan(root.get("timestamp"), cursor.timestamp()),
+                    cb.and(cb.equal(root.get("timestamp"), cursor.timestamp()),
+                            cb.lessThan(root.get("id"), cursor.id()))));
+        }
+
+        List<ApiAuditLog> rows = apiAuditLogRepository.findBy(spec,
+                query -> query.sortBy(KEYSET_SORT).limit(size + 1).all());
+
+        if (rows.size() <= size && auditArchiveService.isEnabled()) {
+            AuditCursor archiveCursor = rows.isEmpty() ? cursor : AuditCursor.after(rows.get(rows.size() - 1));
+            List<ApiAuditLog> merged = new ArrayList<>(rows);
+            merged.addAll(auditArchiveService.search(criteria, archiveCursor, size + 1 - rows.size()));
+            rows = merged;
+        }
+
+        if (rows.size() > size) {
+            List<ApiAuditLog> content = rows.subList(0, size);
+            return new AuditLogWindow(content, AuditCursor.after(content.get(size - 1)));
+        }
+        return new AuditLogWindow(rows, null);
+    }
+
+    /**
+     * Caps the page size of the given pageable at the configured maximum
+     */
+    private Pageable capPageable(Pageable pageable) {
+        int maxPageSize = apiAuditConfig.currentPolicy().maxPageSize();
+        if (pageable.isUnpaged()) {
+            return PageRequest.of(0, maxPageSize, KEYSET_SORT);
+        }
+        if (pageable.getPageSize() > maxPageSize) {
+            return PageRequest.of(pageable.getPageNumber(), maxPageSize, pageable.getSort());
+        }
+        return pageable;
+    }
+
+    /**
+     * Escapes LIKE wildcards so user input is matched literally
+     */
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Writes an audit log entry as a CSV line
+     */
+    private static void writeCsvLine(Writer writer, ApiAuditLogDTO dto) throws IOException {
+        writer.write(csv(dto.getId()));
+        writer.write(',');
+        writer.write(csv(dto.getTimestamp()));
+        writer.write(',');
+        writer.write(csv(dto.getHttpMethod()));
+        writer.write(',');
+        writer.write(csv(dto.getEndpoint()));
+        writer.write(',');
+        writer.write(csv(dto.getQueryParams()));
+        writer.write(',');
+        writer.write(csv(dto.getClientIp()));
+        writer.write(',');
+        writer.write(csv(dto.getUserId()));
+        writer.write(',');
+        writer.write(csv(dto.getStatusCode()));
+        writer.write(',');
+        writer.write(csv(dto.getProcessingTimeMs()));
+        writer.write(',');
+        writer.write(csv(dto.getRateLimitExceeded()));
+        writer.write(',');
+        writer.write(csv(dto.getAdditionalInfo()));
+        writer.write('\n');
+    }
+
+    /**
+     * Formats a value as a CSV field, quoting it when needed
+     */
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0
+                || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+
+    /**
+     * Keeps a record of rate limit violations
+     *
+     * @param auditLog The audit log of the violation
+     * @return The saved audit log
+     */
+    public ApiAuditLog saveRateLimitViolation(ApiAuditLog auditLog) {
+        try {
+            if (apiAuditConfig.currentPolicy().detailedRateLimitLogging()) {
+                log.warn("Rate limit violation detected: {} {} from IP: {}",
+                        auditLog.getHttpMethod(), auditLog.getEndpoint(), auditLog.getClientIp());
+            }
+            return apiAuditLogRepository.save(auditLog);
+        } catch (Exception e) {
+            log.error("Error saving rate limit violation", e);
+            return null;
+        }
     }
 
     /**
      * Extracts headers from the request as a string
      *
      * @param request The HTTP request
+     * @param policy  The audit policy
      * @return Headers as a string
      */
-    private String extractHeadersAsString(HttpServletRequest request) {
+    private String extractHeadersAsString(HttpServletRequest request, AuditPolicy policy) {
         Map<String, String> headers = new HashMap<>();
         Enumeration<String> headerNames = request.getHeaderNames();
 
         if (headerNames != null) {
             while (headerNames.hasMoreElements()) {
                 String headerName = headerNames.nextElement();
-                // Skip sensitive headers
-                if (!isSensitiveHeader(headerName)) {
+                // Skip sensitive headers unless they are to be retained
+                if (policy.retainSensitiveInfo() || !isSensitiveHeader(headerName)) {
                     headers.put(headerName, request.getHeader(headerName));
                 }
             }
@@ -180,16 +445,15 @@ public class ApiAuditService {
      * Extracts the request body
      *
      * @param request The HTTP request
+     * @param policy  The audit policy
      * @return The request body as a string
      */
-    private String extractRequestBody(ContentCachingRequestWrapper request) {
+    private String extractRequestBody(ContentCachingRequestWrapper request, AuditPolicy policy) {
         byte[] content = request.getContentAsByteArray();
         if (content.length > 0) {
             try {
                 String contentString = new String(content, request.getCharacterEncoding());
-                // Truncate if too long
-                return contentString.length() <= 4000 ? contentString
-                        : contentString.substring(0, 4000) + "... (truncated)";
+                return truncate(contentString, policy.maxBodySize());
             } catch (UnsupportedEncodingException e) {
                 log.error("Error extracting request body", e);
                 return "[Error extracting request body]";
@@ -201,17 +465,24 @@ public class ApiAuditService {
     /**
      * Extracts the response body
      *
-     * @param response The HTTP response
+     * @param servletResponse The HTTP response
+     * @param policy          The audit policy
      * @return The response body as a string
      */
-    private String extractResponseBody(ContentCachingResponseWrapper response) {
+    private String extractResponseBody(HttpServletResponse servletResponse, AuditPolicy policy) {
+        if (!(servletResponse instanceof ContentCachingResponseWrapper response)) {
+            // Streamed responses are not buffered, so there is nothing to log
+            return null;
+        }
+        if (response.getHeader(HttpHeaders.CONTENT_ENCODING) != null) {
+            // Compressed cached bodies are not text
+            return null;
+        }
         byte[] content = response.getContentAsByteArray();
         if (content.length > 0) {
             try {
                 String contentString = new String(content, response.getCharacterEncoding());
-                // Truncate if too long
-                return contentString.length() <= 4000 ? contentString
-                        : contentString.substring(0, 4000) + "... (truncated)";
+                return truncate(contentString, policy.maxBodySize());
             } catch (UnsupportedEncodingException e) {
                 log.error("Error extracting response body", e);
                 return "[Error extracting response body]";
@@ -219,4 +490,15 @@ public class ApiAuditService {
         }
         return null;
     }
-}
\ No newline at end of file
+
+    /**
+     * Truncates a body to the maximum size to log
+     *
+     * @param body    The body
+     * @param maxSize The maximum size, in characters
+     * @return The body, truncated if too long
+     */
+    private static String truncate(String body, int maxSize) {
+        return body.length() <= maxSize ? body : body.substring(0, maxSize) + "... (truncated)";
+    }
+}
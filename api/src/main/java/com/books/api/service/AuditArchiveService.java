@@ -0,0 +1,359 @@
+package com.books.api.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.books.api.config.ApiAuditConfig;
+import com.books.api.dto.AuditCursor;
+import com.books.api.dto.AuditSearchCriteria;
+import com.books.api.service.archive.AuditArchiveDictionary;
+import com.books.api.service.archive.AuditArchiveSegment;
+import com.books.api.service.archive.AuditArchiveSegment.Header;
+import com.books.domain.model.ApiAuditLog;
+import com.books.domain.repository.ApiAuditLogRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service managing the cold tier of the audit log.
+ * Periodically moves old entries from the database into compressed,
+ * column-oriented segment files and answers searches over them using an
+ * in-memory index of the segments' time ranges and endpoints.
+ *
+ * @author books-authors-api
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditArchiveService {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String DICTIONARY_SUFFIX = ".zdict";
+
+    /**
+     * Newest first, matching the keyset order of the audit log
+     */
+    private static final Comparator<ApiAuditLog> NEWEST_FIRST = Comparator
+            .comparing(ApiAuditLog::getTimestamp)
+            .thenComparing(ApiAuditLog::getId)
+            .reversed();
+
+    private static final Comparator<Header> NEWEST_SEGMENT_FIRST = Comparator
+            .comparing(Header::maxTimestamp)
+            .thenComparing(Header::maxId)
+            .reversed();
+
+    private final ApiAuditLogRepository apiAuditLogRepository;
+    private final ApiAuditConfig apiAuditConfig;
+
+    /**
+     * Segment index, newest first. Replaced as a whole when segments are added.
+     */
+    private volatile List<Header> segments = List.of();
+
+    private final Map<Integer, byte[]> dictionaries = new ConcurrentHashMap<>();
+    private volatile int currentDictionaryId;
+
+    private Map<Path, List<ApiAuditLog>> decodedSegments;
+
+    /**
+     * Loads the segment index and the compression dictionaries from disk
+     */
+    @PostConstruct
+    public void loadIndex() {
+        int cacheSize = Math.max(0, apiAuditConfig.getArchive().getCachedSegments());
+        decodedSegments = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, List<ApiAuditLog>> eldest) {
+                return size() > cacheSize;
+            }
+        });
+
+        if (!isEnabled()) {
+            return;
+        }
+
+        Path directory = archiveDirectory();
+        List<Header> loaded = new ArrayList<>();
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + DICTIONARY_SUFFIX)) {
+                for (Path file : files) {
+                    byte[] dictionary = Files.readAllBytes(file);
+                    dictionaries.put(AuditArchiveDictionary.idOf(dictionary), dictionary);
+                }
+            }
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+                for (Path file : files) {
+                    try {
+                        loaded.add(AuditArchiveSegment.readHeader(file));
+                    } catch (IOException e) {
+                        log.warn("Skipping unreadable audit archive segment {}", file, e);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load audit archive from " + directory, e);
+        }
+
+        loaded.sort(NEWEST_SEGMENT_FIRST);
+        segments = List.copyOf(loaded);
+        // Keep compressing with the dictionary of the newest segment, rather
+        // than training another one after every restart
+        currentDictionaryId = loaded.stream()
+                .map(Header::dictionaryId)
+                .filter(dictionaries::containsKey)
+                .findFirst()
+                .orElse(0);
+        log.info("Loaded audit archive index: {} segments, {} dictionaries", loaded.size(), dictionaries.size());
+    }
+
+    /**
+     * Moves audit entries older than the configured threshold to the archive.
+     * Entries are read oldest first in segment-sized batches; each batch is
+     * deleted from the database only after its segment is safely on disk.
+     *
+     * @return the number of archived entries
+     */
+    @Scheduled(cron = "${api.audit.archive.cron:0 30 3 * * *}")
+    public synchronized long archiveOldEntries() {
+        if (!isEnabled()) {
+            return 0;
+        }
+
+        ApiAuditConfig.Archive settings = apiAuditConfig.getArchive();
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(settings.getOlderThanDays());
+        Specification<ApiAuditLog> olderThanCutoff = (root, query, cb) -> cb.lessThan(root.get("timestamp"),
+                cutoff);
+        Sort oldestFirst = Sort.by(Sort.Direction.ASC, "timestamp").and(Sort.by(Sort.Direction.ASC, "id"));
+
+        long archived = 0;
+        try {
+            while (true) {
+                List<ApiAuditLog> batch = apiAuditLogRepository.findBy(olderThanCutoff,
+                        query -> query.sortBy(oldestFirst).limit(settings.getSegmentRows()).all());
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                Header header = writeSegment(batch);
+                try {
+                    apiAuditLogRepository.deleteAllByIdInBatch(batch.stream().map(ApiAuditLog::getId).toList());
+                } catch (RuntimeException e) {
+                    // Keep the database as the single copy of these entries
+                    Files.deleteIfExists(header.path());
+                    throw e;
+                }
+                addToIndex(header);
+                archived += batch.size();
+
+                if (batch.size() < settings.getSegmentRows()) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            log.error("Audit archiving stopped after {} entries", archived, e);
+        }
+
+        if (archived > 0) {
+            log.info("Archived {} audit entries older than {}", archived, cutoff);
+        }
+        return archived;
+    }
+
+    /**
+     * Searches the archive in keyset order (timestamp, id) descending
+     *
+     * @param criteria the filter criteria
+     * @param cursor   the position after which to continue, or null to start
+     *                 with the newest archived entry
+     * @param limit    the maximum number of entries to return
+     * @return the matching archived entries, newest first
+     */
+    public List<ApiAuditLog> search(AuditSearchCriteria criteria, AuditCursor cursor, int limit) {
+        if (!isEnabled() || limit <= 0) {
+            return List.of();
+        }
+
+        List<ApiAuditLog> result = new ArrayList<>();
+        for (Header segment : segments) {
+            if (!mayMatch(segment, criteria, cursor)) {
+                continue;
+            }
+            // Segments are visited newest first; once the result is full, a
+            // segment entirely older than its last entry cannot contribute
+            if (result.size() >= limit
+                    && segment.maxTimestamp().isBefore(result.get(limit - 1).getTimestamp())) {
+                break;
+            }
+            for (ApiAuditLog entry : decode(segment)) {
+                if (criteria.matches(entry) && isBefore(entry, cursor)) {
+                    result.add(entry);
+                }
+            }
+            result.sort(NEWEST_FIRST);
+            if (result.size() > limit) {
+                result.subList(limit, result.size()).clear();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns archived entries by offset, for merging with offset-paginated
+     * database results
+     *
+     * @param criteria the filter criteria
+     * @param offset   the number of matching entries to skip
+     * @param limit    the maximum number of entries to return
+     * @return the matching archived entries, newest first
+     */
+    public List<ApiAuditLog> find(AuditSearchCriteria criteria, long offset, int limit) {
+        if (offset >= Integer.MAX_VALUE - limit) {
+            return List.of();
+        }
+        List<ApiAuditLog> window = search(criteria, null, (int) offset + limit);
+        return offset >= window.size() ? List.of() : window.subList((int) offset, window.size());
+    }
+
+    /**
+     * Counts the archived entries matching the criteria. Segments fully
+     * inside a time-only filter are counted from the index alone.
+     *
+     * @param criteria the filter criteria
+     * @return the number of matching archived entries
+     */
+    public long count(AuditSearchCriteria criteria) {
+        if (!isEnabled()) {
+            return 0;
+        }
+
+        boolean timeOnly = criteria.getClientIp() == null && criteria.getUserId() == null
+                && criteria.getEndpoint() == null && criteria.getStatusCode() == null
+                && !criteria.isRateLimitOnly();
+        long count = 0;
+        for (Header segment : segments) {
+            if (!mayMatch(segment, criteria, null)) {
+                continue;
+            }
+            boolean fullyInside = (criteria.getStartTime() == null
+                    || !segment.minTimestamp().isBefore(criteria.getStartTime()))
+                    && (criteria.getEndTime() == null || !segment.maxTimestamp().isAfter(criteria.getEndTime()));
+            if (timeOnly && fullyInside) {
+                count += segment.rowCount();
+            } else {
+                count += decode(segment).stream().filter(criteria::matches).count();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Whether archiving and archive searches are enabled
+     *
+     * @return true if the archive is enabled
+     */
+    public boolean isEnabled() {
+        return apiAuditConfig.getArchive().isEnabled();
+    }
+
+    /**
+     * Writes a batch to a new segment, training the shared dictionary from
+     * the first batch if none exists yet
+     */
+    private Header writeSegment(List<ApiAuditLog> batch) throws IOException {
+        Path directory = archiveDirectory();
+        Files.createDirectories(directory);
+
+        if (currentDictionaryId == 0) {
+            byte[] dictionary = AuditArchiveDictionary.train(batch, apiAuditConfig.getArchive().getDictionarySize());
+            if (dictionary.length > 0) {
+                int id = AuditArchiveDictionary.idOf(dictionary);
+                Path file = directory.resolve(String.format("dictionary-%08x%s", id, DICTIONARY_SUFFIX));
+                if (!Files.exists(file)) {
+                    Files.write(file, dictionary);
+                }
+                dictionaries.put(id, dictionary);
+                currentDictionaryId = id;
+            }
+        }
+
+        ApiAuditLog first = batch.get(0);
+        Path target = directory.resolve(String.format("audit-%d-%d%s",
+                first.getTimestamp().toEpochSecond(ZoneOffset.UTC), first.getId(), SEGMENT_SUFFIX));
+        return AuditArchiveSegment.write(target, batch, currentDictionaryId, dictionaries.get(currentDictionaryId));
+    }
+
+    private void addToIndex(Header header) {
+        List<Header> updated = new ArrayList<>(segments);
+        updated.add(header);
+        updated.sort(NEWEST_SEGMENT_FIRST);
+        segments = List.copyOf(updated);
+    }
+
+    /**
+     * Decodes the summary columns of a segment, reusing recently decoded ones
+     */
+    private List<ApiAuditLog> decode(Header segment) {
+        List<ApiAuditLog> cached = decodedSegments.get(segment.path());
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            List<ApiAuditLog> entries = Collections.unmodifiableList(AuditArchiveSegment.read(segment.path(),
+                    AuditArchiveSegment.SUMMARY_COLUMNS, dictionaries));
+            decodedSegments.put(segment.path(), entries);
+            return entries;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read audit archive segment " + segment.path(), e);
+        }
+    }
+
+    /**
+     * Prunes segments using the index only
+     */
+    private static boolean mayMatch(Header segment, AuditSearchCriteria criteria, AuditCursor cursor) {
+        if (criteria.getStartTime() != null && segment.maxTimestamp().isBefore(criteria.getStartTime())) {
+            return false;
+        }
+        if (criteria.getEndTime() != null && segment.minTimestamp().isAfter(criteria.getEndTime())) {
+            return false;
+        }
+        if (cursor != null && segment.minTimestamp().isAfter(cursor.timestamp())) {
+            return false;
+        }
+        return segment.hasEndpointWithPrefix(criteria.getEndpoint());
+    }
+
+    private static boolean isBefore(ApiAuditLog entry, AuditCursor cursor) {
+        if (cursor == null) {
+            return true;
+        }
+        int byTimestamp = entry.getTimestamp().compareTo(cursor.timestamp());
+        return byTimestamp < 0 || (byTimestamp == 0 && entry.getId() < cursor.id());
+    }
+
+    private Path archiveDirectory() {
+        return Paths.get(apiAuditConfig.getArchive().getDirectory());
+    }
+}
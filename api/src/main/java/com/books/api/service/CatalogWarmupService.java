@@ -0,0 +1,145 @@
+package com.books.api.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import com.books.application.dto.AuthorDTO;
+import com.books.application.dto.BookDTO;
+import com.books.application.service.AuthorService;
+import com.books.application.service.BookService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Replays a mix of catalog reads at startup, so that the JIT compiles the
+ * read path before the instance serves traffic.
+ * <p>
+ * Each iteration reads the first {@code catalog.warmup.pages} pages of books
+ * and authors, the books and authors on the first pages by ID, one by one
+ * and as a multi-get, and the searches by author and by book, and serializes
+ * every result to JSON like a response. The reads go through the services in
+ * process rather than over HTTP, so that they count against no rate limit or
+ * quota and leave no audit entries; after the first iteration they are
+ * mostly served by the catalog caches, as hot reads are in production.
+ * <p>
+ * The warm-up runs after the cache snapshot is restored, for at most
+ * {@code iterations} iterations or {@code max-duration}. Spring Boot only
+ * marks the application ready once it is done.
+ *
+ * @author books-authors-api
+ */
+@Service
+@Order(10) // After the cache snapshot restore
+@Slf4j
+public class CatalogWarmupService implements ApplicationRunner {
+
+    private final BookService bookService;
+    private final AuthorService authorService;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int iterations;
+    private final Duration maxDuration;
+    private final int pages;
+    private final int pageSize;
+
+    public CatalogWarmupService(BookService bookService, AuthorService authorService, ObjectMapper objectMapper,
+            @Value("${catalog.warmup.enabled:false}") boolean enabled,
+            @Value("${catalog.warmup.iterations:300}") int iterations,
+            @Value("${catalog.warmup.max-duration:PT20S}") Duration maxDuration,
+            @Value("${catalog.warmup.pages:3}") int pages,
+            @Value("${catalog.warmup.page-size:10}") int pageSize) {
+        this.bookService = bookService;
+        this.authorService = authorService;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.maxDuration = maxDuration;
+        this.pages = Math.max(1, pages);
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled && iterations > 0) {
+            warmUp();
+        }
+    }
+
+    /**
+     * Replays the read mix until the iterations or the time are used up
+     *
+     * @return the number of iterations run
+     */
+    public int warmUp() {
+        long start = System.nanoTime();
+        long deadline = start + maxDuration.toNanos();
+        int completed = 0;
+        try {
+            while (completed < iterations && System.nanoTime() < deadline) {
+                if (!replayMix()) {
+                    log.info("Catalog is empty, skipping the warm-up");
+                    return completed;
+                }
+                completed++;
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Stopping the warm-up after {} iterations: {}", completed, e.getMessage());
+            return completed;
+        }
+        log.info("Warmed up the catalog reads with {} iterations in {} ms", completed,
+                (System.nanoTime() - start) / 1_000_000);
+        return completed;
+    }
+
+    /**
+     * Runs one iteration of the mix
+     *
+     * @return false if there is nothing to read
+     */
+    private boolean replayMix() throws JsonProcessingException {
+        List<BookDTO> firstBooks = bookService.getAllBooks(1, pageSize);
+        List<AuthorDTO> firstAuthors = authorService.getAllAuthors(1, pageSize);
+        if (firstBooks.isEmpty() && firstAuthors.isEmpty()) {
+            return false;
+        }
+        serialize(firstBooks);
+        serialize(firstAuthors);
+        for (int page = 2; page <= pages; page++) {
+            serialize(bookService.getAllBooks(page, pageSize));
+            serialize(authorService.getAllAuthors(page, pageSize));
+        }
+
+        List<Long> bookIds = firstBooks.stream().map(BookDTO::getBookId).filter(Objects::nonNull).toList();
+        List<Long> authorIds = firstAuthors.stream().map(AuthorDTO::getAuthorId).filter(Objects::nonNull).toList();
+        for (Long bookId : bookIds) {
+            serialize(bookService.findBookById(bookId).orElse(null));
+            serialize(authorService.findAuthorsByBookId(bookId));
+        }
+        for (Long authorId : authorIds) {
+            serialize(authorService.getAuthorById(authorId).orElse(null));
+            serialize(bookService.findBooksByAuthorId(authorId));
+        }
+        if (!bookIds.isEmpty()) {
+            serialize(bookService.findBooksByIds(bookIds));
+        }
+        if (!authorIds.isEmpty()) {
+            serialize(authorService.findAuthorsByIds(authorIds));
+        }
+        return true;
+    }
+
+    private void serialize(Object body) throws JsonProcessingException {
+        if (body != null) {
+            objectMapper.writeValueAsBytes(body);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.books.api.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.books.api.config.IpAccessConfig;
+import com.books.api.service.access.CidrTrie;
+import com.books.api.service.access.CidrTrie.Rule;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service that decides whether a client IP may reach the API.
+ * Combines the configured allow/deny CIDR ranges, compiled into a
+ * {@link CidrTrie} that is swapped atomically on reload, with temporary bans
+ * of clients that keep exceeding the rate limit. A check is a hash lookup and
+ * a short trie walk, so rejected traffic costs almost nothing.
+ *
+ * @author books-authors-api
+ */
+@Service
+@Slf4j
+public class IpAccessService {
+
+    private final IpAccessConfig ipAccessConfig;
+    private final Clock clock;
+
+    private volatile CidrTrie rules = CidrTrie.builder().build();
+
+    // Banned client IP -> end of the ban in epoch milliseconds
+    private final Map<String, Long> bans = new ConcurrentHashMap<>();
+
+    // Client IP -> rate limit violations in the current window
+    private final Map<String, ViolationWindow> violations = new ConcurrentHashMap<>();
+
+    private final LongAdder rejectedRequests = new LongAdder();
+
+    @Autowired
+    public IpAccessService(IpAccessConfig ipAccessConfig) {
+        this(ipAccessConfig, Clock.systemUTC());
+    }
+
+    IpAccessService(IpAccessConfig ipAccessConfig, Clock clock) {
+        this.ipAccessConfig = ipAccessConfig;
+        this.clock = clock;
+    }
+
+    /**
+     * Rebuilds the CIDR rules from the configuration and the rules file. The
+     * previous rules stay in place if any rule is invalid.
+     *
+     * @return the number of ranges loaded
+     * @throws IllegalArgumentException if a rule is invalid
+     * @throws IOException              if the rules file cannot be read
+     */
+    @PostConstruct
+    public synchronized int reload() throws IOException {
+        CidrTrie.Builder builder = CidrTrie.builder();
+        ipAccessConfig.getDeny().forEach(range -> builder.add(range, Rule.DENY));
+        ipAccessConfig.getAllow().forEach(range -> builder.add(range, Rule.ALLOW));
+
+        String rulesFile = ipAccessConfig.getRulesFile();
+        if (rulesFile != null && !rulesFile.isBlank() && Files.exists(Path.of(rulesFile))) {
+            List<String> lines = Files.readAllLines(Path.of(rulesFile));
+            for (String line : lines) {
+                addRule(builder, line);
+            }
+        }
+
+        CidrTrie loaded = builder.build();
+        rules = loaded;
+        log.info("Loaded {} IP access ranges", loaded.size());
+        return loaded.size();
+    }
+
+    /**
+     * Checks whether a client is banned or inside a denied range
+     *
+     * @param clientIp the client IP literal
+     * @return true if the request must be rejected
+     */
+    public boolean isDenied(String clientIp) {
+        if (clientIp == null) {
+            return false;
+        }
+        Long bannedUntil = bans.get(clientIp);
+        boolean denied;
+        if (bannedUntil != null && bannedUntil > clock.millis()) {
+            denied = true;
+        } else {
+            denied = rules.lookup(clientIp) == Rule.DENY;
+        }
+        if (denied) {
+            rejectedRequests.increment();
+        }
+        return denied;
+    }
+
+    /**
+     * Counts a rate-limited response of a client and bans the client once the
+     * configured threshold is reached within the window
+     *
+     * @param clientIp the client IP literal
+     */
+    public void recordRateLimitViolation(String clientIp) {
+        IpAccessConfig.AutoBan autoBan = ipAccessConfig.getAutoBan();
+        if (clientIp == null || !autoBan.isEnabled()) {
+            return;
+        }
+        long now = clock.millis();
+        long windowMillis = autoBan.getWindowSeconds() * 1000L;
+        ViolationWindow window = violations.compute(clientIp, (ip, current) -> current == null
+                || current.startMillis + windowMillis <= now ? new ViolationWindow(now) : current);
+        if (window.count.incrementAndGet() == autoBan.getThreshold()) {
+            ban(clientIp, Duration.ofSeconds(autoBan.getBanSeconds()));
+            violations.remove(clientIp, window);
+        }
+    }
+
+    /**
+     * Bans a client for a period
+     *
+     * @param clientIp the client IP literal
+     * @param duration the duration of the ban
+     */
+    public void ban(String clientIp, Duration duration) {
+        bans.put(clientIp, clock.millis() + duration.toMillis());
+        log.warn("Client {} banned for {}", clientIp, duration);
+    }
+
+    /**
+     * Lifts the ban of a client
+     *
+     * @param clientIp the client IP literal
+     * @return true if the client was banned
+     */
+    public boolean unban(String clientIp) {
+        return bans.remove(clientIp) != null;
+    }
+
+    /**
+     * Returns the active bans
+     *
+     * @return client IP to end of ban, sorted by IP
+     */
+    public Map<String, Instant> getBans() {
+        long now = clock.millis();
+        Map<String, Instant> active = new TreeMap<>();
+        bans.forEach((ip, until) -> {
+            if (until > now) {
+                active.put(ip, Instant.ofEpochMilli(until));
+            }
+        });
+        return active;
+    }
+
+    /**
+     * Number of requests rejected since startup
+     *
+     * @return the rejected request count
+     */
+    public long getRejectedRequests() {
+        return rejectedRequests.sum();
+    }
+
+    /**
+     * Removes expired bans and stale violation windows
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void purgeExpired() {
+        long now = clock.millis();
+        long windowMillis = ipAccessConfig.getAutoBan().getWindowSeconds() * 1000L;
+        bans.values().removeIf(until -> until <= now);
+        violations.values().removeIf(window -> window.startMillis + windowMillis <= now);
+    }
+
+    private static void addRule(CidrTrie.Builder builder, String line) {
+        String rule = line.strip();
+        if (rule.isEmpty() || rule.startsWith("#")) {
+            return;
+        }
+        String[] parts = rule.split("\\s+");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Invalid IP access rule: " + line);
+        }
+        switch (parts[0].toLowerCase()) {
+            case "allow" -> builder.add(parts[1], Rule.ALLOW);
+            case "deny" -> builder.add(parts[1], Rule.DENY);
+            default -> throw new IllegalArgumentException("Invalid IP access rule: " + line);
+        }
+    }
+
+    /**
+     * Rate limit violations of one client within a window
+     */
+    private static final class ViolationWindow {
+        private final long startMillis;
+        private final AtomicInteger count = new AtomicInteger();
+
+        ViolationWindow(long startMillis) {
+            this.startMillis = startMillis;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.books.api.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.BindException;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.books.api.config.ApiAuditConfig;
+import com.books.api.config.AuditPolicy;
+import com.books.api.config.RateLimitingConfig;
+import com.books.api.service.ratelimit.RateLimitPolicy;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service that reloads the rate limit and audit policies without a restart.
+ * The policy file uses the same {@code rate-limiting} and {@code api.audit}
+ * sections as application.yml; a section present in the file replaces the
+ * running settings as a whole. Both sections are validated and compiled
+ * into immutable snapshots before either is published, so an invalid file
+ * leaves the running policies untouched, and each snapshot is swapped in a
+ * single step, so a request never sees half of a reload. The
+ * file is applied at startup, on {@code POST /api/policies/reload} and
+ * whenever its modification time changes.
+ *
+ * @author books-authors-api
+ */
+@Service
+@Slf4j
+public class PolicyReloadService {
+
+    private final RateLimitingService rateLimitingService;
+    private final ApiAuditConfig apiAuditConfig;
+    private final String file;
+
+    // Modification time of the last file seen by the watcher
+    private FileTime lastModified;
+
+    public PolicyReloadService(RateLimitingService rateLimitingService, ApiAuditConfig apiAuditConfig,
+            @Value("${policies.file:}") String file) {
+        this.rateLimitingService = rateLimitingService;
+        this.apiAuditConfig = apiAuditConfig;
+        this.file = file;
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        if (isConfigured() && Files.exists(Path.of(file))) {
+            reload();
+        }
+    }
+
+    /**
+     * Reads, validates and applies the policy file
+     *
+     * @return the sections applied from the file
+     * @throws IllegalStateException    if no policy file is configured
+     * @throws IllegalArgumentException if the file holds invalid settings
+     * @throws IOException              if the file cannot be read
+     */
+    public synchronized List<String> reload() throws IOException {
+        if (!isConfigured()) {
+            throw new IllegalStateException("No policy file configured (policies.file)");
+        }
+        Path path = Path.of(file);
+        lastModified = Files.getLastModifiedTime(path);
+
+        Binder binder = binder(path);
+        RateLimitingConfig rateLimiting;
+        ApiAuditConfig audit;
+        try {
+            rateLimiting = binder.bind("rate-limiting", RateLimitingConfig.class).orElse(null);
+            audit = binder.bind("api.audit", ApiAuditConfig.class).orElse(null);
+        } catch (BindException e) {
+            throw new IllegalArgumentException("Invalid policy file: " + e.getMessage(), e);
+        }
+
+        List<String> errors = new ArrayList<>();
+        if (rateLimiting != null) {
+            errors.addAll(rateLimiting.validate());
+        }
+        if (audit != null) {
+            errors.addAll(audit.validate());
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", errors));
+        }
+
+        RateLimitPolicy rateLimitPolicy = rateLimiting != null ? RateLimitPolicy.compile(rateLimiting) : null;
+        AuditPolicy auditPolicy = audit != null ? apiAuditConfig.compile(audit) : null;
+
+        List<String> applied = new ArrayList<>();
+        if (rateLimitPolicy != null) {
+            rateLimitingService.applyPolicy(rateLimitPolicy);
+            applied.add("rate-limiting");
+        }
+        if (auditPolicy != null) {
+            // The archive and sketch settings size long-lived structures and
+            // still require a restart
+            apiAuditConfig.applyPolicy(auditPolicy);
+            applied.add("api.audit");
+        }
+        log.info("Policies {} reloaded from {}", applied, path);
+        return applied;
+    }
+
+    /**
+     * Applies the policy file when its modification time changes. A file that
+     * fails to load is reported once and retried only after it changes again.
+     */
+    @Scheduled(fixedDelayString = "${policies.watch-interval-ms:5000}")
+    public synchronized void watch() {
+        if (!isConfigured()) {
+            return;
+        }
+        try {
+            Path path = Path.of(file);
+            if (!Files.exists(path) || Files.getLastModifiedTime(path).equals(lastModified)) {
+                return;
+            }
+            reload();
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Policy file {} not applied, keeping current policies: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Creates a binder over a policy file
+     *
+     * @param path the YAML policy file
+     * @return the binder
+     * @throws IOException if the file cannot be read
+     */
+    public static Binder binder(Path path) throws IOException {
+        List<PropertySource<?>> sources = new YamlPropertySourceLoader().load(path.toString(),
+                new FileSystemResource(path));
+        return new Binder(ConfigurationPropertySources.from(sources));
+    }
+
+    private boolean isConfigured() {
+        return file != null && !file.isBlank();
+    }
+}
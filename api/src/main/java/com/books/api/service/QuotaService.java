@@ -0,0 +1,230 @@
+package com.books.api.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.books.api.config.QuotaConfig;
+import com.books.api.config.QuotaConfig.Plan;
+import com.books.api.service.quota.QuotaPeriod;
+import com.books.api.service.quota.QuotaStatus;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service that enforces daily and monthly request quotas per client.
+ * Usage is counted in striped in-memory counters, so checking a request
+ * never touches storage. The counters are checkpointed to a local file
+ * periodically and on shutdown, and restored at startup while their period
+ * is still current. Quotas are soft: concurrent requests may overshoot a
+ * limit by the number in flight, and a crash loses at most one checkpoint
+ * interval of usage.
+ *
+ * @author books-authors-api
+ */
+@Service
+@Slf4j
+public class QuotaService {
+
+    private static final String CHECKPOINT_HEADER = "# quota usage v1";
+
+    private final QuotaConfig quotaConfig;
+    private final Clock clock;
+
+    // Client key -> usage in the current period
+    private final Map<String, Usage> usage = new ConcurrentHashMap<>();
+
+    @Autowired
+    public QuotaService(QuotaConfig quotaConfig) {
+        this(quotaConfig, Clock.systemUTC());
+    }
+
+    QuotaService(QuotaConfig quotaConfig, Clock clock) {
+        this.quotaConfig = quotaConfig;
+        this.clock = clock;
+    }
+
+    /**
+     * Counts a request against the client's quota
+     *
+     * @param client the client key
+     * @return the quota status, or null if the client has no quota
+     */
+    public QuotaStatus consume(String client) {
+        Plan plan = planOf(client);
+        if (plan.getLimit() <= 0) {
+            return null;
+        }
+        long index = plan.getPeriod().indexOf(clock.instant());
+        Usage current = currentUsage(client, plan.getPeriod(), index);
+        Instant resetAt = plan.getPeriod().end(index);
+
+        long used = current.count.sum();
+        if (used >= plan.getLimit()) {
+            return new QuotaStatus(plan.getLimit(), used, 0, resetAt, false);
+        }
+        current.count.increment();
+        return new QuotaStatus(plan.getLimit(), used + 1, plan.getLimit() - used - 1, resetAt, true);
+    }
+
+    /**
+     * Returns the quota status of a client without counting a request
+     *
+     * @param client the client key
+     * @return the quota status, or null if the client has no quota
+     */
+    public QuotaStatus getStatus(String client) {
+        Plan plan = planOf(client);
+        if (plan.getLimit() <= 0) {
+            return null;
+        }
+        long index = plan.getPeriod().indexOf(clock.instant());
+        Usage current = usage.get(client);
+        long used = current != null && current.isFor(plan.getPeriod(), index) ? current.count.sum() : 0;
+        return new QuotaStatus(plan.getLimit(), used, Math.max(0, plan.getLimit() - used),
+                plan.getPeriod().end(index), used < plan.getLimit());
+    }
+
+    /**
+     * Returns the quota status of every client with usage in its current
+     * period
+     *
+     * @return client key to quota status, sorted by client
+     */
+    public Map<String, QuotaStatus> getUsage() {
+        Map<String, QuotaStatus> statuses = new TreeMap<>();
+        for (String client : usage.keySet()) {
+            QuotaStatus status = getStatus(client);
+            if (status != null && status.used() > 0) {
+                statuses.put(client, status);
+            }
+        }
+        return statuses;
+    }
+
+    /**
+     * Restores the counters of the last checkpoint that are still in their
+     * period under the current plans
+     *
+     * @throws IOException if the checkpoint cannot be read
+     */
+    @PostConstruct
+    public void restore() throws IOException {
+        Path file = checkpointFile();
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+        Instant now = clock.instant();
+        int restored = 0;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String[] fields = line.split("\t");
+            if (line.startsWith("#") || fields.length != 4) {
+                continue;
+            }
+            try {
+                String client = fields[0];
+                QuotaPeriod period = QuotaPeriod.valueOf(fields[1]);
+                long index = Long.parseLong(fields[2]);
+                long count = Long.parseLong(fields[3]);
+                Plan plan = planOf(client);
+                if (plan.getLimit() > 0 && plan.getPeriod() == period && period.indexOf(now) == index) {
+                    currentUsage(client, period, index).count.add(count);
+                    restored++;
+                }
+            } catch (IllegalArgumentException e) {
+                log.warn("Skipping invalid quota checkpoint line: {}", line);
+            }
+        }
+        log.info("Restored quota usage of {} clients from {}", restored, file);
+    }
+
+    /**
+     * Writes the current counters to the checkpoint file, replacing it
+     * atomically, and drops counters of past periods
+     */
+    @Scheduled(fixedDelayString = "${quota.checkpoint-interval-ms:30000}")
+    @PreDestroy
+    public synchronized void checkpoint() {
+        Path file = checkpointFile();
+        if (file == null) {
+            return;
+        }
+        Instant now = clock.instant();
+        usage.values().removeIf(u -> u.period.indexOf(now) != u.index);
+
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                writer.write(CHECKPOINT_HEADER);
+                writer.newLine();
+                for (Map.Entry<String, Usage> entry : usage.entrySet()) {
+                    Usage u = entry.getValue();
+                    writer.write(String.join("\t", List.of(entry.getKey(), u.period.name(),
+                            Long.toString(u.index), Long.toString(u.count.sum()))));
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not checkpoint quota usage to {}: {}", file, e.getMessage());
+        }
+    }
+
+    private Plan planOf(String client) {
+        Plan plan = quotaConfig.getClients().get(client);
+        return plan != null ? plan : quotaConfig.getDefaultPlan();
+    }
+
+    /**
+     * Returns the counter of the client's current period, starting a new one
+     * when the period has rolled over or the plan changed
+     */
+    private Usage currentUsage(String client, QuotaPeriod period, long index) {
+        Usage current = usage.get(client);
+        if (current != null && current.isFor(period, index)) {
+            return current;
+        }
+        return usage.compute(client, (k, u) -> u != null && u.isFor(period, index) ? u : new Usage(period, index));
+    }
+
+    private Path checkpointFile() {
+        String file = quotaConfig.getCheckpointFile();
+        return file == null || file.isBlank() ? null : Path.of(file);
+    }
+
+    /**
+     * Request count of one client in one period
+     */
+    private static final class Usage {
+        private final QuotaPeriod period;
+        private final long index;
+        private final LongAdder count = new LongAdder();
+
+        Usage(QuotaPeriod period, long index) {
+            this.period = period;
+            this.index = index;
+        }
+
+        boolean isFor(QuotaPeriod period, long index) {
+            return this.period == period && this.index == index;
+        }
+    }
+}
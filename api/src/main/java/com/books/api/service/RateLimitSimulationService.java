@@ -0,0 +1,79 @@
+package com.books.api.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.books.api.config.RateLimitingConfig;
+import com.books.api.service.ratelimit.RateLimitSimulator;
+import com.books.api.service.ratelimit.SimulationReport;
+import com.books.domain.repository.ApiAuditLogRepository;
+import com.books.domain.repository.ApiAuditLogRepository.TrafficEntry;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service that evaluates a candidate rate limit configuration against the
+ * recorded audit traffic before it is rolled out. The timeline is read in
+ * ascending keyset batches of its traffic columns only and replayed through
+ * a {@link RateLimitSimulator}. Archived (cold-tier) entries are not
+ * replayed.
+ *
+ * @author books-authors-api
+ */
+@Service
+@Slf4j
+public class RateLimitSimulationService {
+
+    private static final int BATCH_SIZE = 5000;
+
+    private final ApiAuditLogRepository apiAuditLogRepository;
+    private final String contextPath;
+
+    public RateLimitSimulationService(ApiAuditLogRepository apiAuditLogRepository,
+            @Value("${server.servlet.context-path:}") String contextPath) {
+        this.apiAuditLogRepository = apiAuditLogRepository;
+        this.contextPath = contextPath;
+    }
+
+    /**
+     * Replays the audit traffic of a time range through the candidate
+     *
+     * @param candidate the rate limit settings to evaluate
+     * @param startTime the inclusive start of the range
+     * @param endTime   the exclusive end of the range
+     * @param top       the number of clients and endpoints to list
+     * @return the simulation report
+     * @throws IllegalArgumentException if the candidate is invalid
+     */
+    public SimulationReport simulate(RateLimitingConfig candidate, LocalDateTime startTime, LocalDateTime endTime,
+            int top) {
+        RateLimitSimulator simulator = new RateLimitSimulator(candidate, contextPath);
+
+        LocalDateTime afterTime = startTime;
+        long afterId = Long.MIN_VALUE;
+        List<TrafficEntry> batch;
+        do {
+            batch = apiAuditLogRepository.findTrafficAfter(afterTime, afterId, endTime,
+                    PageRequest.of(0, BATCH_SIZE));
+            for (TrafficEntry entry : batch) {
+                simulator.replay(entry.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli(), entry.getEndpoint(),
+                        entry.getClientIp(), entry.getUserId());
+            }
+            if (!batch.isEmpty()) {
+                TrafficEntry last = batch.get(batch.size() - 1);
+                afterTime = last.getTimestamp();
+                afterId = last.getId();
+            }
+        } while (batch.size() == BATCH_SIZE);
+
+        SimulationReport report = simulator.report(top);
+        log.info("Rate limit simulation replayed {} requests in {} ms: {} rejected", report.totalRequests(),
+                report.elapsedMillis(), report.rejectedRequests());
+        return report;
+    }
+}
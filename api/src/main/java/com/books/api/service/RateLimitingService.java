@@ -2,14 +2,15 @@ package com.books.api.service;
 
 import com.books.api.config.RateLimitingConfig;
 import com.books.api.config.RateLimitingConfig.EndpointLimit;
+import com.books.api.service.ratelimit.RateLimitEngine;
+import com.books.api.service.ratelimit.RateLimitPolicy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Service that manages rate limiting functionality.
@@ -24,8 +25,12 @@ public class RateLimitingService {
 
     private final RateLimitingConfig rateLimitingConfig;
 
-    // Cache to store request counts per key (IP address, user, or token)
-    private final Map<String, RequestCounter> requestCounters = new ConcurrentHashMap<>();
+    // Request counts per key (IP address, user, or token)
+    private final RateLimitEngine engine = new RateLimitEngine();
+
+    // Current policy; compiled from the startup settings on first use, then
+    // only replaced as a whole by applyPolicy
+    private final AtomicReference<RateLimitPolicy> policy = new AtomicReference<>();
 
     /**
      * Checks if a request is allowed based on rate limits for the given key and
@@ -36,14 +41,13 @@ public class RateLimitingService {
      * @return true if request is allowed, false if rate limit exceeded
      */
     public boolean isRequestAllowed(String key, EndpointLimit endpointLimit) {
-        if (!rateLimitingConfig.isEnabled()) {
+        if (!currentPolicy().enabled()) {
             return true;
         }
 
-        RequestCounter counter = requestCounters.computeIfAbsent(key, k -> new RequestCounter());
-        return counter.incrementAndCheckLimit(endpointLimit.getLimit(),
-                endpointLimit.getRefreshPeriod(),
-                endpointLimit.getTimeUnit());
+        return engine.tryAcquire(key, endpointLimit.getLimit(),
+                endpointLimit.getTimeUnit().toMillis(endpointLimit.getRefreshPeriod()),
+                System.currentTimeMillis());
     }
 
     /**
@@ -53,16 +57,61 @@ public class RateLimitingService {
      * @return The matching endpoint limit or default settings
      */
     public EndpointLimit findEndpointLimit(String path) {
-        return rateLimitingConfig.getEndpoints().stream()
-                .filter(endpoint -> path.matches(endpoint.getPattern()))
-                .findFirst()
-                .orElse(new EndpointLimit() {
-                    {
-                        setLimit(rateLimitingConfig.getDefaultSettings().getLimit());
-                        setRefreshPeriod(rateLimitingConfig.getDefaultSettings().getRefreshPeriod());
-                        setTimeUnit(rateLimitingConfig.getDefaultSettings().getTimeUnit());
-                    }
-                });
+        return currentPolicy().find(path);
+    }
+
+    /**
+     * Returns the current rate limit policy. Callers that need several
+     * settings for one request should read the policy once and use it
+     * throughout, so that a concurrent reload cannot mix two policies.
+     *
+     * @return the current policy
+     */
+    public RateLimitPolicy currentPolicy() {
+        RateLimitPolicy current = policy.get();
+        if (current == null) {
+            policy.compareAndSet(null, RateLimitPolicy.compile(rateLimitingConfig));
+            current = policy.get();
+        }
+        return current;
+    }
+
+    /**
+     * Replaces the rate limit policy at runtime. The candidate is validated
+     * and compiled before anything changes, so an invalid policy leaves the
+     * current one in place. Request counters are kept, and a tightened limit
+     * therefore applies at once; they are dropped only when the strategy
+     * changes, since their keys no longer match any request.
+     *
+     * @param candidate the new settings
+     * @return the number of endpoint-specific limits
+     * @throws IllegalArgumentException if the candidate is invalid
+     */
+    public int applyPolicy(RateLimitingConfig candidate) {
+        List<String> errors = candidate.validate();
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", errors));
+        }
+        return applyPolicy(RateLimitPolicy.compile(candidate));
+    }
+
+    /**
+     * Publishes a compiled rate limit policy, replacing the current one in a
+     * single step
+     *
+     * @param compiled the new policy
+     * @return the number of endpoint-specific limits
+     */
+    public synchronized int applyPolicy(RateLimitPolicy compiled) {
+        RateLimitPolicy previous = currentPolicy();
+        policy.set(compiled);
+
+        if (!Objects.equals(previous.strategy(), compiled.strategy())) {
+            engine.clear();
+        }
+        log.info("Rate limit policy applied: {} endpoint limits, strategy {}", compiled.limits().size(),
+                compiled.strategy());
+        return compiled.limits().size();
     }
 
     /**
@@ -74,15 +123,15 @@ public class RateLimitingService {
      *         time
      */
     public RateLimitInfo getRateLimitInfo(String key, EndpointLimit endpointLimit) {
-        RequestCounter counter = requestCounters.get(key);
-        if (counter == null) {
+        long resetTimeMillis = engine.getResetTimeMillis(key);
+        if (resetTimeMillis < 0) {
             return new RateLimitInfo(endpointLimit.getLimit(), endpointLimit.getLimit(), System.currentTimeMillis());
         }
 
         return new RateLimitInfo(
                 endpointLimit.getLimit(),
-                Math.max(0, endpointLimit.getLimit() - counter.getCount()),
-                counter.getResetTimeMillis());
+                Math.max(0, endpointLimit.getLimit() - engine.getCount(key)),
+                resetTimeMillis);
     }
 
     /**
@@ -90,42 +139,4 @@ public class RateLimitingService {
      */
     public record RateLimitInfo(int limit, int remaining, long resetTimeMillis) {
     }
-
-    /**
-     * Helper class to track request counts and reset times
-     */
-    private static class RequestCounter {
-        private final AtomicInteger count = new AtomicInteger(0);
-        private long resetTimeMillis = System.currentTimeMillis();
-
-        /**
-         * Increment the counter and check if the limit has been exceeded
-         */
-        public synchronized boolean incrementAndCheckLimit(int limit, int refreshPeriod, TimeUnit timeUnit) {
-            long currentTimeMillis = System.currentTimeMillis();
-
-            // Reset counter if refresh period has elapsed
-            if (currentTimeMillis > resetTimeMillis) {
-                count.set(0);
-                resetTimeMillis = currentTimeMillis + timeUnit.toMillis(refreshPeriod);
-            }
-
-            // Increment counter and check against limit
-            return count.incrementAndGet() <= limit;
-        }
-
-        /**
-         * Get the current count
-         */
-        public int getCount() {
-            return count.get();
-        }
-
-        /**
-         * Get the reset time in milliseconds
-         */
-        public long getResetTimeMillis() {
-            return resetTimeMillis;
-        }
-    }
-}
\ No newline at end of file
+}
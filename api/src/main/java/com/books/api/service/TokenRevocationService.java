@@ -0,0 +1,155 @@
+package com.books.api.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.books.api.service.revocation.FileTokenRevocationStore;
+import com.books.api.service.revocation.RevokedToken;
+import com.books.api.service.revocation.TokenRevocationStore;
+import com.books.api.service.sketch.BloomFilter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service that tracks revoked tokens.
+ * The revocation log lives in a {@link TokenRevocationStore}; every node
+ * mirrors it in memory as a Bloom filter in front of an exact set, so that
+ * checking a token on the hot path performs no I/O and, for the common
+ * non-revoked token, usually not even a map lookup. New revocations are
+ * applied locally at once and picked up by other nodes on their next
+ * incremental refresh.
+ *
+ * @author books-authors-api
+ */
+@Service
+@Slf4j
+public class TokenRevocationService {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final TokenRevocationStore store;
+    private final int expectedEntries;
+    private final Clock clock;
+
+    // Exact mirror of the non-expired revocations: token ID -> expiration
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    private int filterCapacity;
+    private long cursor;
+
+    @Autowired
+    public TokenRevocationService(ObjectProvider<TokenRevocationStore> stores,
+            @Value("${security.revocation.file:token-revocations.log}") String file,
+            @Value("${security.revocation.expected-entries:10000}") int expectedEntries) {
+        this(stores.getIfAvailable(() -> new FileTokenRevocationStore(Path.of(file))), expectedEntries,
+                Clock.systemUTC());
+    }
+
+    /**
+     * Creates a service over an explicit store and clock
+     *
+     * @param store           the revocation store
+     * @param expectedEntries the expected number of live revocations
+     * @param clock           the clock deciding expiration
+     */
+    public TokenRevocationService(TokenRevocationStore store, int expectedEntries, Clock clock) {
+        this.store = store;
+        this.expectedEntries = expectedEntries;
+        this.clock = clock;
+        this.filterCapacity = expectedEntries;
+        this.filter = new BloomFilter(expectedEntries, FALSE_POSITIVE_RATE);
+        refresh();
+    }
+
+    /**
+     * Checks whether a token has been revoked. Never performs I/O.
+     *
+     * @param tokenId the {@code jti} of the token, may be null
+     * @return true if the token is revoked
+     */
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && filter.mightContain(tokenId) && revoked.containsKey(tokenId);
+    }
+
+    /**
+     * Revokes a token on every node
+     *
+     * @param tokenId   the {@code jti} of the token
+     * @param expiresAt the token expiration; the revocation is dropped after it
+     * @throws IOException if the revocation cannot be persisted
+     */
+    public void revoke(String tokenId, Instant expiresAt) throws IOException {
+        RevokedToken token = new RevokedToken(tokenId, expiresAt);
+        store.append(token);
+        apply(token);
+        log.info("Token {} revoked until {}", tokenId, expiresAt);
+    }
+
+    /**
+     * Pulls the revocations appended since the last refresh and drops the
+     * ones whose tokens have expired
+     */
+    @Scheduled(fixedDelayString = "${security.revocation.refresh-ms:5000}")
+    public synchronized void refresh() {
+        try {
+            cursor = store.readSince(cursor, this::apply);
+        } catch (IOException e) {
+            log.warn("Could not read token revocations: {}", e.getMessage());
+        }
+        prune();
+    }
+
+    /**
+     * Number of revocations currently mirrored
+     *
+     * @return the number of revoked, not yet expired tokens
+     */
+    public int size() {
+        return revoked.size();
+    }
+
+    /**
+     * Adds a revocation to the mirror. Synchronized with {@link #prune()} so
+     * that a rebuilt filter never misses a concurrent revocation.
+     */
+    private synchronized void apply(RevokedToken token) {
+        if (!token.expiresAt().isAfter(clock.instant())) {
+            return;
+        }
+        // Exact set first: a reader that sees the filter bit also sees the entry
+        revoked.merge(token.tokenId(), token.expiresAt(), (a, b) -> a.isAfter(b) ? a : b);
+        filter.add(token.tokenId());
+        if (revoked.size() > filterCapacity) {
+            rebuildFilter();
+        }
+    }
+
+    /**
+     * Removes expired entries. A Bloom filter cannot forget entries, so it is
+     * rebuilt from the exact set whenever entries were removed.
+     */
+    private synchronized void prune() {
+        Instant now = clock.instant();
+        if (revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now))) {
+            rebuildFilter();
+        }
+    }
+
+    private void rebuildFilter() {
+        // Size for growth so the false positive rate stays on target
+        filterCapacity = Math.max(expectedEntries, revoked.size() * 2);
+        BloomFilter rebuilt = new BloomFilter(filterCapacity, FALSE_POSITIVE_RATE);
+        revoked.keySet().forEach(rebuilt::add);
+        filter = rebuilt;
+    }
+}
@@ -0,0 +1,193 @@
+package com.books.api.service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+
+import com.books.api.config.ApiAuditConfig;
+import com.books.api.dto.EndpointTrafficDTO;
+import com.books.api.dto.HeavyHittersDTO;
+import com.books.api.dto.UniqueClientsDTO;
+import com.books.api.service.sketch.HeavyHitters;
+import com.books.api.service.sketch.SketchHashing;
+import com.books.api.service.sketch.WindowedHyperLogLog;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Service keeping streaming sketches of API traffic per endpoint.
+ * Tracks heavy-hitter clients (Count-Min with a top-K candidate table) and
+ * unique clients per time window (HyperLogLog) in fixed memory, so abusive
+ * clients and hot endpoints can be found without scanning the audit table.
+ *
+ * @author books-authors-api
+ */
+@Service
+@RequiredArgsConstructor
+public class TrafficSketchService {
+
+    /**
+     * Key of the sketches aggregating all endpoints
+     */
+    public static final String ALL_ENDPOINTS = "*";
+
+    /**
+     * Key shared by endpoints beyond the configured maximum
+     */
+    public static final String OTHER_ENDPOINTS = "OTHER";
+
+    private final ApiAuditConfig apiAuditConfig;
+    private final ConcurrentHashMap<String, EndpointSketches> sketches = new ConcurrentHashMap<>();
+
+    /**
+     * Records a request
+     *
+     * @param endpoint the endpoint pattern that handled the request
+     * @param client   the client identifier (IP address)
+     */
+    public void record(String endpoint, String client) {
+        record(endpoint, client, System.currentTimeMillis());
+    }
+
+    /**
+     * Records a request at the given time. Allocation-free once the
+     * endpoint's sketches exist.
+     */
+    void record(String endpoint, String client, long now) {
+        if (!apiAuditConfig.getSketches().isEnabled() || endpoint == null || client == null) {
+            return;
+        }
+        long hash = SketchHashing.hash(client);
+        sketchesFor(endpoint, now).offer(client, hash, now);
+        sketchesFor(ALL_ENDPOINTS, now).offer(client, hash, now);
+    }
+
+    /**
+     * Returns the heaviest clients of an endpoint
+     *
+     * @param endpoint the endpoint pattern, or null for all endpoints
+     * @param limit    the maximum number of clients
+     * @param previous whether to return the last completed interval instead
+     *                 of the current one
+     * @return the heavy hitters
+     */
+    public HeavyHittersDTO topClients(String endpoint, int limit, boolean previous) {
+        return topClients(endpoint, limit, previous, System.currentTimeMillis());
+    }
+
+    HeavyHittersDTO topClients(String endpoint, int limit, boolean previous, long now) {
+        String key = endpoint == null ? ALL_ENDPOINTS : endpoint;
+        int size = Math.max(1, Math.min(limit, apiAuditConfig.getSketches().getTopK()));
+        EndpointSketches endpointSketches = sketches.get(key);
+        if (endpointSketches == null) {
+            return HeavyHittersDTO.builder().endpoint(key).build();
+        }
+
+        HeavyHitters heavyHitters = endpointSketches.heavyHitters;
+        List<HeavyHitters.Entry> entries = previous ? heavyHitters.previousTop() : heavyHitters.top(size);
+        return HeavyHittersDTO.builder()
+                .endpoint(key)
+                .intervalStart(toDateTime(previous ? heavyHitters.getPreviousIntervalStart()
+                        : heavyHitters.getIntervalStart()))
+                .totalRequests(previous ? 0 : heavyHitters.total())
+                .maxError(previous ? 0 : heavyHitters.maxError())
+                .clients(entries.stream()
+                        .limit(size)
+                        .map(entry -> new HeavyHittersDTO.ClientCount(entry.key(), entry.estimate()))
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    /**
+     * Estimates the number of distinct clients of an endpoint
+     *
+     * @param endpoint the endpoint pattern, or null for all endpoints
+     * @param windows  number of most recent windows to cover
+     * @return the unique client estimate
+     */
+    public UniqueClientsDTO uniqueClients(String endpoint, int windows) {
+        return uniqueClients(endpoint, windows, System.currentTimeMillis());
+    }
+
+    UniqueClientsDTO uniqueClients(String endpoint, int windows, long now) {
+        String key = endpoint == null ? ALL_ENDPOINTS : endpoint;
+        ApiAuditConfig.Sketches settings = apiAuditConfig.getSketches();
+        int count = Math.max(1, Math.min(windows, settings.getWindowCount()));
+        long windowMillis = settings.getWindowSeconds() * 1000L;
+        long windowStart = Math.floorDiv(now, windowMillis) * windowMillis;
+
+        EndpointSketches endpointSketches = sketches.get(key);
+        return UniqueClientsDTO.builder()
+                .endpoint(key)
+                .from(toDateTime(windowStart - (count - 1) * windowMillis))
+                .to(toDateTime(now))
+                .estimatedUniqueClients(endpointSketches == null ? 0
+                        : endpointSketches.uniqueClients.estimate(count, now))
+                .standardError(1.04 / Math.sqrt(1 << settings.getHyperLogLogPrecision()))
+                .build();
+    }
+
+    /**
+     * Returns the busiest endpoints of the current counting interval
+     *
+     * @param limit the maximum number of endpoints
+     * @return the endpoints, busiest first
+     */
+    public List<EndpointTrafficDTO> hotEndpoints(int limit) {
+        return sketches.entrySet().stream()
+                .filter(entry -> !ALL_ENDPOINTS.equals(entry.getKey()))
+                .map(entry -> EndpointTrafficDTO.builder()
+                        .endpoint(entry.getKey())
+                        .intervalStart(toDateTime(entry.getValue().heavyHitters.getIntervalStart()))
+                        .requests(entry.getValue().heavyHitters.total())
+                        .build())
+                .sorted(Comparator.comparingLong(EndpointTrafficDTO::getRequests).reversed())
+                .limit(Math.max(1, limit))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Looks up the sketches of an endpoint, folding endpoints beyond the
+     * configured maximum into a shared entry
+     */
+    private EndpointSketches sketchesFor(String endpoint, long now) {
+        EndpointSketches existing = sketches.get(endpoint);
+        if (existing != null) {
+            return existing;
+        }
+        String key = ALL_ENDPOINTS.equals(endpoint)
+                || sketches.size() < apiAuditConfig.getSketches().getMaxEndpoints() ? endpoint : OTHER_ENDPOINTS;
+        return sketches.computeIfAbsent(key, k -> new EndpointSketches(apiAuditConfig.getSketches(), now));
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    /**
+     * Sketches kept for a single endpoint
+     */
+    private static final class EndpointSketches {
+
+        private final HeavyHitters heavyHitters;
+        private final WindowedHyperLogLog uniqueClients;
+
+        EndpointSketches(ApiAuditConfig.Sketches settings, long now) {
+            this.heavyHitters = new HeavyHitters(settings.getTopK(), settings.getCountMinWidth(),
+                    settings.getCountMinDepth(), settings.getHeavyHitterIntervalSeconds() * 1000L, now);
+            this.uniqueClients = new WindowedHyperLogLog(settings.getWindowCount(),
+                    settings.getWindowSeconds() * 1000L, settings.getHyperLogLogPrecision());
+        }
+
+        void offer(String client, long hash, long now) {
+            heavyHitters.offer(client, hash, now);
+            uniqueClients.offer(hash, now);
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.books.api.service.access;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Immutable path-compressed binary trie of IPv4 and IPv6 CIDR ranges.
+ * Each range maps to an allow or deny rule; a lookup returns the rule of the
+ * longest matching prefix, so a narrow allow range can punch a hole in a
+ * wide deny range. Lookups walk at most one node per branching bit and
+ * allocate nothing for IPv4 addresses.
+ *
+ * @author books-authors-api
+ */
+public final class CidrTrie {
+
+    /**
+     * Rule attached to a range
+     */
+    public enum Rule {
+        ALLOW, DENY
+    }
+
+    private final Node ipv4Root;
+    private final Node ipv6Root;
+    private final int size;
+
+    private CidrTrie(Node ipv4Root, Node ipv6Root, int size) {
+        this.ipv4Root = ipv4Root;
+        this.ipv6Root = ipv6Root;
+        this.size = size;
+    }
+
+    /**
+     * Returns the rule of the longest range containing the address
+     *
+     * @param address an IPv4 or IPv6 literal
+     * @return the rule, or null if no range matches or the address is invalid
+     */
+    public Rule lookup(String address) {
+        long ipv4 = parseIpv4(address);
+        if (ipv4 >= 0) {
+            return lookup(ipv4Root, ipv4 << 32, 0L);
+        }
+        byte[] bytes = parseIpv6(address);
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length == 4) {
+            return lookup(ipv4Root, (toLong(bytes, 0) >>> 32) << 32, 0L);
+        }
+        return lookup(ipv6Root, toLong(bytes, 0), toLong(bytes, 8));
+    }
+
+    /**
+     * Number of ranges in the trie
+     *
+     * @return the number of ranges
+     */
+    public int size() {
+        return size;
+    }
+
+    private static Rule lookup(Node node, long high, long low) {
+        Rule match = null;
+        while (node != null) {
+            if (!node.matches(high, low)) {
+                break;
+            }
+            if (node.rule != null) {
+                match = node.rule;
+            }
+            if (node.length == 128) {
+                break;
+            }
+            node = node.children[bit(high, low, node.length)];
+        }
+        return match;
+    }
+
+    /**
+     * Creates a builder
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Collects ranges and builds the trie
+     */
+    public static final class Builder {
+
+        private Node ipv4Root;
+        private Node ipv6Root;
+        private int size;
+
+        /**
+         * Adds a range; a later rule for the same range replaces an earlier one
+         *
+         * @param cidr an address or CIDR range such as {@code 10.0.0.0/8} or
+         *             {@code 2001:db8::/32}
+         * @param rule the rule of the range
+         * @return this builder
+         * @throws IllegalArgumentException if the range is invalid
+         */
+        public Builder add(String cidr, Rule rule) {
+            int slash = cidr.indexOf('/');
+            String address = slash < 0 ? cidr.trim() : cidr.substring(0, slash).trim();
+            byte[] bytes = parseIpv6(address);
+            if (bytes == null) {
+                throw new IllegalArgumentException("Invalid address in range: " + cidr);
+            }
+            int maxLength = bytes.length * 8;
+            int length;
+            try {
+                length = slash < 0 ? maxLength : Integer.parseInt(cidr.substring(slash + 1).trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid prefix length in range: " + cidr);
+            }
+            if (length < 0 || length > maxLength) {
+                throw new IllegalArgumentException("Invalid prefix length in range: " + cidr);
+            }
+
+            long high = toLong(bytes, 0);
+            long low = bytes.length == 16 ? toLong(bytes, 8) : 0L;
+            if (bytes.length == 4) {
+                high = (high >>> 32) << 32;
+            }
+            Node inserted = new Node(high, low, length, rule);
+            if (bytes.length == 4) {
+                ipv4Root = insert(ipv4Root, inserted);
+            } else {
+                ipv6Root = insert(ipv6Root, inserted);
+            }
+            return this;
+        }
+
+        public CidrTrie build() {
+            return new CidrTrie(ipv4Root, ipv6Root, size);
+        }
+
+        private Node insert(Node node, Node inserted) {
+            if (node == null) {
+                size++;
+                return inserted;
+            }
+            int common = Math.min(commonPrefix(node, inserted), Math.min(node.length, inserted.length));
+            if (common == node.length && common == inserted.length) {
+                // Same range: replace the rule
+                if (node.rule == null) {
+                    size++;
+                }
+                node.rule = inserted.rule;
+                return node;
+            }
+            if (common == node.length) {
+                // The new range lies below this node
+                int bit = bit(inserted.high, inserted.low, node.length);
+                node.children[bit] = insert(node.children[bit], inserted);
+                return node;
+            }
+            if (common == inserted.length) {
+                // The new range contains this node
+                size++;
+                inserted.children[bit(node.high, node.low, common)] = node;
+                return inserted;
+            }
+            // The ranges diverge: join them under a rule-less branch node
+            size++;
+            Node branch = new Node(node.high, node.low, common, null);
+            branch.children[bit(node.high, node.low, common)] = node;
+            branch.children[bit(inserted.high, inserted.low, common)] = inserted;
+            return branch;
+        }
+    }
+
+    /**
+     * Trie node covering the first {@code length} bits of {@code high:low}
+     */
+    private static final class Node {
+
+        private final long high;
+        private final long low;
+        private final int length;
+        private final Node[] children = new Node[2];
+        private Rule rule;
+
+        Node(long high, long low, int length, Rule rule) {
+            this.high = mask(high, length);
+            this.low = mask(low, length - 64);
+            this.length = length;
+            this.rule = rule;
+        }
+
+        boolean matches(long otherHigh, long otherLow) {
+            return mask(otherHigh, length) == high && mask(otherLow, length - 64) == low;
+        }
+    }
+
+    private static long mask(long value, int bits) {
+        if (bits <= 0) {
+            return 0L;
+        }
+        if (bits >= 64) {
+            return value;
+        }
+        return value & (-1L << (64 - bits));
+    }
+
+    private static int commonPrefix(Node a, Node b) {
+        long diffHigh = a.high ^ b.high;
+        if (diffHigh != 0) {
+            return Long.numberOfLeadingZeros(diffHigh);
+        }
+        return 64 + Long.numberOfLeadingZeros(a.low ^ b.low);
+    }
+
+    private static int bit(long high, long low, int index) {
+        return index < 64
+                ? (int) (high >>> (63 - index)) & 1
+                : (int) (low >>> (127 - index)) & 1;
+    }
+
+    private static long toLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            int index = offset + i;
+            value = (value << 8) | (index < bytes.length ? bytes[index] & 0xff : 0);
+        }
+        return value;
+    }
+
+    /**
+     * Parses a dotted IPv4 literal without allocating
+     *
+     * @return the address as an unsigned 32-bit value, or -1 if not IPv4
+     */
+    static long parseIpv4(String address) {
+        long value = 0;
+        int octet = -1;
+        int dots = 0;
+        for (int i = 0; i < address.length(); i++) {
+            char c = address.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = (octet < 0 ? 0 : octet * 10) + (c - '0');
+                if (octet > 255) {
+                    return -1;
+                }
+            } else if (c == '.' && octet >= 0 && dots < 3) {
+                value = (value << 8) | octet;
+                octet = -1;
+                dots++;
+            } else {
+                return -1;
+            }
+        }
+        return dots == 3 && octet >= 0 ? (value << 8) | octet : -1;
+    }
+
+    /**
+     * Parses an IPv6 (or IPv4) literal; never resolves host names
+     */
+    private static byte[] parseIpv6(String address) {
+        if (address.isEmpty() || (address.indexOf(':') < 0 && parseIpv4(address) < 0)) {
+            return null;
+        }
+        for (int i = 0; i < address.length(); i++) {
+            char c = address.charAt(i);
+            if (Character.digit(c, 16) < 0 && c != ':' && c != '.') {
+                return null;
+            }
+        }
+        try {
+            // Only hex digits, colons and dots remain, so this never resolves a host name
+            return InetAddress.getByName(address).getAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.books.api.service.admission;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission scheduler that shares a fixed number of execution permits
+ * fairly between clients.
+ * Requests run at once while permits are free and nobody is waiting.
+ * Otherwise each client gets its own FIFO queue, and a released permit is
+ * handed directly to the next waiter chosen by deficit round-robin: every
+ * round a client may start as many requests as its weight, so a client
+ * flooding the API only lengthens its own queue.
+ *
+ * @author books-authors-api
+ */
+public class AdmissionScheduler {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, ClientQueue> queues = new HashMap<>();
+    private final ArrayDeque<ClientQueue> rounds = new ArrayDeque<>();
+    private final int maxConcurrent;
+    private int available;
+    private int waiting;
+
+    /**
+     * Creates a scheduler
+     *
+     * @param maxConcurrent the number of execution permits
+     */
+    public AdmissionScheduler(int maxConcurrent) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("maxConcurrent must be positive");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.available = maxConcurrent;
+    }
+
+    /**
+     * Waits for an execution permit. A caller that gets a permit must
+     * {@link #release()} it.
+     *
+     * @param client  the client key
+     * @param weight  the client weight, at least 1
+     * @param timeout the maximum time to wait
+     * @param unit    the unit of the timeout
+     * @return true if a permit was granted, false if the wait timed out
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean acquire(String client, int weight, long timeout, TimeUnit unit) throws InterruptedException {
+        lock.lock();
+        try {
+            if (available > 0 && rounds.isEmpty()) {
+                available--;
+                return true;
+            }
+
+            Waiter waiter = new Waiter(lock.newCondition());
+            ClientQueue queue = queues.computeIfAbsent(client, ClientQueue::new);
+            queue.weight = Math.max(1, weight);
+            if (queue.waiters.isEmpty()) {
+                rounds.addLast(queue);
+            }
+            queue.waiters.addLast(waiter);
+            waiting++;
+
+            long remaining = unit.toNanos(timeout);
+            try {
+                while (!waiter.admitted) {
+                    if (remaining <= 0) {
+                        cancel(queue, waiter);
+                        return false;
+                    }
+                    remaining = waiter.condition.awaitNanos(remaining);
+                }
+                return true;
+            } catch (InterruptedException e) {
+                if (waiter.admitted) {
+                    // The permit was already handed over; pass it on
+                    release();
+                } else {
+                    cancel(queue, waiter);
+                }
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a permit, handing it to the next waiting request if any
+     */
+    public void release() {
+        lock.lock();
+        try {
+            Waiter next = next();
+            if (next != null) {
+                next.admitted = true;
+                next.condition.signal();
+            } else if (available < maxConcurrent) {
+                available++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of requests currently waiting for admission
+     *
+     * @return the queued request count
+     */
+    public int queuedRequests() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Picks the next waiter by deficit round-robin. The client at the head of
+     * the round receives its weight as credit when it has none left, spends
+     * one credit per admitted request and moves to the back once its credit
+     * is used up.
+     */
+    private Waiter next() {
+        ClientQueue queue = rounds.peekFirst();
+        if (queue == null) {
+            return null;
+        }
+        if (queue.deficit <= 0) {
+            queue.deficit = queue.weight;
+        }
+        Waiter waiter = queue.waiters.pollFirst();
+        waiting--;
+        queue.deficit--;
+
+        if (queue.waiters.isEmpty()) {
+            rounds.pollFirst();
+            queues.remove(queue.client);
+        } else if (queue.deficit <= 0) {
+            rounds.addLast(rounds.pollFirst());
+        }
+        return waiter;
+    }
+
+    private void cancel(ClientQueue queue, Waiter waiter) {
+        if (queue.waiters.remove(waiter)) {
+            waiting--;
+        }
+        if (queue.waiters.isEmpty()) {
+            rounds.remove(queue);
+            queues.remove(queue.client);
+        }
+    }
+
+    /**
+     * Waiting requests of one client
+     */
+    private static final class ClientQueue {
+        private final String client;
+        private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+        private int weight = 1;
+        private int deficit;
+
+        ClientQueue(String client) {
+            this.client = client;
+        }
+    }
+
+    /**
+     * A request waiting for a permit
+     */
+    private static final class Waiter {
+        private final Condition condition;
+        private boolean admitted;
+
+        Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+}
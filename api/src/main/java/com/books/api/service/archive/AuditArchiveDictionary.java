@@ -0,0 +1,95 @@
+package com.books.api.service.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+import com.books.api.service.archive.AuditArchiveSegment.Column;
+import com.books.domain.model.ApiAuditLog;
+
+/**
+ * Trains the preset deflate dictionary shared by the large text columns of
+ * the archive (request headers and bodies).
+ *
+ * <p>
+ * Audit bodies are small, highly repetitive JSON documents. Seeding deflate
+ * with the most frequent values lets even the first occurrence of a document
+ * in a segment be encoded as back-references.
+ * </p>
+ *
+ * @author books-authors-api
+ */
+public final class AuditArchiveDictionary {
+
+    /**
+     * Deflate only looks back 32 KB, so a larger dictionary is never used
+     */
+    public static final int MAX_SIZE = 32 * 1024;
+
+    private AuditArchiveDictionary() {
+    }
+
+    /**
+     * Builds a dictionary from a sample of audit entries. The most frequent
+     * values are placed last, where deflate references them with the shortest
+     * distances.
+     *
+     * @param sample the entries to learn from
+     * @param size   the maximum dictionary size in bytes
+     * @return the dictionary, empty if the sample has no text
+     */
+    public static byte[] train(List<ApiAuditLog> sample, int size) {
+        int limit = Math.min(size, MAX_SIZE);
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (Column column : new Column[] { Column.REQUEST_HEADERS, Column.REQUEST_BODY, Column.RESPONSE_BODY }) {
+            Function<ApiAuditLog, String> accessor = AuditArchiveSegment.stringAccessor(column);
+            for (ApiAuditLog entry : sample) {
+                String value = accessor.apply(entry);
+                if (value != null && !value.isEmpty()) {
+                    frequencies.merge(value, 1, Integer::sum);
+                }
+            }
+        }
+
+        List<Map.Entry<String, Integer>> ranked = new ArrayList<>(frequencies.entrySet());
+        ranked.sort(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey()));
+
+        List<byte[]> selected = new ArrayList<>();
+        int total = 0;
+        for (Map.Entry<String, Integer> entry : ranked) {
+            byte[] bytes = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            if (total + bytes.length > limit) {
+                continue;
+            }
+            selected.add(bytes);
+            total += bytes.length;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(total);
+        for (int i = selected.size() - 1; i >= 0; i--) {
+            out.writeBytes(selected.get(i));
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Computes the id under which a dictionary is stored and referenced by
+     * segments. Never returns 0, which means "no dictionary".
+     *
+     * @param dictionary the dictionary bytes
+     * @return the dictionary id
+     */
+    public static int idOf(byte[] dictionary) {
+        CRC32 crc = new CRC32();
+        crc.update(dictionary);
+        int id = (int) crc.getValue();
+        return id == 0 ? 1 : id;
+    }
+}
@@ -0,0 +1,603 @@
+package com.books.api.service.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.books.domain.model.ApiAuditLog;
+
+/**
+ * Column-oriented archive file holding a batch of audit log entries.
+ *
+ * <p>
+ * Layout: a small uncompressed header (row count, time and id range, endpoint
+ * dictionary and compression dictionary id) followed by a column directory
+ * and one deflated block per column. String columns are dictionary-encoded
+ * (distinct value table plus one varint code per row) and the large text
+ * columns are additionally deflated with a preset dictionary shared by the
+ * whole archive. Readers only inflate the columns they need, so searches never
+ * touch bodies or headers.
+ * </p>
+ *
+ * @author books-authors-api
+ */
+public final class AuditArchiveSegment {
+
+    private static final int MAGIC = 0x42414152; // "BAAR"
+    private static final short FORMAT_VERSION = 1;
+
+    /**
+     * Columns stored in a segment, in file order
+     */
+    public enum Column {
+        ID, TIMESTAMP, HTTP_METHOD, ENDPOINT, QUERY_PARAMS, CLIENT_IP, USER_ID, SESSION_ID, STATUS_CODE,
+        PROCESSING_TIME, RATE_LIMIT_EXCEEDED, ADDITIONAL_INFO, REQUEST_HEADERS, REQUEST_BODY, RESPONSE_BODY;
+
+        /**
+         * Whether the column holds large, repetitive text that benefits from
+         * the shared compression dictionary
+         */
+        boolean isLargeText() {
+            return this == REQUEST_HEADERS || this == REQUEST_BODY || this == RESPONSE_BODY;
+        }
+    }
+
+    /**
+     * Columns needed to filter entries and build audit DTOs
+     */
+    public static final Set<Column> SUMMARY_COLUMNS = Collections.unmodifiableSet(java.util.EnumSet.range(
+            Column.ID, Column.ADDITIONAL_INFO));
+
+    /**
+     * Segment metadata read from the file header, used as the archive index
+     *
+     * @param path         the segment file
+     * @param rowCount     number of entries
+     * @param minTimestamp oldest entry timestamp
+     * @param maxTimestamp newest entry timestamp
+     * @param minId        smallest entry id
+     * @param maxId        largest entry id
+     * @param endpoints    distinct endpoints in the segment
+     * @param dictionaryId id of the compression dictionary, 0 if none
+     */
+    public record Header(Path path, int rowCount, LocalDateTime minTimestamp, LocalDateTime maxTimestamp,
+            long minId, long maxId, List<String> endpoints, int dictionaryId) {
+
+        /**
+         * Checks whether any endpoint of the segment starts with the prefix
+         *
+         * @param prefix the endpoint prefix, null matches everything
+         * @return true if the segment may contain matching entries
+         */
+        public boolean hasEndpointWithPrefix(String prefix) {
+            if (prefix == null) {
+                return true;
+            }
+            for (String endpoint : endpoints) {
+                if (endpoint != null && endpoint.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private AuditArchiveSegment() {
+    }
+
+    /**
+     * Writes a segment file atomically. Entries are stored in the given order,
+     * which callers keep ascending by (timestamp, id).
+     *
+     * @param target       the segment file to create
+     * @param entries      the entries to archive, not empty
+     * @param dictionaryId id of the preset dictionary, 0 for none
+     * @param dictionary   the preset dictionary for large text columns, may be
+     *                     null
+     * @return the header of the written segment
+     * @throws IOException if the file cannot be written
+     */
+    public static Header write(Path target, List<ApiAuditLog> entries, int dictionaryId, byte[] dictionary)
+            throws IOException {
+        if (entries.isEmpty()) {
+            throw new IllegalArgumentException("Cannot write an empty archive segment");
+        }
+
+        List<String> endpoints = distinct(entries, ApiAuditLog::getEndpoint);
+        LocalDateTime minTimestamp = entries.get(0).getTimestamp();
+        LocalDateTime maxTimestamp = entries.get(0).getTimestamp();
+        long minId = Long.MAX_VALUE;
+        long maxId = Long.MIN_VALUE;
+        for (ApiAuditLog entry : entries) {
+            minTimestamp = entry.getTimestamp().isBefore(minTimestamp) ? entry.getTimestamp() : minTimestamp;
+            maxTimestamp = entry.getTimestamp().isAfter(maxTimestamp) ? entry.getTimestamp() : maxTimestamp;
+            minId = Math.min(minId, entry.getId());
+            maxId = Math.max(maxId, entry.getId());
+        }
+
+        Map<Column, byte[]> blocks = new EnumMap<>(Column.class);
+        Map<Column, Integer> rawLengths = new EnumMap<>(Column.class);
+        for (Column column : Column.values()) {
+            byte[] raw = encodeColumn(column, entries, endpoints);
+            rawLengths.put(column, raw.length);
+            blocks.put(column, deflate(raw, column.isLargeText() ? dictionary : null));
+        }
+
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(headerBytes);
+        header.writeInt(MAGIC);
+        header.writeShort(FORMAT_VERSION);
+        header.writeInt(entries.size());
+        header.writeLong(toMicros(minTimestamp));
+        header.writeLong(toMicros(maxTimestamp));
+        header.writeLong(minId);
+        header.writeLong(maxId);
+        header.writeInt(dictionaryId);
+        writeVarInt(header, endpoints.size());
+        for (String endpoint : endpoints) {
+            writeString(header, endpoint);
+        }
+        header.writeShort(Column.values().length);
+        for (Column column : Column.values()) {
+            header.writeByte(column.ordinal());
+            header.writeInt(blocks.get(column).length);
+            header.writeInt(rawLengths.get(column));
+        }
+        header.flush();
+
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, ByteBuffer.allocate(4).putInt(headerBytes.size()).flip());
+            writeFully(channel, ByteBuffer.wrap(headerBytes.toByteArray()));
+            for (Column column : Column.values()) {
+                writeFully(channel, ByteBuffer.wrap(blocks.get(column)));
+            }
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        return new Header(target, entries.size(), minTimestamp, maxTimestamp, minId, maxId, endpoints,
+                dictionaryId);
+    }
+
+    /**
+     * Reads only the header of a segment file
+     *
+     * @param path the segment file
+     * @return the segment header
+     * @throws IOException if the file is not a valid segment
+     */
+    public static Header readHeader(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return parseHeader(path, readHeaderBytes(channel)).header();
+        }
+    }
+
+    /**
+     * Reads the given columns of a segment and rebuilds the entries. Columns
+     * that are not requested are left null in the returned entities.
+     *
+     * @param path         the segment file
+     * @param columns      the columns to decode
+     * @param dictionaries available preset dictionaries by id
+     * @return the archived entries, in file order
+     * @throws IOException if the file cannot be read
+     */
+    public static List<ApiAuditLog> read(Path path, Set<Column> columns, Map<Integer, byte[]> dictionaries)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            byte[] headerBytes = readHeaderBytes(channel);
+            ParsedHeader parsed = parseHeader(path, headerBytes);
+            Header header = parsed.header();
+
+            List<ApiAuditLog> entries = new ArrayList<>(header.rowCount());
+            for (int i = 0; i < header.rowCount(); i++) {
+                entries.add(new ApiAuditLog());
+            }
+
+            long position = 4L + headerBytes.length;
+            for (Column column : Column.values()) {
+                int compressedLength = parsed.compressedLengths().get(column);
+                if (columns.contains(column)) {
+                    ByteBuffer buffer = ByteBuffer.allocate(compressedLength);
+                    readFully(channel, buffer, position);
+                    byte[] dictionary = column.isLargeText() ? dictionaries.get(header.dictionaryId()) : null;
+                    if (column.isLargeText() && header.dictionaryId() != 0 && dictionary == null) {
+                        throw new IOException("Missing archive dictionary " + header.dictionaryId());
+                    }
+                    byte[] raw = inflate(buffer.array(), parsed.rawLengths().get(column), dictionary);
+                    decodeColumn(column, raw, entries, header.endpoints());
+                }
+                position += compressedLength;
+            }
+            return entries;
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Column encoding
+    // ---------------------------------------------------------------------
+
+    private static byte[] encodeColumn(Column column, List<ApiAuditLog> entries, List<String> endpoints)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        switch (column) {
+            case ID -> {
+                long previous = 0;
+                for (ApiAuditLog entry : entries) {
+                    writeVarLong(out, zigZag(entry.getId() - previous));
+                    previous = entry.getId();
+                }
+            }
+            case TIMESTAMP -> {
+                long previous = 0;
+                for (ApiAuditLog entry : entries) {
+                    long micros = toMicros(entry.getTimestamp());
+                    writeVarLong(out, zigZag(micros - previous));
+                    previous = micros;
+                }
+            }
+            case ENDPOINT -> {
+                Map<String, Integer> codes = new HashMap<>();
+                for (int i = 0; i < endpoints.size(); i++) {
+                    codes.put(endpoints.get(i), i + 1);
+                }
+                for (ApiAuditLog entry : entries) {
+                    writeVarInt(out, entry.getEndpoint() == null ? 0 : codes.get(entry.getEndpoint()));
+                }
+            }
+            case STATUS_CODE -> {
+                for (ApiAuditLog entry : entries) {
+                    writeVarInt(out, entry.getStatusCode() == null ? 0 : entry.getStatusCode() + 1);
+                }
+            }
+            case PROCESSING_TIME -> {
+                for (ApiAuditLog entry : entries) {
+                    writeVarLong(out, entry.getProcessingTimeMs() == null ? 0 : entry.getProcessingTimeMs() + 1);
+                }
+            }
+            case RATE_LIMIT_EXCEEDED -> {
+                for (ApiAuditLog entry : entries) {
+                    Boolean exceeded = entry.getRateLimitExceeded();
+                    out.writeByte(exceeded == null ? 0 : exceeded ? 2 : 1);
+                }
+            }
+            default -> encodeStrings(out, entries, stringAccessor(column));
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void decodeColumn(Column column, byte[] raw, List<ApiAuditLog> entries, List<String> endpoints)
+            throws IOException {
+        DataInputStream in = new DataInputStream(new java.io.ByteArrayInputStream(raw));
+        switch (column) {
+            case ID -> {
+                long previous = 0;
+                for (ApiAuditLog entry : entries) {
+                    previous += unZigZag(readVarLong(in));
+                    entry.setId(previous);
+                }
+            }
+            case TIMESTAMP -> {
+                long previous = 0;
+                for (ApiAuditLog entry : entries) {
+                    previous += unZigZag(readVarLong(in));
+                    entry.setTimestamp(fromMicros(previous));
+                }
+            }
+            case ENDPOINT -> {
+                for (ApiAuditLog entry : entries) {
+                    int code = readVarInt(in);
+                    entry.setEndpoint(code == 0 ? null : endpoints.get(code - 1));
+                }
+            }
+            case STATUS_CODE -> {
+                for (ApiAuditLog entry : entries) {
+                    int code = readVarInt(in);
+                    entry.setStatusCode(code == 0 ? null : code - 1);
+                }
+            }
+            case PROCESSING_TIME -> {
+                for (ApiAuditLog entry : entries) {
+                    long value = readVarLong(in);
+                    entry.setProcessingTimeMs(value == 0 ? null : value - 1);
+                }
+            }
+            case RATE_LIMIT_EXCEEDED -> {
+                for (ApiAuditLog entry : entries) {
+                    byte value = in.readByte();
+                    entry.setRateLimitExceeded(value == 0 ? null : value == 2);
+                }
+            }
+            default -> {
+                String[] values = decodeStrings(in, entries.size());
+                for (int i = 0; i < values.length; i++) {
+                    setString(column, entries.get(i), values[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Dictionary-encodes a string column: distinct values first, then one code
+     * per row (0 for null)
+     */
+    private static void encodeStrings(DataOutputStream out, List<ApiAuditLog> entries,
+            Function<ApiAuditLog, String> accessor) throws IOException {
+        List<String> values = distinct(entries, accessor);
+        Map<String, Integer> codes = new HashMap<>();
+        writeVarInt(out, values.size());
+        for (int i = 0; i < values.size(); i++) {
+            writeString(out, values.get(i));
+            codes.put(values.get(i), i + 1);
+        }
+        for (ApiAuditLog entry : entries) {
+            String value = accessor.apply(entry);
+            writeVarInt(out, value == null ? 0 : codes.get(value));
+        }
+    }
+
+    private static String[] decodeStrings(DataInputStream in, int rowCount) throws IOException {
+        int distinct = readVarInt(in);
+        String[] dictionary = new String[distinct];
+        for (int i = 0; i < distinct; i++) {
+            dictionary[i] = readString(in);
+        }
+        String[] values = new String[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            int code = readVarInt(in);
+            values[i] = code == 0 ? null : dictionary[code - 1];
+        }
+        return values;
+    }
+
+    /**
+     * Returns the accessor of a dictionary-encoded string column
+     */
+    static Function<ApiAuditLog, String> stringAccessor(Column column) {
+        return switch (column) {
+            case HTTP_METHOD -> ApiAuditLog::getHttpMethod;
+            case QUERY_PARAMS -> ApiAuditLog::getQueryParams;
+            case CLIENT_IP -> ApiAuditLog::getClientIp;
+            case USER_ID -> ApiAuditLog::getUserId;
+            case SESSION_ID -> ApiAuditLog::getSessionId;
+            case ADDITIONAL_INFO -> ApiAuditLog::getAdditionalInfo;
+            case REQUEST_HEADERS -> ApiAuditLog::getRequestHeaders;
+            case REQUEST_BODY -> ApiAuditLog::getRequestBody;
+            case RESPONSE_BODY -> ApiAuditLog::getResponseBody;
+            default -> throw new IllegalArgumentException("Not a string column: " + column);
+        };
+    }
+
+    private static void setString(Column column, ApiAuditLog entry, String value) {
+        switch (column) {
+            case HTTP_METHOD -> entry.setHttpMethod(value);
+            case QUERY_PARAMS -> entry.setQueryParams(value);
+            case CLIENT_IP -> entry.setClientIp(value);
+            case USER_ID -> entry.setUserId(value);
+            case SESSION_ID -> entry.setSessionId(value);
+            case ADDITIONAL_INFO -> entry.setAdditionalInfo(value);
+            case REQUEST_HEADERS -> entry.setRequestHeaders(value);
+            case REQUEST_BODY -> entry.setRequestBody(value);
+            case RESPONSE_BODY -> entry.setResponseBody(value);
+            default -> throw new IllegalArgumentException("Not a string column: " + column);
+        }
+    }
+
+    private static List<String> distinct(List<ApiAuditLog> entries, Function<ApiAuditLog, String> accessor) {
+        Map<String, Boolean> seen = new java.util.LinkedHashMap<>();
+        for (ApiAuditLog entry : entries) {
+            String value = accessor.apply(entry);
+            if (value != null) {
+                seen.putIfAbsent(value, Boolean.TRUE);
+            }
+        }
+        return new ArrayList<>(seen.keySet());
+    }
+
+    // ---------------------------------------------------------------------
+    // Compression and header I/O
+    // ---------------------------------------------------------------------
+
+    private static byte[] deflate(byte[] raw, byte[] dictionary) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                out.write(buffer, 0, length);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed, int rawLength, byte[] dictionary) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[rawLength];
+            int offset = 0;
+            while (offset < rawLength) {
+                int length = inflater.inflate(raw, offset, rawLength - offset);
+                if (length == 0) {
+                    if (inflater.needsDictionary() && dictionary != null) {
+                        inflater.setDictionary(dictionary);
+                    } else if (inflater.finished() || inflater.needsInput() || inflater.needsDictionary()) {
+                        throw new IOException("Truncated archive column");
+                    }
+                }
+                offset += length;
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted archive column", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private record ParsedHeader(Header header, Map<Column, Integer> compressedLengths,
+            Map<Column, Integer> rawLengths) {
+    }
+
+    private static byte[] readHeaderBytes(FileChannel channel) throws IOException {
+        ByteBuffer lengthBuffer = ByteBuffer.allocate(4);
+        readFully(channel, lengthBuffer, 0);
+        int headerLength = lengthBuffer.flip().getInt();
+        if (headerLength <= 0 || headerLength > 16 * 1024 * 1024) {
+            throw new IOException("Invalid archive segment header");
+        }
+        ByteBuffer headerBuffer = ByteBuffer.allocate(headerLength);
+        readFully(channel, headerBuffer, 4);
+        return headerBuffer.array();
+    }
+
+    private static ParsedHeader parseHeader(Path path, byte[] headerBytes) throws IOException {
+        DataInputStream in = new DataInputStream(new java.io.ByteArrayInputStream(headerBytes));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not an audit archive segment: " + path);
+        }
+        short version = in.readShort();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported audit archive format " + version + ": " + path);
+        }
+        int rowCount = in.readInt();
+        LocalDateTime minTimestamp = fromMicros(in.readLong());
+        LocalDateTime maxTimestamp = fromMicros(in.readLong());
+        long minId = in.readLong();
+        long maxId = in.readLong();
+        int dictionaryId = in.readInt();
+        int endpointCount = readVarInt(in);
+        List<String> endpoints = new ArrayList<>(endpointCount);
+        for (int i = 0; i < endpointCount; i++) {
+            endpoints.add(readString(in));
+        }
+        int columnCount = in.readShort();
+        Map<Column, Integer> compressedLengths = new EnumMap<>(Column.class);
+        Map<Column, Integer> rawLengths = new EnumMap<>(Column.class);
+        for (int i = 0; i < columnCount; i++) {
+            Column column = Column.values()[in.readByte()];
+            compressedLengths.put(column, in.readInt());
+            rawLengths.put(column, in.readInt());
+        }
+        Header header = new Header(path, rowCount, minTimestamp, maxTimestamp, minId, maxId,
+                Collections.unmodifiableList(endpoints), dictionaryId);
+        return new ParsedHeader(header, compressedLengths, rawLengths);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                throw new IOException("Unexpected end of archive segment");
+            }
+            offset += read;
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Primitive encoding helpers
+    // ---------------------------------------------------------------------
+
+    static long toMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarInt(OutputStream out, int value) throws IOException {
+        writeVarLong(out, value & 0xFFFFFFFFL);
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            out.write((int) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        out.write((int) remaining);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        return (int) readVarLong(in);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+            if (shift > 63) {
+                throw new IOException("Malformed varint in archive segment");
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
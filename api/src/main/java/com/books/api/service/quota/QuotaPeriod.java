@@ -0,0 +1,57 @@
+package com.books.api.service.quota;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Calendar periods a quota is counted over, aligned to UTC.
+ * Each period is identified by an index that grows by one per period.
+ *
+ * @author books-authors-api
+ */
+public enum QuotaPeriod {
+
+    DAILY {
+        @Override
+        public long indexOf(Instant instant) {
+            return Math.floorDiv(instant.getEpochSecond(), 86_400);
+        }
+
+        @Override
+        public Instant end(long index) {
+            return Instant.ofEpochSecond((index + 1) * 86_400);
+        }
+    },
+
+    MONTHLY {
+        @Override
+        public long indexOf(Instant instant) {
+            LocalDate date = LocalDate.ofInstant(instant, ZoneOffset.UTC);
+            return date.getYear() * 12L + date.getMonthValue() - 1;
+        }
+
+        @Override
+        public Instant end(long index) {
+            long next = index + 1;
+            return LocalDate.of((int) Math.floorDiv(next, 12), (int) Math.floorMod(next, 12) + 1, 1)
+                    .atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+    };
+
+    /**
+     * Returns the index of the period containing an instant
+     *
+     * @param instant the instant
+     * @return the period index
+     */
+    public abstract long indexOf(Instant instant);
+
+    /**
+     * Returns the instant a period ends and the next one starts
+     *
+     * @param index the period index
+     * @return the end of the period
+     */
+    public abstract Instant end(long index);
+}
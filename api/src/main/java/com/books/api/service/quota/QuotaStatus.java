@@ -0,0 +1,17 @@
+package com.books.api.service.quota;
+
+import java.time.Instant;
+
+/**
+ * Quota usage of one client in the current period.
+ *
+ * @param limit     the maximum number of requests per period
+ * @param used      the requests counted in the current period
+ * @param remaining the requests left in the current period
+ * @param resetAt   the end of the current period
+ * @param allowed   whether the request that produced this status is allowed
+ *
+ * @author books-authors-api
+ */
+public record QuotaStatus(long limit, long used, long remaining, Instant resetAt, boolean allowed) {
+}
@@ -0,0 +1,89 @@
+package com.books.api.service.ratelimit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import com.books.api.config.RateLimitingConfig.EndpointLimit;
+import com.books.api.config.RateLimitingConfig.RateLimitSettings;
+
+/**
+ * Immutable table of endpoint limits with their patterns compiled once, in
+ * configuration order, together with the shared default limit. The limits
+ * are copied, so later changes to the settings they were compiled from do
+ * not leak into the table.
+ *
+ * @author books-authors-api
+ */
+public final class EndpointLimitTable {
+
+    private final List<CompiledEndpoint> endpoints;
+    private final EndpointLimit defaultLimit;
+
+    private EndpointLimitTable(List<CompiledEndpoint> endpoints, EndpointLimit defaultLimit) {
+        this.endpoints = endpoints;
+        this.defaultLimit = defaultLimit;
+    }
+
+    /**
+     * Compiles the endpoint patterns of a configuration
+     *
+     * @param source   the configured endpoint limits, may be null
+     * @param defaults the default settings
+     * @return the compiled table
+     */
+    public static EndpointLimitTable compile(List<EndpointLimit> source, RateLimitSettings defaults) {
+        List<CompiledEndpoint> endpoints = new ArrayList<>();
+        if (source != null) {
+            for (EndpointLimit endpoint : source) {
+                endpoints.add(new CompiledEndpoint(Pattern.compile(endpoint.getPattern()),
+                        copy(endpoint.getPattern(), endpoint.getLimit(), endpoint.getRefreshPeriod(),
+                                endpoint.getTimeUnit())));
+            }
+        }
+        EndpointLimit defaultLimit = copy(null, defaults.getLimit(), defaults.getRefreshPeriod(),
+                defaults.getTimeUnit());
+        return new EndpointLimitTable(List.copyOf(endpoints), defaultLimit);
+    }
+
+    private static EndpointLimit copy(String pattern, int limit, int refreshPeriod, TimeUnit timeUnit) {
+        EndpointLimit copy = new EndpointLimit();
+        copy.setPattern(pattern);
+        copy.setLimit(limit);
+        copy.setRefreshPeriod(refreshPeriod);
+        copy.setTimeUnit(timeUnit);
+        return copy;
+    }
+
+    /**
+     * Finds the limit of the first endpoint pattern matching the path
+     *
+     * @param path the request path
+     * @return the matching endpoint limit, or the default limit
+     */
+    public EndpointLimit find(String path) {
+        for (CompiledEndpoint endpoint : endpoints) {
+            if (endpoint.pattern().matcher(path).matches()) {
+                return endpoint.limit();
+            }
+        }
+        return defaultLimit;
+    }
+
+    public EndpointLimit getDefaultLimit() {
+        return defaultLimit;
+    }
+
+    /**
+     * Number of endpoint-specific limits
+     *
+     * @return the endpoint count
+     */
+    public int size() {
+        return endpoints.size();
+    }
+
+    private record CompiledEndpoint(Pattern pattern, EndpointLimit limit) {
+    }
+}
@@ -0,0 +1,96 @@
+package com.books.api.service.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fixed-window request counters keyed by rate limit key.
+ * Time is passed in by the caller, so the same engine serves live traffic
+ * and the replay of recorded traffic in {@link RateLimitSimulator}.
+ *
+ * @author books-authors-api
+ */
+public class RateLimitEngine {
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    /**
+     * Counts a request and checks it against the limit
+     *
+     * @param key          the rate limit key
+     * @param limit        the maximum number of requests per window
+     * @param periodMillis the window length
+     * @param nowMillis    the time of the request
+     * @return true if the request is within the limit
+     */
+    public boolean tryAcquire(String key, int limit, long periodMillis, long nowMillis) {
+        return windows.computeIfAbsent(key, k -> new Window()).incrementAndCheck(limit, periodMillis, nowMillis);
+    }
+
+    /**
+     * Returns the number of requests counted in the current window of a key
+     *
+     * @param key the rate limit key
+     * @return the count, or 0 if the key has no window
+     */
+    public int getCount(String key) {
+        Window window = windows.get(key);
+        return window != null ? window.count() : 0;
+    }
+
+    /**
+     * Returns the end of the current window of a key
+     *
+     * @param key the rate limit key
+     * @return the reset time in epoch milliseconds, or -1 if the key has no
+     *         window
+     */
+    public long getResetTimeMillis(String key) {
+        Window window = windows.get(key);
+        return window != null ? window.resetTimeMillis() : -1;
+    }
+
+    /**
+     * Drops all windows
+     */
+    public void clear() {
+        windows.clear();
+    }
+
+    /**
+     * Number of keys with a window
+     *
+     * @return the key count
+     */
+    public int size() {
+        return windows.size();
+    }
+
+    /**
+     * Request count and end of the current window of one key
+     */
+    private static final class Window {
+        private int count;
+        // Zero until the first request opens a window
+        private long resetTimeMillis;
+
+        synchronized boolean incrementAndCheck(int limit, long periodMillis, long nowMillis) {
+            if (nowMillis > resetTimeMillis) {
+                count = 0;
+                resetTimeMillis = nowMillis + periodMillis;
+            } else if (resetTimeMillis - nowMillis > periodMillis) {
+                // The period was shortened by a policy reload
+                resetTimeMillis = nowMillis + periodMillis;
+            }
+            return ++count <= limit;
+        }
+
+        synchronized int count() {
+            return count;
+        }
+
+        synchronized long resetTimeMillis() {
+            return resetTimeMillis;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.books.api.service.ratelimit;
+
+import com.books.api.config.RateLimitingConfig;
+import com.books.api.config.RateLimitingConfig.EndpointLimit;
+
+/**
+ * Immutable snapshot of the rate limit settings, with the endpoint patterns
+ * compiled. A reload replaces the snapshot as a whole, so a request reading
+ * it once never combines settings from two policies.
+ *
+ * @param enabled         whether requests are rate limited
+ * @param strategy        how requests are keyed (IP_ADDRESS, USER, TOKEN)
+ * @param responseHeaders whether the X-RateLimit headers are added
+ * @param limits          the compiled endpoint limits
+ * @author books-authors-api
+ */
+public record RateLimitPolicy(boolean enabled, String strategy, boolean responseHeaders, EndpointLimitTable limits) {
+
+    /**
+     * Compiles rate limit settings, which must have been validated
+     *
+     * @param settings the settings
+     * @return the snapshot
+     */
+    public static RateLimitPolicy compile(RateLimitingConfig settings) {
+        return new RateLimitPolicy(settings.isEnabled(), settings.getStrategy(), settings.isResponseHeaders(),
+                EndpointLimitTable.compile(settings.getEndpoints(), settings.getDefaultSettings()));
+    }
+
+    /**
+     * Finds the limit of the first endpoint pattern matching the path
+     *
+     * @param path the request path
+     * @return the matching endpoint limit, or the default limit
+     */
+    public EndpointLimit find(String path) {
+        return limits.find(path);
+    }
+}
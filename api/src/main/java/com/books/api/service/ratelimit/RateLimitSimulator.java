@@ -0,0 +1,397 @@
+package com.books.api.service.ratelimit;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.books.api.config.RateLimitingConfig;
+import com.books.api.config.RateLimitingConfig.EndpointLimit;
+import com.books.api.service.PolicyReloadService;
+import com.books.api.service.ratelimit.SimulationReport.RejectionCount;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Replays recorded requests through a candidate rate limit configuration.
+ * Uses the same {@link EndpointLimitTable} and {@link RateLimitEngine} as
+ * the live limiter, with time taken from the recorded timestamps, and
+ * reports how many requests would have been rejected, by whom and where.
+ * Requests must be replayed in timestamp order. A simulator is not thread
+ * safe and is meant for a single replay.
+ * <p>
+ * Recorded traffic carries no bearer tokens, so the TOKEN strategy is
+ * approximated per user, falling back to the client IP.
+ *
+ * @author books-authors-api
+ */
+public class RateLimitSimulator {
+
+    // Beyond this many distinct paths, limits are resolved without caching
+    private static final int MAX_CACHED_PATHS = 100_000;
+
+    private final EndpointLimitTable table;
+    private final String strategy;
+    private final String contextPath;
+    private final RateLimitEngine engine = new RateLimitEngine();
+    private final Map<String, ResolvedPath> paths = new HashMap<>();
+    private final Map<String, long[]> rejectionsByClient = new HashMap<>();
+    private final Map<String, long[]> rejectionsByEndpoint = new HashMap<>();
+    private final long startNanos = System.nanoTime();
+
+    private long total;
+    private long rejected;
+    private long currentSecond = Long.MIN_VALUE;
+    private long admittedInSecond;
+    private long peakAdmitted;
+    private long peakSecond = Long.MIN_VALUE;
+
+    /**
+     * Creates a simulator for a candidate configuration
+     *
+     * @param candidate   the rate limit settings to evaluate
+     * @param contextPath the servlet context path included in recorded
+     *                    endpoints, may be empty
+     * @throws IllegalArgumentException if the candidate is invalid
+     */
+    public RateLimitSimulator(RateLimitingConfig candidate, String contextPath) {
+        List<String> errors = candidate.validate();
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", errors));
+        }
+        this.table = EndpointLimitTable.compile(candidate.getEndpoints(), candidate.getDefaultSettings());
+        this.strategy = candidate.getStrategy();
+        this.contextPath = contextPath == null || "/".equals(contextPath) ? "" : contextPath;
+    }
+
+    /**
+     * Replays one recorded request
+     *
+     * @param timestampMillis the request time in epoch milliseconds
+     * @param endpoint        the recorded request URI
+     * @param clientIp        the client IP
+     * @param userId          the user ID, may be null
+     */
+    public void replay(long timestampMillis, String endpoint, String clientIp, String userId) {
+        if (endpoint == null) {
+            return;
+        }
+        ResolvedPath resolved = resolve(endpoint);
+        String client = clientKey(clientIp, userId);
+        total++;
+
+        if (engine.tryAcquire(client + ":" + resolved.path(), resolved.limit(), resolved.periodMillis(),
+                timestampMillis)) {
+            recordAdmitted(timestampMillis);
+        } else {
+            rejected++;
+            rejectionsByClient.computeIfAbsent(client, k -> new long[1])[0]++;
+            rejectionsByEndpoint.computeIfAbsent(resolved.path(), k -> new long[1])[0]++;
+        }
+    }
+
+    /**
+     * Summarizes the requests replayed so far
+     *
+     * @param top the number of clients and endpoints to list
+     * @return the report
+     */
+    public SimulationReport report(int top) {
+        return new SimulationReport(total, total - rejected, rejected, peakAdmitted,
+                peakSecond == Long.MIN_VALUE ? null : Instant.ofEpochSecond(peakSecond),
+                top(rejectionsByClient, top), top(rejectionsByEndpoint, top),
+                (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    private ResolvedPath resolve(String endpoint) {
+        ResolvedPath resolved = paths.get(endpoint);
+        if (resolved == null) {
+            String path = !contextPath.isEmpty() && endpoint.startsWith(contextPath)
+                    ? endpoint.substring(contextPath.length())
+                    : endpoint;
+            EndpointLimit limit = table.find(path);
+            resolved = new ResolvedPath(path, limit.getLimit(), limit.getTimeUnit().toMillis(limit.getRefreshPeriod()));
+            if (paths.size() < MAX_CACHED_PATHS) {
+                paths.put(endpoint, resolved);
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Mirrors the key strategies of the rate limiting filter
+     */
+    private String clientKey(String clientIp, String userId) {
+        return switch (strategy) {
+            case "USER" -> userId != null ? "user:" + userId : "user:";
+            case "TOKEN" -> userId != null ? "token:" + userId : "token:" + clientIp;
+            default -> clientIp;
+        };
+    }
+
+    private void recordAdmitted(long timestampMillis) {
+        long second = Math.floorDiv(timestampMillis, 1000);
+        if (second != currentSecond) {
+            currentSecond = second;
+            admittedInSecond = 0;
+        }
+        if (++admittedInSecond > peakAdmitted) {
+            peakAdmitted = admittedInSecond;
+            peakSecond = second;
+        }
+    }
+
+    private static List<RejectionCount> top(Map<String, long[]> counts, int top) {
+        List<RejectionCount> sorted = new ArrayList<>(counts.size());
+        counts.forEach((key, count) -> sorted.add(new RejectionCount(key, count[0])));
+        sorted.sort(Comparator.comparingLong(RejectionCount::rejected).reversed()
+                .thenComparing(RejectionCount::key));
+        return List.copyOf(sorted.subList(0, Math.min(Math.max(top, 0), sorted.size())));
+    }
+
+    private record ResolvedPath(String path, int limit, long periodMillis) {
+    }
+
+    /**
+     * Replays an audit export offline:
+     *
+     * <pre>
+     * java -cp target/classes:$(cat target/benchmark.classpath) \
+     *         com.books.api.service.ratelimit.RateLimitSimulator policies.yml export.csv [context-path]
+     * </pre>
+     *
+     * The policy file holds a {@code rate-limiting} section in the format of
+     * application.yml; the export is the CSV or NDJSON output of
+     * {@code GET /api/audit/export}.
+     *
+     * @param args the policy file, the export file and an optional context
+     *             path
+     * @throws IOException if a file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: RateLimitSimulator <policies.yml> <export.csv|export.ndjson> [context-path]");
+            System.exit(2);
+        }
+        RateLimitingConfig candidate = PolicyReloadService.binder(Path.of(args[0]))
+                .bind("rate-limiting", RateLimitingConfig.class)
+                .orElseGet(RateLimitingConfig::new);
+        RateLimitSimulator simulator = new RateLimitSimulator(candidate, args.length > 2 ? args[2] : "");
+
+        // The export is written newest first; buffer it compactly and replay
+        // it in time order
+        RecordedTraffic traffic = new RecordedTraffic();
+        Path export = Path.of(args[1]);
+        try (BufferedReader reader = Files.newBufferedReader(export, StandardCharsets.UTF_8)) {
+            if (export.toString().endsWith(".csv")) {
+                readCsv(reader, traffic);
+            } else {
+                readNdjson(reader, traffic);
+            }
+        }
+        traffic.replay(simulator);
+
+        SimulationReport report = simulator.report(20);
+        System.out.printf("Replayed %d requests in %d ms%n", report.totalRequests(), report.elapsedMillis());
+        System.out.printf("Admitted %d, rejected %d%n", report.admittedRequests(), report.rejectedRequests());
+        System.out.printf("Peak admitted load: %d requests/s at %s%n", report.peakAdmittedPerSecond(),
+                report.peakAt());
+        System.out.println("Top rejected clients:");
+        report.topRejectedClients().forEach(c -> System.out.printf("  %10d  %s%n", c.rejected(), c.key()));
+        System.out.println("Top rejected endpoints:");
+        report.topRejectedEndpoints().forEach(c -> System.out.printf("  %10d  %s%n", c.rejected(), c.key()));
+    }
+
+    /**
+     * Columns: id,timestamp,httpMethod,endpoint,queryParams,clientIp,userId,...
+     */
+    private static void readCsv(BufferedReader reader, RecordedTraffic traffic) throws IOException {
+        String line = reader.readLine(); // Header
+        List<String> fields = new ArrayList<>(11);
+        while ((line = reader.readLine()) != null) {
+            splitCsv(line, fields, 7);
+            if (fields.size() > 6 && !fields.get(1).isEmpty()) {
+                traffic.add(epochMillis(fields.get(1)), fields.get(3), fields.get(5),
+                        fields.get(6).isEmpty() ? null : fields.get(6));
+            }
+        }
+    }
+
+    private static void readNdjson(BufferedReader reader, RecordedTraffic traffic) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode entry = objectMapper.readTree(line);
+            String timestamp = entry.path("timestamp").asText(null);
+            if (timestamp != null) {
+                traffic.add(epochMillis(timestamp), entry.path("endpoint").asText(null),
+                        entry.path("clientIp").asText(null), entry.path("userId").asText(null));
+            }
+        }
+    }
+
+    /**
+     * Parses an ISO local date-time as UTC epoch milliseconds. The
+     * {@code yyyy-MM-ddTHH:mm:ss[.fraction]} form written by the export is
+     * read directly, which is several times faster than the general parser.
+     */
+    static long epochMillis(String timestamp) {
+        if (timestamp.length() < 19 || timestamp.charAt(10) != 'T' || timestamp.charAt(13) != ':'
+                || timestamp.charAt(16) != ':' || (timestamp.length() > 19 && timestamp.charAt(19) != '.')) {
+            return LocalDateTime.parse(timestamp).toInstant(ZoneOffset.UTC).toEpochMilli();
+        }
+        long epochDay = LocalDate.of(digits(timestamp, 0, 4), digits(timestamp, 5, 7), digits(timestamp, 8, 10))
+                .toEpochDay();
+        long seconds = epochDay * 86_400 + digits(timestamp, 11, 13) * 3600L + digits(timestamp, 14, 16) * 60L
+                + digits(timestamp, 17, 19);
+        int millis = 0;
+        for (int i = 20; i < 23; i++) {
+            millis = millis * 10 + (i < timestamp.length() ? digit(timestamp, i) : 0);
+        }
+        return seconds * 1000 + millis;
+    }
+
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            value = value * 10 + digit(text, i);
+        }
+        return value;
+    }
+
+    private static int digit(String text, int index) {
+        char c = text.charAt(index);
+        if (c < '0' || c > '9') {
+            throw new IllegalArgumentException("Invalid timestamp: " + text);
+        }
+        return c - '0';
+    }
+
+    /**
+     * Splits the leading fields of one CSV line as written by the audit
+     * export. Quoted fields spanning lines are not expected in the columns
+     * read here.
+     */
+    private static void splitCsv(String line, List<String> fields, int maxFields) {
+        fields.clear();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                if (fields.size() == maxFields) {
+                    return;
+                }
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+    }
+
+    /**
+     * Recorded requests held as parallel arrays, with repeated strings stored
+     * once, so that millions of entries fit in memory before replay
+     */
+    static final class RecordedTraffic {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+        private long[] timestamps = new long[1024];
+        private int[] endpoints = new int[1024];
+        private int[] clients = new int[1024];
+        private int[] users = new int[1024];
+        private int size;
+
+        void add(long timestampMillis, String endpoint, String clientIp, String userId) {
+            if (size == timestamps.length) {
+                int capacity = size * 2;
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                endpoints = Arrays.copyOf(endpoints, capacity);
+                clients = Arrays.copyOf(clients, capacity);
+                users = Arrays.copyOf(users, capacity);
+            }
+            timestamps[size] = timestampMillis;
+            endpoints[size] = id(endpoint);
+            clients[size] = id(clientIp);
+            users[size] = id(userId);
+            size++;
+        }
+
+        /**
+         * Replays the entries in ascending time order. A newest-first export
+         * is simply reversed; any other order is sorted.
+         */
+        void replay(RateLimitSimulator simulator) {
+            boolean ascending = true;
+            boolean descending = true;
+            for (int i = 1; i < size && (ascending || descending); i++) {
+                ascending &= timestamps[i - 1] <= timestamps[i];
+                descending &= timestamps[i - 1] >= timestamps[i];
+            }
+
+            if (ascending) {
+                for (int i = 0; i < size; i++) {
+                    replay(simulator, i);
+                }
+            } else if (descending) {
+                for (int i = size - 1; i >= 0; i--) {
+                    replay(simulator, i);
+                }
+            } else {
+                Integer[] order = new Integer[size];
+                for (int i = 0; i < size; i++) {
+                    order[i] = i;
+                }
+                Arrays.sort(order, Comparator.comparingLong(i -> timestamps[i]));
+                for (Integer i : order) {
+                    replay(simulator, i);
+                }
+            }
+        }
+
+        private void replay(RateLimitSimulator simulator, int i) {
+            simulator.replay(timestamps[i], string(endpoints[i]), string(clients[i]), string(users[i]));
+        }
+
+        private int id(String value) {
+            if (value == null) {
+                return -1;
+            }
+            return ids.computeIfAbsent(value, v -> {
+                strings.add(v);
+                return strings.size() - 1;
+            });
+        }
+
+        private String string(int id) {
+            return id < 0 ? null : strings.get(id);
+        }
+    }
+}
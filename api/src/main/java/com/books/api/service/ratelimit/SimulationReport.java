@@ -0,0 +1,33 @@
+package com.books.api.service.ratelimit;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Outcome of replaying recorded traffic through a rate limit configuration.
+ *
+ * @param totalRequests           number of requests replayed
+ * @param admittedRequests        number of requests within their limit
+ * @param rejectedRequests        number of requests that would get 429
+ * @param peakAdmittedPerSecond   highest number of requests admitted within
+ *                                one second
+ * @param peakAt                  start of that second, null without traffic
+ * @param topRejectedClients      clients with the most rejections
+ * @param topRejectedEndpoints    endpoints with the most rejections
+ * @param elapsedMillis           time taken by the replay
+ *
+ * @author books-authors-api
+ */
+public record SimulationReport(long totalRequests, long admittedRequests, long rejectedRequests,
+        long peakAdmittedPerSecond, Instant peakAt, List<RejectionCount> topRejectedClients,
+        List<RejectionCount> topRejectedEndpoints, long elapsedMillis) {
+
+    /**
+     * Number of rejections of one client or endpoint
+     *
+     * @param key      the client or endpoint
+     * @param rejected the rejected request count
+     */
+    public record RejectionCount(String key, long rejected) {
+    }
+}
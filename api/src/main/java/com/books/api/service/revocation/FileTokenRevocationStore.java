@@ -0,0 +1,85 @@
+package com.books.api.service.revocation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local stand-in for a replicated revocation store.
+ * Keeps the log in an append-only text file with one
+ * {@code tokenId<TAB>expiresAtEpochSecond} line per revocation; the cursor is
+ * a byte offset. Nodes sharing the file see each other's revocations.
+ *
+ * @author books-authors-api
+ */
+@Slf4j
+public class FileTokenRevocationStore implements TokenRevocationStore {
+
+    private final Path file;
+
+    public FileTokenRevocationStore(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void append(RevokedToken token) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        String line = token.tokenId() + "\t" + token.expiresAt().getEpochSecond() + "\n";
+        // A single append of a short line is atomic, so concurrent writers never interleave
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    @Override
+    public long readSince(long cursor, Consumer<RevokedToken> consumer) throws IOException {
+        if (!Files.exists(file)) {
+            return cursor;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size <= cursor) {
+                return cursor;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(size - cursor, Integer.MAX_VALUE));
+            channel.read(buffer, cursor);
+            byte[] bytes = buffer.array();
+
+            // Only complete lines are consumed; a partial last line is read next time
+            int start = 0;
+            for (int i = 0; i < buffer.position(); i++) {
+                if (bytes[i] == '\n') {
+                    parse(new String(bytes, start, i - start, StandardCharsets.UTF_8), consumer);
+                    start = i + 1;
+                }
+            }
+            return cursor + start;
+        }
+    }
+
+    private void parse(String line, Consumer<RevokedToken> consumer) {
+        int tab = line.indexOf('\t');
+        if (tab <= 0) {
+            log.warn("Skipping malformed revocation entry: {}", line);
+            return;
+        }
+        try {
+            consumer.accept(new RevokedToken(line.substring(0, tab),
+                    Instant.ofEpochSecond(Long.parseLong(line.substring(tab + 1).trim()))));
+        } catch (NumberFormatException e) {
+            log.warn("Skipping malformed revocation entry: {}", line);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.books.api.service.revocation;
+
+import java.time.Instant;
+
+/**
+ * A revoked token, identified by its {@code jti} claim.
+ * The entry is only needed until the token would have expired anyway.
+ *
+ * @param tokenId   the token ID
+ * @param expiresAt the token expiration
+ * @author books-authors-api
+ */
+public record RevokedToken(String tokenId, Instant expiresAt) {
+}
@@ -0,0 +1,33 @@
+package com.books.api.service.revocation;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Persistent, replicated log of revoked tokens.
+ * Nodes append their own revocations and read the entries appended by all
+ * nodes incrementally, from the cursor returned by the previous read.
+ * Declare a bean of this type to replace the local file stand-in.
+ *
+ * @author books-authors-api
+ */
+public interface TokenRevocationStore {
+
+    /**
+     * Appends a revocation to the log
+     *
+     * @param token the revoked token
+     * @throws IOException if the store cannot be written
+     */
+    void append(RevokedToken token) throws IOException;
+
+    /**
+     * Reads the revocations appended after the cursor
+     *
+     * @param cursor   the cursor returned by the previous read, 0 initially
+     * @param consumer receives every new revocation in log order
+     * @return the cursor to pass to the next read
+     * @throws IOException if the store cannot be read
+     */
+    long readSince(long cursor, Consumer<RevokedToken> consumer) throws IOException;
+}
@@ -0,0 +1,80 @@
+package com.books.api.service.sketch;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over strings.
+ * Answers "definitely absent" without false negatives, so a negative lookup
+ * can skip any exact check. Entries cannot be removed; callers rebuild the
+ * filter instead.
+ *
+ * @author books-authors-api
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * Creates a filter sized for the expected number of entries
+     *
+     * @param expectedEntries   the expected number of entries
+     * @param falsePositiveRate the target false positive rate, e.g. 0.01
+     */
+    public BloomFilter(int expectedEntries, double falsePositiveRate) {
+        int entries = Math.max(1, expectedEntries);
+        long optimalBits = (long) Math.ceil(-entries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (optimalBits + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = words * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / entries * Math.log(2)));
+    }
+
+    /**
+     * Adds a value to the filter
+     *
+     * @param value the value
+     */
+    public void add(CharSequence value) {
+        long hash = SketchHashing.hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    /**
+     * Checks whether the value may have been added
+     *
+     * @param value the value
+     * @return false if the value was definitely never added
+     */
+    public boolean mightContain(CharSequence value) {
+        long hash = SketchHashing.hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long index(int combinedHash) {
+        // Double hashing (Kirsch-Mitzenmacher) derives all probes from one hash
+        return (combinedHash & 0x7fffffffL) % bitCount;
+    }
+}
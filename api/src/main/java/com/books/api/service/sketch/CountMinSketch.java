@@ -0,0 +1,103 @@
+package com.books.api.service.sketch;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Count-Min sketch over 64-bit key hashes.
+ *
+ * <p>
+ * Estimates never undercount; they overcount by at most {@code e / width}
+ * times the total number of updates with probability
+ * {@code 1 - e^-depth}. Memory is fixed at {@code width * depth} counters.
+ * </p>
+ *
+ * @author books-authors-api
+ */
+public class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final int mask;
+    private final AtomicLongArray counters;
+
+    /**
+     * Creates a sketch
+     *
+     * @param width counters per row, rounded up to a power of two
+     * @param depth number of rows
+     */
+    public CountMinSketch(int width, int depth) {
+        if (width < 1 || depth < 1) {
+            throw new IllegalArgumentException("Count-Min width and depth must be positive");
+        }
+        int rounded = 1;
+        while (rounded < width) {
+            rounded <<= 1;
+        }
+        this.width = rounded;
+        this.depth = depth;
+        this.mask = this.width - 1;
+        this.counters = new AtomicLongArray(this.width * depth);
+    }
+
+    /**
+     * Counts one occurrence of a key and returns its new estimate
+     *
+     * @param hash the key hash
+     * @return the estimated count of the key including this occurrence
+     */
+    public long add(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int column = (h1 + row * h2) & mask;
+            estimate = Math.min(estimate, counters.incrementAndGet(row * width + column));
+        }
+        return estimate;
+    }
+
+    /**
+     * Estimates the count of a key
+     *
+     * @param hash the key hash
+     * @return the estimated count
+     */
+    public long estimate(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int column = (h1 + row * h2) & mask;
+            estimate = Math.min(estimate, counters.get(row * width + column));
+        }
+        return estimate;
+    }
+
+    /**
+     * Resets all counters
+     */
+    public void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.lazySet(i, 0);
+        }
+    }
+
+    /**
+     * Relative error factor: estimates exceed the true count by at most this
+     * fraction of the total count
+     *
+     * @return the error factor {@code e / width}
+     */
+    public double errorFactor() {
+        return Math.E / width;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+}
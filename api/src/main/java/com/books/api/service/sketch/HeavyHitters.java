@@ -0,0 +1,206 @@
+package com.books.api.service.sketch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Top-K heavy hitters over tumbling time intervals.
+ *
+ * <p>
+ * Every key is counted in a {@link CountMinSketch}; only keys whose estimate
+ * beats the smallest tracked candidate are admitted into a fixed table of
+ * {@code capacity} candidates. Keys already tracked, and keys below the
+ * admission threshold, are handled without locking or allocation. Counts are
+ * read from the sketch when queried, so candidates never need updating.
+ * </p>
+ *
+ * @author books-authors-api
+ */
+public class HeavyHitters {
+
+    /**
+     * A heavy hitter and its estimated count
+     *
+     * @param key      the key
+     * @param estimate the estimated count, never below the true count
+     */
+    public record Entry(String key, long estimate) {
+    }
+
+    private final CountMinSketch sketch;
+    private final int capacity;
+    private final long intervalMillis;
+    private final LongAdder total = new LongAdder();
+
+    // Candidate table, guarded by this
+    private final String[] keys;
+    private final long[] hashes;
+    private int size;
+
+    private volatile long[] memberHashes = new long[0];
+    private volatile long admissionThreshold;
+    private volatile long intervalStart;
+
+    private volatile List<Entry> previousInterval = List.of();
+    private volatile long previousIntervalStart;
+
+    /**
+     * Creates a heavy hitter tracker
+     *
+     * @param capacity       number of candidates tracked
+     * @param width          Count-Min counters per row
+     * @param depth          Count-Min rows
+     * @param intervalMillis length of a counting interval
+     * @param now            the current time in milliseconds
+     */
+    public HeavyHitters(int capacity, int width, int depth, long intervalMillis, long now) {
+        this.sketch = new CountMinSketch(width, depth);
+        this.capacity = capacity;
+        this.intervalMillis = intervalMillis;
+        this.keys = new String[capacity];
+        this.hashes = new long[capacity];
+        this.intervalStart = alignedStart(now);
+    }
+
+    /**
+     * Counts one occurrence of a key
+     *
+     * @param key  the key
+     * @param hash the key hash, see {@link SketchHashing#hash(CharSequence)}
+     * @param now  the current time in milliseconds
+     */
+    public void offer(String key, long hash, long now) {
+        if (now - intervalStart >= intervalMillis) {
+            rollover(now);
+        }
+        total.increment();
+        long estimate = sketch.add(hash);
+        if (estimate <= admissionThreshold) {
+            return;
+        }
+        for (long member : memberHashes) {
+            if (member == hash) {
+                return;
+            }
+        }
+        admit(key, hash, estimate);
+    }
+
+    /**
+     * Returns the heaviest keys of the current interval
+     *
+     * @param limit the maximum number of keys
+     * @return the heavy hitters, heaviest first
+     */
+    public List<Entry> top(int limit) {
+        List<Entry> entries = new ArrayList<>();
+        synchronized (this) {
+            for (int i = 0; i < size; i++) {
+                entries.add(new Entry(keys[i], sketch.estimate(hashes[i])));
+            }
+        }
+        entries.sort(Comparator.comparingLong(Entry::estimate).reversed().thenComparing(Entry::key));
+        return entries.size() > limit ? List.copyOf(entries.subList(0, limit)) : entries;
+    }
+
+    /**
+     * Returns the heavy hitters frozen at the end of the previous interval
+     *
+     * @return the previous interval's heavy hitters, heaviest first
+     */
+    public List<Entry> previousTop() {
+        return previousInterval;
+    }
+
+    /**
+     * Number of occurrences counted in the current interval
+     *
+     * @return the total count
+     */
+    public long total() {
+        return total.sum();
+    }
+
+    /**
+     * Upper bound of the overcount of any estimate in the current interval
+     *
+     * @return the maximum error
+     */
+    public long maxError() {
+        return (long) Math.ceil(sketch.errorFactor() * total.sum());
+    }
+
+    public long getIntervalStart() {
+        return intervalStart;
+    }
+
+    public long getPreviousIntervalStart() {
+        return previousIntervalStart;
+    }
+
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    private synchronized void admit(String key, long hash, long estimate) {
+        for (int i = 0; i < size; i++) {
+            if (hashes[i] == hash) {
+                return;
+            }
+        }
+
+        if (size < capacity) {
+            keys[size] = key;
+            hashes[size] = hash;
+            size++;
+        } else {
+            int weakest = 0;
+            long weakestEstimate = Long.MAX_VALUE;
+            for (int i = 0; i < size; i++) {
+                long current = sketch.estimate(hashes[i]);
+                if (current < weakestEstimate) {
+                    weakestEstimate = current;
+                    weakest = i;
+                }
+            }
+            if (estimate <= weakestEstimate) {
+                admissionThreshold = weakestEstimate;
+                return;
+            }
+            keys[weakest] = key;
+            hashes[weakest] = hash;
+        }
+
+        memberHashes = Arrays.copyOf(hashes, size);
+        if (size == capacity) {
+            long threshold = Long.MAX_VALUE;
+            for (int i = 0; i < size; i++) {
+                threshold = Math.min(threshold, sketch.estimate(hashes[i]));
+            }
+            admissionThreshold = threshold;
+        }
+    }
+
+    private synchronized void rollover(long now) {
+        if (now - intervalStart < intervalMillis) {
+            return;
+        }
+        previousInterval = List.copyOf(top(capacity));
+        previousIntervalStart = intervalStart;
+
+        sketch.clear();
+        total.reset();
+        Arrays.fill(keys, null);
+        size = 0;
+        memberHashes = new long[0];
+        admissionThreshold = 0;
+        intervalStart = alignedStart(now);
+    }
+
+    private long alignedStart(long now) {
+        return now - Math.floorMod(now, intervalMillis);
+    }
+}
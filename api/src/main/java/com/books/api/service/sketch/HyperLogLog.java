@@ -0,0 +1,135 @@
+package com.books.api.service.sketch;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Lock-free HyperLogLog cardinality estimator over 64-bit key hashes.
+ *
+ * <p>
+ * Uses {@code 2^precision} one-byte registers packed four to an int, so a
+ * precision of 10 takes 1 KB and estimates within about 3% (standard error
+ * {@code 1.04 / sqrt(2^precision)}), however many distinct keys are seen.
+ * </p>
+ *
+ * @author books-authors-api
+ */
+public class HyperLogLog {
+
+    private final int precision;
+    private final int registerCount;
+    private final AtomicIntegerArray registers;
+
+    /**
+     * Creates an estimator
+     *
+     * @param precision number of index bits, between 4 and 16
+     */
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("HyperLogLog precision must be between 4 and 16");
+        }
+        this.precision = precision;
+        this.registerCount = 1 << precision;
+        this.registers = new AtomicIntegerArray(registerCount / 4);
+    }
+
+    /**
+     * Records a key
+     *
+     * @param hash the key hash
+     */
+    public void offer(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        int slot = index >>> 2;
+        int shift = (index & 3) << 3;
+        while (true) {
+            int packed = registers.get(slot);
+            int current = (packed >>> shift) & 0xFF;
+            if (rank <= current) {
+                return;
+            }
+            int updated = (packed & ~(0xFF << shift)) | (rank << shift);
+            if (registers.compareAndSet(slot, packed, updated)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Merges this estimator's registers into the given array, keeping the
+     * maximum of each register
+     *
+     * @param target registers of length {@code 2^precision}
+     */
+    public void mergeInto(byte[] target) {
+        for (int slot = 0; slot < registers.length(); slot++) {
+            int packed = registers.get(slot);
+            for (int i = 0; i < 4; i++) {
+                int value = (packed >>> (i << 3)) & 0xFF;
+                int index = (slot << 2) + i;
+                if (value > target[index]) {
+                    target[index] = (byte) value;
+                }
+            }
+        }
+    }
+
+    /**
+     * Estimates the number of distinct keys recorded
+     *
+     * @return the estimated cardinality
+     */
+    public long estimate() {
+        byte[] snapshot = new byte[registerCount];
+        mergeInto(snapshot);
+        return estimate(snapshot);
+    }
+
+    /**
+     * Resets all registers
+     */
+    public void clear() {
+        for (int i = 0; i < registers.length(); i++) {
+            registers.set(i, 0);
+        }
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Relative standard error of the estimates
+     *
+     * @return the standard error
+     */
+    public double standardError() {
+        return 1.04 / Math.sqrt(registerCount);
+    }
+
+    /**
+     * Estimates the cardinality of a register array, applying linear counting
+     * for small ranges
+     *
+     * @param values the registers
+     * @return the estimated cardinality
+     */
+    public static long estimate(byte[] values) {
+        int m = values.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte value : values) {
+            sum += 1.0 / (1L << value);
+            if (value == 0) {
+                zeros++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+}
@@ -0,0 +1,47 @@
+package com.books.api.service.sketch;
+
+/**
+ * 64-bit hashing shared by the traffic sketches.
+ * Hashes characters in place so that recording a request allocates nothing.
+ *
+ * @author books-authors-api
+ */
+public final class SketchHashing {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private SketchHashing() {
+    }
+
+    /**
+     * Hashes a character sequence to 64 well-mixed bits
+     *
+     * @param value the value to hash
+     * @return the hash
+     */
+    public static long hash(CharSequence value) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Finalization step of MurmurHash3, spreading entropy over all bits
+     *
+     * @param value the value to mix
+     * @return the mixed value
+     */
+    public static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,108 @@
+package com.books.api.service.sketch;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ring of {@link HyperLogLog} estimators, one per fixed time window.
+ * Unique counts over the last N windows are obtained by merging registers,
+ * so the memory used is fixed by the ring size and precision alone.
+ *
+ * <p>
+ * A slot is cleared by the first writer that observes a new window. Writers
+ * racing with the clear may lose a register update, which only lowers the
+ * estimate marginally for that window.
+ * </p>
+ *
+ * @author books-authors-api
+ */
+public class WindowedHyperLogLog {
+
+    private final HyperLogLog[] windows;
+    private final AtomicLongArray windowIds;
+    private final long windowMillis;
+    private final int precision;
+
+    /**
+     * Creates a windowed estimator
+     *
+     * @param windowCount  number of windows kept
+     * @param windowMillis length of a window in milliseconds
+     * @param precision    HyperLogLog precision
+     */
+    public WindowedHyperLogLog(int windowCount, long windowMillis, int precision) {
+        this.windows = new HyperLogLog[windowCount];
+        this.windowIds = new AtomicLongArray(windowCount);
+        for (int i = 0; i < windowCount; i++) {
+            windows[i] = new HyperLogLog(precision);
+            windowIds.set(i, -1);
+        }
+        this.windowMillis = windowMillis;
+        this.precision = precision;
+    }
+
+    /**
+     * Records a key in the window containing the given time
+     *
+     * @param hash the key hash
+     * @param now  the current time in milliseconds
+     */
+    public void offer(long hash, long now) {
+        long windowId = Math.floorDiv(now, windowMillis);
+        int slot = (int) Math.floorMod(windowId, (long) windows.length);
+        long current = windowIds.get(slot);
+        if (current != windowId && current < windowId && windowIds.compareAndSet(slot, current, windowId)) {
+            windows[slot].clear();
+        }
+        if (windowIds.get(slot) == windowId) {
+            windows[slot].offer(hash);
+        }
+    }
+
+    /**
+     * Estimates the distinct keys seen in the last windows, the current one
+     * included
+     *
+     * @param windowCount number of windows to merge, capped at the ring size
+     * @param now         the current time in milliseconds
+     * @return the estimated number of distinct keys
+     */
+    public long estimate(int windowCount, long now) {
+        long currentWindow = Math.floorDiv(now, windowMillis);
+        long oldestWindow = currentWindow - Math.min(windowCount, windows.length) + 1;
+        byte[] registers = new byte[1 << precision];
+        for (int slot = 0; slot < windows.length; slot++) {
+            long windowId = windowIds.get(slot);
+            if (windowId >= oldestWindow && windowId <= currentWindow) {
+                windows[slot].mergeInto(registers);
+            }
+        }
+        return HyperLogLog.estimate(registers);
+    }
+
+    /**
+     * Start of the window containing the given time
+     *
+     * @param now the time in milliseconds
+     * @return the window start in milliseconds
+     */
+    public long windowStart(long now) {
+        return Math.floorDiv(now, windowMillis) * windowMillis;
+    }
+
+    public int getWindowCount() {
+        return windows.length;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    /**
+     * Relative standard error of the estimates
+     *
+     * @return the standard error
+     */
+    public double standardError() {
+        return windows[0].standardError();
+    }
+}
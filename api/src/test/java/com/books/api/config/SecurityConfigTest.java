@@ -1,22 +1,54 @@
 package com.books.api.config;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.util.AssertionErrors.assertTrue;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.web.cors.CorsConfigurationSource;
 
+import com.books.api.controller.PolicyController;
+import com.books.api.security.JwtPrincipal;
 import com.books.api.security.JwtTokenFilter;
+import com.books.api.security.JwtTokenVerifier;
 import com.books.api.security.RateLimitingFilter;
+import com.books.api.service.PolicyReloadService;
+
+import io.jsonwebtoken.Jwts;
+import jakarta.servlet.Filter;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.http.HttpServletRequest;
 
 @ExtendWith(SpringExtension.class)
 @ContextConfiguration(classes = { SecurityConfig.class, SecurityConfigTest.TestConfig.class })
@@ -28,11 +60,35 @@ public class SecurityConfigTest {
     @Autowired
     private CorsConfigurationSource corsConfigurationSource;
 
+    @Autowired
+    @Qualifier("springSecurityFilterChain")
+    private Filter springSecurityFilterChain;
+
+    @Autowired
+    private JwtTokenVerifier jwtTokenVerifier;
+
+    @Autowired
+    private PolicyController policyController;
+
+    @Autowired
+    private PolicyReloadService policyReloadService;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        reset(jwtTokenVerifier, policyReloadService);
+    }
+
     @TestConfiguration
     static class TestConfig {
         @Bean
         public RateLimitingFilter rateLimitingFilter() {
-            return new RateLimitingFilter(null, null, null);
+            return new RateLimitingFilter(null, null, null, null) {
+                @Override
+                protected boolean shouldNotFilter(HttpServletRequest request) {
+                    return true;
+                }
+            };
         }
 
         @Bean
@@ -40,10 +96,25 @@ public class SecurityConfigTest {
             return mock(JwtTokenFilter.class);
         }
 
+        @Bean
+        public JwtTokenVerifier jwtTokenVerifier() {
+            return mock(JwtTokenVerifier.class);
+        }
+
         @Bean
         public CorsConfigurationSource corsConfigurationSource() {
             return request -> null;
         }
+
+        @Bean
+        public PolicyReloadService policyReloadService() {
+            return mock(PolicyReloadService.class);
+        }
+
+        @Bean
+        public PolicyController policyController(PolicyReloadService policyReloadService) {
+            return new PolicyController(policyReloadService);
+        }
     }
 
     @Test
@@ -60,4 +131,81 @@ public class SecurityConfigTest {
         assertNotNull(filterChain, "SecurityFilterChain no debe ser null");
         assertTrue("CorsConfigurationSource bean should be present", corsConfigurationSource != null);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should refuse an anonymous request to an administration endpoint")
+    void shouldRefuseAnonymousAdminRequest() throws ServletException, IOException {
+        // Given
+        MockHttpServletRequest request = request("POST", "/api/policies/reload");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<ServletRequest> reached = new AtomicReference<>();
+
+        // When
+        springSecurityFilterChain.doFilter(request, response, (req, res) -> reached.set(req));
+
+        // Then
+        assertEquals(403, response.getStatus());
+        assertNull(reached.get());
+    }
+
+    @Test
+    @DisplayName("Should let a token granting the ADMIN role reach an administration endpoint")
+    void shouldAllowAdminToken() throws ServletException, IOException {
+        // Given
+        MockHttpServletRequest request = request("POST", "/api/ip-access/bans/10.0.0.1");
+        request.addHeader("Authorization", "Bearer admin-token");
+        when(jwtTokenVerifier.verify(any(HttpServletRequest.class), eq("admin-token")))
+                .thenReturn(principal(List.of("ADMIN")));
+        AtomicReference<ServletRequest> reached = new AtomicReference<>();
+
+        // When
+        springSecurityFilterChain.doFilter(request, new MockHttpServletResponse(), (req, res) -> reached.set(req));
+
+        // Then
+        assertNotNull(reached.get());
+    }
+
+    @Test
+    @DisplayName("Should refuse a token without the ADMIN role, and keep the catalog open to it")
+    void shouldRefuseTokenWithoutAdminRole() throws ServletException, IOException {
+        // Given
+        when(jwtTokenVerifier.verify(any(HttpServletRequest.class), eq("user-token")))
+                .thenReturn(principal(List.of()));
+        MockHttpServletRequest admin = request("POST", "/api/tokens/revocations");
+        admin.addHeader("Authorization", "Bearer user-token");
+        MockHttpServletResponse adminResponse = new MockHttpServletResponse();
+        MockHttpServletRequest catalog = request("GET", "/api/books");
+        catalog.addHeader("Authorization", "Bearer user-token");
+        AtomicReference<ServletRequest> reached = new AtomicReference<>();
+
+        // When
+        springSecurityFilterChain.doFilter(admin, adminResponse, (req, res) -> reached.set(req));
+        springSecurityFilterChain.doFilter(catalog, new MockHttpServletResponse(), (req, res) -> reached.set(req));
+
+        // Then
+        assertEquals(403, adminResponse.getStatus());
+        assertEquals("/api/books", ((HttpServletRequest) reached.get()).getRequestURI());
+    }
+
+    @Test
+    @DisplayName("Should enforce the @PreAuthorize rules of the controllers")
+    void shouldEnforceMethodSecurity() throws IOException {
+        // Given
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken("key", "anonymous",
+                AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+
+        // Then
+        assertThrows(AccessDeniedException.class, () -> policyController.reload());
+        verify(policyReloadService, never()).reload();
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path); // As mapped to the dispatcher servlet
+        return request;
+    }
+
+    private static JwtPrincipal principal(List<String> roles) {
+        return new JwtPrincipal("client", Jwts.claims(Map.of(JwtPrincipal.ROLES_CLAIM, roles)), "digest", null);
+    }
+}
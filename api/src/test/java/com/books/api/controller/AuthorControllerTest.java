@@ -2,13 +2,16 @@ package com.books.api.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.stream.LongStream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -17,13 +20,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.books.application.dto.AuthorDTO;
 import com.books.application.dto.CreateAuthorDTO;
+import com.books.application.dto.MultiGetDTO;
 import com.books.application.dto.UpdateAuthorDTO;
 import com.books.application.service.AuthorService;
+import com.books.domain.model.TextChunk;
 
 /**
  * Unit tests for {@link AuthorController}.
@@ -289,4 +296,102 @@ public class AuthorControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(0, response.getBody().size());
     }
-}
\ No newline at end of file
+
+    /**
+     * Test to verify that the multi-get returns the authors in the requested
+     * order and lists the IDs that do not exist.
+     */
+    @Test
+    @DisplayName("Should return authors by IDs in order and report missing IDs")
+    void getAuthorsByIds_ShouldReturnFoundAndMissing_WhenSomeIdsExist() {
+        // Given
+        List<Long> ids = List.of(2L, 99L, 1L);
+        when(authorService.findAuthorsByIds(ids)).thenReturn(MultiGetDTO.<AuthorDTO>builder()
+                .items(List.of(author2, author1))
+                .missingIds(List.of(99L))
+                .build());
+
+        // When
+        ResponseEntity<MultiGetDTO<AuthorDTO>> response = authorController.getAuthorsByIds(ids);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(2L, 1L), response.getBody().getItems().stream().map(AuthorDTO::getAuthorId).toList());
+        assertEquals(List.of(99L), response.getBody().getMissingIds());
+    }
+
+    /**
+     * Test to verify that the multi-get rejects more IDs than one request may
+     * carry, without calling the service.
+     */
+    @Test
+    @DisplayName("Should reject a multi-get with too many IDs")
+    void getAuthorsByIds_ShouldReturnBadRequest_WhenTooManyIds() {
+        // Given
+        List<Long> ids = LongStream.rangeClosed(1, AuthorController.MAX_IDS_PER_REQUEST + 1).boxed().toList();
+
+        // When
+        ResponseEntity<MultiGetDTO<AuthorDTO>> response = authorController.getAuthorsByIds(ids);
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(authorService);
+    }
+
+    /**
+     * Test to verify that the multi-get rejects an empty ID, which
+     * {@code ?ids=1,,2} binds as null, and an empty ID list, without calling
+     * the service.
+     */
+    @Test
+    @DisplayName("Should reject a multi-get with an empty ID or no IDs")
+    void getAuthorsByIds_ShouldReturnBadRequest_WhenIdsAreEmpty() {
+        // Given
+        List<Long> withEmptyId = Arrays.asList(1L, null, 2L);
+        List<Long> noIds = List.of();
+
+        // When
+        ResponseEntity<MultiGetDTO<AuthorDTO>> emptyIdResponse = authorController.getAuthorsByIds(withEmptyId);
+        ResponseEntity<MultiGetDTO<AuthorDTO>> noIdsResponse = authorController.getAuthorsByIds(noIds);
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, emptyIdResponse.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, noIdsResponse.getStatusCode());
+        verifyNoInteractions(authorService);
+    }
+
+    /**
+     * Test to verify that the biography of an author that does not exist is
+     * answered with 404.
+     */
+    @Test
+    @DisplayName("Should return 404 for the biography of an unknown author")
+    void getAuthorBiography_ShouldReturnNotFound_WhenAuthorDoesNotExist() {
+        // Given
+        when(authorService.readBiography(99L, 0, 0)).thenReturn(java.util.Optional.empty());
+
+        // When
+        ResponseEntity<StreamingResponseBody> response = authorController.getAuthorBiography(99L, "chars=0-99");
+
+        // Then
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    /**
+     * Test to verify that a range starting past the end of the biography is
+     * answered with 416 and the length of the text.
+     */
+    @Test
+    @DisplayName("Should reject a biography range past the end of the text")
+    void getAuthorBiography_ShouldReturnRangeNotSatisfiable_WhenRangeStartsPastEnd() {
+        // Given
+        when(authorService.readBiography(1L, 0, 0)).thenReturn(java.util.Optional.of(new TextChunk(82, "")));
+
+        // When
+        ResponseEntity<StreamingResponseBody> response = authorController.getAuthorBiography(1L, "chars=100-");
+
+        // Then
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatusCode());
+        assertEquals("chars */82", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+    }
+}
@@ -2,14 +2,23 @@ package com.books.api.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.LongStream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -18,14 +27,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.books.application.dto.BookDTO;
 import com.books.application.dto.CreateBookDTO;
+import com.books.application.dto.MultiGetDTO;
 import com.books.application.dto.UpdateBookDTO;
 import com.books.application.service.BookService;
 import com.books.domain.model.Author;
+import com.books.domain.model.TextChunk;
 
 /**
  * Unit tests for {@link BookController}.
@@ -357,4 +370,120 @@ public class BookControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(0, response.getBody().size());
     }
-}
\ No newline at end of file
+
+    /**
+     * Test to verify that the multi-get returns the books in the requested
+     * order and lists the IDs that do not exist.
+     */
+    @Test
+    @DisplayName("Should return books by IDs in order and report missing IDs")
+    void getBooksByIds_ShouldReturnFoundAndMissing_WhenSomeIdsExist() {
+        // Given
+        List<Long> ids = List.of(2L, 99L, 1L);
+        when(bookService.findBooksByIds(ids)).thenReturn(MultiGetDTO.<BookDTO>builder()
+                .items(List.of(bookDTO2, bookDTO1))
+                .missingIds(List.of(99L))
+                .build());
+
+        // When
+        ResponseEntity<MultiGetDTO<BookDTO>> response = bookController.getBooksByIds(ids);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(2L, 1L), response.getBody().getItems().stream().map(BookDTO::getBookId).toList());
+        assertEquals(List.of(99L), response.getBody().getMissingIds());
+    }
+
+    /**
+     * Test to verify that the multi-get rejects more IDs than one request may
+     * carry, without calling the service.
+     */
+    @Test
+    @DisplayName("Should reject a multi-get with too many IDs")
+    void getBooksByIds_ShouldReturnBadRequest_WhenTooManyIds() {
+        // Given
+        List<Long> ids = LongStream.rangeClosed(1, BookController.MAX_IDS_PER_REQUEST + 1).boxed().toList();
+
+        // When
+        ResponseEntity<MultiGetDTO<BookDTO>> response = bookController.getBooksByIds(ids);
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(bookService);
+    }
+
+    /**
+     * Test to verify that the multi-get rejects an empty ID, which
+     * {@code ?ids=1,,2} binds as null, and an empty ID list, without calling
+     * the service.
+     */
+    @Test
+    @DisplayName("Should reject a multi-get with an empty ID or no IDs")
+    void getBooksByIds_ShouldReturnBadRequest_WhenIdsAreEmpty() {
+        // Given
+        List<Long> withEmptyId = Arrays.asList(1L, null, 2L);
+        List<Long> noIds = List.of();
+
+        // When
+        ResponseEntity<MultiGetDTO<BookDTO>> emptyIdResponse = bookController.getBooksByIds(withEmptyId);
+        ResponseEntity<MultiGetDTO<BookDTO>> noIdsResponse = bookController.getBooksByIds(noIds);
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, emptyIdResponse.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, noIdsResponse.getStatusCode());
+        verifyNoInteractions(bookService);
+    }
+
+    /**
+     * Test to verify that a summary longer than one chunk is streamed whole
+     * when no range is requested.
+     */
+    @Test
+    @DisplayName("Should stream the whole summary in chunks")
+    void getBookSummary_ShouldStreamWholeText_WhenNoRange() throws IOException {
+        // Given
+        String summary = "a".repeat(TextRangeResponse.CHUNK_CHARACTERS) + "ñandú";
+        stubSummary(1L, summary);
+
+        // When
+        ResponseEntity<StreamingResponseBody> response = bookController.getBookSummary(1L, null);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        response.getBody().writeTo(output);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("chars", response.getHeaders().getFirst(HttpHeaders.ACCEPT_RANGES));
+        assertEquals(summary, output.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Test to verify that a character range is answered with 206 and only
+     * the requested characters.
+     */
+    @Test
+    @DisplayName("Should stream only the requested range of a summary")
+    void getBookSummary_ShouldStreamRange_WhenRangeRequested() throws IOException {
+        // Given
+        stubSummary(1L, "Cien años de soledad");
+
+        // When
+        ResponseEntity<StreamingResponseBody> response = bookController.getBookSummary(1L, "chars=5-8");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        response.getBody().writeTo(output);
+
+        // Then
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertEquals("chars 5-8/20", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals("años", output.toString(StandardCharsets.UTF_8));
+    }
+
+    private void stubSummary(Long id, String summary) {
+        when(bookService.readSummary(eq(id), anyLong(), anyInt())).thenAnswer(invocation -> {
+            long offset = invocation.getArgument(1);
+            int length = invocation.getArgument(2);
+            int from = (int) Math.min(offset, summary.length());
+            return java.util.Optional.of(new TextChunk(summary.length(),
+                    summary.substring(from, Math.min(from + length, summary.length()))));
+        });
+    }
+}
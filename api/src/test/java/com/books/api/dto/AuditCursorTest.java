@@ -0,0 +1,39 @@
+package com.books.api.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link AuditCursor}.
+ *
+ * @author books-authors-api
+ */
+public class AuditCursorTest {
+
+    @Test
+    @DisplayName("Should decode an encoded cursor to the same position")
+    void shouldRoundTrip() {
+        AuditCursor cursor = new AuditCursor(LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123_000_000), 42L);
+
+        assertEquals(cursor, AuditCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    @DisplayName("Should return null for an absent cursor")
+    void shouldReturnNullForAbsentCursor() {
+        assertNull(AuditCursor.decode(null));
+        assertNull(AuditCursor.decode(""));
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed cursor")
+    void shouldRejectMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> AuditCursor.decode("bm90LWEtY3Vyc29y"));
+    }
+}
@@ -4,6 +4,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -15,13 +16,17 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.util.ContentCachingRequestWrapper;
 import org.springframework.web.util.ContentCachingResponseWrapper;
 
+import com.books.api.config.ApiAuditConfig;
 import com.books.api.service.ApiAuditService;
+import com.books.api.service.TrafficSketchService;
 import com.books.domain.model.ApiAuditLog;
 
 import jakarta.servlet.FilterChain;
@@ -43,6 +48,12 @@ public class ApiAuditFilterTest {
     @Mock
     private RateLimitingFilter rateLimitingFilter;
 
+    @Spy
+    private ApiAuditConfig apiAuditConfig = new ApiAuditConfig();
+
+    @Mock
+    private TrafficSketchService trafficSketchService;
+
     @Mock
     private FilterChain filterChain;
 
@@ -80,6 +91,51 @@ public class ApiAuditFilterTest {
                 any(ContentCachingResponseWrapper.class), anyLong(), eq(false));
     }
 
+    @Test
+    @DisplayName("Should not buffer the response of streaming endpoints")
+    void shouldNotBufferStreamingResponses() throws ServletException, IOException {
+        // Given
+        mockRequest.setRequestURI("/api/audit/export");
+
+        // When
+        apiAuditFilter.doFilterInternal(mockRequest, mockResponse, filterChain);
+
+        // Then
+        verify(filterChain).doFilter(any(ContentCachingRequestWrapper.class), eq(mockResponse));
+        verify(apiAuditService).createAuditLog(any(ContentCachingRequestWrapper.class), eq(mockResponse),
+                anyLong(), eq(false));
+    }
+
+    @Test
+    @DisplayName("Should reuse the envelope opened at the front of the chain")
+    void shouldReuseExistingEnvelope() throws ServletException, IOException {
+        // Given
+        RequestEnvelope envelope = RequestEnvelope.open(mockRequest, mockResponse, true);
+        envelope.setRateLimitExceeded(true);
+
+        // When
+        apiAuditFilter.doFilterInternal(envelope.getRequest(), envelope.getResponse(), filterChain);
+
+        // Then
+        verify(filterChain).doFilter(same(envelope.getRequest()), same(envelope.getResponse()));
+        verify(apiAuditService).createAuditLog(same(envelope.getRequest()), same(envelope.getResponse()),
+                anyLong(), eq(true));
+    }
+
+    @Test
+    @DisplayName("Should record traffic under the matched handler pattern")
+    void shouldRecordTrafficByHandlerPattern() throws ServletException, IOException {
+        // Given
+        mockRequest.setRequestURI("/api/authors/42");
+        mockRequest.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/authors/{id}");
+
+        // When
+        apiAuditFilter.doFilterInternal(mockRequest, mockResponse, filterChain);
+
+        // Then
+        verify(trafficSketchService).record("/api/authors/{id}", "127.0.0.1");
+    }
+
     @Test
     @DisplayName("Should not filter excluded paths")
     void shouldNotFilterExcludedPaths() {
@@ -111,6 +167,29 @@ public class ApiAuditFilterTest {
         assertFalse(shouldNotFilter);
     }
 
+    @Test
+    @DisplayName("Should follow the exclusions and the switch of the current audit policy")
+    void shouldFollowCurrentAuditPolicy() {
+        // Given
+        ApiAuditConfig candidate = new ApiAuditConfig();
+        candidate.setExcludePaths(new String[] { "/api/authors/**" });
+        apiAuditConfig.applyPolicy(apiAuditConfig.compile(candidate));
+
+        // Then
+        mockRequest.setRequestURI("/api/authors/1");
+        assertTrue(apiAuditFilter.shouldNotFilter(mockRequest));
+        mockRequest.setRequestURI("/api/v1/actuator/health");
+        assertFalse(apiAuditFilter.shouldNotFilter(mockRequest));
+
+        // When auditing is disabled
+        candidate.setEnabled(false);
+        apiAuditConfig.applyPolicy(apiAuditConfig.compile(candidate));
+
+        // Then
+        mockRequest.setRequestURI("/api/books");
+        assertTrue(apiAuditFilter.shouldNotFilter(mockRequest));
+    }
+
     private void assertTrue(boolean condition) {
         if (!condition) {
             throw new AssertionError("Expected condition to be true, but was false");
@@ -0,0 +1,320 @@
+package com.books.api.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.books.application.service.AuthorService;
+import com.books.application.service.BookService;
+import com.books.domain.model.RowVersion;
+import com.books.infrastructure.cache.ResponseCache;
+import com.books.infrastructure.repository.WriteCondition;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Unit tests for the filter that answers conditional requests from row
+ * versions.
+ *
+ * @author books-authors-api
+ */
+@ExtendWith(MockitoExtension.class)
+public class ConditionalRequestFilterTest {
+
+    private static final Instant UPDATED_AT = Instant.parse("2024-05-01T10:15:30.250Z");
+    private static final String JSON_BODY = "{\"bookId\":7,\"title\":\"Dune\"}";
+
+    @Mock
+    private BookService bookService;
+
+    @Mock
+    private AuthorService authorService;
+
+    private ConditionalRequestFilter filter;
+    private MockHttpServletResponse mockResponse;
+    private AtomicBoolean chainRan;
+
+    @BeforeEach
+    void setUp() {
+        filter = new ConditionalRequestFilter("/api", bookService, authorService, responseCache(false));
+        mockResponse = new MockHttpServletResponse();
+        chainRan = new AtomicBoolean();
+    }
+
+    @Test
+    @DisplayName("Should tag a book with its version and answer a matching If-None-Match with 304")
+    void shouldAnswerMatchingIfNoneMatchWithNotModified() throws Exception {
+        // Given
+        when(bookService.findBookVersion(7L)).thenReturn(Optional.of(new RowVersion(7L, 3, UPDATED_AT)));
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/books/7"), mockResponse, writingChain());
+        String etag = mockResponse.getHeader("ETag");
+        MockHttpServletRequest conditional = new MockHttpServletRequest("GET", "/api/books/7");
+        conditional.addHeader("If-None-Match", "\"v2\", " + etag);
+        MockHttpServletResponse conditionalResponse = new MockHttpServletResponse();
+        chainRan.set(false);
+
+        // When
+        filter.doFilter(conditional, conditionalResponse, writingChain());
+
+        // Then
+        assertEquals("\"v3\"", etag);
+        assertEquals("Wed, 01 May 2024 10:15:30 GMT", mockResponse.getHeader("Last-Modified"));
+        assertEquals(304, conditionalResponse.getStatus());
+        assertEquals(etag, conditionalResponse.getHeader("ETag"));
+        assertEquals("", conditionalResponse.getContentAsString());
+        assertFalse(chainRan.get());
+    }
+
+    @Test
+    @DisplayName("Should answer If-Modified-Since with 304 only when the author has not been written since")
+    void shouldHonorIfModifiedSince() throws Exception {
+        // Given
+        when(authorService.findAuthorVersion(4L)).thenReturn(Optional.of(new RowVersion(4L, 9, UPDATED_AT)));
+        MockHttpServletRequest unchanged = new MockHttpServletRequest("GET", "/api/authors/4");
+        unchanged.addHeader("If-Modified-Since", "Wed, 01 May 2024 10:15:30 GMT");
+        MockHttpServletRequest changed = new MockHttpServletRequest("GET", "/api/authors/4");
+        changed.addHeader("If-Modified-Since", "Wed, 01 May 2024 10:15:29 GMT");
+        MockHttpServletResponse changedResponse = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(unchanged, mockResponse, writingChain());
+        filter.doFilter(changed, changedResponse, writingChain());
+
+        // Then
+        assertEquals(304, mockResponse.getStatus());
+        assertEquals(200, changedResponse.getStatus());
+        assertEquals("body", changedResponse.getContentAsString());
+        assertEquals("\"v9\"", changedResponse.getHeader("ETag"));
+    }
+
+    @Test
+    @DisplayName("Should tag a page with the versions of its rows, apart from the selected fields")
+    void shouldTagPagesByTheirRows() throws Exception {
+        // Given
+        when(bookService.findBookPageVersions(2, 5)).thenReturn(
+                List.of(new RowVersion(1L, 1, UPDATED_AT), new RowVersion(2L, 4, UPDATED_AT)),
+                List.of(new RowVersion(1L, 1, UPDATED_AT), new RowVersion(2L, 4, UPDATED_AT)),
+                List.of(new RowVersion(1L, 2, UPDATED_AT), new RowVersion(2L, 4, UPDATED_AT)));
+        MockHttpServletResponse selectedResponse = new MockHttpServletResponse();
+        MockHttpServletResponse writtenResponse = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(page(null), mockResponse, writingChain());
+        filter.doFilter(page("title"), selectedResponse, writingChain());
+        filter.doFilter(page(null), writtenResponse, writingChain());
+
+        // Then
+        String etag = mockResponse.getHeader("ETag");
+        assertTrue(etag.startsWith("\"p"));
+        assertNull(mockResponse.getHeader("Last-Modified"));
+        assertNotEquals(etag, selectedResponse.getHeader("ETag"));
+        assertNotEquals(etag, writtenResponse.getHeader("ETag"));
+    }
+
+    @Test
+    @DisplayName("Should not tag error responses nor filter searches and multi-gets")
+    void shouldLeaveErrorsAndOtherReadsUntagged() throws Exception {
+        // Given
+        when(bookService.findBookVersion(7L)).thenReturn(Optional.of(new RowVersion(7L, 3, UPDATED_AT)));
+        MockHttpServletRequest multiGet = new MockHttpServletRequest("GET", "/api/books");
+        multiGet.setParameter("ids", "1,2");
+        MockHttpServletResponse multiGetResponse = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/books/7"), mockResponse, (req, res) -> {
+            ((HttpServletResponse) res).setStatus(404);
+            res.getWriter().write("missing");
+        });
+        filter.doFilter(multiGet, multiGetResponse, writingChain());
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/books/search/genre"), new MockHttpServletResponse(),
+                writingChain());
+
+        // Then
+        assertEquals(404, mockResponse.getStatus());
+        assertNull(mockResponse.getHeader("ETag"));
+        assertNull(multiGetResponse.getHeader("ETag"));
+    }
+
+    @Test
+    @DisplayName("Should answer a PUT whose If-Match is out of date with 412 without updating")
+    void shouldRejectOutdatedIfMatch() throws Exception {
+        // Given
+        when(bookService.findBookVersion(7L)).thenReturn(Optional.of(new RowVersion(7L, 4, UPDATED_AT)));
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/books/7");
+        request.addHeader("If-Match", "\"v3\"");
+
+        // When
+        filter.doFilter(request, mockResponse, writingChain());
+
+        // Then
+        assertEquals(412, mockResponse.getStatus());
+        assertFalse(chainRan.get());
+    }
+
+    @Test
+    @DisplayName("Should answer a PUT with 412 when the row changes between the check and the write")
+    void shouldRejectConcurrentWrite() throws Exception {
+        // Given
+        when(authorService.findAuthorVersion(4L)).thenReturn(Optional.of(new RowVersion(4L, 9, UPDATED_AT)));
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/authors/4");
+        request.addHeader("If-Match", "\"v9\"");
+
+        // When
+        filter.doFilter(request, mockResponse, (req, res) -> {
+            chainRan.set(true);
+            throw new WriteCondition.VersionMismatchException("ORA-20412: Author 4 is not at version 9");
+        });
+
+        // Then
+        assertTrue(chainRan.get());
+        assertEquals(412, mockResponse.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should serve a repeated read from the cached bytes without running the controller")
+    void shouldServeRepeatedReadFromCachedBytes() throws Exception {
+        // Given
+        filter = new ConditionalRequestFilter("/api", bookService, authorService, responseCache(true));
+        when(bookService.findBookVersion(7L)).thenReturn(Optional.of(new RowVersion(7L, 3, UPDATED_AT)));
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/books/7"), new MockHttpServletResponse(),
+                jsonChain());
+        chainRan.set(false);
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/books/7"), mockResponse, jsonChain());
+
+        // Then
+        assertFalse(chainRan.get());
+        assertEquals(200, mockResponse.getStatus());
+        assertEquals(JSON_BODY, mockResponse.getContentAsString());
+        assertEquals("application/json", mockResponse.getContentType());
+        assertEquals("\"v3\"", mockResponse.getHeader("ETag"));
+        assertNull(mockResponse.getHeader("Content-Encoding"));
+    }
+
+    @Test
+    @DisplayName("Should serve the stored gzipped body only to clients accepting gzip")
+    void shouldServeGzippedBodyToClientsAcceptingGzip() throws Exception {
+        // Given
+        filter = new ConditionalRequestFilter("/api", bookService, authorService, responseCache(true));
+        when(bookService.findBookVersion(7L)).thenReturn(Optional.of(new RowVersion(7L, 3, UPDATED_AT)));
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/books/7"), new MockHttpServletResponse(),
+                jsonChain());
+        MockHttpServletRequest gzip = new MockHttpServletRequest("GET", "/api/books/7");
+        gzip.addHeader("Accept-Encoding", "br, gzip;q=0.8");
+        MockHttpServletRequest refused = new MockHttpServletRequest("GET", "/api/books/7");
+        refused.addHeader("Accept-Encoding", "gzip;q=0");
+        MockHttpServletResponse refusedResponse = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(gzip, mockResponse, jsonChain());
+        filter.doFilter(refused, refusedResponse, jsonChain());
+
+        // Then
+        assertEquals("gzip", mockResponse.getHeader("Content-Encoding"));
+        assertTrue(mockResponse.getHeaders("Vary").contains("Accept-Encoding"));
+        assertEquals(JSON_BODY, gunzip(mockResponse.getContentAsByteArray()));
+        assertNull(refusedResponse.getHeader("Content-Encoding"));
+        assertEquals(JSON_BODY, refusedResponse.getContentAsString());
+    }
+
+    @Test
+    @DisplayName("Should read again once a write changes the version of a cached row")
+    void shouldReadAgainAfterWrite() throws Exception {
+        // Given
+        filter = new ConditionalRequestFilter("/api", bookService, authorService, responseCache(true));
+        when(bookService.findBookVersion(7L)).thenReturn(
+                Optional.of(new RowVersion(7L, 3, UPDATED_AT)),
+                Optional.of(new RowVersion(7L, 3, UPDATED_AT)),
+                Optional.of(new RowVersion(7L, 4, UPDATED_AT)));
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/books/7"), new MockHttpServletResponse(),
+                jsonChain());
+        chainRan.set(false);
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/books/7"), mockResponse, jsonChain());
+
+        // Then
+        assertTrue(chainRan.get());
+        assertEquals("\"v4\"", mockResponse.getHeader("ETag"));
+        assertEquals(JSON_BODY, mockResponse.getContentAsString());
+    }
+
+    @Test
+    @DisplayName("Should not cache a body whose row was written while it was read")
+    void shouldNotCacheBodyWrittenDuringRead() throws Exception {
+        // Given
+        filter = new ConditionalRequestFilter("/api", bookService, authorService, responseCache(true));
+        when(bookService.findBookVersion(7L)).thenReturn(
+                Optional.of(new RowVersion(7L, 3, UPDATED_AT)),
+                Optional.of(new RowVersion(7L, 4, UPDATED_AT)),
+                Optional.of(new RowVersion(7L, 3, UPDATED_AT)));
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/books/7"), new MockHttpServletResponse(),
+                jsonChain());
+        chainRan.set(false);
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/books/7"), mockResponse, jsonChain());
+
+        // Then
+        assertTrue(chainRan.get());
+        assertEquals("\"v3\"", mockResponse.getHeader("ETag"));
+    }
+
+    private static ResponseCache responseCache(boolean enabled) {
+        return new ResponseCache(enabled, 1 << 20, 1 << 16, Duration.ofMinutes(10), true, 0);
+    }
+
+    private static String gunzip(byte[] body) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static MockHttpServletRequest page(String fields) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+        request.setParameter("page", "2");
+        request.setParameter("size", "5");
+        if (fields != null) {
+            request.setParameter("fields", fields);
+        }
+        return request;
+    }
+
+    private FilterChain jsonChain() {
+        return (req, res) -> {
+            chainRan.set(true);
+            res.setContentType("application/json");
+            res.getOutputStream().write(JSON_BODY.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private FilterChain writingChain() {
+        return (req, res) -> {
+            chainRan.set(true);
+            res.getWriter().write("body");
+        };
+    }
+}
@@ -0,0 +1,185 @@
+package com.books.api.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.books.api.controller.FieldSelection;
+import com.books.api.controller.FieldSelectionAdvice;
+import com.books.application.dto.AuthorDTO;
+import com.books.application.dto.BookDTO;
+import com.books.application.dto.MultiGetDTO;
+import com.books.domain.model.Author;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Unit tests for the selection of the fields of book and author responses.
+ *
+ * @author books-authors-api
+ */
+public class FieldSelectionFilterTest {
+
+    private FieldSelectionFilter filter;
+    private FieldSelectionAdvice advice;
+    private ObjectMapper objectMapper;
+    private MockHttpServletResponse mockResponse;
+
+    @BeforeEach
+    void setUp() {
+        filter = new FieldSelectionFilter("/api");
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        advice = new FieldSelectionAdvice(objectMapper);
+        mockResponse = new MockHttpServletResponse();
+    }
+
+    @Test
+    @DisplayName("Should skip the related entities and CLOBs when the fields leave them out")
+    void shouldSkipRelatedEntitiesWhenNotSelected() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/authors");
+        request.setParameter("fields", "authorId,fullName");
+        AtomicReference<FieldSelection> selection = new AtomicReference<>();
+
+        // When
+        filter.doFilter(request, mockResponse, (req, res) -> selection
+                .set((FieldSelection) req.getAttribute(FieldSelection.ATTRIBUTE)));
+
+        // Then
+        assertFalse(selection.get().includesRelated());
+        assertFalse(selection.get().includesLobs());
+    }
+
+    @Test
+    @DisplayName("Should read the related entities when they are expanded")
+    void shouldReadRelatedEntitiesWhenExpanded() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/7");
+        request.setParameter("fields", "title");
+        request.setParameter("expand", "authors");
+        AtomicReference<FieldSelection> selection = new AtomicReference<>();
+
+        // When
+        filter.doFilter(request, mockResponse, (req, res) -> selection
+                .set((FieldSelection) req.getAttribute(FieldSelection.ATTRIBUTE)));
+
+        // Then
+        assertTrue(selection.get().includesRelated());
+    }
+
+    @Test
+    @DisplayName("Should reject unknown fields and relations")
+    void shouldRejectUnknownFields() throws Exception {
+        // Given
+        MockHttpServletRequest unknownField = new MockHttpServletRequest("GET", "/api/books");
+        unknownField.setParameter("fields", "title,summary");
+        MockHttpServletRequest unknownRelation = new MockHttpServletRequest("GET", "/api/authors");
+        unknownRelation.setParameter("expand", "authors");
+        MockHttpServletResponse relationResponse = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(unknownField, mockResponse, (req, res) -> res.getWriter().write("unreachable"));
+        filter.doFilter(unknownRelation, relationResponse, (req, res) -> res.getWriter().write("unreachable"));
+
+        // Then
+        assertEquals(400, mockResponse.getStatus());
+        assertTrue(mockResponse.getContentAsString().contains("summary"));
+        assertEquals(400, relationResponse.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should leave other endpoints and requests without a selection untouched")
+    void shouldIgnoreOtherRequests() throws Exception {
+        // Given
+        MockHttpServletRequest policies = new MockHttpServletRequest("GET", "/api/policies");
+        policies.setParameter("fields", "anything");
+        MockHttpServletRequest plain = new MockHttpServletRequest("GET", "/api/books/7");
+
+        // When
+        filter.doFilter(policies, mockResponse, (req, res) -> {
+        });
+        filter.doFilter(plain, new MockHttpServletResponse(), (req, res) -> {
+        });
+
+        // Then
+        assertEquals(200, mockResponse.getStatus());
+        assertNull(policies.getAttribute(FieldSelection.ATTRIBUTE));
+        assertNull(plain.getAttribute(FieldSelection.ATTRIBUTE));
+    }
+
+    @Test
+    @DisplayName("Should trim every item of a multi-get response to the selected fields")
+    void shouldTrimResponseToSelectedFields() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/authors");
+        request.setAttribute(FieldSelection.ATTRIBUTE,
+                FieldSelection.parse(FieldSelection.Resource.AUTHORS, true, "authorId,birthDate", null));
+        AuthorDTO author = AuthorDTO.builder()
+                .authorId(3L)
+                .firstName("Gabriel")
+                .lastName("García Márquez")
+                .birthDate(LocalDate.of(1927, 3, 6))
+                .biography("Colombian novelist")
+                .build();
+        MultiGetDTO<AuthorDTO> body = MultiGetDTO.<AuthorDTO>builder()
+                .items(List.of(author))
+                .missingIds(List.of(5L))
+                .build();
+
+        // When
+        Object trimmed = advice.beforeBodyWrite(body, null, MediaType.APPLICATION_JSON,
+                MappingJackson2HttpMessageConverter.class, new ServletServerHttpRequest(request),
+                new ServletServerHttpResponse(mockResponse));
+
+        // Then
+        assertEquals("{\"items\":[{\"authorId\":3,\"birthDate\":\"1927-03-06\"}],\"missingIds\":[5]}",
+                objectMapper.writeValueAsString(trimmed));
+    }
+
+    @Test
+    @DisplayName("Should leave the long texts out of lists, also of embedded entities")
+    void shouldLeaveLongTextsOutOfLists() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/search/genre");
+        AtomicReference<FieldSelection> selection = new AtomicReference<>();
+        filter.doFilter(request, mockResponse, (req, res) -> selection
+                .set((FieldSelection) req.getAttribute(FieldSelection.ATTRIBUTE)));
+        BookDTO book = BookDTO.builder()
+                .bookId(1L)
+                .title("Cien años de soledad")
+                .authorIds(Set.of(Author.builder().authorId(3L).biography("Colombian novelist").build()))
+                .build();
+        MockHttpServletRequest withBiography = new MockHttpServletRequest("GET", "/api/authors");
+        withBiography.setParameter("fields", "authorId,biography");
+        MockHttpServletResponse biographyResponse = new MockHttpServletResponse();
+
+        // When
+        JsonNode trimmed = selection.get().apply(objectMapper.valueToTree(List.of(book)));
+        filter.doFilter(withBiography, biographyResponse, (req, res) -> res.getWriter().write("unreachable"));
+
+        // Then
+        assertEquals(3, trimmed.get(0).get("authorIds").get(0).get("authorId").asLong());
+        assertFalse(trimmed.get(0).get("authorIds").get(0).has("biography"));
+        assertEquals(400, biographyResponse.getStatus());
+        assertTrue(biographyResponse.getContentAsString().contains("/authors/{id}/biography"));
+    }
+}
@@ -0,0 +1,99 @@
+package com.books.api.security;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+
+/**
+ * JMH benchmark of token sign and verify throughput, comparing the keyring
+ * with per-thread Mac instances to the jjwt builder and parser.
+ * Not a unit test; run it with:
+ *
+ * <pre>
+ * mvn -pl api -am test-compile
+ * cd api
+ * mvn dependency:build-classpath -Dmdep.outputFile=target/benchmark.classpath -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/benchmark.classpath) \
+ *         com.books.api.security.JwtKeyringBenchmark
+ * </pre>
+ *
+ * @author books-authors-api
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class JwtKeyringBenchmark {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[64]);
+
+    private JwtKeyring keyring;
+    private Map<String, Object> claims;
+    private String keyringToken;
+    private String jjwtToken;
+
+    @Setup
+    public void setUp() {
+        keyring = new JwtKeyring(SECRET, Duration.ofHours(24), Duration.ofHours(1));
+        claims = Map.of("sub", "benchmark", "exp", System.currentTimeMillis() / 1000 + 3600);
+        keyringToken = keyring.sign(claims);
+        jjwtToken = jjwtSign();
+    }
+
+    @Benchmark
+    public String keyringSign() {
+        return keyring.sign(claims);
+    }
+
+    @Benchmark
+    public Claims keyringVerify() {
+        return keyring.verify(keyringToken);
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public String jjwtSign() {
+        return Jwts.builder()
+                .setClaims(claims)
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public Claims jjwtVerify() {
+        return Jwts.parser()
+                .setSigningKey(SECRET)
+                .parseClaimsJws(jjwtToken)
+                .getBody();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtKeyringBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,128 @@
+package com.books.api.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+
+/**
+ * Unit tests for {@link JwtKeyring}.
+ * Verifies signing, verification and key rotation with its overlap window.
+ *
+ * @author books-authors-api
+ */
+public class JwtKeyringTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString("a-master-secret-for-tests".getBytes());
+    private static final Duration ROTATION = Duration.ofHours(24);
+    private static final Duration OVERLAP = Duration.ofHours(1);
+
+    // Start of a rotation period
+    private final AtomicReference<Instant> now = new AtomicReference<>(Instant.ofEpochSecond(20_000 * 86_400L));
+    private Clock clock;
+    private JwtKeyring keyring;
+
+    @BeforeEach
+    void setUp() {
+        clock = new Clock() {
+            @Override
+            public Instant instant() {
+                return now.get();
+            }
+
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+        };
+        keyring = new JwtKeyring(SECRET, ROTATION, OVERLAP, clock);
+    }
+
+    @Test
+    @DisplayName("Should verify its own tokens and expose their claims")
+    void shouldSignAndVerify() {
+        // Given
+        String token = keyring.sign(Map.of("sub", "alice", "exp", now.get().getEpochSecond() + 60));
+
+        // When
+        Claims claims = keyring.verify(token);
+
+        // Then
+        assertEquals("alice", claims.getSubject());
+        assertEquals(now.get().getEpochSecond() + 60, claims.getExpiration().toInstant().getEpochSecond());
+    }
+
+    @Test
+    @DisplayName("Should accept tokens of another instance sharing the master secret")
+    void shouldVerifyAcrossInstances() {
+        // Given a token issued before a restart or by another node
+        String token = keyring.sign(Map.of("sub", "alice"));
+
+        // When
+        JwtKeyring restarted = new JwtKeyring(SECRET, ROTATION, OVERLAP, clock);
+
+        // Then
+        assertEquals("alice", restarted.verify(token).getSubject());
+    }
+
+    @Test
+    @DisplayName("Should accept the previous key only during the overlap window")
+    void shouldHonourOverlapWindow() {
+        // Given a token signed just before a rotation
+        now.set(now.get().plus(ROTATION).minusSeconds(1));
+        String token = keyring.sign(Map.of("sub", "alice"));
+
+        // When the period rolls over
+        now.set(now.get().plusSeconds(2));
+        keyring.rotate();
+
+        // Then the token is still accepted within the overlap
+        assertEquals("alice", keyring.verify(token).getSubject());
+
+        // When the overlap has passed
+        now.set(now.get().plus(OVERLAP));
+        keyring.rotate();
+
+        // Then the retired key is rejected
+        assertThrows(SignatureException.class, () -> keyring.verify(token));
+    }
+
+    @Test
+    @DisplayName("Should reject tampered, malformed and expired tokens")
+    void shouldRejectInvalidTokens() {
+        // Given
+        String token = keyring.sign(Map.of("sub", "alice", "exp", now.get().getEpochSecond() + 60));
+        String[] parts = token.split("\\.");
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"sub\":\"admin\"}".getBytes());
+
+        // When / Then
+        assertThrows(SignatureException.class,
+                () -> keyring.verify(parts[0] + "." + forgedPayload + "." + parts[2]));
+        assertThrows(MalformedJwtException.class, () -> keyring.verify("not-a-token"));
+
+        now.set(now.get().plusSeconds(60));
+        assertThrows(ExpiredJwtException.class, () -> keyring.verify(token));
+    }
+}
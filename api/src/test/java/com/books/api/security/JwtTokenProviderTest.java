@@ -2,13 +2,18 @@ package com.books.api.security;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
+import java.time.Duration;
+import java.util.Base64;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -16,6 +21,10 @@ import jakarta.servlet.http.HttpServletResponse;
 @ExtendWith(MockitoExtension.class)
 public class JwtTokenProviderTest {
 
+    @Spy
+    private JwtKeyring jwtKeyring = new JwtKeyring(Base64.getEncoder().encodeToString(new byte[64]),
+            Duration.ofHours(24), Duration.ofHours(1));
+
     @InjectMocks
     private JwtTokenProvider jwtTokenProvider;
 
@@ -27,6 +36,7 @@ public class JwtTokenProviderTest {
 
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.setField(jwtTokenProvider, "validityInMilliseconds", 3_600_000L);
     }
 
     @Test
@@ -34,6 +44,7 @@ public class JwtTokenProviderTest {
     void testCreateToken() {
         String token = jwtTokenProvider.createToken();
         assertNotNull(token, "Token should not be null");
+        assertNotNull(jwtKeyring.verify(token).getIssuedAt(), "Token should verify against the keyring");
     }
 
     @Test
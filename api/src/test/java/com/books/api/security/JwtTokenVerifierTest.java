@@ -0,0 +1,224 @@
+package com.books.api.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.books.api.service.TokenRevocationService;
+import com.books.api.service.revocation.FileTokenRevocationStore;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.security.SignatureException;
+
+/**
+ * Unit tests for {@link JwtTokenVerifier}.
+ * Verifies that verified tokens are cached until they expire.
+ *
+ * @author books-authors-api
+ */
+public class JwtTokenVerifierTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[64]);
+
+    private final AtomicReference<Instant> now = new AtomicReference<>(Instant.now());
+    @TempDir
+    Path tempDir;
+
+    private JwtKeyring keyring;
+    private TokenRevocationService revocations;
+    private JwtTokenVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = new Clock() {
+            @Override
+            public Instant instant() {
+                return now.get();
+            }
+
+            @Override
+            public java.time.ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(java.time.ZoneId zone) {
+                return this;
+            }
+        };
+        keyring = new JwtKeyring(SECRET, Duration.ofHours(24), Duration.ofHours(1), clock);
+        revocations = new TokenRevocationService(new FileTokenRevocationStore(tempDir.resolve("revocations.log")),
+                100, clock);
+        verifier = new JwtTokenVerifier(null, keyring, revocations, 2, clock);
+    }
+
+    @Test
+    @DisplayName("Should verify a token once and serve it from the cache afterwards")
+    void shouldCacheVerifiedToken() {
+        // Given
+        String token = token("alice", 60_000);
+
+        // When
+        JwtPrincipal first = verifier.verify(token);
+        JwtPrincipal second = verifier.verify(token);
+
+        // Then
+        assertEquals("alice", first.subject());
+        assertSame(first, second);
+        assertEquals(1, verifier.cachedTokens());
+    }
+
+    @Test
+    @DisplayName("Should stop serving a cached token once it has expired")
+    void shouldNotServeExpiredToken() {
+        // Given
+        String token = token("alice", 60_000);
+        JwtPrincipal first = verifier.verify(token);
+
+        // When
+        now.set(first.expiresAt());
+
+        // Then the token is verified again, and rejected, instead of being
+        // served from the cache
+        assertThrows(ExpiredJwtException.class, () -> verifier.verify(token));
+    }
+
+    @Test
+    @DisplayName("Should stop serving a cached token once the keyring retires its signing key")
+    void shouldNotServeTokenOfRetiredKey() {
+        // Given a token outliving the overlap window of its key
+        String token = token("alice", Duration.ofHours(72).toMillis());
+        JwtPrincipal first = verifier.verify(token);
+        long rotation = Duration.ofHours(24).toMillis();
+        Instant nextPeriod = Instant.ofEpochMilli((Math.floorDiv(now.get().toEpochMilli(), rotation) + 1) * rotation);
+
+        // When the next period starts, the previous key is still accepted
+        now.set(nextPeriod.plus(Duration.ofMinutes(30)));
+        assertSame(first, verifier.verify(token));
+
+        // Then once the overlap window has passed
+        now.set(nextPeriod.plus(Duration.ofHours(1)));
+        assertThrows(SignatureException.class, () -> verifier.verify(token));
+        assertEquals(0, verifier.cachedTokens());
+    }
+
+    @Test
+    @DisplayName("Should reject a revoked token even when it is cached")
+    void shouldRejectRevokedToken() throws IOException {
+        // Given
+        String token = keyring.sign(Map.of("jti", "token-1", "sub", "alice",
+                "exp", now.get().plusSeconds(60).getEpochSecond()));
+        JwtPrincipal principal = verifier.verify(token);
+
+        // When
+        revocations.revoke(principal.tokenId(), principal.expiresAt());
+
+        // Then
+        assertThrows(RevokedTokenException.class, () -> verifier.verify(token));
+    }
+
+    @Test
+    @DisplayName("Should expire each cached token with its own expiration")
+    void shouldExpireEachTokenSeparately() {
+        // Given
+        String shortLived = token("alice", 60_000);
+        String longLived = token("bob", 600_000);
+        verifier.verify(shortLived);
+        JwtPrincipal bob = verifier.verify(longLived);
+
+        // When
+        now.set(now.get().plusSeconds(120));
+
+        // Then
+        assertThrows(ExpiredJwtException.class, () -> verifier.verify(shortLived));
+        assertSame(bob, verifier.verify(longLived));
+        assertEquals(1, verifier.cachedTokens());
+    }
+
+    @Test
+    @DisplayName("Should keep the cache bounded")
+    void shouldKeepCacheBounded() {
+        // When
+        JwtPrincipal alice = verifier.verify(token("alice", 60_000));
+        JwtPrincipal bob = verifier.verify(token("bob", 60_000));
+        JwtPrincipal carol = verifier.verify(token("carol", 60_000));
+
+        // Then one of the tokens was evicted and is verified again
+        assertEquals(2, verifier.cachedTokens());
+        int reverified = 0;
+        for (JwtPrincipal principal : new JwtPrincipal[] { alice, bob, carol }) {
+            if (principal != verifier.verify(token(principal.subject(), 60_000))) {
+                reverified++;
+            }
+        }
+        assertTrue(reverified >= 1);
+    }
+
+    @Test
+    @DisplayName("Should not cache tokens without an expiration")
+    void shouldNotCacheTokensWithoutExpiration() {
+        // Given
+        String token = keyring.sign(Map.of("sub", "alice"));
+
+        // When
+        JwtPrincipal first = verifier.verify(token);
+
+        // Then
+        assertNotSame(first, verifier.verify(token));
+        assertEquals(0, verifier.cachedTokens());
+    }
+
+    @Test
+    @DisplayName("Should bind the principal to the request and reuse it")
+    void shouldBindPrincipalToRequest() {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        String token = token("alice", 60_000);
+
+        // When
+        JwtPrincipal principal = verifier.verify(request, token);
+
+        // Then
+        assertSame(principal, JwtPrincipal.current(request));
+        assertSame(principal, verifier.verify(request, "not-even-a-token"));
+        assertEquals("alice", RequestEnvelope.resolveUserId(request));
+    }
+
+    @Test
+    @DisplayName("Should reject tokens signed with another key")
+    void shouldRejectForeignSignature() {
+        // Given
+        JwtKeyring foreignKeyring = new JwtKeyring(Base64.getEncoder().encodeToString(new byte[] { 1, 2, 3, 4 }),
+                Duration.ofHours(24), Duration.ofHours(1));
+        String foreign = foreignKeyring.sign(Map.of("sub", "mallory",
+                "exp", now.get().plusSeconds(60).getEpochSecond()));
+
+        // When / Then
+        assertThrows(JwtException.class, () -> verifier.verify(foreign));
+        assertEquals(0, verifier.cachedTokens());
+    }
+
+    private String token(String subject, long validityMillis) {
+        return keyring.sign(Map.of("sub", subject,
+                "exp", now.get().plusMillis(validityMillis).getEpochSecond()));
+    }
+}
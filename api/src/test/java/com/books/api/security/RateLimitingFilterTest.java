@@ -11,6 +11,7 @@ import static org.mockito.Mockito.when;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -28,8 +29,10 @@ import org.springframework.http.HttpStatus;
 import com.books.api.config.RateLimitingConfig;
 import com.books.api.config.RateLimitingConfig.EndpointLimit;
 import com.books.api.service.ApiAuditService;
+import com.books.api.service.IpAccessService;
 import com.books.api.service.RateLimitingService;
 import com.books.api.service.RateLimitingService.RateLimitInfo;
+import com.books.api.service.ratelimit.RateLimitPolicy;
 import com.books.domain.model.ApiAuditLog;
 
 import jakarta.servlet.FilterChain;
@@ -49,15 +52,18 @@ import jakarta.servlet.http.HttpServletResponse;
 @MockitoSettings(strictness = Strictness.LENIENT)
 public class RateLimitingFilterTest {
 
-    @Mock
-    private RateLimitingConfig rateLimitingConfig;
-
     @Mock
     private RateLimitingService rateLimitingService;
 
     @Mock
     private ApiAuditService apiAuditService;
 
+    @Mock
+    private JwtTokenVerifier jwtTokenVerifier;
+
+    @Mock
+    private IpAccessService ipAccessService;
+
     @Mock
     private HttpServletRequest request;
 
@@ -102,13 +108,13 @@ public class RateLimitingFilterTest {
     void setUp() throws IOException {
         // Basic test configuration
         endpointLimit = new EndpointLimit();
+        endpointLimit.setPattern("/api/.*");
         endpointLimit.setLimit(10);
         endpointLimit.setRefreshPeriod(60);
         endpointLimit.setTimeUnit(TimeUnit.SECONDS);
 
         // Configure rate limiting settings
-        when(rateLimitingConfig.isEnabled()).thenReturn(true);
-        when(rateLimitingConfig.getStrategy()).thenReturn("IP_ADDRESS");
+        usePolicy(true, "IP_ADDRESS", false);
 
         // Configure request attributes
         when(request.getRemoteAddr()).thenReturn("127.0.0.1");
@@ -145,7 +151,7 @@ public class RateLimitingFilterTest {
     @DisplayName("Should skip rate limiting when disabled")
     void shouldSkipRateLimitingWhenDisabled() throws ServletException, IOException {
         // Given
-        when(rateLimitingConfig.isEnabled()).thenReturn(false);
+        usePolicy(false, "IP_ADDRESS", false);
 
         // When
         rateLimitingFilter.doFilterInternal(request, response, filterChain);
@@ -154,7 +160,10 @@ public class RateLimitingFilterTest {
         verify(filterChain).doFilter(
                 org.mockito.ArgumentMatchers.any(org.springframework.web.util.ContentCachingRequestWrapper.class),
                 org.mockito.ArgumentMatchers.any(org.springframework.web.util.ContentCachingResponseWrapper.class));
-        verifyNoInteractions(rateLimitingService);
+        verify(rateLimitingService, never()).isRequestAllowed(anyString(),
+                org.mockito.ArgumentMatchers.any(EndpointLimit.class));
+        verify(rateLimitingService, never()).getRateLimitInfo(anyString(),
+                org.mockito.ArgumentMatchers.any(EndpointLimit.class));
     }
 
     @Test
@@ -169,7 +178,6 @@ public class RateLimitingFilterTest {
         when(request.getRemoteAddr()).thenReturn(ipAddress);
 
         // Configure the rate limiting service
-        when(rateLimitingService.findEndpointLimit(path)).thenReturn(endpointLimit);
         when(rateLimitingService.isRequestAllowed(eq(expectedKey), eq(endpointLimit))).thenReturn(true);
 
         // When
@@ -195,7 +203,6 @@ public class RateLimitingFilterTest {
         when(request.getRemoteAddr()).thenReturn(ipAddress);
 
         // Configure the rate limiting service
-        when(rateLimitingService.findEndpointLimit(path)).thenReturn(endpointLimit);
         when(rateLimitingService.isRequestAllowed(eq(expectedKey), eq(endpointLimit))).thenReturn(false);
 
         // When
@@ -222,6 +229,7 @@ public class RateLimitingFilterTest {
         // Verify audit log creation
         ArgumentCaptor<ApiAuditLog> auditLogCaptor = ArgumentCaptor.forClass(ApiAuditLog.class);
         verify(apiAuditService).saveRateLimitViolation(auditLogCaptor.capture());
+        verify(ipAccessService).recordRateLimitViolation(ipAddress);
 
         // Verify audit log properties
         ApiAuditLog capturedLog = auditLogCaptor.getValue();
@@ -247,9 +255,8 @@ public class RateLimitingFilterTest {
         when(request.getRemoteAddr()).thenReturn(ipAddress);
 
         // Configure the rate limiting service
-        when(rateLimitingService.findEndpointLimit(path)).thenReturn(endpointLimit);
         when(rateLimitingService.isRequestAllowed(eq(expectedKey), eq(endpointLimit))).thenReturn(true);
-        when(rateLimitingConfig.isResponseHeaders()).thenReturn(true);
+        usePolicy(true, "IP_ADDRESS", true);
 
         // Mock for rate limit information
         RateLimitInfo rateLimitInfo = new RateLimitInfo(10, 5, System.currentTimeMillis() + 30000);
@@ -275,10 +282,7 @@ public class RateLimitingFilterTest {
         String ipAddress = "192.168.1.1";
         when(request.getRequestURI()).thenReturn(path);
         when(request.getRemoteAddr()).thenReturn(ipAddress);
-
-        // Configure the rate limiting service
-        when(rateLimitingService.findEndpointLimit(path)).thenReturn(endpointLimit);
-        when(rateLimitingConfig.getStrategy()).thenReturn("IP_ADDRESS");
+        usePolicy(true, "IP_ADDRESS", false);
 
         // Capture the rate limit key
         when(rateLimitingService.isRequestAllowed(anyString(), eq(endpointLimit))).thenReturn(true);
@@ -299,10 +303,9 @@ public class RateLimitingFilterTest {
         // Given
         String path = "/api/authors";
         when(request.getRequestURI()).thenReturn(path);
-        when(rateLimitingConfig.getStrategy()).thenReturn("USER");
+        usePolicy(true, "USER", false);
 
         // Configure the rate limiting service
-        when(rateLimitingService.findEndpointLimit(path)).thenReturn(endpointLimit);
         when(rateLimitingService.isRequestAllowed(eq("user:" + path), eq(endpointLimit))).thenReturn(true);
 
         // When
@@ -322,11 +325,10 @@ public class RateLimitingFilterTest {
         String path = "/api/authors";
         String token = "Bearer abc123";
         when(request.getRequestURI()).thenReturn(path);
-        when(rateLimitingConfig.getStrategy()).thenReturn("TOKEN");
+        usePolicy(true, "TOKEN", false);
         when(request.getHeader("Authorization")).thenReturn(token);
 
         // Configure the rate limiting service
-        when(rateLimitingService.findEndpointLimit(path)).thenReturn(endpointLimit);
         when(rateLimitingService.isRequestAllowed(eq(token + ":" + path), eq(endpointLimit))).thenReturn(true);
 
         // When
@@ -339,17 +341,37 @@ public class RateLimitingFilterTest {
                 org.mockito.ArgumentMatchers.any(org.springframework.web.util.ContentCachingResponseWrapper.class));
     }
 
+    @Test
+    @DisplayName("Should key a verified token by its digest for TOKEN strategy")
+    void shouldKeyVerifiedTokenByDigest() throws ServletException, IOException {
+        // Given
+        String path = "/api/authors";
+        when(request.getRequestURI()).thenReturn(path);
+        usePolicy(true, "TOKEN", false);
+        when(request.getHeader("Authorization")).thenReturn("Bearer abc123");
+        when(jwtTokenVerifier.verify(org.mockito.ArgumentMatchers.any(HttpServletRequest.class), eq("abc123")))
+                .thenReturn(new JwtPrincipal("alice", null, "d1g35t", null));
+
+        // Configure the rate limiting service
+        when(rateLimitingService.isRequestAllowed(anyString(), eq(endpointLimit))).thenReturn(true);
+
+        // When
+        rateLimitingFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(rateLimitingService).isRequestAllowed(eq("token:d1g35t:" + path), eq(endpointLimit));
+    }
+
     @Test
     @DisplayName("Should generate correct key for TOKEN strategy without Authorization header")
     void shouldGenerateCorrectKeyForTokenStrategyWithoutAuth() throws ServletException, IOException {
         // Given
         String path = "/api/authors";
         when(request.getRequestURI()).thenReturn(path);
-        when(rateLimitingConfig.getStrategy()).thenReturn("TOKEN");
+        usePolicy(true, "TOKEN", false);
         when(request.getHeader("Authorization")).thenReturn(null);
 
         // Configure the rate limiting service
-        when(rateLimitingService.findEndpointLimit(path)).thenReturn(endpointLimit);
         when(rateLimitingService.isRequestAllowed(eq("anonymous:" + path), eq(endpointLimit))).thenReturn(true);
 
         // When
@@ -370,10 +392,9 @@ public class RateLimitingFilterTest {
         String ipAddress = "192.168.1.1";
         when(request.getRequestURI()).thenReturn(path);
         when(request.getRemoteAddr()).thenReturn(ipAddress);
-        when(rateLimitingConfig.getStrategy()).thenReturn("UNKNOWN_STRATEGY");
+        usePolicy(true, "UNKNOWN_STRATEGY", false);
 
         // Configure the rate limiting service
-        when(rateLimitingService.findEndpointLimit(path)).thenReturn(endpointLimit);
         when(rateLimitingService.isRequestAllowed(eq(ipAddress + ":" + path), eq(endpointLimit))).thenReturn(true);
 
         // When
@@ -385,4 +406,17 @@ public class RateLimitingFilterTest {
                 org.mockito.ArgumentMatchers.any(org.springframework.web.util.ContentCachingRequestWrapper.class),
                 org.mockito.ArgumentMatchers.any(org.springframework.web.util.ContentCachingResponseWrapper.class));
     }
-}
\ No newline at end of file
+
+    /**
+     * Makes the rate limiting service return a policy limiting every API
+     * path with the test endpoint limit
+     */
+    private void usePolicy(boolean enabled, String strategy, boolean responseHeaders) {
+        RateLimitingConfig settings = new RateLimitingConfig();
+        settings.setEnabled(enabled);
+        settings.setStrategy(strategy);
+        settings.setResponseHeaders(responseHeaders);
+        settings.setEndpoints(List.of(endpointLimit));
+        when(rateLimitingService.currentPolicy()).thenReturn(RateLimitPolicy.compile(settings));
+    }
+}
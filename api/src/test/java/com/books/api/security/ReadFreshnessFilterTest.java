@@ -0,0 +1,161 @@
+package com.books.api.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.books.infrastructure.cache.QueryCache;
+import com.books.infrastructure.cache.ReadRouter;
+import com.books.infrastructure.cache.QueryCache.QueryKey;
+
+import jakarta.servlet.FilterChain;
+
+/**
+ * Unit tests for the filter that reports the age of cached catalog data.
+ *
+ * @author books-authors-api
+ */
+public class ReadFreshnessFilterTest {
+
+    private static final QueryKey KEY = QueryKey.of("books.byGenre", "FICTION");
+
+    private ReadFreshnessFilter filter;
+    private QueryCache queryCache;
+    private MockHttpServletResponse mockResponse;
+
+    @BeforeEach
+    void setUp() {
+        filter = new ReadFreshnessFilter();
+        queryCache = new QueryCache(true, 1000, Duration.ofMillis(1), true, Duration.ofHours(1),
+                ReadRouter.primaryOnly());
+        mockResponse = new MockHttpServletResponse();
+    }
+
+    @Test
+    @DisplayName("Should report the age of cached data and warn when it is stale")
+    void shouldReportAgeAndStaleness() throws Exception {
+        // Given
+        read(() -> List.of("cached"));
+        Thread.sleep(20);
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/books/genre/fiction"), mockResponse,
+                writingChain(() -> List.of("refreshed")));
+
+        // Then
+        assertEquals("0", mockResponse.getHeader("Age"));
+        assertEquals("110 - \"Response is Stale\"", mockResponse.getHeader("Warning"));
+        assertEquals("[\"cached\"]", mockResponse.getContentAsString());
+    }
+
+    @Test
+    @DisplayName("Should warn when the refresh of stale data failed")
+    void shouldWarnWhenRevalidationFailed() throws Exception {
+        // Given
+        read(() -> List.of("cached"));
+        Thread.sleep(20);
+        read(() -> {
+            throw new IllegalStateException("database unavailable");
+        });
+        Thread.sleep(100);
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/books/genre/fiction"), mockResponse,
+                writingChain(() -> List.of("unused")));
+
+        // Then
+        assertTrue(mockResponse.getHeaders("Warning").contains("111 - \"Revalidation Failed\""));
+        assertEquals("[\"cached\"]", mockResponse.getContentAsString());
+    }
+
+    @Test
+    @DisplayName("Should leave responses without cached data and writes untouched")
+    void shouldIgnoreUncachedResponses() throws Exception {
+        // Given
+        MockHttpServletResponse postResponse = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/policies"), mockResponse,
+                (request, response) -> response.getWriter().write("{}"));
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/books"), postResponse,
+                writingChain(() -> List.of("created")));
+
+        // Then
+        assertNull(mockResponse.getHeader("Age"));
+        assertNull(postResponse.getHeader("Age"));
+    }
+
+    @Test
+    @DisplayName("Should read the primary database when the cached data is older than the client accepts")
+    void shouldReloadDataOlderThanMaxStaleness() throws Exception {
+        // Given
+        read(() -> List.of("cached"));
+        Thread.sleep(1100);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/genre/fiction");
+        request.addHeader("Cache-Control", "max-age=1");
+
+        // When
+        filter.doFilter(request, mockResponse, writingChain(() -> List.of("primary")));
+
+        // Then
+        assertEquals("0", mockResponse.getHeader("Age"));
+        assertEquals("primary", mockResponse.getHeader("X-Data-Source"));
+        assertEquals("[\"primary\"]", mockResponse.getContentAsString());
+        assertEquals(List.of("primary"), read(() -> List.of("unused")));
+    }
+
+    @Test
+    @DisplayName("Should read the replica when the client accepts its lag")
+    void shouldReadReplicaWithinMaxStaleness() throws Exception {
+        // Given
+        queryCache = new QueryCache(false, 1000, Duration.ofMinutes(5), true, Duration.ofHours(1),
+                new ReadRouter("jdbc:oracle:thin:@replica:1521/XE", Duration.ofSeconds(5)));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/genre/fiction");
+        request.setParameter("maxStaleness", "60");
+
+        // When
+        filter.doFilter(request, mockResponse,
+                writingChain(() -> List.of(ReadRouter.isReplicaRead() ? "replica" : "primary")));
+
+        // Then
+        assertEquals("5", mockResponse.getHeader("Age"));
+        assertEquals("replica", mockResponse.getHeader("X-Data-Source"));
+        assertEquals("[\"replica\"]", mockResponse.getContentAsString());
+    }
+
+    @Test
+    @DisplayName("Should reject a max-staleness that is not a number of seconds")
+    void shouldRejectInvalidMaxStaleness() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+        request.setParameter("maxStaleness", "-1");
+
+        // When
+        filter.doFilter(request, mockResponse, writingChain(() -> List.of("unused")));
+
+        // Then
+        assertEquals(400, mockResponse.getStatus());
+    }
+
+    private List<String> read(Supplier<List<String>> loader) {
+        return queryCache.get(KEY, Set.of("genre:FICTION"), loader, result -> Set.of());
+    }
+
+    private FilterChain writingChain(Supplier<List<String>> loader) {
+        return (request, response) -> {
+            List<String> result = read(loader);
+            response.getWriter().write("[\"" + String.join("\",\"", result) + "\"]");
+        };
+    }
+}
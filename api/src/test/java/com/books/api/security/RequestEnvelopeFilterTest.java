@@ -0,0 +1,89 @@
+package com.books.api.security;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.books.api.config.ApiAuditConfig;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+
+/**
+ * Unit tests for {@link RequestEnvelopeFilter}.
+ *
+ * @author books-authors-api
+ */
+public class RequestEnvelopeFilterTest {
+
+    private ApiAuditConfig apiAuditConfig;
+    private RequestEnvelopeFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        apiAuditConfig = new ApiAuditConfig();
+        apiAuditConfig.setContextPath("/api/v1");
+        filter = new RequestEnvelopeFilter(apiAuditConfig);
+    }
+
+    @Test
+    @DisplayName("Should buffer the responses of the catalog endpoints under the configured context path")
+    void shouldBufferCatalogResponses() throws ServletException, IOException {
+        // When
+        ServletResponse passed = filter("/api/v1/books/7");
+
+        // Then
+        assertTrue(passed instanceof ContentCachingResponseWrapper);
+    }
+
+    @Test
+    @DisplayName("Should stream summaries and biographies under the configured context path")
+    void shouldStreamLongTextsUnderContextPath() throws ServletException, IOException {
+        // When
+        ServletResponse summary = filter("/api/v1/books/7/summary");
+        ServletResponse biography = filter("/api/v1/authors/3/biography");
+
+        // Then
+        assertFalse(summary instanceof ContentCachingResponseWrapper);
+        assertFalse(biography instanceof ContentCachingResponseWrapper);
+        assertTrue(apiAuditConfig.isStreamingPath("/api/audit/export"));
+        assertFalse(apiAuditConfig.isStreamingPath("/api/books/7/summary"));
+    }
+
+    @Test
+    @DisplayName("Should leave the requests skipped by the audit filter unwrapped")
+    void shouldSkipUnauditedPaths() throws ServletException, IOException {
+        for (String path : new String[] { "/api/v1/actuator/health", "/api/v1/swagger-ui/index.html",
+                "/api/v1/v3/api-docs", "/favicon.ico" }) {
+            // Given
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+            AtomicReference<ServletRequest> passed = new AtomicReference<>();
+
+            // When
+            filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> passed.set(req));
+
+            // Then
+            assertSame(request, passed.get(), path);
+            assertNull(RequestEnvelope.current(request), path);
+        }
+    }
+
+    private ServletResponse filter(String path) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        AtomicReference<ServletResponse> passed = new AtomicReference<>();
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> passed.set(res));
+        return passed.get();
+    }
+}
@@ -0,0 +1,93 @@
+package com.books.api.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Unit tests for the per-request envelope shared by the API filters.
+ *
+ * @author books-authors-api
+ */
+public class RequestEnvelopeTest {
+
+    private MockHttpServletRequest mockRequest;
+    private MockHttpServletResponse mockResponse;
+
+    @BeforeEach
+    void setUp() {
+        mockRequest = new MockHttpServletRequest("GET", "/api/authors");
+        mockRequest.setRemoteAddr("10.0.0.1");
+        mockRequest.addHeader("Authorization", "Bearer abc.def.ghi");
+        mockRequest.addHeader("X-User-ID", "user-1");
+        mockResponse = new MockHttpServletResponse();
+    }
+
+    @Test
+    @DisplayName("Should parse the request headers once and bind the envelope to the request")
+    void shouldParseHeadersAndBindEnvelope() {
+        // When
+        RequestEnvelope envelope = RequestEnvelope.open(mockRequest, mockResponse, true);
+
+        // Then
+        assertSame(envelope, RequestEnvelope.current(envelope.getRequest()));
+        assertSame(envelope, RequestEnvelope.current(mockRequest));
+        assertEquals("10.0.0.1", envelope.getClientIp());
+        assertEquals("/api/authors", envelope.getPath());
+        assertEquals("abc.def.ghi", envelope.getBearerToken());
+        assertEquals("user-1", envelope.getUserId());
+        assertEquals("abc.def.ghi", envelope.getSessionId());
+        assertTrue(envelope.getResponse() instanceof ContentCachingResponseWrapper);
+    }
+
+    @Test
+    @DisplayName("Should not wrap an already wrapped request or a streamed response")
+    void shouldNotWrapTwice() {
+        // Given
+        RequestEnvelope first = RequestEnvelope.open(mockRequest, mockResponse, true);
+
+        // When
+        RequestEnvelope second = RequestEnvelope.open(first.getRequest(), first.getResponse(), true);
+        RequestEnvelope streamed = RequestEnvelope.open(mockRequest, mockResponse, false);
+
+        // Then
+        assertSame(first.getRequest(), second.getRequest());
+        assertSame(first.getResponse(), second.getResponse());
+        assertSame(mockResponse, streamed.getResponse());
+    }
+
+    @Test
+    @DisplayName("Should copy the buffered body to the client exactly once")
+    void shouldCopyBufferedBodyOnClose() throws IOException {
+        // Given
+        RequestEnvelope envelope = RequestEnvelope.open(mockRequest, mockResponse, true);
+        envelope.getResponse().getWriter().write("payload");
+        envelope.getResponse().flushBuffer();
+
+        // When
+        envelope.close();
+        envelope.close();
+
+        // Then
+        assertEquals("payload", mockResponse.getContentAsString());
+    }
+
+    @Test
+    @DisplayName("Should resolve identity from the headers when no envelope is bound")
+    void shouldResolveIdentityWithoutEnvelope() {
+        // When / Then
+        assertEquals("user-1", RequestEnvelope.resolveUserId(mockRequest));
+        assertEquals("abc.def.ghi", RequestEnvelope.resolveSessionId(mockRequest));
+        assertNull(RequestEnvelope.current(mockRequest));
+    }
+}
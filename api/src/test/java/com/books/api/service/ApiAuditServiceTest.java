@@ -1,16 +1,26 @@
 package com.books.api.service;
 
+import com.books.api.config.ApiAuditConfig;
+import com.books.api.dto.AuditCursor;
+import com.books.api.dto.AuditSearchCriteria;
+import com.books.api.service.ApiAuditService.AuditLogWindow;
+import com.books.api.service.ApiAuditService.ExportFormat;
 import com.books.domain.model.ApiAuditLog;
 import com.books.domain.repository.ApiAuditLogRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.mock.web.MockHttpServletRequest;
@@ -18,11 +28,16 @@ import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.web.util.ContentCachingRequestWrapper;
 import org.springframework.web.util.ContentCachingResponseWrapper;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -37,6 +52,15 @@ public class ApiAuditServiceTest {
     @Mock
     private ApiAuditLogRepository apiAuditLogRepository;
 
+    @Spy
+    private ApiAuditConfig apiAuditConfig = new ApiAuditConfig();
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Mock
+    private AuditArchiveService auditArchiveService;
+
     @InjectMocks
     private ApiAuditService apiAuditService;
 
@@ -86,6 +110,54 @@ public class ApiAuditServiceTest {
         verify(apiAuditLogRepository).save(any(ApiAuditLog.class));
     }
 
+    @Test
+    @DisplayName("Should log only the parts selected by the audit policy, with bodies cut at the maximum size")
+    void shouldFollowAuditPolicy() throws IOException {
+        // Given
+        apiAuditConfig.setLogHeaders(false);
+        apiAuditConfig.setLogQueryParams(false);
+        apiAuditConfig.setLogResponseBody(true);
+        apiAuditConfig.setMaxBodySize(5);
+        mockRequest.setQueryString("page=1");
+        mockRequest.setContent("{\"name\":\"Gabriel\"}".getBytes(StandardCharsets.UTF_8));
+        requestWrapper.getInputStream().readAllBytes();
+        responseWrapper.getOutputStream().write("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        when(apiAuditLogRepository.save(any(ApiAuditLog.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        ApiAuditLog result = apiAuditService.createAuditLog(requestWrapper, responseWrapper, 100L, false);
+
+        // Then
+        assertNull(result.getRequestHeaders());
+        assertNull(result.getQueryParams());
+        assertEquals("{\"nam... (truncated)", result.getRequestBody());
+        assertEquals("{\"id\"... (truncated)", result.getResponseBody());
+    }
+
+    @Test
+    @DisplayName("Should leave bodies out and keep sensitive headers as a reloaded policy says")
+    void shouldFollowReloadedAuditPolicy() throws IOException {
+        // Given
+        mockRequest.addHeader("Authorization", "Bearer token");
+        mockRequest.setContent("{}".getBytes(StandardCharsets.UTF_8));
+        requestWrapper.getInputStream().readAllBytes();
+        when(apiAuditLogRepository.save(any(ApiAuditLog.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        ApiAuditLog before = apiAuditService.createAuditLog(requestWrapper, responseWrapper, 100L, false);
+        ApiAuditConfig candidate = new ApiAuditConfig();
+        candidate.setLogRequestBody(false);
+        candidate.setRetainSensitiveInfo(true);
+
+        // When
+        apiAuditConfig.applyPolicy(apiAuditConfig.compile(candidate));
+        ApiAuditLog after = apiAuditService.createAuditLog(requestWrapper, responseWrapper, 100L, false);
+
+        // Then
+        assertEquals("{}", before.getRequestBody());
+        assertFalse(before.getRequestHeaders().contains("Bearer token"));
+        assertNull(after.getRequestBody());
+        assertTrue(after.getRequestHeaders().contains("Bearer token"));
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     @DisplayName("Debería buscar registros de auditoría con especificación")
@@ -109,6 +181,141 @@ public class ApiAuditServiceTest {
         verify(apiAuditLogRepository).findAll(spec, pageable);
     }
 
+    @Test
+    @DisplayName("Should return a keyset window with a cursor when more entries exist")
+    void shouldReturnKeysetWindowWithCursor() {
+        // Given
+        List<ApiAuditLog> rows = List.of(createSampleAuditLog(3L), createSampleAuditLog(2L),
+                createSampleAuditLog(1L));
+        doReturn(rows).when(apiAuditLogRepository).findBy(any(Specification.class), any());
+
+        // When
+        AuditLogWindow window = apiAuditService.searchAuditLogsAfter(new AuditSearchCriteria(), null, 2);
+
+        // Then
+        assertEquals(2, window.content().size());
+        assertTrue(window.hasNext());
+        assertEquals(2L, window.next().id());
+        verify(apiAuditLogRepository, never()).count(any(Specification.class));
+    }
+
+    @Test
+    @DisplayName("Should return the last keyset window without a cursor")
+    void shouldReturnLastKeysetWindowWithoutCursor() {
+        // Given
+        AuditCursor cursor = new AuditCursor(LocalDateTime.now(), 10L);
+        doReturn(List.of(createSampleAuditLog(1L))).when(apiAuditLogRepository)
+                .findBy(any(Specification.class), any());
+
+        // When
+        AuditLogWindow window = apiAuditService.searchAuditLogsAfter(new AuditSearchCriteria(), cursor, 50);
+
+        // Then
+        assertEquals(1, window.content().size());
+        assertFalse(window.hasNext());
+        assertNull(window.next());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    @DisplayName("Should cap the page size of offset searches")
+    void shouldCapPageSize() {
+        // Given
+        apiAuditConfig.setMaxPageSize(20);
+        when(apiAuditLogRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of()));
+
+        // When
+        apiAuditService.searchAuditLogs(new AuditSearchCriteria(), PageRequest.of(0, 10_000));
+
+        // Then
+        ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
+        verify(apiAuditLogRepository).findAll(any(Specification.class), pageableCaptor.capture());
+        assertEquals(20, pageableCaptor.getValue().getPageSize());
+    }
+
+    @Test
+    @DisplayName("Should continue a keyset window into the archive when the database is exhausted")
+    void shouldContinueKeysetWindowIntoArchive() {
+        // Given
+        ApiAuditLog lastInDatabase = createSampleAuditLog(3L);
+        doReturn(List.of(lastInDatabase)).when(apiAuditLogRepository).findBy(any(Specification.class), any());
+        when(auditArchiveService.isEnabled()).thenReturn(true);
+        when(auditArchiveService.search(any(AuditSearchCriteria.class), eq(AuditCursor.after(lastInDatabase)),
+                eq(2))).thenReturn(List.of(createSampleAuditLog(2L), createSampleAuditLog(1L)));
+
+        // When
+        AuditLogWindow window = apiAuditService.searchAuditLogsAfter(new AuditSearchCriteria(), null, 2);
+
+        // Then
+        assertEquals(List.of(3L, 2L), window.content().stream().map(ApiAuditLog::getId).toList());
+        assertTrue(window.hasNext());
+        assertEquals(2L, window.next().id());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    @DisplayName("Should fill an offset page with archived entries and count them in the total")
+    void shouldMergeArchivedEntriesIntoPage() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 3);
+        when(auditArchiveService.isEnabled()).thenReturn(true);
+        when(apiAuditLogRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(createSampleAuditLog(9L)), pageable, 1));
+        when(auditArchiveService.find(any(AuditSearchCriteria.class), eq(0L), eq(2)))
+                .thenReturn(List.of(createSampleAuditLog(2L), createSampleAuditLog(1L)));
+        when(auditArchiveService.count(any(AuditSearchCriteria.class))).thenReturn(5L);
+
+        // When
+        Page<ApiAuditLog> page = apiAuditService.searchAuditLogs(new AuditSearchCriteria(), pageable);
+
+        // Then
+        assertEquals(List.of(9L, 2L, 1L), page.getContent().stream().map(ApiAuditLog::getId).toList());
+        assertEquals(6, page.getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Should stream all batches of an export as NDJSON")
+    void shouldExportAllBatchesAsNdjson() throws IOException {
+        // Given
+        apiAuditConfig.setExportBatchSize(2);
+        List<ApiAuditLog> firstBatch = new ArrayList<>(List.of(createSampleAuditLog(5L), createSampleAuditLog(4L),
+                createSampleAuditLog(3L)));
+        List<ApiAuditLog> secondBatch = List.of(createSampleAuditLog(3L));
+        doReturn(firstBatch, secondBatch).when(apiAuditLogRepository).findBy(any(Specification.class), any());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        long exported = apiAuditService.exportAuditLogs(new AuditSearchCriteria(), ExportFormat.NDJSON, output);
+
+        // Then
+        assertEquals(3, exported);
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].contains("\"id\":5"));
+    }
+
+    @Test
+    @DisplayName("Should stop an export at the configured row cap")
+    void shouldStopExportAtRowCap() throws IOException {
+        // Given
+        apiAuditConfig.setExportBatchSize(2);
+        apiAuditConfig.setMaxExportRows(2);
+        doReturn(new ArrayList<>(List.of(createSampleAuditLog(5L), createSampleAuditLog(4L),
+                createSampleAuditLog(3L)))).when(apiAuditLogRepository).findBy(any(Specification.class), any());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        long exported = apiAuditService.exportAuditLogs(new AuditSearchCriteria(), ExportFormat.CSV, output);
+
+        // Then
+        assertEquals(2, exported);
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("id,timestamp"));
+        verify(apiAuditLogRepository, times(1)).findBy(any(Specification.class), any());
+    }
+
     private ApiAuditLog createSampleAuditLog(Long id) {
         return ApiAuditLog.builder()
                 .id(id)
@@ -0,0 +1,204 @@
+package com.books.api.service;
+
+import com.books.api.config.ApiAuditConfig;
+import com.books.api.dto.AuditCursor;
+import com.books.api.dto.AuditSearchCriteria;
+import com.books.api.service.archive.AuditArchiveSegment;
+import com.books.domain.model.ApiAuditLog;
+import com.books.domain.repository.ApiAuditLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the audit archive service.
+ * Check the archiving job and searches over archived entries.
+ *
+ * @author books-authors-api
+ */
+@ExtendWith(MockitoExtension.class)
+public class AuditArchiveServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Mock
+    private ApiAuditLogRepository apiAuditLogRepository;
+
+    @TempDir
+    Path directory;
+
+    private ApiAuditConfig apiAuditConfig;
+    private AuditArchiveService auditArchiveService;
+
+    @BeforeEach
+    void setUp() {
+        apiAuditConfig = new ApiAuditConfig();
+        apiAuditConfig.getArchive().setEnabled(true);
+        apiAuditConfig.getArchive().setDirectory(directory.toString());
+        apiAuditConfig.getArchive().setSegmentRows(4);
+        auditArchiveService = new AuditArchiveService(apiAuditLogRepository, apiAuditConfig);
+        auditArchiveService.loadIndex();
+    }
+
+    @Test
+    @DisplayName("Should move old entries to segments and delete them from the database")
+    void shouldArchiveOldEntries() {
+        // Given
+        archive(createEntries(1, 6));
+
+        // Then
+        verify(apiAuditLogRepository, times(2)).deleteAllByIdInBatch(anyList());
+        assertEquals(6, auditArchiveService.count(new AuditSearchCriteria()));
+    }
+
+    @Test
+    @DisplayName("Should rebuild the index from the segments on disk")
+    void shouldReloadIndexFromDisk() {
+        // Given
+        archive(createEntries(1, 6));
+
+        // When
+        AuditArchiveService reloaded = new AuditArchiveService(apiAuditLogRepository, apiAuditConfig);
+        reloaded.loadIndex();
+
+        // Then
+        List<ApiAuditLog> result = reloaded.search(new AuditSearchCriteria(), null, 10);
+        assertEquals(List.of(6L, 5L, 4L, 3L, 2L, 1L), ids(result));
+        assertNotNull(result.get(0).getClientIp());
+    }
+
+    @Test
+    @DisplayName("Should keep using the newest segment's dictionary after a restart")
+    void shouldReuseDictionaryAfterRestart() throws IOException {
+        // Given
+        archive(createEntries(1, 4));
+        assertEquals(1, files("*.zdict").size());
+
+        // When entries that would train another dictionary are archived after a restart
+        List<ApiAuditLog> later = createEntries(5, 8);
+        later.forEach(entry -> entry.setRequestBody("{\"firstName\":\"Gabriel\",\"lastName\":\"Garcia\"}"));
+        auditArchiveService = new AuditArchiveService(apiAuditLogRepository, apiAuditConfig);
+        auditArchiveService.loadIndex();
+        archive(later);
+
+        // Then no second dictionary was trained, and both segments use the first
+        assertEquals(1, files("*.zdict").size());
+        List<Path> segments = files("*.seg");
+        assertEquals(2, segments.size());
+        int dictionaryId = AuditArchiveSegment.readHeader(segments.get(0)).dictionaryId();
+        assertNotEquals(0, dictionaryId);
+        assertEquals(dictionaryId, AuditArchiveSegment.readHeader(segments.get(1)).dictionaryId());
+        assertEquals(8, auditArchiveService.search(new AuditSearchCriteria(), null, 10).size());
+    }
+
+    @Test
+    @DisplayName("Should page through archived entries with a keyset cursor and criteria")
+    void shouldSearchWithCursorAndCriteria() {
+        // Given
+        archive(createEntries(1, 8));
+        AuditSearchCriteria criteria = AuditSearchCriteria.builder().endpoint("/api/books").build();
+
+        // When
+        List<ApiAuditLog> first = auditArchiveService.search(criteria, null, 2);
+        List<ApiAuditLog> second = auditArchiveService.search(criteria, AuditCursor.after(first.get(1)), 2);
+
+        // Then
+        assertEquals(List.of(8L, 6L), ids(first));
+        assertEquals(List.of(4L, 2L), ids(second));
+        assertEquals(4, auditArchiveService.count(criteria));
+        assertEquals(List.of(6L, 4L), ids(auditArchiveService.find(criteria, 1, 2)));
+    }
+
+    @Test
+    @DisplayName("Should skip segments outside the requested time range")
+    void shouldFilterByTimeRange() {
+        // Given
+        archive(createEntries(1, 8));
+        AuditSearchCriteria criteria = AuditSearchCriteria.builder()
+                .startTime(START.plusMinutes(2))
+                .endTime(START.plusMinutes(4))
+                .build();
+
+        // When / Then
+        assertEquals(List.of(4L, 3L, 2L), ids(auditArchiveService.search(criteria, null, 10)));
+        assertEquals(3, auditArchiveService.count(criteria));
+    }
+
+    @Test
+    @DisplayName("Should do nothing when the archive is disabled")
+    void shouldNotArchiveWhenDisabled() {
+        // Given
+        apiAuditConfig.getArchive().setEnabled(false);
+
+        // When
+        long archived = auditArchiveService.archiveOldEntries();
+
+        // Then
+        assertEquals(0, archived);
+        verifyNoInteractions(apiAuditLogRepository);
+    }
+
+    private void archive(List<ApiAuditLog> entries) {
+        int segmentRows = apiAuditConfig.getArchive().getSegmentRows();
+        List<List<ApiAuditLog>> batches = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i += segmentRows) {
+            batches.add(entries.subList(i, Math.min(entries.size(), i + segmentRows)));
+        }
+        if (entries.size() % segmentRows == 0) {
+            batches.add(List.of());
+        }
+        doReturn(batches.get(0), batches.subList(1, batches.size()).toArray()).when(apiAuditLogRepository)
+                .findBy(any(Specification.class), any());
+
+        assertEquals(entries.size(), auditArchiveService.archiveOldEntries());
+    }
+
+    private List<ApiAuditLog> createEntries(int firstId, int lastId) {
+        List<ApiAuditLog> entries = new ArrayList<>();
+        for (int id = firstId; id <= lastId; id++) {
+            entries.add(ApiAuditLog.builder()
+                    .id((long) id)
+                    .httpMethod("GET")
+                    .endpoint(id % 2 == 0 ? "/api/books/" + id : "/api/authors")
+                    .clientIp("127.0.0.1")
+                    .userId("test-user")
+                    .statusCode(200)
+                    .timestamp(START.plusMinutes(id))
+                    .processingTimeMs(10L)
+                    .requestBody("{\"title\":\"Book\"}")
+                    .rateLimitExceeded(false)
+                    .build());
+        }
+        return entries;
+    }
+
+    private List<Path> files(String glob) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            stream.forEach(files::add);
+        }
+        return files;
+    }
+
+    private static List<Long> ids(List<ApiAuditLog> entries) {
+        return entries.stream().map(ApiAuditLog::getId).toList();
+    }
+}
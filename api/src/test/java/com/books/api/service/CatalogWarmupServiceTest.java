@@ -0,0 +1,107 @@
+package com.books.api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.books.application.dto.AuthorDTO;
+import com.books.application.dto.BookDTO;
+import com.books.application.service.AuthorService;
+import com.books.application.service.BookService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Unit tests for {@link CatalogWarmupService}.
+ *
+ * @author books-authors-api
+ */
+@ExtendWith(MockitoExtension.class)
+public class CatalogWarmupServiceTest {
+
+    @Mock
+    private BookService bookService;
+
+    @Mock
+    private AuthorService authorService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    @DisplayName("Should replay the pages and the entities on the first page for the configured iterations")
+    void shouldReplayMixForConfiguredIterations() {
+        // Given
+        BookDTO book = BookDTO.builder().bookId(1L).title("Dune").publicationDate(LocalDate.of(1965, 8, 1)).build();
+        AuthorDTO author = AuthorDTO.builder().authorId(2L).firstName("Frank").lastName("Herbert").build();
+        when(bookService.getAllBooks(anyInt(), anyInt())).thenReturn(List.of(book));
+        when(authorService.getAllAuthors(anyInt(), anyInt())).thenReturn(List.of(author));
+        when(bookService.findBookById(1L)).thenReturn(Optional.of(book));
+        when(authorService.getAuthorById(2L)).thenReturn(Optional.of(author));
+        CatalogWarmupService warmup = warmup(3, Duration.ofMinutes(1));
+
+        // When
+        int iterations = warmup.warmUp();
+
+        // Then
+        assertEquals(3, iterations);
+        verify(bookService, times(3)).getAllBooks(1, 10);
+        verify(bookService, times(3)).getAllBooks(2, 10);
+        verify(authorService, times(3)).getAllAuthors(2, 10);
+        verify(bookService, times(3)).findBookById(1L);
+        verify(bookService, times(3)).findBooksByAuthorId(2L);
+        verify(authorService, times(3)).findAuthorsByBookId(1L);
+        verify(bookService, times(3)).findBooksByIds(List.of(1L));
+        verify(authorService, times(3)).findAuthorsByIds(List.of(2L));
+    }
+
+    @Test
+    @DisplayName("Should stop at once when the catalog is empty")
+    void shouldSkipEmptyCatalog() {
+        // Given
+        when(bookService.getAllBooks(anyInt(), anyInt())).thenReturn(List.of());
+        when(authorService.getAllAuthors(anyInt(), anyInt())).thenReturn(List.of());
+        CatalogWarmupService warmup = warmup(100, Duration.ofMinutes(1));
+
+        // When
+        int iterations = warmup.warmUp();
+
+        // Then
+        assertEquals(0, iterations);
+        verify(bookService, times(1)).getAllBooks(1, 10);
+        verify(bookService, never()).findBookById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should stop without failing the startup when a read fails")
+    void shouldStopOnFailure() {
+        // Given
+        when(bookService.getAllBooks(anyInt(), anyInt())).thenThrow(new IllegalStateException("pool exhausted"));
+        CatalogWarmupService warmup = warmup(100, Duration.ofMinutes(1));
+
+        // When
+        int iterations = warmup.warmUp();
+
+        // Then
+        assertEquals(0, iterations);
+        verify(bookService, times(1)).getAllBooks(1, 10);
+    }
+
+    private CatalogWarmupService warmup(int iterations, Duration maxDuration) {
+        return new CatalogWarmupService(bookService, authorService, objectMapper, true, iterations, maxDuration, 2,
+                10);
+    }
+}
@@ -0,0 +1,160 @@
+package com.books.api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.books.api.config.IpAccessConfig;
+
+/**
+ * Unit tests for {@link IpAccessService}.
+ * Verifies CIDR rule matching, reloads and automatic bans.
+ *
+ * @author books-authors-api
+ */
+public class IpAccessServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2024-01-01T00:00:00Z"));
+    private IpAccessConfig config;
+    private IpAccessService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Clock clock = new Clock() {
+            @Override
+            public Instant instant() {
+                return now.get();
+            }
+
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+        };
+        config = new IpAccessConfig();
+        config.setDeny(List.of("10.0.0.0/8", "203.0.113.7", "2001:db8::/32"));
+        config.setAllow(List.of("10.1.2.0/24", "2001:db8:1::/48"));
+        config.getAutoBan().setThreshold(3);
+        config.getAutoBan().setWindowSeconds(60);
+        config.getAutoBan().setBanSeconds(600);
+        service = new IpAccessService(config, clock);
+        service.reload();
+    }
+
+    @Test
+    @DisplayName("Should apply the longest matching IPv4 range")
+    void shouldMatchLongestIpv4Prefix() {
+        assertTrue(service.isDenied("10.200.3.4"));
+        assertFalse(service.isDenied("10.1.2.99"));
+        assertTrue(service.isDenied("10.1.3.1"));
+        assertTrue(service.isDenied("203.0.113.7"));
+        assertFalse(service.isDenied("203.0.113.8"));
+        assertFalse(service.isDenied("192.168.0.1"));
+        assertEquals(3, service.getRejectedRequests());
+    }
+
+    @Test
+    @DisplayName("Should apply the longest matching IPv6 range")
+    void shouldMatchLongestIpv6Prefix() {
+        assertTrue(service.isDenied("2001:db8:ffff::1"));
+        assertFalse(service.isDenied("2001:db8:1:2::1"));
+        assertFalse(service.isDenied("2001:db9::1"));
+        assertTrue(service.isDenied("::ffff:10.9.9.9"));
+    }
+
+    @Test
+    @DisplayName("Should let unparseable addresses through without resolving them")
+    void shouldIgnoreInvalidAddresses() {
+        assertFalse(service.isDenied("example.com"));
+        assertFalse(service.isDenied("10.0.0"));
+        assertFalse(service.isDenied("300.1.1.1"));
+        assertFalse(service.isDenied(null));
+    }
+
+    @Test
+    @DisplayName("Should reload rules from the rules file and keep old rules on errors")
+    void shouldReloadRulesFile() throws IOException {
+        // Given
+        Path rules = tempDir.resolve("ip-rules.txt");
+        Files.writeString(rules, "# blocked scanners\ndeny 198.51.100.0/24\n\nallow 198.51.100.10\n");
+        config.setRulesFile(rules.toString());
+
+        // When
+        int loaded = service.reload();
+
+        // Then
+        assertEquals(7, loaded);
+        assertTrue(service.isDenied("198.51.100.1"));
+        assertFalse(service.isDenied("198.51.100.10"));
+
+        // When an invalid rule is added
+        Files.writeString(rules, "deny 198.51.100.0/33\n");
+
+        // Then the reload fails and the previous rules stay active
+        assertThrows(IllegalArgumentException.class, () -> service.reload());
+        assertTrue(service.isDenied("198.51.100.1"));
+    }
+
+    @Test
+    @DisplayName("Should ban a client that keeps exceeding the rate limit until the ban expires")
+    void shouldAutoBanRepeatedViolations() {
+        // When
+        service.recordRateLimitViolation("192.0.2.1");
+        service.recordRateLimitViolation("192.0.2.1");
+
+        // Then
+        assertFalse(service.isDenied("192.0.2.1"));
+
+        // When
+        service.recordRateLimitViolation("192.0.2.1");
+
+        // Then
+        assertTrue(service.isDenied("192.0.2.1"));
+        assertTrue(service.getBans().containsKey("192.0.2.1"));
+
+        // When the ban has expired
+        now.set(now.get().plusSeconds(601));
+        service.purgeExpired();
+
+        // Then
+        assertFalse(service.isDenied("192.0.2.1"));
+        assertTrue(service.getBans().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should not ban clients whose violations are spread over several windows")
+    void shouldResetViolationsPerWindow() {
+        // When
+        service.recordRateLimitViolation("192.0.2.1");
+        service.recordRateLimitViolation("192.0.2.1");
+        now.set(now.get().plusSeconds(61));
+        service.recordRateLimitViolation("192.0.2.1");
+
+        // Then
+        assertFalse(service.isDenied("192.0.2.1"));
+    }
+}
@@ -0,0 +1,215 @@
+package com.books.api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.books.api.config.ApiAuditConfig;
+import com.books.api.config.AuditPolicy;
+import com.books.api.config.RateLimitingConfig;
+import com.books.api.config.RateLimitingConfig.EndpointLimit;
+import com.books.api.service.ratelimit.RateLimitPolicy;
+
+/**
+ * Unit tests for {@link PolicyReloadService}.
+ * Verifies that policy files are validated, applied atomically and keep the
+ * request counters that still apply.
+ *
+ * @author books-authors-api
+ */
+public class PolicyReloadServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path policyFile;
+    private RateLimitingConfig rateLimitingConfig;
+    private ApiAuditConfig apiAuditConfig;
+    private RateLimitingService rateLimitingService;
+    private PolicyReloadService policyReloadService;
+
+    @BeforeEach
+    void setUp() {
+        policyFile = tempDir.resolve("policies.yml");
+        rateLimitingConfig = new RateLimitingConfig();
+        apiAuditConfig = new ApiAuditConfig();
+        rateLimitingService = new RateLimitingService(rateLimitingConfig);
+        policyReloadService = new PolicyReloadService(rateLimitingService, apiAuditConfig, policyFile.toString());
+    }
+
+    @Test
+    @DisplayName("Should apply endpoint limits and audit settings from the policy file")
+    void shouldApplyPolicyFile() throws IOException {
+        // Given
+        write("""
+                rate-limiting:
+                  strategy: IP_ADDRESS
+                  endpoints:
+                    - pattern: /api/books.*
+                      limit: 5
+                      refresh-period: 10
+                api:
+                  audit:
+                    max-page-size: 50
+                    streaming-paths:
+                      - /api/audit/export
+                      - /api/books/export
+                """);
+
+        // When
+        List<String> applied = policyReloadService.reload();
+
+        // Then
+        assertEquals(List.of("rate-limiting", "api.audit"), applied);
+        assertEquals(5, rateLimitingService.findEndpointLimit("/api/books/1").getLimit());
+        assertEquals(100, rateLimitingService.findEndpointLimit("/api/authors").getLimit());
+        assertEquals(50, apiAuditConfig.currentPolicy().maxPageSize());
+        assertTrue(apiAuditConfig.isStreamingPath("/api/books/export"));
+    }
+
+    @Test
+    @DisplayName("Should publish new snapshots and leave the ones in use unchanged")
+    void shouldSwapSnapshots() throws IOException {
+        // Given
+        RateLimitPolicy rateLimitBefore = rateLimitingService.currentPolicy();
+        AuditPolicy auditBefore = apiAuditConfig.currentPolicy();
+        write("""
+                rate-limiting:
+                  strategy: USER
+                  response-headers: false
+                  endpoints:
+                    - pattern: /api/books.*
+                      limit: 5
+                api:
+                  audit:
+                    max-page-size: 50
+                    max-export-rows: 10
+                """);
+
+        // When
+        policyReloadService.reload();
+
+        // Then
+        assertEquals("IP_ADDRESS", rateLimitBefore.strategy());
+        assertTrue(rateLimitBefore.responseHeaders());
+        assertEquals(100, rateLimitBefore.find("/api/books/1").getLimit());
+        assertEquals(200, auditBefore.maxPageSize());
+        assertEquals(100_000, auditBefore.maxExportRows());
+
+        RateLimitPolicy rateLimitAfter = rateLimitingService.currentPolicy();
+        AuditPolicy auditAfter = apiAuditConfig.currentPolicy();
+        assertEquals("USER", rateLimitAfter.strategy());
+        assertFalse(rateLimitAfter.responseHeaders());
+        assertEquals(5, rateLimitAfter.find("/api/books/1").getLimit());
+        assertEquals(50, auditAfter.maxPageSize());
+        assertEquals(10, auditAfter.maxExportRows());
+
+        // The startup settings are not modified in place
+        assertEquals("IP_ADDRESS", rateLimitingConfig.getStrategy());
+        assertEquals(200, apiAuditConfig.getMaxPageSize());
+    }
+
+    @Test
+    @DisplayName("Should keep the current policies when any setting is invalid")
+    void shouldRejectInvalidPolicyFile() throws IOException {
+        // Given
+        write("""
+                rate-limiting:
+                  endpoints:
+                    - pattern: /api/books.*
+                      limit: 5
+                api:
+                  audit:
+                    max-page-size: 0
+                """);
+
+        // When
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> policyReloadService.reload());
+
+        // Then
+        assertTrue(error.getMessage().contains("max-page-size"));
+        assertEquals(0, rateLimitingService.currentPolicy().limits().size());
+        assertEquals(100, rateLimitingService.findEndpointLimit("/api/books/1").getLimit());
+        assertEquals(200, apiAuditConfig.currentPolicy().maxPageSize());
+    }
+
+    @Test
+    @DisplayName("Should preserve request counters when a limit is tightened")
+    void shouldPreserveCountersOnReload() throws IOException {
+        // Given
+        EndpointLimit initial = rateLimitingService.findEndpointLimit("/api/books");
+        for (int i = 0; i < 3; i++) {
+            assertTrue(rateLimitingService.isRequestAllowed("127.0.0.1:/api/books", initial));
+        }
+        write("""
+                rate-limiting:
+                  endpoints:
+                    - pattern: /api/books
+                      limit: 3
+                """);
+
+        // When
+        policyReloadService.reload();
+        EndpointLimit tightened = rateLimitingService.findEndpointLimit("/api/books");
+
+        // Then
+        assertFalse(rateLimitingService.isRequestAllowed("127.0.0.1:/api/books", tightened));
+    }
+
+    @Test
+    @DisplayName("Should drop request counters when the key strategy changes")
+    void shouldResetCountersOnStrategyChange() throws IOException {
+        // Given
+        EndpointLimit limit = rateLimitingService.findEndpointLimit("/api/books");
+        rateLimitingService.isRequestAllowed("127.0.0.1:/api/books", limit);
+        write("""
+                rate-limiting:
+                  strategy: USER
+                """);
+
+        // When
+        policyReloadService.reload();
+
+        // Then
+        assertEquals("USER", rateLimitingService.currentPolicy().strategy());
+        assertEquals(100, rateLimitingService.getRateLimitInfo("127.0.0.1:/api/books", limit).remaining());
+    }
+
+    @Test
+    @DisplayName("Should apply the file again only when it changes")
+    void shouldWatchPolicyFile() throws IOException {
+        // Given
+        write("""
+                api:
+                  audit:
+                    streaming-paths:
+                      - /api/books/export
+                """);
+
+        // When
+        policyReloadService.watch();
+        AuditPolicy applied = apiAuditConfig.currentPolicy();
+        policyReloadService.watch();
+
+        // Then
+        assertTrue(applied.isStreamingPath("/api/books/export"));
+        assertSame(applied, apiAuditConfig.currentPolicy());
+    }
+
+    private void write(String content) throws IOException {
+        Files.writeString(policyFile, content);
+    }
+}
@@ -0,0 +1,150 @@
+package com.books.api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.books.api.config.QuotaConfig;
+import com.books.api.service.quota.QuotaPeriod;
+import com.books.api.service.quota.QuotaStatus;
+
+/**
+ * Unit tests for {@link QuotaService}.
+ * Verifies quota enforcement, period rollover and checkpoint restore.
+ *
+ * @author books-authors-api
+ */
+public class QuotaServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2024-01-31T23:00:00Z"));
+    private Clock clock;
+    private QuotaConfig config;
+
+    @BeforeEach
+    void setUp() {
+        clock = new Clock() {
+            @Override
+            public Instant instant() {
+                return now.get();
+            }
+
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+        };
+        QuotaConfig.Plan partner = new QuotaConfig.Plan();
+        partner.setLimit(3);
+        partner.setPeriod(QuotaPeriod.MONTHLY);
+        config = new QuotaConfig();
+        config.getClients().put("user:partner", partner);
+        config.setCheckpointFile(tempDir.resolve("quota-usage.dat").toString());
+    }
+
+    @Test
+    @DisplayName("Should reject requests once the quota is used up")
+    void shouldRejectWhenQuotaIsUsedUp() {
+        // Given
+        QuotaService service = new QuotaService(config, clock);
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            assertTrue(service.consume("user:partner").allowed());
+        }
+        QuotaStatus status = service.consume("user:partner");
+
+        // Then
+        assertFalse(status.allowed());
+        assertEquals(3, status.used());
+        assertEquals(0, status.remaining());
+        assertEquals(Instant.parse("2024-02-01T00:00:00Z"), status.resetAt());
+    }
+
+    @Test
+    @DisplayName("Should not track clients without a quota")
+    void shouldIgnoreClientsWithoutQuota() {
+        // Given
+        QuotaService service = new QuotaService(config, clock);
+
+        // When / Then
+        assertNull(service.consume("ip:10.0.0.1"));
+        assertTrue(service.getUsage().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should start a new count when the period rolls over")
+    void shouldResetOnPeriodRollover() {
+        // Given
+        QuotaService service = new QuotaService(config, clock);
+        for (int i = 0; i < 3; i++) {
+            service.consume("user:partner");
+        }
+
+        // When
+        now.set(now.get().plus(Duration.ofHours(2)));
+        QuotaStatus status = service.consume("user:partner");
+
+        // Then
+        assertTrue(status.allowed());
+        assertEquals(1, status.used());
+        assertEquals(Instant.parse("2024-03-01T00:00:00Z"), status.resetAt());
+    }
+
+    @Test
+    @DisplayName("Should restore usage of the current period from the checkpoint")
+    void shouldRestoreFromCheckpoint() throws IOException {
+        // Given
+        QuotaService service = new QuotaService(config, clock);
+        service.consume("user:partner");
+        service.consume("user:partner");
+        service.checkpoint();
+
+        // When
+        QuotaService restarted = new QuotaService(config, clock);
+        restarted.restore();
+
+        // Then
+        assertEquals(2, restarted.getStatus("user:partner").used());
+        assertEquals(1, restarted.getUsage().size());
+    }
+
+    @Test
+    @DisplayName("Should discard checkpointed usage of a past period")
+    void shouldDiscardExpiredCheckpoint() throws IOException {
+        // Given
+        QuotaService service = new QuotaService(config, clock);
+        service.consume("user:partner");
+        service.checkpoint();
+        now.set(Instant.parse("2024-02-15T00:00:00Z"));
+
+        // When
+        QuotaService restarted = new QuotaService(config, clock);
+        restarted.restore();
+
+        // Then
+        assertEquals(0, restarted.getStatus("user:partner").used());
+    }
+}
@@ -0,0 +1,153 @@
+package com.books.api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.books.api.service.revocation.FileTokenRevocationStore;
+
+/**
+ * Unit tests for {@link TokenRevocationService}.
+ * Uses the file store shared by two services to stand in for two nodes.
+ *
+ * @author books-authors-api
+ */
+public class TokenRevocationServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2024-01-01T00:00:00Z"));
+    private Clock clock;
+    private Path file;
+
+    @BeforeEach
+    void setUp() {
+        clock = new Clock() {
+            @Override
+            public Instant instant() {
+                return now.get();
+            }
+
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+        };
+        file = tempDir.resolve("revocations.log");
+    }
+
+    @Test
+    @DisplayName("Should apply a revocation locally at once and on other nodes after a refresh")
+    void shouldReplicateRevocations() throws IOException {
+        // Given
+        TokenRevocationService nodeA = new TokenRevocationService(new FileTokenRevocationStore(file), 100, clock);
+        TokenRevocationService nodeB = new TokenRevocationService(new FileTokenRevocationStore(file), 100, clock);
+
+        // When
+        nodeA.revoke("token-1", now.get().plusSeconds(3600));
+
+        // Then
+        assertTrue(nodeA.isRevoked("token-1"));
+        assertFalse(nodeB.isRevoked("token-1"));
+
+        // When
+        nodeB.refresh();
+
+        // Then
+        assertTrue(nodeB.isRevoked("token-1"));
+        assertFalse(nodeB.isRevoked("token-2"));
+        assertFalse(nodeB.isRevoked(null));
+    }
+
+    @Test
+    @DisplayName("Should load existing revocations on startup")
+    void shouldLoadExistingRevocations() throws IOException {
+        // Given
+        new TokenRevocationService(new FileTokenRevocationStore(file), 100, clock)
+                .revoke("token-1", now.get().plusSeconds(3600));
+
+        // When
+        TokenRevocationService restarted = new TokenRevocationService(new FileTokenRevocationStore(file), 100, clock);
+
+        // Then
+        assertTrue(restarted.isRevoked("token-1"));
+    }
+
+    @Test
+    @DisplayName("Should drop revocations once the token has expired")
+    void shouldDropExpiredRevocations() throws IOException {
+        // Given
+        TokenRevocationService service = new TokenRevocationService(new FileTokenRevocationStore(file), 100, clock);
+        service.revoke("short", now.get().plusSeconds(60));
+        service.revoke("long", now.get().plusSeconds(3600));
+
+        // When
+        now.set(now.get().plusSeconds(120));
+        service.refresh();
+
+        // Then
+        assertEquals(1, service.size());
+        assertFalse(service.isRevoked("short"));
+        assertTrue(service.isRevoked("long"));
+    }
+
+    @Test
+    @DisplayName("Should keep exact answers when the filter grows past its capacity")
+    void shouldStayExactBeyondCapacity() throws IOException {
+        // Given
+        TokenRevocationService service = new TokenRevocationService(new FileTokenRevocationStore(file), 4, clock);
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            service.revoke("token-" + i, now.get().plusSeconds(3600));
+        }
+
+        // Then
+        for (int i = 0; i < 50; i++) {
+            assertTrue(service.isRevoked("token-" + i));
+        }
+        assertFalse(service.isRevoked("token-50"));
+    }
+
+    @Test
+    @DisplayName("Should skip malformed entries and wait for incomplete lines")
+    void shouldSkipMalformedAndPartialEntries() throws IOException {
+        // Given
+        long expiresAt = now.get().plusSeconds(3600).getEpochSecond();
+        Files.writeString(file, "garbage\ntoken-1\t" + expiresAt + "\ntoken-2\t" + expiresAt,
+                StandardCharsets.UTF_8);
+        TokenRevocationService service = new TokenRevocationService(new FileTokenRevocationStore(file), 100, clock);
+
+        // When the partial line is completed
+        boolean partialRevoked = service.isRevoked("token-2");
+        Files.writeString(file, "\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        service.refresh();
+
+        // Then
+        assertTrue(service.isRevoked("token-1"));
+        assertFalse(partialRevoked);
+        assertTrue(service.isRevoked("token-2"));
+    }
+}
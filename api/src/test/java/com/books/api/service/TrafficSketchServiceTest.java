@@ -0,0 +1,133 @@
+package com.books.api.service;
+
+import com.books.api.config.ApiAuditConfig;
+import com.books.api.dto.EndpointTrafficDTO;
+import com.books.api.dto.HeavyHittersDTO;
+import com.books.api.dto.UniqueClientsDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the traffic sketch service.
+ * Check heavy-hitter, unique-client and hot-endpoint estimates.
+ *
+ * @author books-authors-api
+ */
+public class TrafficSketchServiceTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private ApiAuditConfig apiAuditConfig;
+    private TrafficSketchService trafficSketchService;
+
+    @BeforeEach
+    void setUp() {
+        apiAuditConfig = new ApiAuditConfig();
+        apiAuditConfig.getSketches().setTopK(5);
+        trafficSketchService = new TrafficSketchService(apiAuditConfig);
+    }
+
+    @Test
+    @DisplayName("Should find the heaviest clients among many light ones")
+    void shouldFindHeavyHitters() {
+        // Given
+        for (int i = 0; i < 5000; i++) {
+            trafficSketchService.record("/api/books", "10.0.0." + (i % 1000), NOW);
+            if (i % 5 == 0) {
+                trafficSketchService.record("/api/books", "192.168.1.1", NOW);
+            }
+            if (i % 10 == 0) {
+                trafficSketchService.record("/api/books", "192.168.1.2", NOW);
+            }
+        }
+
+        // When
+        HeavyHittersDTO result = trafficSketchService.topClients("/api/books", 2, false, NOW);
+
+        // Then
+        assertEquals(List.of("192.168.1.1", "192.168.1.2"),
+                result.getClients().stream().map(HeavyHittersDTO.ClientCount::getClient).toList());
+        long heaviest = result.getClients().get(0).getEstimatedRequests();
+        assertTrue(heaviest >= 1000 && heaviest <= 1000 + result.getMaxError());
+        assertEquals(5000 + 1000 + 500, result.getTotalRequests());
+    }
+
+    @Test
+    @DisplayName("Should freeze the heavy hitters of a finished interval")
+    void shouldRollOverInterval() {
+        // Given
+        long intervalMillis = apiAuditConfig.getSketches().getHeavyHitterIntervalSeconds() * 1000L;
+        trafficSketchService.record("/api/books", "192.168.1.1", NOW);
+
+        // When
+        trafficSketchService.record("/api/books", "192.168.1.9", NOW + intervalMillis);
+
+        // Then
+        assertEquals("192.168.1.1",
+                trafficSketchService.topClients("/api/books", 5, true, NOW + intervalMillis)
+                        .getClients().get(0).getClient());
+        assertEquals("192.168.1.9",
+                trafficSketchService.topClients("/api/books", 5, false, NOW + intervalMillis)
+                        .getClients().get(0).getClient());
+    }
+
+    @Test
+    @DisplayName("Should estimate unique clients per endpoint and window")
+    void shouldEstimateUniqueClients() {
+        // Given
+        long windowMillis = apiAuditConfig.getSketches().getWindowSeconds() * 1000L;
+        for (int i = 0; i < 20_000; i++) {
+            trafficSketchService.record("/api/authors", "client-" + i, NOW - windowMillis);
+            trafficSketchService.record("/api/authors", "client-" + (i + 10_000), NOW);
+        }
+
+        // When
+        UniqueClientsDTO current = trafficSketchService.uniqueClients("/api/authors", 1, NOW);
+        UniqueClientsDTO lastTwo = trafficSketchService.uniqueClients("/api/authors", 2, NOW);
+
+        // Then
+        assertEquals(20_000, current.getEstimatedUniqueClients(), 20_000 * 0.1);
+        assertEquals(30_000, lastTwo.getEstimatedUniqueClients(), 30_000 * 0.1);
+        assertEquals(0, trafficSketchService.uniqueClients("/api/books", 12, NOW).getEstimatedUniqueClients());
+    }
+
+    @Test
+    @DisplayName("Should rank endpoints and fold endpoints beyond the maximum")
+    void shouldRankHotEndpoints() {
+        // Given
+        apiAuditConfig.getSketches().setMaxEndpoints(3);
+        for (int i = 0; i < 10; i++) {
+            trafficSketchService.record("/api/books", "10.0.0.1", NOW);
+        }
+        trafficSketchService.record("/api/authors", "10.0.0.1", NOW);
+        trafficSketchService.record("/api/books/{id}", "10.0.0.1", NOW);
+        trafficSketchService.record("/api/authors/{id}", "10.0.0.1", NOW);
+
+        // When
+        List<EndpointTrafficDTO> hot = trafficSketchService.hotEndpoints(10);
+
+        // Then
+        assertEquals("/api/books", hot.get(0).getEndpoint());
+        assertEquals(10, hot.get(0).getRequests());
+        assertTrue(hot.stream().anyMatch(e -> TrafficSketchService.OTHER_ENDPOINTS.equals(e.getEndpoint())));
+        assertEquals(3, hot.size());
+    }
+
+    @Test
+    @DisplayName("Should not record traffic when sketches are disabled")
+    void shouldIgnoreWhenDisabled() {
+        // Given
+        apiAuditConfig.getSketches().setEnabled(false);
+
+        // When
+        trafficSketchService.record("/api/books", "10.0.0.1", NOW);
+
+        // Then
+        assertTrue(trafficSketchService.hotEndpoints(10).isEmpty());
+    }
+}
@@ -0,0 +1,122 @@
+package com.books.api.service.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link AdmissionScheduler}.
+ * Verifies deficit round-robin ordering, weights and queue timeouts.
+ *
+ * @author books-authors-api
+ */
+public class AdmissionSchedulerTest {
+
+    private final List<String> admissions = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    @DisplayName("Should admit requests immediately while permits are free")
+    void shouldAdmitImmediatelyWhilePermitsAreFree() throws InterruptedException {
+        // Given
+        AdmissionScheduler scheduler = new AdmissionScheduler(2);
+
+        // When / Then
+        assertTrue(scheduler.acquire("ip:a", 1, 0, TimeUnit.MILLISECONDS));
+        assertTrue(scheduler.acquire("ip:b", 1, 0, TimeUnit.MILLISECONDS));
+        assertFalse(scheduler.acquire("ip:c", 1, 0, TimeUnit.MILLISECONDS));
+        assertEquals(0, scheduler.queuedRequests());
+    }
+
+    @Test
+    @DisplayName("Should serve a small client ahead of a bulk client's backlog")
+    void shouldServeSmallClientAheadOfBulkBacklog() throws InterruptedException {
+        // Given
+        AdmissionScheduler scheduler = new AdmissionScheduler(1);
+        assertTrue(scheduler.acquire("holder", 1, 0, TimeUnit.MILLISECONDS));
+        CountDownLatch done = new CountDownLatch(6);
+        for (int i = 0; i < 5; i++) {
+            enqueue(scheduler, "bulk", 1, done);
+        }
+        enqueue(scheduler, "small", 1, done);
+
+        // When
+        scheduler.release();
+
+        // Then
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("bulk", "small", "bulk", "bulk", "bulk", "bulk"), admissions);
+    }
+
+    @Test
+    @DisplayName("Should give weighted clients a proportional share of each round")
+    void shouldHonourClientWeights() throws InterruptedException {
+        // Given
+        AdmissionScheduler scheduler = new AdmissionScheduler(1);
+        assertTrue(scheduler.acquire("holder", 1, 0, TimeUnit.MILLISECONDS));
+        CountDownLatch done = new CountDownLatch(8);
+        for (int i = 0; i < 4; i++) {
+            enqueue(scheduler, "heavy", 2, done);
+        }
+        for (int i = 0; i < 4; i++) {
+            enqueue(scheduler, "light", 1, done);
+        }
+
+        // When
+        scheduler.release();
+
+        // Then
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("heavy", "heavy", "light", "heavy", "heavy", "light", "light", "light"), admissions);
+    }
+
+    @Test
+    @DisplayName("Should give up after the maximum wait without losing the permit")
+    void shouldTimeOutWithoutLosingPermit() throws InterruptedException {
+        // Given
+        AdmissionScheduler scheduler = new AdmissionScheduler(1);
+        assertTrue(scheduler.acquire("ip:a", 1, 0, TimeUnit.MILLISECONDS));
+
+        // When
+        boolean admitted = scheduler.acquire("ip:b", 1, 50, TimeUnit.MILLISECONDS);
+        scheduler.release();
+
+        // Then
+        assertFalse(admitted);
+        assertEquals(0, scheduler.queuedRequests());
+        assertTrue(scheduler.acquire("ip:c", 1, 0, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Starts a request that records its admission and releases at once, and
+     * waits until it is queued so that the enqueue order is deterministic
+     */
+    private void enqueue(AdmissionScheduler scheduler, String client, int weight, CountDownLatch done)
+            throws InterruptedException {
+        int queued = scheduler.queuedRequests();
+        Thread thread = new Thread(() -> {
+            try {
+                if (scheduler.acquire(client, weight, 5, TimeUnit.SECONDS)) {
+                    admissions.add(client);
+                    scheduler.release();
+                    done.countDown();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        while (scheduler.queuedRequests() == queued) {
+            Thread.sleep(1);
+        }
+    }
+}
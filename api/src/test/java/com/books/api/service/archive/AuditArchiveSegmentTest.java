@@ -0,0 +1,135 @@
+package com.books.api.service.archive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.books.api.service.archive.AuditArchiveSegment.Column;
+import com.books.api.service.archive.AuditArchiveSegment.Header;
+import com.books.domain.model.ApiAuditLog;
+
+/**
+ * Unit tests for the audit archive segment format.
+ *
+ * @author books-authors-api
+ */
+public class AuditArchiveSegmentTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 15, 8, 0, 0, 123_456_000);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should restore every column of the archived entries")
+    void shouldRoundTripAllColumns() throws IOException {
+        // Given
+        List<ApiAuditLog> entries = createEntries(50);
+        entries.get(3).setUserId(null);
+        entries.get(4).setRateLimitExceeded(null);
+        byte[] dictionary = AuditArchiveDictionary.train(entries, 4096);
+        int dictionaryId = AuditArchiveDictionary.idOf(dictionary);
+
+        // When
+        Header header = AuditArchiveSegment.write(directory.resolve("a.seg"), entries, dictionaryId, dictionary);
+        List<ApiAuditLog> restored = AuditArchiveSegment.read(header.path(), EnumSet.allOf(Column.class),
+                Map.of(dictionaryId, dictionary));
+
+        // Then
+        assertEquals(entries, restored);
+        assertEquals(50, header.rowCount());
+        assertEquals(START, header.minTimestamp());
+        assertEquals(entries.get(49).getTimestamp(), header.maxTimestamp());
+        assertEquals(List.of("/api/books", "/api/authors/7"), header.endpoints());
+        assertFalse(Files.exists(directory.resolve("a.seg.tmp")));
+    }
+
+    @Test
+    @DisplayName("Should read only the requested columns")
+    void shouldReadOnlyRequestedColumns() throws IOException {
+        // Given
+        Header header = AuditArchiveSegment.write(directory.resolve("b.seg"), createEntries(5), 0, null);
+
+        // When
+        List<ApiAuditLog> restored = AuditArchiveSegment.read(header.path(), AuditArchiveSegment.SUMMARY_COLUMNS,
+                Map.of());
+
+        // Then
+        assertEquals("/api/books", restored.get(0).getEndpoint());
+        assertEquals(1L, restored.get(0).getId());
+        assertNull(restored.get(0).getRequestBody());
+        assertNull(restored.get(0).getRequestHeaders());
+    }
+
+    @Test
+    @DisplayName("Should store repetitive bodies in a fraction of their size")
+    void shouldCompressRepetitiveBodies() throws IOException {
+        // Given
+        List<ApiAuditLog> entries = createEntries(1000);
+        long rawSize = entries.stream()
+                .mapToLong(e -> (e.getRequestBody() == null ? 0 : e.getRequestBody().length())
+                        + e.getResponseBody().length() + e.getRequestHeaders().length())
+                .sum();
+
+        // When
+        Header header = AuditArchiveSegment.write(directory.resolve("c.seg"), entries, 0, null);
+
+        // Then
+        assertTrue(Files.size(header.path()) * 10 < rawSize);
+    }
+
+    @Test
+    @DisplayName("Should refuse to read a segment without its dictionary")
+    void shouldFailWithoutDictionary() throws IOException {
+        // Given
+        List<ApiAuditLog> entries = createEntries(5);
+        byte[] dictionary = AuditArchiveDictionary.train(entries, 1024);
+        int dictionaryId = AuditArchiveDictionary.idOf(dictionary);
+        Header header = AuditArchiveSegment.write(directory.resolve("d.seg"), entries, dictionaryId, dictionary);
+
+        // When / Then
+        assertThrows(IOException.class,
+                () -> AuditArchiveSegment.read(header.path(), EnumSet.of(Column.REQUEST_BODY), Map.of()));
+        assertEquals(dictionaryId, AuditArchiveSegment.readHeader(header.path()).dictionaryId());
+    }
+
+    private List<ApiAuditLog> createEntries(int count) {
+        List<ApiAuditLog> entries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            entries.add(ApiAuditLog.builder()
+                    .id((long) i + 1)
+                    .httpMethod(i % 2 == 0 ? "GET" : "POST")
+                    .endpoint(i % 3 == 0 ? "/api/books" : "/api/authors/7")
+                    .queryParams(i % 4 == 0 ? null : "page=" + (i % 5))
+                    .requestHeaders("{accept=application/json, host=localhost:8080, user-agent=curl/8.0}")
+                    .clientIp("10.0.0." + (i % 7))
+                    .userId("user-" + (i % 3))
+                    .sessionId(null)
+                    .statusCode(i % 10 == 0 ? 429 : 200)
+                    .timestamp(START.plusNanos(i * 1_500_000_000L))
+                    .processingTimeMs((long) (i % 40))
+                    .requestBody(i % 2 == 0 ? null
+                            : "{\"title\":\"Book " + (i % 5) + "\",\"isbn\":\"978-3-16-148410-0\",\"authorIds\":[1,2]}")
+                    .responseBody("{\"id\":" + (i % 9) + ",\"title\":\"Book\",\"publicationDate\":\"2020-01-01\"}")
+                    .rateLimitExceeded(i % 10 == 0)
+                    .additionalInfo(null)
+                    .build());
+        }
+        return entries;
+    }
+}
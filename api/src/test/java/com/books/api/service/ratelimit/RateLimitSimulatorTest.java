@@ -0,0 +1,121 @@
+package com.books.api.service.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.books.api.config.RateLimitingConfig;
+import com.books.api.config.RateLimitingConfig.EndpointLimit;
+import com.books.api.service.ratelimit.SimulationReport.RejectionCount;
+
+/**
+ * Unit tests for {@link RateLimitSimulator}.
+ * Verifies that recorded traffic is replayed with its own timestamps and
+ * that rejections and peak load are reported.
+ *
+ * @author books-authors-api
+ */
+public class RateLimitSimulatorTest {
+
+    private static final long T0 = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    private RateLimitingConfig candidate;
+
+    @BeforeEach
+    void setUp() {
+        EndpointLimit books = new EndpointLimit();
+        books.setPattern("/api/books.*");
+        books.setLimit(2);
+        books.setRefreshPeriod(10);
+        candidate = new RateLimitingConfig();
+        candidate.setEndpoints(List.of(books));
+    }
+
+    @Test
+    @DisplayName("Should report rejections per client and endpoint")
+    void shouldReportRejections() {
+        // Given
+        RateLimitSimulator simulator = new RateLimitSimulator(candidate, "");
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            simulator.replay(T0 + i, "/api/books", "10.0.0.1", null);
+        }
+        simulator.replay(T0 + 5, "/api/books", "10.0.0.2", null);
+        simulator.replay(T0 + 6, "/api/authors", "10.0.0.1", null);
+        SimulationReport report = simulator.report(10);
+
+        // Then
+        assertEquals(7, report.totalRequests());
+        assertEquals(3, report.rejectedRequests());
+        assertEquals(List.of(new RejectionCount("10.0.0.1", 3)), report.topRejectedClients());
+        assertEquals(List.of(new RejectionCount("/api/books", 3)), report.topRejectedEndpoints());
+    }
+
+    @Test
+    @DisplayName("Should open new windows according to the recorded timestamps")
+    void shouldUseRecordedTime() {
+        // Given
+        RateLimitSimulator simulator = new RateLimitSimulator(candidate, "/api-root");
+
+        // When
+        simulator.replay(T0, "/api-root/api/books", "10.0.0.1", null);
+        simulator.replay(T0 + 1, "/api-root/api/books", "10.0.0.1", null);
+        simulator.replay(T0 + 10_001, "/api-root/api/books", "10.0.0.1", null);
+        SimulationReport report = simulator.report(10);
+
+        // Then
+        assertEquals(0, report.rejectedRequests());
+        assertEquals(2, report.peakAdmittedPerSecond());
+        assertEquals(Instant.ofEpochMilli(T0), report.peakAt());
+    }
+
+    @Test
+    @DisplayName("Should replay a newest-first export in time order")
+    void shouldReplayNewestFirstExportInOrder() {
+        // Given
+        RateLimitSimulator.RecordedTraffic traffic = new RateLimitSimulator.RecordedTraffic();
+        traffic.add(T0 + 20_000, "/api/books", "10.0.0.1", null);
+        traffic.add(T0 + 2, "/api/books", "10.0.0.1", null);
+        traffic.add(T0 + 1, "/api/books", "10.0.0.1", null);
+        traffic.add(T0, "/api/books", "10.0.0.1", null);
+        RateLimitSimulator simulator = new RateLimitSimulator(candidate, "");
+
+        // When
+        traffic.replay(simulator);
+        SimulationReport report = simulator.report(10);
+
+        // Then: the third request of the first window is rejected, the late
+        // one opens a new window
+        assertEquals(4, report.totalRequests());
+        assertEquals(1, report.rejectedRequests());
+    }
+
+    @Test
+    @DisplayName("Should parse exported timestamps like the ISO parser")
+    void shouldParseExportedTimestamps() {
+        for (String timestamp : List.of("2024-03-05T07:08:09", "2024-03-05T07:08:09.5",
+                "2024-03-05T07:08:09.123456789", "1969-12-31T23:59:59.999")) {
+            assertEquals(LocalDateTime.parse(timestamp).toInstant(ZoneOffset.UTC).toEpochMilli(),
+                    RateLimitSimulator.epochMillis(timestamp), timestamp);
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid candidate configuration")
+    void shouldRejectInvalidCandidate() {
+        // Given
+        candidate.setStrategy("COOKIE");
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitSimulator(candidate, ""));
+    }
+}
@@ -0,0 +1,30 @@
+package com.books.application.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the result of a lookup by a list of IDs.
+ * Holds the entities found, in the order their IDs were requested, and the
+ * requested IDs that do not exist.
+ *
+ * @param <T> the entity DTO type
+ * @author books-authors-api
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultiGetDTO<T> {
+
+    @Builder.Default
+    private List<T> items = new ArrayList<>();
+
+    @Builder.Default
+    private List<Long> missingIds = new ArrayList<>();
+}
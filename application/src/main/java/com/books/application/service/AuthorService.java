@@ -2,6 +2,7 @@ package com.books.application.service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
@@ -10,9 +11,12 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.books.application.dto.AuthorDTO;
 import com.books.application.dto.CreateAuthorDTO;
+import com.books.application.dto.MultiGetDTO;
 import com.books.application.dto.UpdateAuthorDTO;
 import com.books.application.mapper.AuthorMapper;
 import com.books.domain.model.Author;
+import com.books.domain.model.RowVersion;
+import com.books.domain.model.TextChunk;
 import com.books.domain.repository.AuthorRepository;
 
 import lombok.RequiredArgsConstructor;
@@ -62,6 +66,23 @@ public class AuthorService {
                 .map(authorMapper::toDto);
     }
 
+    /**
+     * Retrieves several authors by their IDs with one database call.
+     *
+     * @param ids the IDs of the authors to retrieve; duplicates are ignored
+     * @return the authors found in the order of their IDs, and the IDs not found
+     */
+    @Transactional(readOnly = true)
+    public MultiGetDTO<AuthorDTO> findAuthorsByIds(List<Long> ids) {
+        List<Long> distinct = ids.stream().distinct().toList();
+        List<Author> found = authorRepository.findAllByIds(distinct);
+        Set<Long> foundIds = found.stream().map(Author::getAuthorId).collect(Collectors.toSet());
+        return MultiGetDTO.<AuthorDTO>builder()
+                .items(found.stream().map(authorMapper::toDto).collect(Collectors.toList()))
+                .missingIds(distinct.stream().filter(id -> !foundIds.contains(id)).collect(Collectors.toList()))
+                .build();
+    }
+
     /**
      * Creates a new author in the system.
      *
@@ -129,4 +150,45 @@ public class AuthorService {
                 .map(authorMapper::toDto)
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    /**
+     * Reads part of an author's biography, so that it can be streamed without
+     * loading the whole text.
+     *
+     * @param id     the ID of the author
+     * @param offset the 0-based offset of the first character to read
+     * @param length the maximum number of characters to read
+     * @return the characters read and the length of the whole biography, or
+     *         empty if the author does not exist
+     */
+    @Transactional(readOnly = true)
+    public Optional<TextChunk> readBiography(Long id, long offset, int length) {
+        return authorRepository.readBiography(id, offset, length);
+    }
+
+    /**
+     * Finds the version of an author without reading the author from the
+     * database, so that a client holding the current version can be told so
+     * cheaply.
+     *
+     * @param id the ID of the author
+     * @return the version, or empty if the author does not exist
+     */
+    @Transactional(readOnly = true)
+    public Optional<RowVersion> findAuthorVersion(Long id) {
+        return authorRepository.findVersionById(id);
+    }
+
+    /**
+     * Finds the versions of the authors on a page without reading the authors
+     * from the database.
+     *
+     * @param page the page number
+     * @param size the page size
+     * @return the versions, in the order of the page
+     */
+    @Transactional(readOnly = true)
+    public List<RowVersion> findAuthorPageVersions(int page, int size) {
+        return authorRepository.findVersions(page, size);
+    }
+}
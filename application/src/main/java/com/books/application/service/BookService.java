@@ -2,6 +2,7 @@ package com.books.application.service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
@@ -10,9 +11,12 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.books.application.dto.BookDTO;
 import com.books.application.dto.CreateBookDTO;
+import com.books.application.dto.MultiGetDTO;
 import com.books.application.dto.UpdateBookDTO;
 import com.books.application.mapper.BookMapper;
 import com.books.domain.model.Book;
+import com.books.domain.model.RowVersion;
+import com.books.domain.model.TextChunk;
 import com.books.domain.repository.BookRepository;
 
 import lombok.RequiredArgsConstructor;
@@ -62,6 +66,23 @@ public class BookService {
                 .map(bookMapper::toDto);
     }
 
+    /**
+     * Retrieves several books by their IDs with one database call.
+     *
+     * @param ids the IDs of the books to retrieve; duplicates are ignored
+     * @return the books found in the order of their IDs, and the IDs not found
+     */
+    @Transactional(readOnly = true)
+    public MultiGetDTO<BookDTO> findBooksByIds(List<Long> ids) {
+        List<Long> distinct = ids.stream().distinct().toList();
+        List<Book> found = bookRepository.findAllByIds(distinct);
+        Set<Long> foundIds = found.stream().map(Book::getBookId).collect(Collectors.toSet());
+        return MultiGetDTO.<BookDTO>builder()
+                .items(found.stream().map(bookMapper::toDto).collect(Collectors.toList()))
+                .missingIds(distinct.stream().filter(id -> !foundIds.contains(id)).collect(Collectors.toList()))
+                .build();
+    }
+
     /**
      * Creates a new book or updates an existing one.
      *
@@ -154,4 +175,45 @@ public class BookService {
                 .map(bookMapper::toDto)
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    /**
+     * Reads part of a book's summary, so that it can be streamed without
+     * loading the whole text.
+     *
+     * @param id     the ID of the book
+     * @param offset the 0-based offset of the first character to read
+     * @param length the maximum number of characters to read
+     * @return the characters read and the length of the whole summary, or
+     *         empty if the book does not exist
+     */
+    @Transactional(readOnly = true)
+    public Optional<TextChunk> readSummary(Long id, long offset, int length) {
+        return bookRepository.readSummary(id, offset, length);
+    }
+
+    /**
+     * Finds the version of a book without reading the book from the
+     * database, so that a client holding the current version can be told so
+     * cheaply.
+     *
+     * @param id the ID of the book
+     * @return the version, or empty if the book does not exist
+     */
+    @Transactional(readOnly = true)
+    public Optional<RowVersion> findBookVersion(Long id) {
+        return bookRepository.findVersionById(id);
+    }
+
+    /**
+     * Finds the versions of the books on a page without reading the books
+     * from the database.
+     *
+     * @param page the page number
+     * @param size the page size
+     * @return the versions, in the order of the page
+     */
+    @Transactional(readOnly = true)
+    public List<RowVersion> findBookPageVersions(int page, int size) {
+        return bookRepository.findVersions(page, size);
+    }
+}
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Set;
@@ -28,6 +29,17 @@ public class Book {
     private String genre;
     private String summary;
 
+    /**
+     * Version of the row, bumped by every write to it or to the related
+     * rows it embeds; null for entities embedded in another one
+     */
+    private Long version;
+
+    /**
+     * When the row or a related row it embeds was last written
+     */
+    private Instant updatedAt;
+
     @Builder.Default
     private Set<Author> authors = new HashSet<>();
 
@@ -0,0 +1,15 @@
+package com.books.domain.model;
+
+import java.time.Instant;
+
+/**
+ * The version of a book or author row, bumped by every write to the row or
+ * to the related rows it embeds.
+ *
+ * @param id        the ID of the book or author
+ * @param version   the version number
+ * @param updatedAt when the row or an embedded row was last written
+ * @author books-authors-api
+ */
+public record RowVersion(Long id, long version, Instant updatedAt) {
+}
@@ -0,0 +1,12 @@
+package com.books.domain.model;
+
+/**
+ * Part of a long text, such as a book summary or an author biography, read
+ * without loading the whole text.
+ *
+ * @param length the length of the whole text in characters
+ * @param text   the characters read; empty past the end of the text
+ * @author books-authors-api
+ */
+public record TextChunk(long length, String text) {
+}
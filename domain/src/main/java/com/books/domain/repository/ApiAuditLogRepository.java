@@ -3,8 +3,11 @@ package com.books.domain.repository;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.books.domain.model.ApiAuditLog;
@@ -76,4 +79,35 @@ public interface ApiAuditLogRepository extends JpaRepository<ApiAuditLog, Long>,
      */
     List<ApiAuditLog> findByClientIpAndTimestampBetween(String clientIp, LocalDateTime startTime,
             LocalDateTime endTime);
-}
\ No newline at end of file
+
+    /**
+     * Find the traffic timeline after a keyset position, oldest first. Only
+     * the columns needed to replay the traffic are read.
+     *
+     * @param afterTime the timestamp of the last entry read
+     * @param afterId   the ID of the last entry read
+     * @param endTime   the exclusive end of the range
+     * @param pageable  the batch size
+     * @return the next batch of traffic entries
+     */
+    @Query("SELECT a.id AS id, a.timestamp AS timestamp, a.endpoint AS endpoint, a.clientIp AS clientIp, "
+            + "a.userId AS userId FROM ApiAuditLog a WHERE a.timestamp < :endTime AND (a.timestamp > :afterTime "
+            + "OR (a.timestamp = :afterTime AND a.id > :afterId)) ORDER BY a.timestamp ASC, a.id ASC")
+    List<TrafficEntry> findTrafficAfter(@Param("afterTime") LocalDateTime afterTime, @Param("afterId") Long afterId,
+            @Param("endTime") LocalDateTime endTime, Pageable pageable);
+
+    /**
+     * Projection of an audit log entry onto its traffic columns
+     */
+    interface TrafficEntry {
+        Long getId();
+
+        LocalDateTime getTimestamp();
+
+        String getEndpoint();
+
+        String getClientIp();
+
+        String getUserId();
+    }
+}
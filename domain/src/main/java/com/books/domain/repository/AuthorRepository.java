@@ -1,9 +1,12 @@
 package com.books.domain.repository;
 
 import com.books.domain.model.Author;
+import com.books.domain.model.RowVersion;
+import com.books.domain.model.TextChunk;
 
 import lombok.NonNull;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,6 +39,15 @@ public interface AuthorRepository {
      */
     Optional<Author> findById(Long id);
 
+    /**
+     * Finds the authors with the given IDs in one database call.
+     *
+     * @param ids the IDs of the authors to find
+     * @return the authors found, in the order of their IDs; IDs that do not
+     *         exist are left out
+     */
+    List<Author> findAllByIds(Collection<Long> ids);
+
     /**
      * Saves an author to the database.
      * If the author has an ID, it will be updated; otherwise, it will be created.
@@ -76,4 +88,33 @@ public interface AuthorRepository {
      * @return a list of authors who have written a book with the given ID
      */
     List<Author> findByBookId(Long bookId);
+
+    /**
+     * Reads part of an author's biography without loading the whole text.
+     *
+     * @param id     the ID of the author
+     * @param offset the 0-based offset of the first character to read
+     * @param length the maximum number of characters to read
+     * @return the characters read and the length of the whole biography, or
+     *         empty if the author does not exist
+     */
+    Optional<TextChunk> readBiography(Long id, long offset, int length);
+
+    /**
+     * Finds the version of an author without reading the author.
+     *
+     * @param id the ID of the author
+     * @return the version, or empty if the author does not exist
+     */
+    Optional<RowVersion> findVersionById(Long id);
+
+    /**
+     * Finds the versions of the authors on a page of {@link #findAll(int, int)}
+     * without reading the authors.
+     *
+     * @param page the page number
+     * @param size the page size
+     * @return the versions, in the order of the page
+     */
+    List<RowVersion> findVersions(int page, int size);
 }
\ No newline at end of file
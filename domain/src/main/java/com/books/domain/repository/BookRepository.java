@@ -1,7 +1,10 @@
 package com.books.domain.repository;
 
 import com.books.domain.model.Book;
+import com.books.domain.model.RowVersion;
+import com.books.domain.model.TextChunk;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,6 +36,15 @@ public interface BookRepository {
      */
     Optional<Book> findById(Long id);
 
+    /**
+     * Finds the books with the given IDs in one database call.
+     *
+     * @param ids the IDs of the books to find
+     * @return the books found, in the order of their IDs; IDs that do not
+     *         exist are left out
+     */
+    List<Book> findAllByIds(Collection<Long> ids);
+
     /**
      * Saves a book to the database.
      * If the book has an ID, it will be updated; otherwise, it will be created.
@@ -82,4 +94,33 @@ public interface BookRepository {
      * @return a list of books published between the given years
      */
     List<Book> findByPublicationYearBetween(int startYear, int endYear);
+
+    /**
+     * Reads part of a book's summary without loading the whole text.
+     *
+     * @param id     the ID of the book
+     * @param offset the 0-based offset of the first character to read
+     * @param length the maximum number of characters to read
+     * @return the characters read and the length of the whole summary, or
+     *         empty if the book does not exist
+     */
+    Optional<TextChunk> readSummary(Long id, long offset, int length);
+
+    /**
+     * Finds the version of a book without reading the book.
+     *
+     * @param id the ID of the book
+     * @return the version, or empty if the book does not exist
+     */
+    Optional<RowVersion> findVersionById(Long id);
+
+    /**
+     * Finds the versions of the books on a page of {@link #findAll(int, int)}
+     * without reading the books.
+     *
+     * @param page the page number
+     * @param size the page size
+     * @return the versions, in the order of the page
+     */
+    List<RowVersion> findVersions(int page, int size);
 }
\ No newline at end of file
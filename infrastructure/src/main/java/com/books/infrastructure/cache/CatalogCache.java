@@ -0,0 +1,753 @@
+package com.books.infrastructure.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.books.domain.model.Author;
+import com.books.domain.model.Book;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process read-through cache of books and authors by ID.
+ * Entries are bounded by their estimated size in bytes, admitted by
+ * Caffeine's W-TinyLFU policy so that one-off reads do not push out hot
+ * records, and expire after a fixed time to live. Callers always receive
+ * copies, since services update the entities they read.
+ * <p>
+ * A book entry embeds its authors and an author entry embeds its books, so
+ * each cache keeps an index from related IDs to the cached entries embedding
+ * them. Invalidating a book therefore also drops exactly the cached authors
+ * that embed it, and vice versa.
+ * <p>
+ * With {@code catalog.cache.serve-stale}, an entry past its time to live is
+ * still served at once while a single background refresh reloads it. If the
+ * refresh fails, the last good value keeps being served until it is
+ * {@code catalog.cache.max-staleness} past its time to live.
+ * <p>
+ * An entry older than the max-staleness of the current request is not
+ * served; the {@link ReadRouter} reads the value from the replica, or from
+ * the primary database, in which case it also replaces the entry.
+ *
+ * @author books-authors-api
+ */
+@Component
+@Slf4j
+public class CatalogCache {
+
+    private final boolean enabled;
+    private final ReadRouter router;
+    private final EntityCache<Book> books;
+    private final EntityCache<Author> authors;
+
+    public CatalogCache(@Value("${catalog.cache.enabled:true}") boolean enabled,
+            @Value("${catalog.cache.max-weight-bytes:33554432}") long maxWeightBytes,
+            @Value("${catalog.cache.ttl:PT10M}") Duration ttl,
+            @Value("${catalog.cache.serve-stale:false}") boolean serveStale,
+            @Value("${catalog.cache.max-staleness:PT1H}") Duration maxStaleness, ReadRouter router) {
+        this.enabled = enabled;
+        this.router = router;
+        Duration retention = serveStale ? ttl.plus(maxStaleness) : ttl;
+        // Books and authors share the budget evenly
+        this.books = new EntityCache<>("book-cache-refresh", maxWeightBytes / 2, ttl, retention, router,
+                CatalogCache::weigh, CatalogCache::authorIdsOf, CatalogCache::copy);
+        this.authors = new EntityCache<>("author-cache-refresh", maxWeightBytes / 2, ttl, retention, router,
+                CatalogCache::weigh, CatalogCache::bookIdsOf, CatalogCache::copy);
+    }
+
+    /**
+     * Returns a book, loading it on a miss
+     *
+     * @param id     the book ID
+     * @param loader loads the book from the database, throwing on errors
+     * @return a copy of the book, or empty if it does not exist
+     */
+    public Optional<Book> getBook(Long id, Function<Long, Optional<Book>> loader) {
+        return enabled ? books.get(id, loader) : router.load(() -> loader.apply(id));
+    }
+
+    /**
+     * Returns an author, loading it on a miss
+     *
+     * @param id     the author ID
+     * @param loader loads the author from the database, throwing on errors
+     * @return a copy of the author, or empty if it does not exist
+     */
+    public Optional<Author> getAuthor(Long id, Function<Long, Optional<Author>> loader) {
+        return enabled ? authors.get(id, loader) : router.load(() -> loader.apply(id));
+    }
+
+    /**
+     * Returns several books, loading the missing ones with one call
+     *
+     * @param ids    the book IDs
+     * @param loader loads books by ID from the database, throwing on errors
+     * @return copies of the books found, in the order of their IDs
+     */
+    public List<Book> getBooks(Collection<Long> ids, Function<Collection<Long>, Map<Long, Book>> loader) {
+        return getAll(books, ids, loader);
+    }
+
+    /**
+     * Returns several authors, loading the missing ones with one call
+     *
+     * @param ids    the author IDs
+     * @param loader loads authors by ID from the database, throwing on errors
+     * @return copies of the authors found, in the order of their IDs
+     */
+    public List<Author> getAuthors(Collection<Long> ids, Function<Collection<Long>, Map<Long, Author>> loader) {
+        return getAll(authors, ids, loader);
+    }
+
+    /**
+     * Derives a value, such as its version, from a cached book without
+     * copying it, or loads the value on its own if the book is not cached or
+     * is too old for the current request. Neither counts as a cache access.
+     *
+     * @param id        the book ID
+     * @param fromEntry derives the value from the cached book, which it must not change
+     * @param loader    loads the value from the database, throwing on errors
+     * @param <R>       the value type
+     * @return the value
+     */
+    public <R> R peekBook(Long id, Function<Book, R> fromEntry, Supplier<R> loader) {
+        Book cached = enabled ? books.peek(id) : null;
+        return cached != null ? fromEntry.apply(cached) : router.load(loader);
+    }
+
+    /**
+     * Derives a value from a cached author without copying it, or loads the
+     * value on its own, like {@link #peekBook(Long, Function, Supplier)}
+     *
+     * @param id        the author ID
+     * @param fromEntry derives the value from the cached author, which it must not change
+     * @param loader    loads the value from the database, throwing on errors
+     * @param <R>       the value type
+     * @return the value
+     */
+    public <R> R peekAuthor(Long id, Function<Author, R> fromEntry, Supplier<R> loader) {
+        Author cached = enabled ? authors.peek(id) : null;
+        return cached != null ? fromEntry.apply(cached) : router.load(loader);
+    }
+
+    /**
+     * Drops a written book and every cached author that embeds it or is
+     * linked to it now. Repeated after commit when called inside a
+     * transaction, so that a concurrent read of the old rows cannot survive.
+     *
+     * @param bookId    the book ID, may be null for a new book
+     * @param authorIds IDs of the authors the book is now linked to
+     */
+    public void invalidateBook(Long bookId, Collection<Long> authorIds) {
+        if (enabled) {
+            afterCommit(() -> invalidate(books, authors, bookId, authorIds));
+        }
+    }
+
+    /**
+     * Drops a written author and every cached book that embeds it or is
+     * linked to it now. Repeated after commit when called inside a
+     * transaction.
+     *
+     * @param authorId the author ID, may be null for a new author
+     * @param bookIds  IDs of the books the author is now linked to
+     */
+    public void invalidateAuthor(Long authorId, Collection<Long> bookIds) {
+        if (enabled) {
+            afterCommit(() -> invalidate(authors, books, authorId, bookIds));
+        }
+    }
+
+    /**
+     * Writes the hottest cached books and authors in the
+     * {@link CatalogSnapshot} format
+     *
+     * @param out        the stream to write to, left open
+     * @param maxEntries the most entries to write, shared evenly by books and authors
+     * @return the number of entries written
+     * @throws IOException if the stream fails
+     */
+    public int writeSnapshot(OutputStream out, int maxEntries) throws IOException {
+        List<Book> hotBooks = enabled ? books.hottest(maxEntries / 2) : List.of();
+        List<Author> hotAuthors = enabled ? authors.hottest(maxEntries - maxEntries / 2) : List.of();
+        // Entries without a version cannot be checked when they are read back
+        hotBooks = hotBooks.stream().filter(book -> book.getVersion() != null).toList();
+        hotAuthors = hotAuthors.stream().filter(author -> author.getVersion() != null).toList();
+        CatalogSnapshot.write(new DataOutputStream(out), hotBooks, hotAuthors);
+        return hotBooks.size() + hotAuthors.size();
+    }
+
+    /**
+     * Reads back a snapshot written by {@link #writeSnapshot(OutputStream, int)}
+     * and caches the entries whose rows are still at the version they were
+     * cached at. Entries already cached, or read while a write was applied,
+     * are left out. A book embeds its authors and an author its books, and a
+     * write bumps the version of the rows embedding it too, so an entry whose
+     * own version is current is current as a whole.
+     *
+     * @param in             the snapshot, left open
+     * @param bookVersions   returns the current versions of existing books by ID, throwing on errors
+     * @param authorVersions returns the current versions of existing authors by ID, throwing on errors
+     * @param batchSize      the most IDs whose versions are read with one call
+     * @return the number of entries restored and discarded
+     * @throws IOException if the snapshot cannot be read
+     */
+    public SnapshotRestore restoreSnapshot(InputStream in, Function<Collection<Long>, Map<Long, Long>> bookVersions,
+            Function<Collection<Long>, Map<Long, Long>> authorVersions, int batchSize) throws IOException {
+        CatalogSnapshot.Contents contents = CatalogSnapshot.read(new DataInputStream(in));
+        if (!enabled) {
+            return new SnapshotRestore(0, contents.books().size() + contents.authors().size());
+        }
+        int restored = restore(books, contents.books(), Book::getBookId, Book::getVersion, bookVersions, batchSize)
+                + restore(authors, contents.authors(), Author::getAuthorId, Author::getVersion, authorVersions,
+                        batchSize);
+        return new SnapshotRestore(restored, contents.books().size() + contents.authors().size() - restored);
+    }
+
+    /**
+     * Drops every cached book and author
+     */
+    public void clear() {
+        books.clear();
+        authors.clear();
+    }
+
+    /**
+     * Returns the hit, miss and eviction statistics of both caches
+     *
+     * @return cache name to statistics
+     */
+    public Map<String, CacheStatistics> getStatistics() {
+        Map<String, CacheStatistics> statistics = new LinkedHashMap<>();
+        statistics.put("books", books.statistics());
+        statistics.put("authors", authors.statistics());
+        return statistics;
+    }
+
+    private static <V> int restore(EntityCache<V> cache, List<V> values, Function<V, Long> idOf,
+            Function<V, Long> versionOf, Function<Collection<Long>, Map<Long, Long>> currentVersions,
+            int batchSize) {
+        int restored = 0;
+        for (int from = 0; from < values.size(); from += batchSize) {
+            List<V> batch = values.subList(from, Math.min(from + batchSize, values.size()));
+            long generation = cache.generation();
+            Map<Long, Long> current = currentVersions.apply(batch.stream().map(idOf).toList());
+            for (V value : batch) {
+                Long id = idOf.apply(value);
+                if (versionOf.apply(value).equals(current.get(id)) && cache.restore(id, value, generation)) {
+                    restored++;
+                }
+            }
+        }
+        return restored;
+    }
+
+    private <V> List<V> getAll(EntityCache<V> cache, Collection<Long> ids,
+            Function<Collection<Long>, Map<Long, V>> loader) {
+        List<Long> distinct = ids.stream().distinct().toList();
+        if (distinct.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, V> found = enabled ? cache.getAll(distinct, loader) : router.load(() -> loader.apply(distinct));
+        return distinct.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Drops the entry and the related entries of the other cache that embed
+     * it or are named explicitly
+     */
+    private static void invalidate(EntityCache<?> owner, EntityCache<?> related, Long id,
+            Collection<Long> relatedIds) {
+        Set<Long> affected = new HashSet<>();
+        if (relatedIds != null) {
+            affected.addAll(relatedIds);
+        }
+        if (id != null) {
+            // Entries linked before the write, and entries embedding the old state
+            affected.addAll(owner.relatedIdsOf(id));
+            affected.addAll(related.entriesEmbedding(id));
+            owner.invalidate(id);
+        }
+        affected.forEach(related::invalidate);
+    }
+
+    /**
+     * Runs an invalidation now and, inside a transaction, once more after it
+     * completes
+     */
+    static void afterCommit(Runnable invalidation) {
+        invalidation.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+
+    private static Set<Long> authorIdsOf(Book book) {
+        Set<Long> ids = new HashSet<>();
+        book.getAuthors().forEach(author -> ids.add(author.getAuthorId()));
+        return ids;
+    }
+
+    private static Set<Long> bookIdsOf(Author author) {
+        Set<Long> ids = new HashSet<>();
+        author.getBooks().forEach(book -> ids.add(book.getBookId()));
+        return ids;
+    }
+
+    /**
+     * Copies a book and its embedded authors, so that callers cannot change
+     * the cached entry
+     *
+     * @param book the cached book
+     * @return the copy
+     */
+    public static Book copy(Book book) {
+        Set<Author> authors = new HashSet<>();
+        book.getAuthors().forEach(author -> authors.add(shallowCopy(author)));
+        return Book.builder()
+                .bookId(book.getBookId())
+                .title(book.getTitle())
+                .isbn(book.getIsbn())
+                .publicationDate(book.getPublicationDate())
+                .publisher(book.getPublisher())
+                .genre(book.getGenre())
+                .summary(book.getSummary())
+                .version(book.getVersion())
+                .updatedAt(book.getUpdatedAt())
+                .authors(authors)
+                .authorIds(book.getAuthorIds() != null ? new HashSet<>(book.getAuthorIds()) : new HashSet<>())
+                .build();
+    }
+
+    /**
+     * Copies an author and its embedded books
+     *
+     * @param author the cached author
+     * @return the copy
+     */
+    public static Author copy(Author author) {
+        Set<Book> books = new HashSet<>();
+        author.getBooks().forEach(book -> books.add(shallowCopy(book)));
+        Author copy = shallowCopy(author);
+        copy.setBooks(books);
+        copy.setBooksIds(author.getBooksIds() != null ? new HashSet<>(author.getBooksIds()) : new HashSet<>());
+        return copy;
+    }
+
+    private static Author shallowCopy(Author author) {
+        return Author.builder()
+                .authorId(author.getAuthorId())
+                .firstName(author.getFirstName())
+                .lastName(author.getLastName())
+                .birthDate(author.getBirthDate())
+                .biography(author.getBiography())
+                .version(author.getVersion())
+                .updatedAt(author.getUpdatedAt())
+                .build();
+    }
+
+    private static Book shallowCopy(Book book) {
+        return Book.builder()
+                .bookId(book.getBookId())
+                .title(book.getTitle())
+                .isbn(book.getIsbn())
+                .publicationDate(book.getPublicationDate())
+                .publisher(book.getPublisher())
+                .genre(book.getGenre())
+                .summary(book.getSummary())
+                .version(book.getVersion())
+                .updatedAt(book.getUpdatedAt())
+                .build();
+    }
+
+    /**
+     * Estimated retained size of a book in bytes
+     */
+    private static int weigh(Book book) {
+        int weight = 128 + chars(book.getTitle(), book.getIsbn(), book.getPublisher(), book.getGenre(),
+                book.getSummary());
+        for (Author author : book.getAuthors()) {
+            weight += 96 + chars(author.getFirstName(), author.getLastName(), author.getBiography());
+        }
+        return weight;
+    }
+
+    /**
+     * Estimated retained size of an author in bytes
+     */
+    private static int weigh(Author author) {
+        int weight = 128 + chars(author.getFirstName(), author.getLastName(), author.getBiography());
+        for (Book book : author.getBooks()) {
+            weight += 96 + chars(book.getTitle(), book.getIsbn(), book.getPublisher(), book.getGenre(),
+                    book.getSummary());
+        }
+        return weight;
+    }
+
+    private static int chars(String... values) {
+        int weight = 0;
+        for (String value : values) {
+            if (value != null) {
+                weight += 40 + value.length();
+            }
+        }
+        return weight;
+    }
+
+    /**
+     * Hit, miss and eviction counts of one cache
+     *
+     * @param hits           requests served from the cache
+     * @param misses         requests that loaded from the database
+     * @param hitRate        ratio of hits to requests
+     * @param evictions      entries evicted by size or expiration
+     * @param entries        approximate number of cached entries
+     * @param weightBytes    estimated size of the cached entries
+     * @param maxWeightBytes the size budget of the cache
+     */
+    public record CacheStatistics(long hits, long misses, double hitRate, long evictions, long entries,
+            long weightBytes, long maxWeightBytes) {
+    }
+
+    /**
+     * Outcome of reading back a snapshot
+     *
+     * @param restored  entries cached again
+     * @param discarded entries left out because their row changed or was deleted, or they were cached already
+     */
+    public record SnapshotRestore(int restored, int discarded) {
+    }
+
+    /**
+     * One Caffeine cache with the index of related IDs embedded by its
+     * entries
+     */
+    private static final class EntityCache<V> {
+        private final Cache<Long, Stamped<V>> cache;
+        private final long maxWeight;
+        private final long ttlMillis;
+        private final ReadRouter router;
+        private final StaleRefresher refresher;
+        private final Function<V, Set<Long>> relatedIds;
+        private final UnaryOperator<V> copier;
+
+        // Related ID -> IDs of the cached entries embedding it
+        private final Map<Long, Set<Long>> embeddedBy = new ConcurrentHashMap<>();
+
+        // Bumped before every invalidation, so that bulk loads do not store data it dropped
+        private final AtomicLong invalidations = new AtomicLong();
+
+        EntityCache(String name, long maxWeight, Duration ttl, Duration retention, ReadRouter router,
+                ToIntFunction<V> weigher, Function<V, Set<Long>> relatedIds, UnaryOperator<V> copier) {
+            this.maxWeight = maxWeight;
+            this.ttlMillis = ttl.toMillis();
+            this.router = router;
+            this.refresher = new StaleRefresher(name);
+            this.relatedIds = relatedIds;
+            this.copier = copier;
+            this.cache = Caffeine.newBuilder()
+                    .maximumWeight(maxWeight)
+                    .weigher((Long id, Stamped<V> stamped) -> weigher.applyAsInt(stamped.value))
+                    .expireAfterWrite(retention)
+                    // Runs atomically with the removal, unlike a removal listener
+                    .evictionListener((Long id, Stamped<V> stamped, RemovalCause cause) -> unindex(id, stamped))
+                    .recordStats()
+                    .build();
+        }
+
+        Optional<V> get(Long id, Function<Long, Optional<V>> loader) {
+            long generation = invalidations.get();
+            boolean[] loadedNow = new boolean[1];
+            Stamped<V> stamped = cache.get(id, key -> {
+                loadedNow[0] = true;
+                V loaded = loader.apply(key).orElse(null);
+                if (loaded == null) {
+                    return null;
+                }
+                Stamped<V> created = new Stamped<>(loaded);
+                index(key, created);
+                return created;
+            });
+            if (stamped == null) {
+                return Optional.empty();
+            }
+            if (loadedNow[0]) {
+                if (generation != invalidations.get()) {
+                    // An invalidation during the load did not see the entry being computed
+                    discard(id, stamped);
+                }
+                ReadFreshness.served(0, false, false, ReadFreshness.Source.PRIMARY);
+                return Optional.of(copier.apply(stamped.value));
+            }
+            long age = System.currentTimeMillis() - stamped.loadedAt;
+            if (!router.accepts(age)) {
+                return bypass(id, stamped, loader);
+            }
+            boolean stale = age > ttlMillis;
+            if (stale) {
+                refresher.refresh(id, () -> refresh(id, stamped, loader));
+            }
+            ReadFreshness.served(age, stale, stale && stamped.refreshFailed, ReadFreshness.Source.CACHE);
+            return Optional.of(copier.apply(stamped.value));
+        }
+
+        /**
+         * Returns the cached value if the current request accepts its age,
+         * without loading, refreshing or recording an access
+         */
+        V peek(Long id) {
+            Stamped<V> stamped = cache.policy().getIfPresentQuietly(id);
+            if (stamped == null || !router.accepts(System.currentTimeMillis() - stamped.loadedAt)) {
+                return null;
+            }
+            return stamped.value;
+        }
+
+        /**
+         * Returns the cached values among the IDs and loads the others with
+         * one call. Entries too old for the current request are read again
+         * like in {@link #get(Long, Function)}.
+         */
+        Map<Long, V> getAll(List<Long> ids, Function<Collection<Long>, Map<Long, V>> loader) {
+            Map<Long, V> found = new HashMap<>();
+            List<Long> missing = new ArrayList<>();
+            List<Long> tooOld = new ArrayList<>();
+            Map<Long, Stamped<V>> present = cache.getAllPresent(ids);
+            for (Long id : ids) {
+                Stamped<V> stamped = present.get(id);
+                if (stamped == null) {
+                    missing.add(id);
+                    continue;
+                }
+                long age = System.currentTimeMillis() - stamped.loadedAt;
+                if (!router.accepts(age)) {
+                    tooOld.add(id);
+                    continue;
+                }
+                boolean stale = age > ttlMillis;
+                if (stale) {
+                    refresher.refresh(id, () -> refresh(id, stamped, key -> Optional.ofNullable(
+                            loader.apply(List.of(key)).get(key))));
+                }
+                ReadFreshness.served(age, stale, stale && stamped.refreshFailed, ReadFreshness.Source.CACHE);
+                found.put(id, copier.apply(stamped.value));
+            }
+            if (!tooOld.isEmpty() && router.acceptsReplica()) {
+                found.putAll(router.onReplica(() -> loader.apply(tooOld)));
+            } else {
+                missing.addAll(tooOld);
+            }
+            if (!missing.isEmpty()) {
+                long generation = invalidations.get();
+                Map<Long, V> loaded = loader.apply(missing);
+                ReadFreshness.served(0, false, false, ReadFreshness.Source.PRIMARY);
+                loaded.forEach((id, value) -> {
+                    store(id, value, generation);
+                    found.put(id, copier.apply(value));
+                });
+            }
+            return found;
+        }
+
+        /**
+         * Stores a value loaded outside the cache, unless an invalidation
+         * ran since the load started
+         */
+        private void store(Long id, V value, long generation) {
+            Stamped<V> fresh = new Stamped<>(value);
+            cache.asMap().compute(id, (key, previous) -> {
+                if (generation != invalidations.get()) {
+                    return previous;
+                }
+                if (previous != null) {
+                    unindex(key, previous);
+                }
+                index(key, fresh);
+                return fresh;
+            });
+        }
+
+        /**
+         * Reads a value whose cached entry is too old for the current
+         * request. A read from the primary database replaces the entry.
+         */
+        private Optional<V> bypass(Long id, Stamped<V> cached, Function<Long, Optional<V>> loader) {
+            if (router.acceptsReplica()) {
+                return router.onReplica(() -> loader.apply(id));
+            }
+            Optional<V> loaded = loader.apply(id);
+            replace(id, cached, loaded);
+            ReadFreshness.served(0, false, false, ReadFreshness.Source.PRIMARY);
+            return loaded.map(copier);
+        }
+
+        /**
+         * Replaces a stale entry with a reloaded one, unless it was
+         * invalidated or replaced in the meantime
+         */
+        private void refresh(Long id, Stamped<V> stale, Function<Long, Optional<V>> loader) {
+            try {
+                replace(id, stale, loader.apply(id));
+            } catch (RuntimeException e) {
+                stale.refreshFailed = true;
+                log.warn("Could not refresh cached entry {}, serving the stale value: {}", id, e.getMessage());
+            }
+        }
+
+        private void replace(Long id, Stamped<V> previous, Optional<V> loaded) {
+            if (loaded.isEmpty()) {
+                // Deleted in the meantime
+                discard(id, previous);
+                return;
+            }
+            Stamped<V> fresh = new Stamped<>(loaded.get());
+            cache.asMap().computeIfPresent(id, (key, current) -> {
+                if (current != previous) {
+                    return current;
+                }
+                unindex(key, current);
+                index(key, fresh);
+                return fresh;
+            });
+        }
+
+        private void discard(Long id, Stamped<V> stamped) {
+            if (cache.asMap().remove(id, stamped)) {
+                unindex(id, stamped);
+            }
+        }
+
+        void invalidate(Long id) {
+            invalidations.incrementAndGet();
+            cache.asMap().computeIfPresent(id, (key, stamped) -> {
+                unindex(key, stamped);
+                return null;
+            });
+        }
+
+        /**
+         * Returns the cached values, the most frequently read first
+         */
+        List<V> hottest(int limit) {
+            if (limit <= 0) {
+                return List.of();
+            }
+            Map<Long, Stamped<V>> entries = cache.policy().eviction()
+                    .map(eviction -> eviction.hottest(limit))
+                    .orElseGet(cache::asMap);
+            return entries.values().stream().limit(limit).map(stamped -> stamped.value).toList();
+        }
+
+        long generation() {
+            return invalidations.get();
+        }
+
+        /**
+         * Stores a value read back from a snapshot, unless the ID is cached
+         * already or an invalidation ran since the generation was read. The
+         * value counts as loaded now, since its version was just checked.
+         *
+         * @return true if the value was stored
+         */
+        boolean restore(Long id, V value, long generation) {
+            boolean[] stored = new boolean[1];
+            cache.asMap().compute(id, (key, previous) -> {
+                if (previous != null || generation != invalidations.get()) {
+                    return previous;
+                }
+                Stamped<V> restored = new Stamped<>(value);
+                index(key, restored);
+                stored[0] = true;
+                return restored;
+            });
+            return stored[0];
+        }
+
+        void clear() {
+            invalidations.incrementAndGet();
+            cache.invalidateAll();
+            embeddedBy.clear();
+        }
+
+        Set<Long> relatedIdsOf(Long id) {
+            Stamped<V> stamped = cache.policy().getIfPresentQuietly(id);
+            return stamped != null ? relatedIds.apply(stamped.value) : Set.of();
+        }
+
+        Set<Long> entriesEmbedding(Long relatedId) {
+            Set<Long> ids = embeddedBy.get(relatedId);
+            return ids != null ? Set.copyOf(ids) : Set.of();
+        }
+
+        CacheStatistics statistics() {
+            CacheStats stats = cache.stats();
+            return new CacheStatistics(stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount(),
+                    cache.estimatedSize(), cache.policy().eviction()
+                            .flatMap(eviction -> eviction.weightedSize().stream().boxed().findFirst())
+                            .orElse(0L),
+                    maxWeight);
+        }
+
+        private void index(Long id, Stamped<V> stamped) {
+            for (Long relatedId : relatedIds.apply(stamped.value)) {
+                embeddedBy.computeIfAbsent(relatedId, k -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+        }
+
+        private void unindex(Long id, Stamped<V> stamped) {
+            for (Long relatedId : relatedIds.apply(stamped.value)) {
+                embeddedBy.computeIfPresent(relatedId, (k, ids) -> {
+                    ids.remove(id);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+    }
+
+    /**
+     * A cached value and the time it was loaded
+     */
+    private static final class Stamped<V> {
+        private final V value;
+        private final long loadedAt = System.currentTimeMillis();
+        private volatile boolean refreshFailed;
+
+        Stamped(V value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.books.infrastructure.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.books.domain.model.Author;
+import com.books.domain.model.Book;
+
+/**
+ * Binary format of the entity cache snapshots.
+ * <p>
+ * Layout: a magic number, the format version and the time of writing,
+ * followed by the books and then the authors, each section led by its
+ * entry count. An entry holds the scalar fields of its entity, with a
+ * presence flag before every nullable one, then its embedded entities
+ * without their own relations, then its related IDs. Texts are written as
+ * their UTF-8 length and bytes, dates as epoch days and instants as epoch
+ * seconds and nanoseconds.
+ *
+ * @author books-authors-api
+ */
+final class CatalogSnapshot {
+
+    private static final int MAGIC = 0x42415343;
+    private static final int FORMAT_VERSION = 1;
+
+    private CatalogSnapshot() {
+    }
+
+    /**
+     * The entities read from a snapshot
+     *
+     * @param writtenAt when the snapshot was written
+     * @param books     the cached books, hottest first
+     * @param authors   the cached authors, hottest first
+     */
+    record Contents(Instant writtenAt, List<Book> books, List<Author> authors) {
+    }
+
+    /**
+     * Writes a snapshot
+     *
+     * @param out     the stream to write to
+     * @param books   the books to write
+     * @param authors the authors to write
+     * @throws IOException if the stream fails
+     */
+    static void write(DataOutputStream out, Collection<Book> books, Collection<Author> authors) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        writeInstant(out, Instant.now());
+        out.writeInt(books.size());
+        for (Book book : books) {
+            writeBook(out, book);
+            out.writeInt(book.getAuthors().size());
+            for (Author author : book.getAuthors()) {
+                writeAuthor(out, author);
+            }
+            writeIds(out, book.getAuthorIds());
+        }
+        out.writeInt(authors.size());
+        for (Author author : authors) {
+            writeAuthor(out, author);
+            out.writeInt(author.getBooks().size());
+            for (Book book : author.getBooks()) {
+                writeBook(out, book);
+            }
+            writeIds(out, author.getBooksIds());
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a snapshot
+     *
+     * @param in the snapshot
+     * @return the entities
+     * @throws IOException if the snapshot is truncated or in another format
+     */
+    static Contents read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a catalog cache snapshot");
+        }
+        int formatVersion = in.readInt();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IOException("Unsupported snapshot format version " + formatVersion);
+        }
+        Instant writtenAt = readInstant(in);
+
+        int bookCount = in.readInt();
+        List<Book> books = new ArrayList<>(Math.min(bookCount, 1 << 16));
+        for (int i = 0; i < bookCount; i++) {
+            Book book = readBook(in);
+            int authorCount = in.readInt();
+            Set<Author> embedded = new HashSet<>();
+            for (int j = 0; j < authorCount; j++) {
+                embedded.add(readAuthor(in));
+            }
+            book.setAuthors(embedded);
+            book.setAuthorIds(readIds(in));
+            books.add(book);
+        }
+
+        int authorCount = in.readInt();
+        List<Author> authors = new ArrayList<>(Math.min(authorCount, 1 << 16));
+        for (int i = 0; i < authorCount; i++) {
+            Author author = readAuthor(in);
+            int embeddedCount = in.readInt();
+            Set<Book> embedded = new HashSet<>();
+            for (int j = 0; j < embeddedCount; j++) {
+                embedded.add(readBook(in));
+            }
+            author.setBooks(embedded);
+            author.setBooksIds(readIds(in));
+            authors.add(author);
+        }
+        return new Contents(writtenAt, books, authors);
+    }
+
+    private static void writeBook(DataOutputStream out, Book book) throws IOException {
+        out.writeLong(book.getBookId());
+        writeString(out, book.getTitle());
+        writeString(out, book.getIsbn());
+        writeDate(out, book.getPublicationDate());
+        writeString(out, book.getPublisher());
+        writeString(out, book.getGenre());
+        writeString(out, book.getSummary());
+        writeVersion(out, book.getVersion());
+        writeNullableInstant(out, book.getUpdatedAt());
+    }
+
+    private static Book readBook(DataInputStream in) throws IOException {
+        return Book.builder()
+                .bookId(in.readLong())
+                .title(readString(in))
+                .isbn(readString(in))
+                .publicationDate(readDate(in))
+                .publisher(readString(in))
+                .genre(readString(in))
+                .summary(readString(in))
+                .version(readVersion(in))
+                .updatedAt(readNullableInstant(in))
+                .authors(new HashSet<>())
+                .authorIds(new HashSet<>())
+                .build();
+    }
+
+    private static void writeAuthor(DataOutputStream out, Author author) throws IOException {
+        out.writeLong(author.getAuthorId());
+        writeString(out, author.getFirstName());
+        writeString(out, author.getLastName());
+        writeDate(out, author.getBirthDate());
+        writeString(out, author.getBiography());
+        writeVersion(out, author.getVersion());
+        writeNullableInstant(out, author.getUpdatedAt());
+    }
+
+    private static Author readAuthor(DataInputStream in) throws IOException {
+        return Author.builder()
+                .authorId(in.readLong())
+                .firstName(readString(in))
+                .lastName(readString(in))
+                .birthDate(readDate(in))
+                .biography(readString(in))
+                .version(readVersion(in))
+                .updatedAt(readNullableInstant(in))
+                .books(new HashSet<>())
+                .booksIds(new HashSet<>())
+                .build();
+    }
+
+    private static void writeIds(DataOutputStream out, Set<Long> ids) throws IOException {
+        if (ids == null) {
+            out.writeInt(0);
+            return;
+        }
+        out.writeInt(ids.size());
+        for (Long id : ids) {
+            out.writeLong(id);
+        }
+    }
+
+    private static Set<Long> readIds(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(in.readLong());
+        }
+        return ids;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length != length) {
+            throw new EOFException("Truncated catalog cache snapshot");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDate(DataOutputStream out, LocalDate date) throws IOException {
+        out.writeBoolean(date != null);
+        if (date != null) {
+            out.writeLong(date.toEpochDay());
+        }
+    }
+
+    private static LocalDate readDate(DataInputStream in) throws IOException {
+        return in.readBoolean() ? LocalDate.ofEpochDay(in.readLong()) : null;
+    }
+
+    private static void writeVersion(DataOutputStream out, Long version) throws IOException {
+        out.writeBoolean(version != null);
+        if (version != null) {
+            out.writeLong(version);
+        }
+    }
+
+    private static Long readVersion(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeNullableInstant(DataOutputStream out, Instant instant) throws IOException {
+        out.writeBoolean(instant != null);
+        if (instant != null) {
+            writeInstant(out, instant);
+        }
+    }
+
+    private static Instant readNullableInstant(DataInputStream in) throws IOException {
+        return in.readBoolean() ? readInstant(in) : null;
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant instant) throws IOException {
+        out.writeLong(instant.getEpochSecond());
+        out.writeInt(instant.getNano());
+    }
+
+    private static Instant readInstant(DataInputStream in) throws IOException {
+        return Instant.ofEpochSecond(in.readLong(), in.readInt());
+    }
+}
@@ -0,0 +1,192 @@
+package com.books.infrastructure.cache;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.books.domain.model.Author;
+import com.books.domain.model.Book;
+
+/**
+ * Tags and key normalization shared by the cached queries and the writes
+ * that invalidate them.
+ * Text parameters are upper-cased, matching the case-insensitive
+ * comparisons of the stored procedures. Queries whose matches cannot be
+ * derived from a written row, such as title substrings, carry a wildcard
+ * tag that every write of that entity invalidates.
+ *
+ * @author books-authors-api
+ */
+public final class CatalogTags {
+
+    /** Tag of every title search, since any written book may match one */
+    public static final String BOOK_TITLES = "book-title:*";
+
+    /** Tag of every page of the book listing, which any write may shift */
+    public static final String BOOK_PAGES = "book-page:*";
+
+    /** Tag of every page of the author listing */
+    public static final String AUTHOR_PAGES = "author-page:*";
+
+    /** Year ranges wider than this are tagged as a whole instead of per year */
+    private static final int MAX_TAGGED_YEARS = 100;
+
+    private static final String BOOK_YEAR_RANGES = "year:*";
+    private static final String AUTHOR_NAME_PATTERNS = "last-name:*";
+
+    private CatalogTags() {
+    }
+
+    /**
+     * Normalizes a text parameter. Null and blank map to the same key since
+     * Oracle treats the empty string as null.
+     *
+     * @param value the parameter
+     * @return the normalized parameter
+     */
+    public static String normalize(String value) {
+        return value == null ? "" : value.toUpperCase(Locale.ROOT);
+    }
+
+    public static String book(Long bookId) {
+        return "book:" + bookId;
+    }
+
+    public static String author(Long authorId) {
+        return "author:" + authorId;
+    }
+
+    public static String genre(String genre) {
+        return "genre:" + normalize(genre);
+    }
+
+    public static String year(int year) {
+        return "year:" + year;
+    }
+
+    /**
+     * Tags of a last name search. Patterns with LIKE wildcards can match
+     * any name, so they share one tag.
+     *
+     * @param lastName the searched last name
+     * @return the tag
+     */
+    public static String lastName(String lastName) {
+        String normalized = normalize(lastName);
+        return normalized.indexOf('%') >= 0 || normalized.indexOf('_') >= 0
+                ? AUTHOR_NAME_PATTERNS
+                : "last-name:" + normalized;
+    }
+
+    /**
+     * Tags of a publication year range search
+     *
+     * @param startYear the first year
+     * @param endYear   the last year
+     * @return one tag per year, or the shared range tag for wide ranges
+     */
+    public static Set<String> years(int startYear, int endYear) {
+        if ((long) endYear - startYear + 1 > MAX_TAGGED_YEARS) {
+            return Set.of(BOOK_YEAR_RANGES);
+        }
+        Set<String> tags = new HashSet<>();
+        for (int year = startYear; year <= endYear; year++) {
+            tags.add(year(year));
+        }
+        return tags;
+    }
+
+    /**
+     * Tags of the books in a result and of the authors embedded in them
+     *
+     * @param books the result
+     * @return the tags
+     */
+    public static Set<String> ofBooks(List<Book> books) {
+        Set<String> tags = new HashSet<>();
+        for (Book book : books) {
+            tags.add(book(book.getBookId()));
+            book.getAuthors().forEach(author -> tags.add(author(author.getAuthorId())));
+        }
+        return tags;
+    }
+
+    /**
+     * Tags of the authors in a result and of the books embedded in them
+     *
+     * @param authors the result
+     * @return the tags
+     */
+    public static Set<String> ofAuthors(List<Author> authors) {
+        Set<String> tags = new HashSet<>();
+        for (Author author : authors) {
+            tags.add(author(author.getAuthorId()));
+            author.getBooks().forEach(book -> tags.add(book(book.getBookId())));
+        }
+        return tags;
+    }
+
+    /**
+     * Tags affected by saving a book: results that contain it, and searches
+     * it may now match
+     *
+     * @param book the saved book
+     * @return the tags
+     */
+    public static Set<String> written(Book book) {
+        Set<String> tags = new HashSet<>(List.of(BOOK_TITLES, BOOK_PAGES, BOOK_YEAR_RANGES, genre(book.getGenre())));
+        if (book.getBookId() != null) {
+            tags.add(book(book.getBookId()));
+        }
+        if (book.getPublicationDate() != null) {
+            tags.add(year(book.getPublicationDate().getYear()));
+        }
+        addAll(tags, book.getAuthorIds(), CatalogTags::author);
+        return tags;
+    }
+
+    /**
+     * Tags affected by saving an author
+     *
+     * @param author the saved author
+     * @return the tags
+     */
+    public static Set<String> written(Author author) {
+        Set<String> tags = new HashSet<>(List.of(AUTHOR_PAGES, AUTHOR_NAME_PATTERNS, lastName(author.getLastName())));
+        if (author.getAuthorId() != null) {
+            tags.add(author(author.getAuthorId()));
+        }
+        addAll(tags, author.getBooksIds(), CatalogTags::book);
+        return tags;
+    }
+
+    /**
+     * Tags affected by deleting a book: the results containing it and the
+     * listing pages it shifts
+     *
+     * @param bookId the deleted book
+     * @return the tags
+     */
+    public static Set<String> deletedBook(Long bookId) {
+        return Set.of(book(bookId), BOOK_PAGES);
+    }
+
+    /**
+     * Tags affected by deleting an author
+     *
+     * @param authorId the deleted author
+     * @return the tags
+     */
+    public static Set<String> deletedAuthor(Long authorId) {
+        return Set.of(author(authorId), AUTHOR_PAGES);
+    }
+
+    private static void addAll(Set<String> tags, Collection<Long> ids, Function<Long, String> tag) {
+        if (ids != null) {
+            ids.forEach(id -> tags.add(tag.apply(id)));
+        }
+    }
+}
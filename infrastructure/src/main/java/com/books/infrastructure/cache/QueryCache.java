@@ -0,0 +1,302 @@
+package com.books.infrastructure.cache;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.books.infrastructure.cache.CatalogCache.CacheStatistics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process cache of search results, keyed by the query name and its
+ * normalized parameters.
+ * Every entry carries the tags it depends on, such as the genre it was
+ * searched by and the IDs of the books and authors in the result. A write
+ * invalidates the tags it affects, which drops exactly the entries carrying
+ * them and leaves the rest of the cache warm.
+ * <p>
+ * A result loaded while a write was being applied is not stored, so a slow
+ * query cannot put back data that an invalidation has just dropped. Stale
+ * results are served and refreshed in the background like the entries of
+ * the {@link CatalogCache}, and results older than the max-staleness of the
+ * current request are read again through the {@link ReadRouter}.
+ *
+ * @author books-authors-api
+ */
+@Component
+@Slf4j
+public class QueryCache {
+
+    private final boolean enabled;
+    private final long maxItems;
+    private final long ttlMillis;
+    private final ReadRouter router;
+    private final StaleRefresher refresher = new StaleRefresher("query-cache-refresh");
+    private final Cache<QueryKey, Entry> cache;
+
+    // Tag -> keys of the entries carrying it
+    private final Map<String, Set<QueryKey>> tagged = new ConcurrentHashMap<>();
+
+    // Loads store their result under the read lock, invalidations run under the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long invalidations;
+
+    public QueryCache(@Value("${catalog.query-cache.enabled:true}") boolean enabled,
+            @Value("${catalog.query-cache.max-items:50000}") long maxItems,
+            @Value("${catalog.query-cache.ttl:PT5M}") Duration ttl,
+            @Value("${catalog.cache.serve-stale:false}") boolean serveStale,
+            @Value("${catalog.cache.max-staleness:PT1H}") Duration maxStaleness, ReadRouter router) {
+        this.enabled = enabled;
+        this.router = router;
+        this.maxItems = maxItems;
+        this.ttlMillis = ttl.toMillis();
+        this.cache = Caffeine.newBuilder()
+                // Each entry weighs one plus the number of rows in its result
+                .maximumWeight(maxItems)
+                .weigher((QueryKey key, Entry entry) -> 1 + entry.result.size())
+                .expireAfterWrite(serveStale ? ttl.plus(maxStaleness) : ttl)
+                .evictionListener((QueryKey key, Entry entry, RemovalCause cause) -> unindex(key, entry))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the result of a query, running it on a miss
+     *
+     * @param key        the query key
+     * @param queryTags  tags of the query parameters, e.g. {@code genre:FICTION}
+     * @param loader     runs the query against the database, throwing on errors
+     * @param resultTags derives the tags of the rows in a result
+     * @param <T>        the row type
+     * @return the result; shared between callers, so it is unmodifiable
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> get(QueryKey key, Collection<String> queryTags, Supplier<List<T>> loader,
+            Function<List<T>, Collection<String>> resultTags) {
+        if (!enabled) {
+            return router.load(loader);
+        }
+        Entry cached = cache.getIfPresent(key);
+        if (cached != null) {
+            long age = System.currentTimeMillis() - cached.loadedAt;
+            if (router.accepts(age)) {
+                boolean stale = age > ttlMillis;
+                if (stale) {
+                    refresher.refresh(key, () -> refresh(key, cached, queryTags, loader, resultTags));
+                }
+                ReadFreshness.served(age, stale, stale && cached.refreshFailed, ReadFreshness.Source.CACHE);
+                return (List<T>) cached.result;
+            }
+            if (router.acceptsReplica()) {
+                return List.copyOf(router.onReplica(loader));
+            }
+            // Too old for this request: reload from the primary and replace the entry
+        }
+
+        long generation = generation();
+        Entry loaded = load(queryTags, loader, resultTags);
+        store(key, loaded, cached, generation);
+        ReadFreshness.served(0, false, false, ReadFreshness.Source.PRIMARY);
+        return (List<T>) loaded.result;
+    }
+
+    /**
+     * Derives a value, such as the versions of its rows, from a cached
+     * result, or loads the value on its own if the result is not cached or
+     * is too old for the current request. Neither counts as a cache access.
+     *
+     * @param key        the query key
+     * @param fromResult derives the value from the cached result
+     * @param loader     loads the value from the database, throwing on errors
+     * @param <T>        the row type
+     * @param <R>        the value type
+     * @return the value
+     */
+    @SuppressWarnings("unchecked")
+    public <T, R> R peek(QueryKey key, Function<List<T>, R> fromResult, Supplier<R> loader) {
+        Entry cached = enabled ? cache.policy().getIfPresentQuietly(key) : null;
+        if (cached != null && router.accepts(System.currentTimeMillis() - cached.loadedAt)) {
+            return fromResult.apply((List<T>) cached.result);
+        }
+        return router.load(loader);
+    }
+
+    /**
+     * Drops every entry carrying one of the tags. Repeated after the
+     * surrounding transaction completes, if any.
+     *
+     * @param tags the tags affected by a write
+     */
+    public void invalidate(Collection<String> tags) {
+        if (enabled) {
+            Set<String> affected = Set.copyOf(tags);
+            CatalogCache.afterCommit(() -> invalidateNow(affected));
+        }
+    }
+
+    /**
+     * Drops every cached result
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            invalidations++;
+            cache.invalidateAll();
+            tagged.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the hit, miss and eviction statistics of the cache
+     *
+     * @return the statistics; weights count result rows rather than bytes
+     */
+    public CacheStatistics getStatistics() {
+        CacheStats stats = cache.stats();
+        long weight = cache.policy().eviction()
+                .flatMap(eviction -> eviction.weightedSize().stream().boxed().findFirst())
+                .orElse(0L);
+        return new CacheStatistics(stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount(),
+                cache.estimatedSize(), weight, maxItems);
+    }
+
+    private long generation() {
+        lock.readLock().lock();
+        try {
+            return invalidations;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static <T> Entry load(Collection<String> queryTags, Supplier<List<T>> loader,
+            Function<List<T>, Collection<String>> resultTags) {
+        List<T> result = List.copyOf(loader.get());
+        Set<String> tags = new HashSet<>(queryTags);
+        tags.addAll(resultTags.apply(result));
+        return new Entry(result, Set.copyOf(tags));
+    }
+
+    private <T> void refresh(QueryKey key, Entry stale, Collection<String> queryTags, Supplier<List<T>> loader,
+            Function<List<T>, Collection<String>> resultTags) {
+        long generation = generation();
+        try {
+            store(key, load(queryTags, loader, resultTags), stale, generation);
+        } catch (RuntimeException e) {
+            stale.refreshFailed = true;
+            log.warn("Could not refresh cached {} result, serving the stale one: {}", key.query(), e.getMessage());
+        }
+    }
+
+    /**
+     * Stores a loaded result unless a write was applied while it loaded
+     *
+     * @param expected the entry a refresh replaces, or null to store in any case
+     */
+    private void store(QueryKey key, Entry entry, Entry expected, long generation) {
+        lock.readLock().lock();
+        try {
+            if (generation != invalidations) {
+                // A write was applied while the query ran
+                return;
+            }
+            cache.asMap().compute(key, (k, previous) -> {
+                if (expected != null && previous != expected) {
+                    // Invalidated, evicted or already replaced
+                    return previous;
+                }
+                if (previous != null) {
+                    unindex(k, previous);
+                }
+                index(k, entry);
+                return entry;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void invalidateNow(Set<String> tags) {
+        lock.writeLock().lock();
+        try {
+            invalidations++;
+            for (String tag : tags) {
+                Set<QueryKey> keys = tagged.get(tag);
+                if (keys == null) {
+                    continue;
+                }
+                for (QueryKey key : Set.copyOf(keys)) {
+                    cache.asMap().computeIfPresent(key, (k, entry) -> {
+                        unindex(k, entry);
+                        return null;
+                    });
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void index(QueryKey key, Entry entry) {
+        for (String tag : entry.tags) {
+            tagged.computeIfAbsent(tag, t -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+    }
+
+    private void unindex(QueryKey key, Entry entry) {
+        for (String tag : entry.tags) {
+            tagged.computeIfPresent(tag, (t, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    /**
+     * Identifies a query by its name and normalized parameters
+     *
+     * @param query      the query name, e.g. {@code books.byGenre}
+     * @param parameters the normalized parameters
+     */
+    public record QueryKey(String query, List<Object> parameters) {
+
+        public static QueryKey of(String query, Object... parameters) {
+            return new QueryKey(query, Collections.unmodifiableList(Arrays.asList(parameters)));
+        }
+    }
+
+    /**
+     * A cached result, the tags it depends on and the time it was loaded
+     */
+    private static final class Entry {
+        private final List<?> result;
+        private final Set<String> tags;
+        private final long loadedAt = System.currentTimeMillis();
+        private volatile boolean refreshFailed;
+
+        Entry(List<?> result, Set<String> tags) {
+            this.result = result;
+            this.tags = tags;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.books.infrastructure.cache;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Carries, for the current request thread, how old the client accepts the
+ * catalog data to be, and records how old the data served to it was and
+ * where it came from. The web layer opens a scope per request and turns the
+ * result into response headers.
+ *
+ * @author books-authors-api
+ */
+public final class ReadFreshness {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private ReadFreshness() {
+    }
+
+    /**
+     * Starts recording for the current thread, accepting data of any age
+     */
+    public static void begin() {
+        begin(-1);
+    }
+
+    /**
+     * Starts recording for the current thread
+     *
+     * @param maxAgeMillis the oldest data the client accepts, 0 to read the
+     *                     primary database, or -1 for no limit
+     */
+    public static void begin(long maxAgeMillis) {
+        CURRENT.set(new Scope(maxAgeMillis));
+    }
+
+    /**
+     * Stops recording for the current thread
+     */
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Returns what was recorded since {@link #begin()}
+     *
+     * @return the recorded freshness, or null outside a scope
+     */
+    public static Scope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Returns the oldest data the current request accepts
+     *
+     * @return the limit in milliseconds, or -1 for no limit
+     */
+    static long maxAgeMillis() {
+        Scope scope = CURRENT.get();
+        return scope != null ? scope.maxAgeMillis : -1;
+    }
+
+    /**
+     * Records a value served to the current thread
+     *
+     * @param ageMillis        time since the value was read from the primary database
+     * @param stale            whether the value is past its time to live
+     * @param revalidateFailed whether refreshing the value has failed
+     * @param source           where the value was read from
+     */
+    static void served(long ageMillis, boolean stale, boolean revalidateFailed, Source source) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.ageMillis = Math.max(scope.ageMillis, ageMillis);
+            scope.stale |= stale;
+            scope.revalidateFailed |= revalidateFailed;
+            scope.sources.add(source);
+        }
+    }
+
+    /**
+     * Where served data was read from, cheapest first
+     */
+    public enum Source {
+        CACHE, REPLICA, PRIMARY
+    }
+
+    /**
+     * Freshness of the data served within one scope. Reflects the oldest
+     * value when several were served.
+     */
+    public static final class Scope {
+        private final long maxAgeMillis;
+        private final EnumSet<Source> sources = EnumSet.noneOf(Source.class);
+        private long ageMillis = -1;
+        private boolean stale;
+        private boolean revalidateFailed;
+
+        private Scope(long maxAgeMillis) {
+            this.maxAgeMillis = maxAgeMillis;
+        }
+
+        /**
+         * Whether any catalog value was served
+         *
+         * @return true if the response contains catalog data
+         */
+        public boolean isCached() {
+            return ageMillis >= 0;
+        }
+
+        /**
+         * Age of the oldest value served
+         *
+         * @return the age in milliseconds, or -1 if nothing was served
+         */
+        public long getAgeMillis() {
+            return ageMillis;
+        }
+
+        public boolean isStale() {
+            return stale;
+        }
+
+        public boolean isRevalidateFailed() {
+            return revalidateFailed;
+        }
+
+        /**
+         * Sources the served values were read from
+         *
+         * @return the sources, cheapest first
+         */
+        public Set<Source> getSources() {
+            return EnumSet.copyOf(sources);
+        }
+    }
+}
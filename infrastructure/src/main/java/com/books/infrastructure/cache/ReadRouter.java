@@ -0,0 +1,111 @@
+package com.books.infrastructure.cache;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Chooses where a read runs when the client's max-staleness rules out the
+ * cached copy. The read replica is used when one is configured and its
+ * assumed lag, {@code spring.datasource.replica.max-lag}, is within the
+ * limit; otherwise the primary database is read.
+ * <p>
+ * The routing data source reads {@link #isReplicaRead()} to pick the pool
+ * for the current thread.
+ *
+ * @author books-authors-api
+ */
+@Component
+public class ReadRouter {
+
+    private static final ThreadLocal<Boolean> REPLICA_READ = new ThreadLocal<>();
+
+    private final boolean replicaEnabled;
+    private final long replicaMaxLagMillis;
+
+    @Autowired
+    public ReadRouter(@Value("${spring.datasource.replica.url:}") String replicaUrl,
+            @Value("${spring.datasource.replica.max-lag:PT5S}") Duration replicaMaxLag) {
+        this.replicaEnabled = replicaUrl != null && !replicaUrl.isBlank();
+        this.replicaMaxLagMillis = replicaMaxLag.toMillis();
+    }
+
+    /**
+     * Creates a router without a replica, reading the primary database only
+     *
+     * @return the router
+     */
+    public static ReadRouter primaryOnly() {
+        return new ReadRouter(null, Duration.ZERO);
+    }
+
+    /**
+     * Whether the current thread reads the replica
+     *
+     * @return true inside {@link #onReplica(Supplier)}
+     */
+    public static boolean isReplicaRead() {
+        return Boolean.TRUE.equals(REPLICA_READ.get());
+    }
+
+    /**
+     * Whether the current request accepts a cached value of the given age
+     *
+     * @param ageMillis time since the value was read from the primary database
+     * @return true if the value may be served
+     */
+    boolean accepts(long ageMillis) {
+        long maxAge = ReadFreshness.maxAgeMillis();
+        return maxAge < 0 || ageMillis <= maxAge;
+    }
+
+    /**
+     * Whether the current request set a max-staleness that the replica lag
+     * satisfies. Requests without one keep reading the primary database, so
+     * that clients relying on read-your-writes need not opt out.
+     *
+     * @return true if a read may run on the replica
+     */
+    boolean acceptsReplica() {
+        long maxAge = ReadFreshness.maxAgeMillis();
+        return replicaEnabled && maxAge > 0 && maxAge >= replicaMaxLagMillis;
+    }
+
+    /**
+     * Runs a read that bypasses the cache on the cheapest source the
+     * current request accepts
+     *
+     * @param loader the read, throwing on errors
+     * @param <T>    the result type
+     * @return the result
+     */
+    <T> T load(Supplier<T> loader) {
+        if (acceptsReplica()) {
+            return onReplica(loader);
+        }
+        T result = loader.get();
+        ReadFreshness.served(0, false, false, ReadFreshness.Source.PRIMARY);
+        return result;
+    }
+
+    /**
+     * Runs a read on the replica and records it for the current request
+     *
+     * @param loader the read, throwing on errors
+     * @param <T>    the result type
+     * @return the result
+     */
+    <T> T onReplica(Supplier<T> loader) {
+        REPLICA_READ.set(Boolean.TRUE);
+        try {
+            T result = loader.get();
+            ReadFreshness.served(replicaMaxLagMillis, false, false, ReadFreshness.Source.REPLICA);
+            return result;
+        } finally {
+            REPLICA_READ.remove();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.books.infrastructure.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.books.infrastructure.cache.CatalogCache.CacheStatistics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * In-process cache of serialized catalog responses, keyed by the request
+ * URL.
+ * Every entry holds the entity tag of the rows it was written from, and is
+ * only served to a request whose current tag is the same. A write bumps the
+ * versions of the rows it touches in the database, so it invalidates the
+ * responses that contain them on every node, without any eviction; the
+ * outdated entry is replaced by the next response to the same URL.
+ * <p>
+ * With {@code catalog.response-cache.gzip}, bodies of at least
+ * {@code gzip-min-bytes} are also stored compressed, once, so that clients
+ * accepting gzip are served without compressing each response.
+ *
+ * @author books-authors-api
+ */
+@Component
+public class ResponseCache {
+
+    private final boolean enabled;
+    private final long maxWeightBytes;
+    private final int maxEntryBytes;
+    private final boolean gzip;
+    private final int gzipMinBytes;
+    private final Cache<String, CachedResponse> cache;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ResponseCache(@Value("${catalog.response-cache.enabled:true}") boolean enabled,
+            @Value("${catalog.response-cache.max-weight-bytes:16777216}") long maxWeightBytes,
+            @Value("${catalog.response-cache.max-entry-bytes:262144}") int maxEntryBytes,
+            @Value("${catalog.response-cache.ttl:PT10M}") Duration ttl,
+            @Value("${catalog.response-cache.gzip:true}") boolean gzip,
+            @Value("${catalog.response-cache.gzip-min-bytes:1024}") int gzipMinBytes) {
+        this.enabled = enabled;
+        this.maxWeightBytes = maxWeightBytes;
+        this.maxEntryBytes = maxEntryBytes;
+        this.gzip = gzip;
+        this.gzipMinBytes = gzipMinBytes;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((String key, CachedResponse entry) -> entry.weight())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Whether responses are cached
+     *
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether cached responses may be served compressed
+     *
+     * @return true if large bodies are stored gzipped too
+     */
+    public boolean isGzip() {
+        return enabled && gzip;
+    }
+
+    /**
+     * Returns the cached response to a URL, if it was written from rows at
+     * the given versions
+     *
+     * @param key  the request URL, with its query string
+     * @param etag the current entity tag of the rows the response contains
+     * @return the response, or null
+     */
+    public CachedResponse get(String key, String etag) {
+        if (!enabled) {
+            return null;
+        }
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached == null || !cached.etag().equals(etag)) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return cached;
+    }
+
+    /**
+     * Whether a body is small enough to be cached
+     *
+     * @param length the body length in bytes
+     * @return true if it may be stored
+     */
+    public boolean accepts(int length) {
+        return enabled && length <= maxEntryBytes;
+    }
+
+    /**
+     * Caches a response, replacing the one for the same URL
+     *
+     * @param key         the request URL, with its query string
+     * @param etag        the entity tag of the rows the response was written from
+     * @param contentType the content type of the body
+     * @param body        the serialized body
+     */
+    public void put(String key, String etag, String contentType, byte[] body) {
+        if (!accepts(body.length)) {
+            return;
+        }
+        byte[] gzipped = gzip && body.length >= gzipMinBytes ? gzip(body) : null;
+        cache.put(key, new CachedResponse(etag, contentType, body, gzipped));
+    }
+
+    /**
+     * Drops every cached response
+     */
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Returns the hit, miss and eviction statistics of the cache. Entries
+     * found with an outdated tag count as misses.
+     *
+     * @return the statistics
+     */
+    public CacheStatistics getStatistics() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long requests = hitCount + missCount;
+        long weight = cache.policy().eviction()
+                .flatMap(eviction -> eviction.weightedSize().stream().boxed().findFirst())
+                .orElse(0L);
+        return new CacheStatistics(hitCount, missCount, requests == 0 ? 1.0 : (double) hitCount / requests,
+                cache.stats().evictionCount(), cache.estimatedSize(), weight, maxWeightBytes);
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(body);
+        } catch (IOException e) {
+            // Not expected from an in-memory stream
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * A serialized response
+     *
+     * @param etag        the entity tag of the rows it was written from
+     * @param contentType the content type of the body
+     * @param body        the serialized body
+     * @param gzippedBody the body compressed with gzip, or null if it is not stored compressed
+     */
+    public record CachedResponse(String etag, String contentType, byte[] body, byte[] gzippedBody) {
+
+        private int weight() {
+            int weight = 128 + etag.length() * 2 + body.length;
+            return gzippedBody != null ? weight + gzippedBody.length : weight;
+        }
+    }
+}
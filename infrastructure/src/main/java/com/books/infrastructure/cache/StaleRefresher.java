@@ -0,0 +1,62 @@
+package com.books.infrastructure.cache;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs background refreshes of stale cache entries, at most one per key.
+ * A refresh that has not finished within the timeout, e.g. because the
+ * database hangs, no longer blocks a new one. Refreshes beyond the queue
+ * capacity are dropped; the entry is simply refreshed on a later read.
+ *
+ * @author books-authors-api
+ */
+final class StaleRefresher {
+
+    private static final int THREADS = 2;
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final long TIMEOUT_MILLIS = 30_000;
+
+    private final ThreadPoolExecutor executor;
+
+    // Key -> start time of its running refresh
+    private final Map<Object, Long> running = new ConcurrentHashMap<>();
+
+    StaleRefresher(String name) {
+        this.executor = new ThreadPoolExecutor(THREADS, THREADS, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, name);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Schedules a refresh unless one is already running for the key
+     *
+     * @param key     the cache key
+     * @param refresh reloads the entry
+     */
+    void refresh(Object key, Runnable refresh) {
+        Long now = System.currentTimeMillis();
+        Long started = running.putIfAbsent(key, now);
+        if (started != null && (now - started < TIMEOUT_MILLIS || !running.replace(key, started, now))) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    refresh.run();
+                } finally {
+                    running.remove(key, now);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            running.remove(key, now);
+        }
+    }
+}
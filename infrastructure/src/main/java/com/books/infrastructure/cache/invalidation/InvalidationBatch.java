@@ -0,0 +1,24 @@
+package com.books.infrastructure.cache.invalidation;
+
+import java.util.List;
+
+/**
+ * Events published together by one node. A batch without events is a
+ * heartbeat that lets peers notice lost batches.
+ *
+ * @param node     ID of the publishing node
+ * @param sequence sequence number of the node's latest event
+ * @param events   the events, in sequence order
+ * @author books-authors-api
+ */
+public record InvalidationBatch(String node, long sequence, List<InvalidationEvent> events) {
+
+    /**
+     * Sequence number of the first event, or the next one for a heartbeat
+     *
+     * @return the first sequence number covered by this batch
+     */
+    public long firstSequence() {
+        return events.isEmpty() ? sequence + 1 : events.get(0).sequence();
+    }
+}
@@ -0,0 +1,285 @@
+package com.books.infrastructure.cache.invalidation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.books.infrastructure.cache.CatalogCache;
+import com.books.infrastructure.cache.QueryCache;
+import com.books.infrastructure.cache.invalidation.InvalidationEvent.Entity;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the local caches of all nodes consistent with each other's writes.
+ * Successful writes are published as invalidation events, stamped with a
+ * version that orders them across nodes, and sent in small batches after
+ * {@code catalog.invalidation.batch-delay-ms}. Received events evict the
+ * same entries the writing node evicted locally.
+ * <p>
+ * Each node numbers its events, and idle nodes send heartbeats with their
+ * latest number. A receiver that notices a gap asks the transport to replay
+ * the missed events and, if they are gone, clears its caches.
+ *
+ * @author books-authors-api
+ */
+@Component
+@Slf4j
+public class InvalidationBus {
+
+    private final InvalidationTransport transport;
+    private final CatalogCache catalogCache;
+    private final QueryCache queryCache;
+    private final boolean enabled;
+    private final long batchDelayMs;
+    private final int maxBatchSize;
+
+    private final String node = UUID.randomUUID().toString();
+    private final AtomicLong versionClock = new AtomicLong();
+    private final ScheduledExecutorService flusher;
+
+    // Events waiting for the next batch; guards the sequence too
+    private final List<InvalidationEvent> pending = new ArrayList<>();
+    private long sequence;
+    private long publishedSequence;
+
+    // Peer node -> latest sequence number applied
+    private final Map<String, Peer> peers = new ConcurrentHashMap<>();
+
+    private final AtomicLong publishedEvents = new AtomicLong();
+    private final AtomicLong receivedEvents = new AtomicLong();
+    private final AtomicLong replays = new AtomicLong();
+    private final AtomicLong resyncs = new AtomicLong();
+
+    @Autowired
+    public InvalidationBus(ObjectProvider<InvalidationTransport> transports, CatalogCache catalogCache,
+            QueryCache queryCache,
+            @Value("${catalog.invalidation.enabled:true}") boolean enabled,
+            @Value("${catalog.invalidation.batch-delay-ms:5}") long batchDelayMs,
+            @Value("${catalog.invalidation.max-batch-size:256}") int maxBatchSize) {
+        this(transports.getIfAvailable(LoopbackInvalidationTransport::new), catalogCache, queryCache, enabled,
+                batchDelayMs, maxBatchSize);
+    }
+
+    /**
+     * Creates a bus over an explicit transport
+     *
+     * @param transport    the transport shared with the other nodes
+     * @param catalogCache the local entity cache
+     * @param queryCache   the local search result cache
+     * @param enabled      whether events are published and applied
+     * @param batchDelayMs how long an event may wait for others to share its batch
+     * @param maxBatchSize the number of events that triggers an immediate send
+     */
+    public InvalidationBus(InvalidationTransport transport, CatalogCache catalogCache, QueryCache queryCache,
+            boolean enabled, long batchDelayMs, int maxBatchSize) {
+        this.transport = transport;
+        this.catalogCache = catalogCache;
+        this.queryCache = queryCache;
+        this.enabled = enabled;
+        this.batchDelayMs = batchDelayMs;
+        this.maxBatchSize = maxBatchSize;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-invalidation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            transport.subscribe(this::receive);
+        }
+    }
+
+    /**
+     * Publishes the invalidation of a written entity to the other nodes,
+     * after the surrounding transaction commits if there is one
+     *
+     * @param entity     the type of the written entity
+     * @param id         the entity ID
+     * @param relatedIds IDs of the linked books or authors
+     * @param tags       search result tags affected by the write
+     */
+    public void publish(Entity entity, Long id, Collection<Long> relatedIds, Set<String> tags) {
+        if (!enabled || id == null) {
+            return;
+        }
+        Set<Long> related = relatedIds != null ? Set.copyOf(relatedIds) : Set.of();
+        Set<String> affected = Set.copyOf(tags);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(entity, id, related, affected);
+                }
+            });
+        } else {
+            enqueue(entity, id, related, affected);
+        }
+    }
+
+    /**
+     * Sends a heartbeat when no events are waiting, so that peers notice
+     * a lost final batch
+     */
+    @Scheduled(fixedDelayString = "${catalog.invalidation.heartbeat-ms:1000}")
+    public void heartbeat() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                send(new InvalidationBatch(node, publishedSequence, List.of()));
+            }
+        }
+    }
+
+    /**
+     * Sends the waiting events
+     */
+    public void flush() {
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            InvalidationBatch batch = new InvalidationBatch(node, sequence, List.copyOf(pending));
+            pending.clear();
+            publishedSequence = sequence;
+            publishedEvents.addAndGet(batch.events().size());
+            // Sent under the lock so batches leave in sequence order
+            send(batch);
+        }
+    }
+
+    /**
+     * Returns the latest version stamp issued or received by this node
+     *
+     * @return the version stamp
+     */
+    public long currentVersion() {
+        return versionClock.get();
+    }
+
+    /**
+     * Returns the counters of the bus
+     *
+     * @return the statistics
+     */
+    public BusStatistics getStatistics() {
+        return new BusStatistics(node, publishedEvents.get(), receivedEvents.get(), replays.get(), resyncs.get(),
+                peers.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        flusher.shutdown();
+    }
+
+    private void enqueue(Entity entity, Long id, Set<Long> relatedIds, Set<String> tags) {
+        synchronized (pending) {
+            long version = versionClock.accumulateAndGet(System.currentTimeMillis(),
+                    (last, now) -> Math.max(last + 1, now));
+            pending.add(new InvalidationEvent(++sequence, version, entity, id, relatedIds, tags));
+            if (pending.size() >= maxBatchSize) {
+                flusher.execute(this::flush);
+            } else if (pending.size() == 1) {
+                flusher.schedule(this::flush, batchDelayMs, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void send(InvalidationBatch batch) {
+        try {
+            transport.publish(batch);
+        } catch (IOException | RuntimeException e) {
+            // Peers see the gap in the sequence numbers and resynchronize
+            log.warn("Could not publish cache invalidations up to {}: {}", batch.sequence(), e.getMessage());
+        }
+    }
+
+    /**
+     * Applies a batch from a peer. A peer's first batch sets the baseline:
+     * events from before this node started cannot have left stale entries.
+     */
+    private void receive(InvalidationBatch batch) {
+        if (node.equals(batch.node())) {
+            return;
+        }
+        Peer peer = peers.computeIfAbsent(batch.node(), key -> new Peer());
+        synchronized (peer) {
+            if (peer.lastSequence >= 0 && batch.firstSequence() > peer.lastSequence + 1) {
+                if (transport.replay(batch.node(), peer.lastSequence, batch.firstSequence() - 1,
+                        missed -> apply(peer, missed))) {
+                    replays.incrementAndGet();
+                } else {
+                    log.warn("Missed cache invalidations {}..{} from node {}, clearing local caches",
+                            peer.lastSequence + 1, batch.firstSequence() - 1, batch.node());
+                    resync();
+                }
+            }
+            apply(peer, batch);
+            peer.lastSequence = Math.max(peer.lastSequence, batch.sequence());
+        }
+    }
+
+    private void apply(Peer peer, InvalidationBatch batch) {
+        for (InvalidationEvent event : batch.events()) {
+            if (event.sequence() <= peer.lastSequence) {
+                continue; // Duplicate
+            }
+            versionClock.accumulateAndGet(event.version(), Math::max);
+            if (event.entity() == Entity.BOOK) {
+                catalogCache.invalidateBook(event.id(), event.relatedIds());
+            } else {
+                catalogCache.invalidateAuthor(event.id(), event.relatedIds());
+            }
+            queryCache.invalidate(event.tags());
+            peer.lastSequence = event.sequence();
+            receivedEvents.incrementAndGet();
+        }
+    }
+
+    private void resync() {
+        catalogCache.clear();
+        queryCache.clear();
+        resyncs.incrementAndGet();
+    }
+
+    /**
+     * Receive state of one peer node
+     */
+    private static final class Peer {
+        private long lastSequence = -1;
+    }
+
+    /**
+     * Counters of the invalidation bus
+     *
+     * @param node      ID of this node
+     * @param published events published by this node
+     * @param received  events applied from peers
+     * @param replays   gaps recovered by replay
+     * @param resyncs   gaps that cleared the local caches
+     * @param peers     number of peers heard from
+     */
+    public record BusStatistics(String node, long published, long received, long replays, long resyncs,
+            int peers) {
+    }
+}
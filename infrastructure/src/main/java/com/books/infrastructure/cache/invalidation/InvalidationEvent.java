@@ -0,0 +1,25 @@
+package com.books.infrastructure.cache.invalidation;
+
+import java.util.Set;
+
+/**
+ * Invalidation of one written entity, published to the other nodes
+ *
+ * @param sequence   position in the publishing node's event stream, from 1
+ * @param version    version stamp of the write, ordered across nodes
+ * @param entity     the type of the written entity
+ * @param id         the entity ID
+ * @param relatedIds IDs of the linked books or authors whose cached entries embed it
+ * @param tags       search result tags affected by the write
+ * @author books-authors-api
+ */
+public record InvalidationEvent(long sequence, long version, Entity entity, Long id, Set<Long> relatedIds,
+        Set<String> tags) {
+
+    /**
+     * Types of cached entities
+     */
+    public enum Entity {
+        BOOK, AUTHOR
+    }
+}
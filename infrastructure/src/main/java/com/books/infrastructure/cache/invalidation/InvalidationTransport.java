@@ -0,0 +1,46 @@
+package com.books.infrastructure.cache.invalidation;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Carries invalidation batches between nodes.
+ * Delivery may be lossy and unordered across nodes; the bus detects gaps
+ * from sequence numbers and resynchronizes. Declare a bean of this type,
+ * e.g. over a message broker, to replace the in-process loopback.
+ *
+ * @author books-authors-api
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Sends a batch to every subscribed node, including the sender
+     *
+     * @param batch the batch
+     * @throws IOException if the batch could not be sent
+     */
+    void publish(InvalidationBatch batch) throws IOException;
+
+    /**
+     * Registers the receiver of the batches of all nodes
+     *
+     * @param listener called for every delivered batch
+     */
+    void subscribe(Consumer<InvalidationBatch> listener);
+
+    /**
+     * Redelivers the events a node published in a range of sequence numbers,
+     * if the transport retains them
+     *
+     * @param node            the publishing node
+     * @param afterSequence   the last sequence number received from it
+     * @param throughSequence the last missed sequence number
+     * @param listener        receives the retained events as batches
+     * @return true if every missed event was redelivered, false if some are
+     *         not available
+     */
+    default boolean replay(String node, long afterSequence, long throughSequence,
+            Consumer<InvalidationBatch> listener) {
+        return false;
+    }
+}
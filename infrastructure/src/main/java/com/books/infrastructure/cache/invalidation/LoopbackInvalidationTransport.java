@@ -0,0 +1,84 @@
+package com.books.infrastructure.cache.invalidation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process transport that delivers every batch synchronously to all
+ * buses subscribed to the same instance. Used on a single node, where it
+ * only echoes the node's own batches, and in tests, where several buses
+ * share one instance to act as a cluster. Keeps the latest events of each
+ * node for {@link #replay}.
+ *
+ * @author books-authors-api
+ */
+public class LoopbackInvalidationTransport implements InvalidationTransport {
+
+    private static final int DEFAULT_RETAINED_EVENTS = 10_000;
+
+    private final List<Consumer<InvalidationBatch>> listeners = new CopyOnWriteArrayList<>();
+    private final Map<String, Deque<InvalidationEvent>> retained = new HashMap<>();
+    private final int retainedEvents;
+
+    public LoopbackInvalidationTransport() {
+        this(DEFAULT_RETAINED_EVENTS);
+    }
+
+    /**
+     * Creates a transport
+     *
+     * @param retainedEvents the number of events kept per node for replay
+     */
+    public LoopbackInvalidationTransport(int retainedEvents) {
+        this.retainedEvents = retainedEvents;
+    }
+
+    @Override
+    public void publish(InvalidationBatch batch) {
+        synchronized (retained) {
+            Deque<InvalidationEvent> events = retained.computeIfAbsent(batch.node(), node -> new ArrayDeque<>());
+            for (InvalidationEvent event : batch.events()) {
+                events.addLast(event);
+                if (events.size() > retainedEvents) {
+                    events.pollFirst();
+                }
+            }
+        }
+        listeners.forEach(listener -> listener.accept(batch));
+    }
+
+    @Override
+    public void subscribe(Consumer<InvalidationBatch> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public boolean replay(String node, long afterSequence, long throughSequence,
+            Consumer<InvalidationBatch> listener) {
+        List<InvalidationEvent> missed = new ArrayList<>();
+        synchronized (retained) {
+            Deque<InvalidationEvent> events = retained.getOrDefault(node, new ArrayDeque<>());
+            long expected = afterSequence + 1;
+            for (InvalidationEvent event : events) {
+                if (event.sequence() == expected && expected <= throughSequence) {
+                    missed.add(event);
+                    expected++;
+                }
+            }
+            if (expected <= throughSequence) {
+                // Evicted from the history, or never sent
+                return false;
+            }
+        }
+        if (!missed.isEmpty()) {
+            listener.accept(new InvalidationBatch(node, missed.get(missed.size() - 1).sequence(), missed));
+        }
+        return true;
+    }
+}
@@ -3,16 +3,22 @@ package com.books.infrastructure.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import com.zaxxer.hikari.HikariDataSource;
 
 import javax.sql.DataSource;
 
 /**
  * Database configuration class for connecting to Oracle database.
- * Sets up the data source and JDBC templates for interacting with PL/SQL
- * procedures.
+ * Sets up the pooled catalog data source, its transaction manager and the
+ * JDBC templates for interacting with PL/SQL procedures. Audit logs use a
+ * separate pool, see {@link JpaConfig}. When a read replica is configured,
+ * reads of clients that accept its lag are routed to it, see
+ * {@link ReplicaRoutingDataSource}.
  *
  * @author books
  */
@@ -31,21 +37,82 @@ public class DatabaseConfig {
     @Value("${spring.datasource.driver-class-name}")
     private String dataSourceDriverClassName;
 
+    @Value("${spring.datasource.pool.maximum-size:10}")
+    private int maximumPoolSize;
+
+    @Value("${spring.datasource.pool.minimum-idle:2}")
+    private int minimumIdle;
+
+    @Value("${spring.datasource.pool.connection-timeout-ms:30000}")
+    private long connectionTimeoutMs;
+
+    @Value("${spring.datasource.pool.idle-timeout-ms:600000}")
+    private long idleTimeoutMs;
+
+    @Value("${spring.datasource.pool.max-lifetime-ms:1800000}")
+    private long maxLifetimeMs;
+
+    @Value("${spring.datasource.replica.url:}")
+    private String replicaUrl;
+
+    @Value("${spring.datasource.replica.username:${spring.datasource.username}}")
+    private String replicaUsername;
+
+    @Value("${spring.datasource.replica.password:${spring.datasource.password}}")
+    private String replicaPassword;
+
+    @Value("${spring.datasource.replica.pool.maximum-size:5}")
+    private int replicaMaximumPoolSize;
+
     /**
-     * Creates and configures the data source for connecting to the Oracle database.
+     * Creates and configures the pooled data source used by the catalog
+     * procedures, routing to the read replica if one is configured.
      *
      * @return the configured data source
      */
     @Bean
+    @Primary
     public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
+        HikariDataSource primary = pool("catalog", dataSourceUrl, dataSourceUsername, dataSourcePassword,
+                maximumPoolSize);
+        if (replicaUrl == null || replicaUrl.isBlank()) {
+            return primary;
+        }
+        HikariDataSource replica = pool("catalog-replica", replicaUrl, replicaUsername, replicaPassword,
+                replicaMaximumPoolSize);
+        replica.setReadOnly(true);
+        return new ReplicaRoutingDataSource(primary, replica);
+    }
+
+    private HikariDataSource pool(String name, String url, String username, String password, int maximumSize) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
         dataSource.setDriverClassName(dataSourceDriverClassName);
-        dataSource.setUrl(dataSourceUrl);
-        dataSource.setUsername(dataSourceUsername);
-        dataSource.setPassword(dataSourcePassword);
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(maximumSize);
+        dataSource.setMinimumIdle(Math.min(minimumIdle, maximumSize));
+        dataSource.setConnectionTimeout(connectionTimeoutMs);
+        dataSource.setIdleTimeout(idleTimeoutMs);
+        dataSource.setMaxLifetime(maxLifetimeMs);
         return dataSource;
     }
 
+    /**
+     * Creates the transaction manager for catalog operations. It is the
+     * default one, so plain {@code @Transactional} services never touch the
+     * audit pool.
+     *
+     * @param dataSource the catalog data source
+     * @return the configured transaction manager
+     */
+    @Bean
+    @Primary
+    public DataSourceTransactionManager transactionManager(DataSource dataSource) {
+        return new DataSourceTransactionManager(dataSource);
+    }
+
     /**
      * Creates a JdbcTemplate bean for executing SQL statements and stored
      * procedures.
@@ -69,4 +136,4 @@ public class DatabaseConfig {
     public NamedParameterJdbcTemplate namedParameterJdbcTemplate(DataSource dataSource) {
         return new NamedParameterJdbcTemplate(dataSource);
     }
-}
\ No newline at end of file
+}
@@ -1,37 +1,117 @@
 package com.books.infrastructure.config;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import javax.sql.DataSource;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 
+import com.zaxxer.hikari.HikariDataSource;
+
 import jakarta.persistence.EntityManagerFactory;
 
 /**
  * Configuring JPA for entity auditing.
- * Defines the EntityManagerFactory and TransactionManager.
+ * Defines a dedicated audit DataSource with its own pool, the
+ * EntityManagerFactory and the TransactionManager used by
+ * {@code ApiAuditLogRepository}, so audit load can never exhaust the
+ * connections of the catalog repositories.
  *
  * @author books-authors-api
  */
 @Configuration
 public class JpaConfig {
 
+    @Value("${spring.datasource.audit.url:${spring.datasource.url}}")
+    private String auditUrl;
+
+    @Value("${spring.datasource.audit.username:${spring.datasource.username}}")
+    private String auditUsername;
+
+    @Value("${spring.datasource.audit.password:${spring.datasource.password}}")
+    private String auditPassword;
+
+    @Value("${spring.datasource.audit.driver-class-name:${spring.datasource.driver-class-name}}")
+    private String auditDriverClassName;
+
+    @Value("${spring.datasource.audit.pool.maximum-size:4}")
+    private int maximumPoolSize;
+
+    @Value("${spring.datasource.audit.pool.minimum-idle:1}")
+    private int minimumIdle;
+
+    /**
+     * Short on purpose: a request waiting for an audit connection is delayed
+     * by at most this long before the audit entry is dropped
+     */
+    @Value("${spring.datasource.audit.pool.connection-timeout-ms:2000}")
+    private long connectionTimeoutMs;
+
+    @Value("${spring.datasource.audit.pool.validation-timeout-ms:1000}")
+    private long validationTimeoutMs;
+
+    @Value("${spring.datasource.audit.pool.max-lifetime-ms:1800000}")
+    private long maxLifetimeMs;
+
+    @Value("${spring.datasource.audit.query-timeout-ms:5000}")
+    private int queryTimeoutMs;
+
+    @Value("${spring.jpa.properties.hibernate.dialect:org.hibernate.dialect.OracleDialect}")
+    private String dialect;
+
+    /**
+     * Creates the pooled data source for audit logs. Defaults to the catalog
+     * database when no dedicated audit database is configured, but always
+     * with a separate pool. Startup does not fail if the audit database is
+     * unreachable.
+     *
+     * @return the audit data source
+     */
     @Bean
-    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+    public DataSource auditDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("audit");
+        dataSource.setDriverClassName(auditDriverClassName);
+        dataSource.setJdbcUrl(auditUrl);
+        dataSource.setUsername(auditUsername);
+        dataSource.setPassword(auditPassword);
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        dataSource.setMinimumIdle(minimumIdle);
+        dataSource.setConnectionTimeout(connectionTimeoutMs);
+        dataSource.setValidationTimeout(validationTimeoutMs);
+        dataSource.setMaxLifetime(maxLifetimeMs);
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+
+    @Bean
+    public LocalContainerEntityManagerFactoryBean auditEntityManagerFactory(
+            @Qualifier("auditDataSource") DataSource auditDataSource) {
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
-        em.setDataSource(dataSource);
+        em.setPersistenceUnitName("audit");
+        em.setDataSource(auditDataSource);
         em.setPackagesToScan("com.books.domain.model");
         em.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("hibernate.dialect", dialect);
+        properties.put("jakarta.persistence.query.timeout", queryTimeoutMs);
+        em.setJpaPropertyMap(properties);
         return em;
     }
 
     @Bean
-    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+    public JpaTransactionManager auditTransactionManager(
+            @Qualifier("auditEntityManagerFactory") EntityManagerFactory auditEntityManagerFactory) {
         JpaTransactionManager transactionManager = new JpaTransactionManager();
-        transactionManager.setEntityManagerFactory(entityManagerFactory);
+        transactionManager.setEntityManagerFactory(auditEntityManagerFactory);
         return transactionManager;
     }
-}
\ No newline at end of file
+}
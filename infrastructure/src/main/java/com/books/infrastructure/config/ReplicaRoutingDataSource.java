@@ -0,0 +1,71 @@
+package com.books.infrastructure.config;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.books.infrastructure.cache.ReadRouter;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Data source that hands out replica connections to reads the
+ * {@link ReadRouter} sent to the replica, and primary connections to
+ * everything else.
+ * <p>
+ * Connections are fetched lazily, at the first statement rather than when
+ * a transaction begins, since services read inside read-only transactions
+ * that start before the router has chosen the source. A transaction keeps
+ * the connection it fetched, so a read-only transaction whose first read
+ * goes to the replica stays there, and reads inside write transactions
+ * always see the primary.
+ *
+ * @author books-authors-api
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, HikariDataSource replica) {
+        super(router(primary, replica));
+        this.primary = primary;
+        this.replica = replica;
+    }
+
+    /**
+     * Closes both pools; called by Spring on shutdown
+     */
+    public void close() {
+        replica.close();
+        primary.close();
+    }
+
+    private static DataSource router(HikariDataSource primary, HikariDataSource replica) {
+        AbstractRoutingDataSource router = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return ReadRouter.isReplicaRead() && !inWriteTransaction() ? REPLICA : PRIMARY;
+            }
+        };
+        router.setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        router.setDefaultTargetDataSource(primary);
+        router.afterPropertiesSet();
+        return router;
+    }
+
+    /**
+     * Whether the current thread runs a transaction that may write, whose
+     * reads must see its own changes
+     */
+    private static boolean inWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+}
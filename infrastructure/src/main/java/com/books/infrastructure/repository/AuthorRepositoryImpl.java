@@ -2,22 +2,31 @@ package com.books.infrastructure.repository;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SqlOutParameter;
+import org.springframework.jdbc.core.SqlParameter;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.simple.SimpleJdbcCall;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Repository;
 
 import com.books.domain.model.Author;
 import com.books.domain.model.Book;
+import com.books.domain.model.RowVersion;
+import com.books.domain.model.TextChunk;
 import com.books.domain.repository.AuthorRepository;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -52,6 +61,8 @@ public class AuthorRepositoryImpl implements AuthorRepository {
                     .lastName(rs.getString("last_name"))
                     .birthDate(rs.getDate("birth_date") != null ? rs.getDate("birth_date").toLocalDate() : null)
                     .biography(rs.getString("biography"))
+                    .version(rs.getLong("version"))
+                    .updatedAt(RowVersions.updatedAt(rs))
                     .books(rs.getString("books_json") != null
                             ? parseBooksJson(rs.getString("books_json"))
                             : new HashSet<>(Collections.singletonList(Book.builder()
@@ -80,33 +91,82 @@ public class AuthorRepositoryImpl implements AuthorRepository {
         }
     };
 
+    /**
+     * Maps a row of the basic procedures, which return no books
+     */
+    private static final RowMapper<Author> AUTHOR_BASIC_ROW_MAPPER = (rs, rowNum) -> Author.builder()
+            .authorId(rs.getLong("author_id"))
+            .firstName(rs.getString("first_name"))
+            .lastName(rs.getString("last_name"))
+            .birthDate(rs.getDate("birth_date") != null ? rs.getDate("birth_date").toLocalDate() : null)
+            .biography(rs.getString("biography"))
+            .version(rs.getLong("version"))
+            .updatedAt(RowVersions.updatedAt(rs))
+            .books(new HashSet<>())
+            .build();
+
     @Override
     public List<Author> findAll(int page, int size) {
         log.debug("Getting all authors with pagination using stored procedure");
 
         try {
-            SimpleJdbcCall jdbcCall = new SimpleJdbcCall(jdbcTemplate)
-                    .withCatalogName("AUTHOR_PKG")
-                    .withProcedureName("GET_ALL_AUTHORS")
-                    .returningResultSet("p_authors", AUTHOR_ROW_MAPPER);
+            return loadAll(page, size);
+        } catch (Exception e) {
+            log.error("Error retrieving all authors", e);
+            return List.of();
+        }
+    }
 
-            MapSqlParameterSource params = new MapSqlParameterSource()
-                    .addValue("p_page_number", page)
-                    .addValue("p_page_size", size);
+    /**
+     * Runs the paged listing procedure, propagating database errors
+     *
+     * @param page the page number
+     * @param size the page size
+     * @return the authors on the page
+     */
+    List<Author> loadAll(int page, int size) {
+        SimpleJdbcCall jdbcCall = new SimpleJdbcCall(jdbcTemplate)
+                .withCatalogName("AUTHOR_PKG")
+                .withProcedureName("GET_ALL_AUTHORS")
+                .returningResultSet("p_authors", AUTHOR_ROW_MAPPER);
 
-            Map<String, Object> result = jdbcCall.execute(params);
-            if (result == null) {
-                log.warn("Stored procedure returned null result");
-                return List.of();
-            }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("p_page_number", page)
+                .addValue("p_page_size", size);
 
-            @SuppressWarnings("unchecked")
-            List<Author> authors = (List<Author>) result.get("p_authors");
-            return authors != null ? authors : List.of();
-        } catch (Exception e) {
-            log.error("Error retrieving all authors", e);
+        Map<String, Object> result = jdbcCall.execute(params);
+        if (result == null) {
+            log.warn("Stored procedure returned null result");
             return List.of();
         }
+
+        @SuppressWarnings("unchecked")
+        List<Author> authors = (List<Author>) result.get("p_authors");
+        return authors != null ? authors : List.of();
+    }
+
+    /**
+     * Runs the paged listing procedure that skips the join to books,
+     * propagating database errors
+     *
+     * @param page the page number
+     * @param size the page size
+     * @return the authors on the page, without their books and biographies
+     */
+    List<Author> loadAllBasic(int page, int size) {
+        SimpleJdbcCall jdbcCall = new SimpleJdbcCall(jdbcTemplate)
+                .withCatalogName("AUTHOR_PKG")
+                .withProcedureName("GET_ALL_AUTHORS_BASIC")
+                .returningResultSet("p_authors", AUTHOR_BASIC_ROW_MAPPER);
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("p_page_number", page)
+                .addValue("p_page_size", size);
+
+        Map<String, Object> result = jdbcCall.execute(params);
+        @SuppressWarnings("unchecked")
+        List<Author> authors = (List<Author>) result.get("p_authors");
+        return authors != null ? authors : List.of();
     }
 
     @Override
@@ -114,23 +174,103 @@ public class AuthorRepositoryImpl implements AuthorRepository {
         log.debug("Finding author with ID: {}", id);
 
         try {
-            SimpleJdbcCall jdbcCall = new SimpleJdbcCall(jdbcTemplate)
-                    .withCatalogName("AUTHOR_PKG")
-                    .withProcedureName("GET_AUTHOR_BY_ID")
-                    .returningResultSet("p_author", AUTHOR_ROW_MAPPER);
+            return loadById(id);
+        } catch (Exception e) {
+            log.error("Error finding author with ID: {}", id, e);
+            return Optional.empty();
+        }
+    }
 
-            MapSqlParameterSource params = new MapSqlParameterSource()
-                    .addValue("p_author_id", id);
+    /**
+     * Runs the lookup procedure, propagating database errors
+     *
+     * @param id the author ID
+     * @return the author, or empty if it does not exist
+     */
+    Optional<Author> loadById(Long id) {
+        SimpleJdbcCall jdbcCall = new SimpleJdbcCall(jdbcTemplate)
+                .withCatalogName("AUTHOR_PKG")
+                .withProcedureName("GET_AUTHOR_BY_ID")
+                .returningResultSet("p_author", AUTHOR_ROW_MAPPER);
 
-            Map<String, Object> result = jdbcCall.execute(params);
-            @SuppressWarnings("unchecked")
-            List<Author> authors = (List<Author>) result.get("p_author");
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("p_author_id", id);
+
+        Map<String, Object> result = jdbcCall.execute(params);
+        @SuppressWarnings("unchecked")
+        List<Author> authors = (List<Author>) result.get("p_author");
+
+        return authors.isEmpty() ? Optional.empty() : Optional.of(authors.get(0));
+    }
 
-            return authors.isEmpty() ? Optional.empty() : Optional.of(authors.get(0));
+    @Override
+    public List<Author> findAllByIds(Collection<Long> ids) {
+        log.debug("Finding authors with IDs: {}", ids);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        try {
+            Map<Long, Author> byId = loadByIds(ids);
+            return ids.stream().distinct().map(byId::get).filter(Objects::nonNull).toList();
         } catch (Exception e) {
-            log.error("Error finding author with ID: {}", id, e);
-            return Optional.empty();
+            log.error("Error finding authors with IDs: {}", ids, e);
+            return List.of();
+        }
+    }
+
+    /**
+     * Runs the multi-ID lookup procedure, propagating database errors
+     *
+     * @param ids the author IDs
+     * @return the authors found, by ID
+     */
+    Map<Long, Author> loadByIds(Collection<Long> ids) {
+        SimpleJdbcCall jdbcCall = new SimpleJdbcCall(jdbcTemplate)
+                .withCatalogName("AUTHOR_PKG")
+                .withProcedureName("GET_AUTHORS_BY_IDS")
+                .returningResultSet("p_authors", AUTHOR_ROW_MAPPER);
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("p_author_ids", ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+
+        Map<String, Object> result = jdbcCall.execute(params);
+        @SuppressWarnings("unchecked")
+        List<Author> authors = (List<Author>) result.get("p_authors");
+
+        Map<Long, Author> byId = new HashMap<>();
+        if (authors != null) {
+            authors.forEach(author -> byId.put(author.getAuthorId(), author));
         }
+        return byId;
+    }
+
+    /**
+     * Runs the multi-ID lookup procedure that skips the join to books,
+     * propagating database errors
+     *
+     * @param ids           the author IDs
+     * @param withBiography whether to read the biography CLOB
+     * @return the authors found, by ID, without their books
+     */
+    Map<Long, Author> loadBasicByIds(Collection<Long> ids, boolean withBiography) {
+        SimpleJdbcCall jdbcCall = new SimpleJdbcCall(jdbcTemplate)
+                .withCatalogName("AUTHOR_PKG")
+                .withProcedureName("GET_AUTHORS_BASIC_BY_IDS")
+                .returningResultSet("p_authors", AUTHOR_BASIC_ROW_MAPPER);
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("p_author_ids", ids.stream().map(String::valueOf).collect(Collectors.joining(",")))
+                .addValue("p_with_biography", withBiography ? 1 : 0);
+
+        Map<String, Object> result = jdbcCall.execute(params);
+        @SuppressWarnings("unchecked")
+        List<Author> authors = (List<Author>) result.get("p_authors");
+
+        Map<Long, Author> byId = new HashMap<>();
+        if (authors != null) {
+            authors.forEach(author -> byId.put(author.getAuthorId(), author));
+        }
+        return byId;
     }
 
     @Override
@@ -148,9 +288,16 @@ public class AuthorRepositoryImpl implements AuthorRepository {
                 .addValue("p_first_name", author.getFirstName())
                 .addValue("p_last_name", author.getLastName())
                 .addValue("p_birth_date", author.getBirthDate())
-                .addValue("p_biography", author.getBiography());
+                .addValue("p_biography", author.getBiography())
+                .addValue("p_expected_version",
+                        author.getAuthorId() != null ? WriteCondition.expectedVersion(author.getVersion()) : null);
 
-        Map<String, Object> result = jdbcCall.execute(params);
+        Map<String, Object> result;
+        try {
+            result = jdbcCall.execute(params);
+        } catch (DataAccessException e) {
+            throw WriteCondition.translate(e);
+        }
         Long newId = ((Number) result.get("p_author_id")).longValue();
         author.setAuthorId(newId);
 
@@ -239,4 +386,124 @@ public class AuthorRepositoryImpl implements AuthorRepository {
         List<Author> authors = (List<Author>) result.get("p_authors");
         return authors != null ? authors : List.of();
     }
-}
\ No newline at end of file
+
+    /**
+     * Reads part of an author's biography, propagating database errors so
+     * that a failure is not mistaken for the end of the text
+     */
+    @Override
+    public Optional<TextChunk> readBiography(Long id, long offset, int length) {
+        log.debug("Reading biography of author with ID: {} from offset {}", id, offset);
+
+        SimpleJdbcCall jdbcCall = new SimpleJdbcCall(jdbcTemplate)
+                .withCatalogName("AUTHOR_PKG")
+                .withProcedureName("READ_AUTHOR_BIOGRAPHY")
+                .declareParameters(
+                        new SqlParameter("p_author_id", Types.NUMERIC),
+                        new SqlParameter("p_offset", Types.NUMERIC),
+                        new SqlParameter("p_amount", Types.NUMERIC),
+                        new SqlOutParameter("p_length", Types.NUMERIC),
+                        new SqlOutParameter("p_text", Types.VARCHAR));
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("p_author_id", id)
+                .addValue("p_offset", offset + 1)
+                .addValue("p_amount", length);
+
+        Map<String, Object> result = jdbcCall.execute(params);
+        long total = ((Number) result.get("p_length")).longValue();
+        if (total < 0) {
+            return Optional.empty();
+        }
+        String text = (String) result.get("p_text");
+        return Optional.of(new TextChunk(total, text != null ? text : ""));
+    }
+
+    @Override
+    public Optional<RowVersion> findVersionById(Long id) {
+        try {
+            return loadVersion(id);
+        } catch (Exception e) {
+            log.error("Error finding the version of author with ID: {}", id, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Runs the version lookup procedure, which reads the author row alone,
+     * propagating database errors
+     *
+     * @param id the author ID
+     * @return the version, or empty if the author does not exist
+     */
+    Optional<RowVersion> loadVersion(Long id) {
+        SimpleJdbcCall jdbcCall = new SimpleJdbcCall(jdbcTemplate)
+                .withCatalogName("AUTHOR_PKG")
+                .withProcedureName("GET_AUTHOR_VERSION")
+                .returningResultSet("p_versions", RowVersions.ROW_MAPPER);
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("p_author_id", id);
+
+        Map<String, Object> result = jdbcCall.execute(params);
+        @SuppressWarnings("unchecked")
+        List<RowVersion> versions = (List<RowVersion>) result.get("p_versions");
+        return versions == null || versions.isEmpty() ? Optional.empty() : Optional.of(versions.get(0));
+    }
+
+    @Override
+    public List<RowVersion> findVersions(int page, int size) {
+        try {
+            return loadVersions(page, size);
+        } catch (Exception e) {
+            log.error("Error finding the versions of the authors on page {}", page, e);
+            return List.of();
+        }
+    }
+
+    /**
+     * Runs the page version procedure, which reads the author rows alone,
+     * propagating database errors
+     *
+     * @param page the page number
+     * @param size the page size
+     * @return the versions of the authors on the page, in listing order
+     */
+    List<RowVersion> loadVersions(int page, int size) {
+        SimpleJdbcCall jdbcCall = new SimpleJdbcCall(jdbcTemplate)
+                .withCatalogName("AUTHOR_PKG")
+                .withProcedureName("GET_AUTHOR_PAGE_VERSIONS")
+                .returningResultSet("p_versions", RowVersions.ROW_MAPPER);
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("p_page_number", page)
+                .addValue("p_page_size", size);
+
+        Map<String, Object> result = jdbcCall.execute(params);
+        @SuppressWarnings("unchecked")
+        List<RowVersion> versions = (List<RowVersion>) result.get("p_versions");
+        return versions != null ? versions : List.of();
+    }
+
+    /**
+     * Runs the multi-ID version procedure, which reads the author rows alone,
+     * propagating database errors
+     *
+     * @param ids the author IDs
+     * @return the versions of the authors found
+     */
+    List<RowVersion> loadVersionsByIds(Collection<Long> ids) {
+        SimpleJdbcCall jdbcCall = new SimpleJdbcCall(jdbcTemplate)
+                .withCatalogName("AUTHOR_PKG")
+                .withProcedureName("GET_AUTHOR_VERSIONS_BY_IDS")
+                .returningResultSet("p_versions", RowVersions.ROW_MAPPER);
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("p_author_ids", ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+
+        Map<String, Object> result = jdbcCall.execute(params);
+        @SuppressWarnings("unchecked")
+        List<RowVersion> versions = (List<RowVersion>) result.get("p_versions");
+        return versions != null ? versions : List.of();
+    }
+}
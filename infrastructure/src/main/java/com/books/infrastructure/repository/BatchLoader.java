@@ -0,0 +1,209 @@
+package com.books.infrastructure.repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.books.infrastructure.cache.ReadRouter;
+import com.books.infrastructure.repository.PointLookupLoader.LoaderStatistics;
+
+/**
+ * Coalesces and batches lookups by ID. Concurrent lookups of the same ID
+ * share one result, and distinct IDs requested within the batch window
+ * are loaded with one multi-ID call.
+ * <p>
+ * The first lookup of a batch leads it: it waits for the window, or until
+ * the batch is full, and then runs the query on its own thread for all
+ * waiting callers. A batch of one ID uses the single-ID query. Lookups
+ * inside write transactions are not batched, so they keep seeing their own
+ * uncommitted writes, and replica reads never share a batch with primary
+ * reads.
+ *
+ * @author books-authors-api
+ */
+final class BatchLoader<V> {
+
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Function<Long, Optional<V>> singleLoader;
+    private final Function<Collection<Long>, Map<Long, V>> batchLoader;
+
+    private final Lane primary = new Lane();
+    private final Lane replica = new Lane();
+
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong queries = new AtomicLong();
+
+    BatchLoader(boolean enabled, Duration window, int maxBatchSize, Function<Long, Optional<V>> singleLoader,
+            Function<Collection<Long>, Map<Long, V>> batchLoader) {
+        this.enabled = enabled;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.singleLoader = singleLoader;
+        this.batchLoader = batchLoader;
+    }
+
+    /**
+     * Looks up one ID, sharing the query with concurrent lookups
+     *
+     * @param id the ID
+     * @return the value, or empty if it does not exist
+     */
+    Optional<V> load(Long id) {
+        lookups.incrementAndGet();
+        if (!enabled || inWriteTransaction()) {
+            queries.incrementAndGet();
+            return singleLoader.apply(id);
+        }
+        Lane lane = ReadRouter.isReplicaRead() ? replica : primary;
+
+        CompletableFuture<Optional<V>> result;
+        Batch leading = null;
+        synchronized (lane) {
+            result = lane.inFlight.get(id);
+            if (result != null) {
+                coalesced.incrementAndGet();
+            } else {
+                result = new CompletableFuture<>();
+                lane.inFlight.put(id, result);
+                if (lane.open == null) {
+                    lane.open = new Batch();
+                    leading = lane.open;
+                }
+                Batch batch = lane.open;
+                batch.ids.add(id);
+                if (batch.ids.size() >= maxBatchSize) {
+                    lane.open = null;
+                    batch.full.countDown();
+                }
+            }
+        }
+
+        if (leading != null) {
+            awaitWindow(leading);
+            synchronized (lane) {
+                if (lane.open == leading) {
+                    lane.open = null;
+                }
+            }
+            run(lane, leading);
+        }
+        return join(result);
+    }
+
+    /**
+     * Whether the current thread runs a transaction that may write. Its
+     * reads must see the primary database and its own changes, so they are
+     * neither batched nor served from the caches.
+     *
+     * @return true inside a transaction that is not read-only
+     */
+    static boolean inWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * Returns the lookup counters
+     *
+     * @return the statistics
+     */
+    LoaderStatistics statistics() {
+        long total = lookups.get();
+        long sent = queries.get();
+        return new LoaderStatistics(total, coalesced.get(), sent,
+                sent > 0 ? (double) (total - coalesced.get()) / sent : 0);
+    }
+
+    private void awaitWindow(Batch batch) {
+        try {
+            batch.full.await(windowNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs a closed batch and completes its waiting lookups. Whatever the
+     * loader throws, even an {@link Error}, fails the lookups it left
+     * pending, so that none of them waits forever and later lookups of the
+     * same IDs start a new query.
+     */
+    private void run(Lane lane, Batch batch) {
+        List<Long> ids = batch.ids;
+        queries.incrementAndGet();
+        Throwable failure = null;
+        try {
+            if (ids.size() == 1) {
+                Long id = ids.get(0);
+                complete(lane, id, singleLoader.apply(id));
+            } else {
+                Map<Long, V> found = batchLoader.apply(ids);
+                ids.forEach(id -> complete(lane, id, Optional.ofNullable(found.get(id))));
+            }
+        } catch (Throwable e) {
+            // Rethrown by join() on every waiting thread, this one included
+            failure = e;
+        } finally {
+            Throwable cause = failure != null ? failure
+                    : new IllegalStateException("Batch lookup finished without a result");
+            for (Long id : ids) {
+                CompletableFuture<Optional<V>> result = lane.inFlight.remove(id);
+                if (result != null) {
+                    result.completeExceptionally(cause);
+                }
+            }
+        }
+    }
+
+    private void complete(Lane lane, Long id, Optional<V> value) {
+        CompletableFuture<Optional<V>> result = lane.inFlight.remove(id);
+        if (result != null) {
+            result.complete(value);
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Lookups in flight and the batch accepting new IDs, for one data source
+     */
+    private final class Lane {
+        private final Map<Long, CompletableFuture<Optional<V>>> inFlight = new ConcurrentHashMap<>();
+        private Batch open;
+    }
+
+    /**
+     * IDs collected for one query
+     */
+    private static final class Batch {
+        private final List<Long> ids = new ArrayList<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+    }
+}
@@ -2,22 +2,31 @@ package com.books.infrastructure.repository;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SqlOutParameter;
+import org.springframework.jdbc.core.SqlParameter;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.simple.SimpleJdbcCall;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Repository;
 
 import com.books.domain.model.Author;
 import com.books.domain.model.Book;
+import com.books.domain.model.RowVersion;
+import com.books.domain.model.TextChunk;
 import com.books.domain.repository.BookRepository;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -58,6 +67,8 @@ public class BookRepositoryImpl implements BookRepository {
                     .publisher(rs.getString("PUBLISHER"))
                     .genre(rs.getString("GENRE"))
                     .summary(rs.getString("SUMMARY"))
+                    .version(rs.getLong("VERSION"))
+                    .updatedAt(RowVersions.updatedAt(rs))
                     .authors(rs.getString("authors_json") != null
                             ? parseAuthorsJson(rs.getString("authors_json"))
                             : new HashSet<>(Collections.singleton(Author.builder()
@@ -84,54 +95,185 @@ public class BookRepositoryImpl implements BookRepository {
         }
     };
 
+    /**
+     * Maps a row of the basic procedures, which return no authors and no
+     * summary
+     */
+    private static final RowMapper<Book> BOOK_BASIC_ROW_MAPPER = (rs, rowNum) -> Book.builder()
+            .bookId(rs.getLong("BOOK_ID"))
+            .title(rs.getString("TITLE"))
+            .isbn(rs.getString("ISBN"))
+            .publicationDate(rs.getDate("PUBLICATION_DATE") != null
+                    ? rs.getDate("PUBLICATION_DATE").toLocalDate()
+                    : null)
+            .publisher(rs.getString("PUBLISHER"))
+            .genre(rs.getString("GENRE"))
+            .version(rs.getLong("VERSION"))
+            .updatedAt(RowVersions.updatedAt(rs))
+            .authors(new HashSet<>())
+            .build();
+
     @Override
     public List<Book> findAll(int page, int size) {
         log.debug("Getting all books with pagination using stored procedure");
         try {
-            SimpleJdbcCall jdbcCall = new SimpleJdbcCall(jdbcTemplate)
-                    .withCatalogName("BOOK_PKG")
-                    .withProcedureName("GET_ALL_BOOKS")
-                    .returningResultSet("p_books", BOOK_ROW_MAPPER);
+            return loadAll(page, size);
+        } catch (Exception e) {
+            log.error("Error retrieving all authors", e);
+            return List.of();
+        }
+    }
 
-            MapSqlParameterSource params = new MapSqlParameterSource()
-                    .addValue("p_page_number", page)
-                    .addValue("p_page_size", size);
+    /**
+     * Runs the paged listing procedure, propagating database errors
+     *
+     * @param page the page number
+     * @param size the page size
+     * @return the books on the page
+     */
+    List<Book> loadAll(int page, int size) {
+        SimpleJdbcCall jdbcCall = new SimpleJdbcCall(jdbcTemplate)
+                .withCatalogName("BOOK_PKG")
+                .withProcedureName("GET_ALL_BOOKS")
+                .returningResultSet("p_books", BOOK_ROW_MAPPER);
 
-            Map<String, Object> result = jdbcCall.execute(params);
-            if (result == null) {
-                log.warn("Stored procedure returned null result");
-                return List.of();
-            }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("p_page_number", page)
+                .addValue("p_page_size", size);
 
-            @SuppressWarnings("unchecked")
-            List<Book> books = (List<Book>) result.get("p_books");
-            return books != null ? books : List.of();
-        } catch (Exception e) {
-            log.error("Error retrieving all authors", e);
+        Map<String, Object> result = jdbcCall.execute(params);
+        if (result == null) {
+            log.warn("Stored procedure returned null result");
             return List.of();
         }
+
+        @SuppressWarnings("unchecked")
+        List<Book> books = (List<Book>) result.get("p_books");
+        return books != null ? books : List.of();
+    }
+
+    /**
+     * Runs the paged listing procedure that skips the join to authors and
+     * the summary, propagating database errors
+     *
+     * @param page the page number
+     * @param size the page size
+     * @return the books on the page, without their authors
+     */
+    List<Book> loadAllBasic(int page, int size) {
+        SimpleJdbcCall jdbcCall = new SimpleJdbcCall(jdbcTemplate)
+                .withCatalogName("BOOK_PKG")
+                .withProcedureName("GET_ALL_BOOKS_BASIC")
+                .returningResultSet("p_books", BOOK_BASIC_ROW_MAPPER);
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("p_page_number", page)
+                .addValue("p_page_size", size);
+
+        Map<String, Object> result = jdbcCall.execute(params);
+        @SuppressWarnings("unchecked")
+        List<Book> books = (List<Book>) result.get("p_books");
+        return books != null ? books : List.of();
     }
 
     @Override
     public Optional<Book> findById(Long id) {
         try {
-            SimpleJdbcCall jdbcCall = new SimpleJdbcCall(jdbcTemplate)
-                    .withCatalogName("BOOK_PKG")
-                    .withProcedureName("GET_BOOK_BY_ID")
-                    .returningResultSet("p_book", BOOK_ROW_MAPPER);
+            return loadById(id);
+        } catch (Exception e) {
+            log.error("Error finding book with ID: {}", id, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Runs the lookup procedure, propagating database errors
+     *
+     * @param id the book ID
+     * @return the book, or empty if it does not exist
+     */
+    Optional<Book> loadById(Long id) {
+        SimpleJdbcCall jdbcCall = new SimpleJdbcCall(jdbcTemplate)
+                .withCatalogName("BOOK_PKG")
+                .withProcedureName("GET_BOOK_BY_ID")
+                .returningResultSet("p_book", BOOK_ROW_MAPPER);
 
-            Map<String, Object> inParams = new HashMap<>();
-            inParams.put("p_book_id", id);
+        Map<String, Object> inParams = new HashMap<>();
+        inParams.put("p_book_id", id);
 
-            Map<String, Object> result = jdbcCall.execute(inParams);
-            @SuppressWarnings("unchecked")
-            List<Book> books = (List<Book>) result.get("p_book");
+        Map<String, Object> result = jdbcCall.execute(inParams);
+        @SuppressWarnings("unchecked")
+        List<Book> books = (List<Book>) result.get("p_book");
+
+        return books.isEmpty() ? Optional.empty() : Optional.of(books.get(0));
+    }
 
-            return books.isEmpty() ? Optional.empty() : Optional.of(books.get(0));
+    @Override
+    public List<Book> findAllByIds(Collection<Long> ids) {
+        log.debug("Finding books with IDs: {}", ids);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        try {
+            Map<Long, Book> byId = loadByIds(ids);
+            return ids.stream().distinct().map(byId::get).filter(Objects::nonNull).toList();
         } catch (Exception e) {
-            log.error("Error finding book with ID: {}", id, e);
-            return Optional.empty();
+            log.error("Error finding books with IDs: {}", ids, e);
+            return List.of();
+        }
+    }
+
+    /**
+     * Runs the multi-ID lookup procedure, propagating database errors
+     *
+     * @param ids the book IDs
+     * @return the books found, by ID
+     */
+    Map<Long, Book> loadByIds(Collection<Long> ids) {
+        SimpleJdbcCall jdbcCall = new SimpleJdbcCall(jdbcTemplate)
+                .withCatalogName("BOOK_PKG")
+                .withProcedureName("GET_BOOKS_BY_IDS")
+                .returningResultSet("p_books", BOOK_ROW_MAPPER);
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("p_book_ids", ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+
+        Map<String, Object> result = jdbcCall.execute(params);
+        @SuppressWarnings("unchecked")
+        List<Book> books = (List<Book>) result.get("p_books");
+
+        Map<Long, Book> byId = new HashMap<>();
+        if (books != null) {
+            books.forEach(book -> byId.put(book.getBookId(), book));
         }
+        return byId;
+    }
+
+    /**
+     * Runs the multi-ID lookup procedure that skips the join to authors and
+     * the summary, propagating database errors
+     *
+     * @param ids the book IDs
+     * @return the books found, by ID, without their authors
+     */
+    Map<Long, Book> loadBasicByIds(Collection<Long> ids) {
+        SimpleJdbcCall jdbcCall = new SimpleJdbcCall(jdbcTemplate)
+                .withCatalogName("BOOK_PKG")
+                .withProcedureName("GET_BOOKS_BASIC_BY_IDS")
+                .returningResultSet("p_books", BOOK_BASIC_ROW_MAPPER);
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("p_book_ids", ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+
+        Map<String, Object> result = jdbcCall.execute(params);
+        @SuppressWarnings("unchecked")
+        List<Book> books = (List<Book>) result.get("p_books");
+
+        Map<Long, Book> byId = new HashMap<>();
+        if (books != null) {
+            books.forEach(book -> byId.put(book.getBookId(), book));
+        }
+        return byId;
     }
 
     @Override
@@ -150,8 +292,14 @@ public class BookRepositoryImpl implements BookRepository {
         inParams.put("P_PUBLISHER", book.getPublisher());
         inParams.put("P_GENRE", book.getGenre());
         inParams.put("P_SUMMARY", book.getSummary());
+        inParams.put("P_EXPECTED_VERSION", book.getBookId() != null ? WriteCondition.expectedVersion(book.getVersion()) : null);
 
-        Map<String, Object> result = jdbcCall.execute(inParams);
+        Map<String, Object> result;
+        try {
+            result = jdbcCall.execute(inParams);
+        } catch (DataAccessException e) {
+            throw WriteCondition.translate(e);
+        }
         Long bookId = ((Number) result.get("P_BOOK_ID")).longValue();
         book.setBookId(bookId);
 
@@ -270,4 +418,124 @@ public class BookRepositoryImpl implements BookRepository {
         List<Book> books = (List<Book>) result.get("p_books");
         return books != null ? books : List.of();
     }
-}
\ No newline at end of file
+
+    /**
+     * Reads part of a book's summary, propagating database errors so that a
+     * failure is not mistaken for the end of the text
+     */
+    @Override
+    public Optional<TextChunk> readSummary(Long id, long offset, int length) {
+        log.debug("Reading summary of book with ID: {} from offset {}", id, offset);
+
+        SimpleJdbcCall jdbcCall = new SimpleJdbcCall(jdbcTemplate)
+                .withCatalogName("BOOK_PKG")
+                .withProcedureName("READ_BOOK_SUMMARY")
+                .declareParameters(
+                        new SqlParameter("p_book_id", Types.NUMERIC),
+                        new SqlParameter("p_offset", Types.NUMERIC),
+                        new SqlParameter("p_amount", Types.NUMERIC),
+                        new SqlOutParameter("p_length", Types.NUMERIC),
+                        new SqlOutParameter("p_text", Types.VARCHAR));
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("p_book_id", id)
+                .addValue("p_offset", offset + 1)
+                .addValue("p_amount", length);
+
+        Map<String, Object> result = jdbcCall.execute(params);
+        long total = ((Number) result.get("p_length")).longValue();
+        if (total < 0) {
+            return Optional.empty();
+        }
+        String text = (String) result.get("p_text");
+        return Optional.of(new TextChunk(total, text != null ? text : ""));
+    }
+
+    @Override
+    public Optional<RowVersion> findVersionById(Long id) {
+        try {
+            return loadVersion(id);
+        } catch (Exception e) {
+            log.error("Error finding the version of book with ID: {}", id, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Runs the version lookup procedure, which reads the book row alone,
+     * propagating database errors
+     *
+     * @param id the book ID
+     * @return the version, or empty if the book does not exist
+     */
+    Optional<RowVersion> loadVersion(Long id) {
+        SimpleJdbcCall jdbcCall = new SimpleJdbcCall(jdbcTemplate)
+                .withCatalogName("BOOK_PKG")
+                .withProcedureName("GET_BOOK_VERSION")
+                .returningResultSet("p_versions", RowVersions.ROW_MAPPER);
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("p_book_id", id);
+
+        Map<String, Object> result = jdbcCall.execute(params);
+        @SuppressWarnings("unchecked")
+        List<RowVersion> versions = (List<RowVersion>) result.get("p_versions");
+        return versions == null || versions.isEmpty() ? Optional.empty() : Optional.of(versions.get(0));
+    }
+
+    @Override
+    public List<RowVersion> findVersions(int page, int size) {
+        try {
+            return loadVersions(page, size);
+        } catch (Exception e) {
+            log.error("Error finding the versions of the books on page {}", page, e);
+            return List.of();
+        }
+    }
+
+    /**
+     * Runs the page version procedure, which reads the book rows alone,
+     * propagating database errors
+     *
+     * @param page the page number
+     * @param size the page size
+     * @return the versions of the books on the page, in listing order
+     */
+    List<RowVersion> loadVersions(int page, int size) {
+        SimpleJdbcCall jdbcCall = new SimpleJdbcCall(jdbcTemplate)
+                .withCatalogName("BOOK_PKG")
+                .withProcedureName("GET_BOOK_PAGE_VERSIONS")
+                .returningResultSet("p_versions", RowVersions.ROW_MAPPER);
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("p_page_number", page)
+                .addValue("p_page_size", size);
+
+        Map<String, Object> result = jdbcCall.execute(params);
+        @SuppressWarnings("unchecked")
+        List<RowVersion> versions = (List<RowVersion>) result.get("p_versions");
+        return versions != null ? versions : List.of();
+    }
+
+    /**
+     * Runs the multi-ID version procedure, which reads the book rows alone,
+     * propagating database errors
+     *
+     * @param ids the book IDs
+     * @return the versions of the books found
+     */
+    List<RowVersion> loadVersionsByIds(Collection<Long> ids) {
+        SimpleJdbcCall jdbcCall = new SimpleJdbcCall(jdbcTemplate)
+                .withCatalogName("BOOK_PKG")
+                .withProcedureName("GET_BOOK_VERSIONS_BY_IDS")
+                .returningResultSet("p_versions", RowVersions.ROW_MAPPER);
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("p_book_ids", ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+
+        Map<String, Object> result = jdbcCall.execute(params);
+        @SuppressWarnings("unchecked")
+        List<RowVersion> versions = (List<RowVersion>) result.get("p_versions");
+        return versions != null ? versions : List.of();
+    }
+}
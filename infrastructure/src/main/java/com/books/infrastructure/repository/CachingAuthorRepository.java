@@ -0,0 +1,211 @@
+package com.books.infrastructure.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+import com.books.domain.model.Author;
+import com.books.domain.model.RowVersion;
+import com.books.domain.model.TextChunk;
+import com.books.domain.repository.AuthorRepository;
+import com.books.infrastructure.cache.CatalogCache;
+import com.books.infrastructure.cache.CatalogTags;
+import com.books.infrastructure.cache.QueryCache;
+import com.books.infrastructure.cache.QueryCache.QueryKey;
+import com.books.infrastructure.cache.invalidation.InvalidationBus;
+import com.books.infrastructure.cache.invalidation.InvalidationEvent.Entity;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Author repository that serves lookups by ID from the {@link CatalogCache}
+ * and searches from the {@link QueryCache}, and invalidates both on every
+ * write, locally and through the {@link InvalidationBus} on the other nodes.
+ * Listings and lookups by ID use lighter procedures when the
+ * {@link ReadProjection} of the request leaves out the related entities.
+ * Database errors on reads that nothing stale can cover are logged and
+ * answered with an empty result, like the PL/SQL repository does.
+ *
+ * @author books-authors-api
+ */
+@Repository
+@Primary
+@RequiredArgsConstructor
+@Slf4j
+public class CachingAuthorRepository implements AuthorRepository {
+
+    private final AuthorRepositoryImpl delegate;
+    private final PointLookupLoader loader;
+    private final CatalogCache cache;
+    private final QueryCache queryCache;
+    private final InvalidationBus invalidationBus;
+
+    @Override
+    public List<Author> findAll(int page, int size) {
+        try {
+            if (!ReadProjection.current().includesRelated()) {
+                return queryCache.get(QueryKey.of("authors.page.basic", page, size), Set.of(CatalogTags.AUTHOR_PAGES),
+                        () -> delegate.loadAllBasic(page, size), CatalogTags::ofAuthors);
+            }
+            return queryCache.get(QueryKey.of("authors.page", page, size), Set.of(CatalogTags.AUTHOR_PAGES),
+                    () -> delegate.loadAll(page, size), CatalogTags::ofAuthors);
+        } catch (RuntimeException e) {
+            log.error("Error retrieving all authors", e);
+            return List.of();
+        }
+    }
+
+    @Override
+    public Optional<Author> findById(Long id) {
+        try {
+            if (BatchLoader.inWriteTransaction()) {
+                // An update merges into what it reads, so it must not read a stale entry
+                return loader.author(id);
+            }
+            if (!ReadProjection.current().includesRelated()) {
+                return findBasicByIds(List.of(id)).stream().findFirst();
+            }
+            return cache.getAuthor(id, loader::author);
+        } catch (RuntimeException e) {
+            log.error("Error finding author with ID: {}", id, e);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public List<Author> findAllByIds(Collection<Long> ids) {
+        try {
+            if (BatchLoader.inWriteTransaction()) {
+                return delegate.findAllByIds(ids);
+            }
+            if (!ReadProjection.current().includesRelated()) {
+                return findBasicByIds(ids);
+            }
+            return cache.getAuthors(ids, delegate::loadByIds);
+        } catch (RuntimeException e) {
+            log.error("Error finding authors with IDs: {}", ids, e);
+            return List.of();
+        }
+    }
+
+    /**
+     * Looks authors up without their related entities. The entity cache only
+     * holds full authors, so these results are cached as searches tagged with
+     * every requested ID. Callers get copies, like those of the entity cache,
+     * since an update modifies the author it looked up.
+     */
+    private List<Author> findBasicByIds(Collection<Long> ids) {
+        List<Long> distinct = ids.stream().distinct().toList();
+        if (distinct.isEmpty()) {
+            return List.of();
+        }
+        ReadProjection projection = ReadProjection.current();
+        List<Author> cached = queryCache.get(QueryKey.of("authors.basicByIds", distinct, projection.includesLobs()),
+                distinct.stream().map(CatalogTags::author).toList(), () -> {
+                    Map<Long, Author> found = delegate.loadBasicByIds(distinct, projection.includesLobs());
+                    return distinct.stream().map(found::get).filter(Objects::nonNull).toList();
+                }, CatalogTags::ofAuthors);
+        return cached.stream().map(CatalogCache::copy).toList();
+    }
+
+    @Override
+    public Author save(Author author) {
+        try {
+            Author saved = delegate.save(author);
+            invalidationBus.publish(Entity.AUTHOR, saved.getAuthorId(), saved.getBooksIds(),
+                    CatalogTags.written(saved));
+            return saved;
+        } finally {
+            // Also after a failure, since the procedure may have partly run
+            cache.invalidateAuthor(author.getAuthorId(), author.getBooksIds());
+            queryCache.invalidate(CatalogTags.written(author));
+        }
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        try {
+            boolean deleted = delegate.deleteById(id);
+            if (deleted) {
+                invalidationBus.publish(Entity.AUTHOR, id, null, CatalogTags.deletedAuthor(id));
+            }
+            return deleted;
+        } finally {
+            cache.invalidateAuthor(id, null);
+            // Deleting an author cannot add it to other results
+            queryCache.invalidate(CatalogTags.deletedAuthor(id));
+        }
+    }
+
+    @Override
+    public List<Author> findByLastName(String lastName) {
+        return queryCache.get(QueryKey.of("authors.byLastName", CatalogTags.normalize(lastName)),
+                Set.of(CatalogTags.lastName(lastName)), () -> delegate.findByLastName(lastName),
+                CatalogTags::ofAuthors);
+    }
+
+    @Override
+    public List<Author> findByBookGenre(String genre) {
+        return queryCache.get(QueryKey.of("authors.byBookGenre", CatalogTags.normalize(genre)),
+                Set.of(CatalogTags.genre(genre)), () -> delegate.findByBookGenre(genre), CatalogTags::ofAuthors);
+    }
+
+    @Override
+    public List<Author> findByBookId(Long bookId) {
+        return queryCache.get(QueryKey.of("authors.byBook", bookId),
+                Set.of(CatalogTags.book(bookId)), () -> delegate.findByBookId(bookId), CatalogTags::ofAuthors);
+    }
+
+    @Override
+    public Optional<TextChunk> readBiography(Long id, long offset, int length) {
+        // Long texts are streamed in chunks and not cached
+        return delegate.readBiography(id, offset, length);
+    }
+
+    /**
+     * Answers from the cached author or page the request would be served, so
+     * that the version matches the body a read would return, and otherwise
+     * runs the version lookup procedure
+     */
+    @Override
+    public Optional<RowVersion> findVersionById(Long id) {
+        try {
+            ReadProjection projection = ReadProjection.current();
+            if (!projection.includesRelated()) {
+                return queryCache.peek(QueryKey.of("authors.basicByIds", List.of(id), projection.includesLobs()),
+                        (List<Author> authors) -> authors.stream().findFirst().map(CachingAuthorRepository::versionOf),
+                        () -> delegate.loadVersion(id));
+            }
+            return cache.peekAuthor(id, author -> Optional.of(versionOf(author)), () -> delegate.loadVersion(id));
+        } catch (RuntimeException e) {
+            log.error("Error finding the version of author with ID: {}", id, e);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public List<RowVersion> findVersions(int page, int size) {
+        try {
+            QueryKey key = ReadProjection.current().includesRelated()
+                    ? QueryKey.of("authors.page", page, size)
+                    : QueryKey.of("authors.page.basic", page, size);
+            return queryCache.peek(key,
+                    (List<Author> authors) -> authors.stream().map(CachingAuthorRepository::versionOf).toList(),
+                    () -> delegate.loadVersions(page, size));
+        } catch (RuntimeException e) {
+            log.error("Error finding the versions of the authors on page {}", page, e);
+            return List.of();
+        }
+    }
+
+    private static RowVersion versionOf(Author author) {
+        return new RowVersion(author.getAuthorId(), author.getVersion(), author.getUpdatedAt());
+    }
+}
@@ -0,0 +1,217 @@
+package com.books.infrastructure.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+import com.books.domain.model.Book;
+import com.books.domain.model.RowVersion;
+import com.books.domain.model.TextChunk;
+import com.books.domain.repository.BookRepository;
+import com.books.infrastructure.cache.CatalogCache;
+import com.books.infrastructure.cache.CatalogTags;
+import com.books.infrastructure.cache.QueryCache;
+import com.books.infrastructure.cache.QueryCache.QueryKey;
+import com.books.infrastructure.cache.invalidation.InvalidationBus;
+import com.books.infrastructure.cache.invalidation.InvalidationEvent.Entity;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Book repository that serves lookups by ID from the {@link CatalogCache}
+ * and searches from the {@link QueryCache}, and invalidates both on every
+ * write, locally and through the {@link InvalidationBus} on the other nodes.
+ * Listings and lookups by ID use lighter procedures when the
+ * {@link ReadProjection} of the request leaves out the related entities.
+ * Database errors on reads that nothing stale can cover are logged and
+ * answered with an empty result, like the PL/SQL repository does.
+ *
+ * @author books-authors-api
+ */
+@Repository
+@Primary
+@RequiredArgsConstructor
+@Slf4j
+public class CachingBookRepository implements BookRepository {
+
+    private final BookRepositoryImpl delegate;
+    private final PointLookupLoader loader;
+    private final CatalogCache cache;
+    private final QueryCache queryCache;
+    private final InvalidationBus invalidationBus;
+
+    @Override
+    public List<Book> findAll(int page, int size) {
+        try {
+            ReadProjection projection = ReadProjection.current();
+            if (!projection.includesRelated()) {
+                return queryCache.get(QueryKey.of("books.page.basic", page, size), Set.of(CatalogTags.BOOK_PAGES),
+                        () -> delegate.loadAllBasic(page, size), CatalogTags::ofBooks);
+            }
+            return queryCache.get(QueryKey.of("books.page", page, size), Set.of(CatalogTags.BOOK_PAGES),
+                    () -> delegate.loadAll(page, size), CatalogTags::ofBooks);
+        } catch (RuntimeException e) {
+            log.error("Error retrieving all books", e);
+            return List.of();
+        }
+    }
+
+    @Override
+    public Optional<Book> findById(Long id) {
+        try {
+            if (BatchLoader.inWriteTransaction()) {
+                // An update merges into what it reads, so it must not read a stale entry
+                return loader.book(id);
+            }
+            if (!ReadProjection.current().includesRelated()) {
+                return findBasicByIds(List.of(id)).stream().findFirst();
+            }
+            return cache.getBook(id, loader::book);
+        } catch (RuntimeException e) {
+            log.error("Error finding book with ID: {}", id, e);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public List<Book> findAllByIds(Collection<Long> ids) {
+        try {
+            if (BatchLoader.inWriteTransaction()) {
+                return delegate.findAllByIds(ids);
+            }
+            if (!ReadProjection.current().includesRelated()) {
+                return findBasicByIds(ids);
+            }
+            return cache.getBooks(ids, delegate::loadByIds);
+        } catch (RuntimeException e) {
+            log.error("Error finding books with IDs: {}", ids, e);
+            return List.of();
+        }
+    }
+
+    /**
+     * Looks books up without their related entities. The entity cache only
+     * holds full books, so these results are cached as searches tagged with
+     * every requested ID. Callers get copies, like those of the entity cache,
+     * since an update modifies the book it looked up.
+     */
+    private List<Book> findBasicByIds(Collection<Long> ids) {
+        List<Long> distinct = ids.stream().distinct().toList();
+        if (distinct.isEmpty()) {
+            return List.of();
+        }
+        List<Book> cached = queryCache.get(QueryKey.of("books.basicByIds", distinct),
+                distinct.stream().map(CatalogTags::book).toList(), () -> {
+                    Map<Long, Book> found = delegate.loadBasicByIds(distinct);
+                    return distinct.stream().map(found::get).filter(Objects::nonNull).toList();
+                }, CatalogTags::ofBooks);
+        return cached.stream().map(CatalogCache::copy).toList();
+    }
+
+    @Override
+    public Book save(Book book) {
+        try {
+            Book saved = delegate.save(book);
+            invalidationBus.publish(Entity.BOOK, saved.getBookId(), saved.getAuthorIds(),
+                    CatalogTags.written(saved));
+            return saved;
+        } finally {
+            // Also after a failure, since the procedure may have partly run
+            cache.invalidateBook(book.getBookId(), book.getAuthorIds());
+            queryCache.invalidate(CatalogTags.written(book));
+        }
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        try {
+            boolean deleted = delegate.deleteById(id);
+            if (deleted) {
+                invalidationBus.publish(Entity.BOOK, id, null, CatalogTags.deletedBook(id));
+            }
+            return deleted;
+        } finally {
+            cache.invalidateBook(id, null);
+            // Deleting a book cannot add it to other results
+            queryCache.invalidate(CatalogTags.deletedBook(id));
+        }
+    }
+
+    @Override
+    public List<Book> findByTitleContaining(String title) {
+        return queryCache.get(QueryKey.of("books.byTitle", CatalogTags.normalize(title)),
+                Set.of(CatalogTags.BOOK_TITLES), () -> delegate.findByTitleContaining(title), CatalogTags::ofBooks);
+    }
+
+    @Override
+    public List<Book> findByGenre(String genre) {
+        return queryCache.get(QueryKey.of("books.byGenre", CatalogTags.normalize(genre)),
+                Set.of(CatalogTags.genre(genre)), () -> delegate.findByGenre(genre), CatalogTags::ofBooks);
+    }
+
+    @Override
+    public List<Book> findByAuthorId(Long authorId) {
+        return queryCache.get(QueryKey.of("books.byAuthor", authorId),
+                Set.of(CatalogTags.author(authorId)), () -> delegate.findByAuthorId(authorId), CatalogTags::ofBooks);
+    }
+
+    @Override
+    public List<Book> findByPublicationYearBetween(int startYear, int endYear) {
+        return queryCache.get(QueryKey.of("books.byYearRange", startYear, endYear),
+                CatalogTags.years(startYear, endYear),
+                () -> delegate.findByPublicationYearBetween(startYear, endYear), CatalogTags::ofBooks);
+    }
+
+    @Override
+    public Optional<TextChunk> readSummary(Long id, long offset, int length) {
+        // Long texts are streamed in chunks and not cached
+        return delegate.readSummary(id, offset, length);
+    }
+
+    /**
+     * Answers from the cached book or page the request would be served, so
+     * that the version matches the body a read would return, and otherwise
+     * runs the version lookup procedure
+     */
+    @Override
+    public Optional<RowVersion> findVersionById(Long id) {
+        try {
+            ReadProjection projection = ReadProjection.current();
+            if (!projection.includesRelated()) {
+                return queryCache.peek(QueryKey.of("books.basicByIds", List.of(id)),
+                        (List<Book> books) -> books.stream().findFirst().map(CachingBookRepository::versionOf),
+                        () -> delegate.loadVersion(id));
+            }
+            return cache.peekBook(id, book -> Optional.of(versionOf(book)), () -> delegate.loadVersion(id));
+        } catch (RuntimeException e) {
+            log.error("Error finding the version of book with ID: {}", id, e);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public List<RowVersion> findVersions(int page, int size) {
+        try {
+            QueryKey key = ReadProjection.current().includesRelated()
+                    ? QueryKey.of("books.page", page, size)
+                    : QueryKey.of("books.page.basic", page, size);
+            return queryCache.peek(key,
+                    (List<Book> books) -> books.stream().map(CachingBookRepository::versionOf).toList(),
+                    () -> delegate.loadVersions(page, size));
+        } catch (RuntimeException e) {
+            log.error("Error finding the versions of the books on page {}", page, e);
+            return List.of();
+        }
+    }
+
+    private static RowVersion versionOf(Book book) {
+        return new RowVersion(book.getBookId(), book.getVersion(), book.getUpdatedAt());
+    }
+}
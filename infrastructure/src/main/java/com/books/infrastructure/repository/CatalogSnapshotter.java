@@ -0,0 +1,145 @@
+package com.books.infrastructure.repository;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.books.domain.model.RowVersion;
+import com.books.infrastructure.cache.CatalogCache;
+import com.books.infrastructure.cache.CatalogCache.SnapshotRestore;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Saves the hottest entries of the {@link CatalogCache} to a local file on
+ * graceful shutdown and reads them back at startup, so that a restarted
+ * instance does not load its whole working set from the database again.
+ * <p>
+ * The file is gzipped and holds at most {@code catalog.snapshot.max-entries}
+ * entries. On startup, the versions of the saved rows are read in batches of
+ * {@code verify-batch-size} IDs, and only the entries whose row is still at
+ * the saved version are cached again; rows written or deleted while the
+ * instance was down are read from the database as usual. The restore runs
+ * before the instance reports ready, and a missing or unreadable file only
+ * leaves the caches empty.
+ *
+ * @author books-authors-api
+ */
+@Component
+@Order(0) // Before the warm-up, which reads through the restored entries
+@Slf4j
+public class CatalogSnapshotter implements ApplicationRunner {
+
+    private final CatalogCache catalogCache;
+    private final BookRepositoryImpl bookRepository;
+    private final AuthorRepositoryImpl authorRepository;
+    private final boolean enabled;
+    private final Path file;
+    private final int maxEntries;
+    private final int verifyBatchSize;
+
+    public CatalogSnapshotter(CatalogCache catalogCache, BookRepositoryImpl bookRepository,
+            AuthorRepositoryImpl authorRepository,
+            @Value("${catalog.snapshot.enabled:false}") boolean enabled,
+            @Value("${catalog.snapshot.file:cache-snapshot/catalog.snapshot}") Path file,
+            @Value("${catalog.snapshot.max-entries:20000}") int maxEntries,
+            @Value("${catalog.snapshot.verify-batch-size:500}") int verifyBatchSize) {
+        this.catalogCache = catalogCache;
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.enabled = enabled;
+        this.file = file;
+        this.maxEntries = maxEntries;
+        this.verifyBatchSize = Math.max(1, verifyBatchSize);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            restore();
+        }
+    }
+
+    /**
+     * Caches again the saved entries that are still current
+     */
+    public void restore() {
+        if (!Files.isRegularFile(file)) {
+            log.info("No catalog cache snapshot at {}, starting with empty caches", file);
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try (InputStream in = new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file)))) {
+            SnapshotRestore restore = catalogCache.restoreSnapshot(in,
+                    ids -> versions(bookRepository.loadVersionsByIds(ids)),
+                    ids -> versions(authorRepository.loadVersionsByIds(ids)), verifyBatchSize);
+            log.info("Restored {} catalog cache entries from {} in {} ms, discarded {} outdated ones",
+                    restore.restored(), file, System.currentTimeMillis() - start, restore.discarded());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not restore the catalog cache snapshot {}, starting with partly empty caches: {}", file,
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Saves the hottest cached entries, replacing the previous snapshot only
+     * once the new one is complete, and only if the caches hold anything
+     */
+    @PreDestroy
+    public void save() {
+        if (!enabled) {
+            return;
+        }
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            int written;
+            try (OutputStream out = new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(temporary)))) {
+                written = catalogCache.writeSnapshot(out, maxEntries);
+            }
+            if (written == 0) {
+                // E.g. a failed startup: keep the previous snapshot
+                Files.delete(temporary);
+                return;
+            }
+            move(temporary, file);
+            log.info("Saved {} catalog cache entries to {}", written, file);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not save the catalog cache snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static Map<Long, Long> versions(Collection<RowVersion> rows) {
+        Map<Long, Long> versions = new HashMap<>();
+        rows.forEach(row -> versions.put(row.id(), row.version()));
+        return versions;
+    }
+}
@@ -0,0 +1,81 @@
+package com.books.infrastructure.repository;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.books.domain.model.Author;
+import com.books.domain.model.Book;
+
+/**
+ * Loads books and authors by ID for the caching repositories, coalescing
+ * identical in-flight lookups and batching distinct IDs that arrive within
+ * {@code catalog.batching.window} into one {@code GET_BOOKS_BY_IDS} or
+ * {@code GET_AUTHORS_BY_IDS} call of at most
+ * {@code catalog.batching.max-batch-size} IDs.
+ *
+ * @author books-authors-api
+ */
+@Component
+public class PointLookupLoader {
+
+    private final BatchLoader<Book> books;
+    private final BatchLoader<Author> authors;
+
+    public PointLookupLoader(BookRepositoryImpl bookRepository, AuthorRepositoryImpl authorRepository,
+            @Value("${catalog.batching.enabled:true}") boolean enabled,
+            @Value("${catalog.batching.window:PT0.002S}") Duration window,
+            @Value("${catalog.batching.max-batch-size:100}") int maxBatchSize) {
+        this.books = new BatchLoader<>(enabled, window, maxBatchSize, bookRepository::loadById,
+                bookRepository::loadByIds);
+        this.authors = new BatchLoader<>(enabled, window, maxBatchSize, authorRepository::loadById,
+                authorRepository::loadByIds);
+    }
+
+    /**
+     * Loads a book, propagating database errors
+     *
+     * @param id the book ID
+     * @return the book, or empty if it does not exist
+     */
+    public Optional<Book> book(Long id) {
+        return books.load(id);
+    }
+
+    /**
+     * Loads an author, propagating database errors
+     *
+     * @param id the author ID
+     * @return the author, or empty if it does not exist
+     */
+    public Optional<Author> author(Long id) {
+        return authors.load(id);
+    }
+
+    /**
+     * Returns the counters of both loaders
+     *
+     * @return loader name to statistics
+     */
+    public Map<String, LoaderStatistics> getStatistics() {
+        Map<String, LoaderStatistics> statistics = new LinkedHashMap<>();
+        statistics.put("books", books.statistics());
+        statistics.put("authors", authors.statistics());
+        return statistics;
+    }
+
+    /**
+     * Counters of one loader
+     *
+     * @param lookups     lookups requested
+     * @param coalesced   lookups that shared an identical in-flight lookup
+     * @param queries     database calls made
+     * @param idsPerQuery average number of distinct IDs per database call
+     */
+    public record LoaderStatistics(long lookups, long coalesced, long queries, double idsPerQuery) {
+    }
+}
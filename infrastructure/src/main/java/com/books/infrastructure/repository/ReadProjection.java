@@ -0,0 +1,74 @@
+package com.books.infrastructure.repository;
+
+/**
+ * Carries, for the current request thread, which parts of books and
+ * authors the client asked for. The web layer sets it from the
+ * {@code fields} and {@code expand} parameters, and the caching
+ * repositories use lighter procedures for listings and lookups by ID when
+ * the related entities or the CLOB columns are not needed.
+ * <p>
+ * Outside a request that set it, everything is read.
+ *
+ * @author books-authors-api
+ */
+public final class ReadProjection {
+
+    private static final ThreadLocal<ReadProjection> CURRENT = new ThreadLocal<>();
+
+    private static final ReadProjection FULL = new ReadProjection(true, true);
+
+    private final boolean related;
+    private final boolean lobs;
+
+    private ReadProjection(boolean related, boolean lobs) {
+        this.related = related;
+        this.lobs = lobs;
+    }
+
+    /**
+     * Sets the projection of the current thread
+     *
+     * @param related whether the embedded authors of books, or books of
+     *                authors, are needed
+     * @param lobs    whether the CLOB columns are needed
+     */
+    public static void set(boolean related, boolean lobs) {
+        CURRENT.set(new ReadProjection(related, lobs));
+    }
+
+    /**
+     * Resets the current thread to reading everything
+     */
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Returns the projection of the current thread
+     *
+     * @return the projection; everything outside a request that set one
+     */
+    static ReadProjection current() {
+        ReadProjection projection = CURRENT.get();
+        return projection != null ? projection : FULL;
+    }
+
+    /**
+     * Whether the related entities are needed; the regular procedures,
+     * which join them, are used if so
+     *
+     * @return true if the related entities must be read
+     */
+    boolean includesRelated() {
+        return related;
+    }
+
+    /**
+     * Whether the CLOB columns are needed
+     *
+     * @return true if biographies must be read
+     */
+    boolean includesLobs() {
+        return lobs;
+    }
+}
@@ -0,0 +1,41 @@
+package com.books.infrastructure.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import com.books.domain.model.RowVersion;
+
+/**
+ * Reads the version columns of book and author rows.
+ *
+ * @author books-authors-api
+ */
+final class RowVersions {
+
+    /**
+     * Maps a row of the version lookup procedures
+     */
+    static final RowMapper<RowVersion> ROW_MAPPER = (rs, rowNum) -> new RowVersion(rs.getLong("ID"),
+            rs.getLong("VERSION"), updatedAt(rs));
+
+    private RowVersions() {
+    }
+
+    /**
+     * Reads the {@code UPDATED_AT} column, which holds UTC time without a
+     * zone; its fields are taken as they are, whatever the zone of the JVM
+     *
+     * @param rs the result set, on a row
+     * @return the instant, or null if the column is null
+     * @throws SQLException if the column cannot be read
+     */
+    static Instant updatedAt(ResultSet rs) throws SQLException {
+        Timestamp updatedAt = rs.getTimestamp("UPDATED_AT");
+        return updatedAt != null ? updatedAt.toLocalDateTime().toInstant(ZoneOffset.UTC) : null;
+    }
+}
@@ -0,0 +1,90 @@
+package com.books.infrastructure.repository;
+
+import java.sql.SQLException;
+
+import org.springframework.dao.DataAccessException;
+
+/**
+ * Carries, for the current request thread, the version a client expects the
+ * book or author it updates to be at. The web layer sets it from the
+ * {@code If-Match} header, and the save procedures apply the update only if
+ * the row is still at that version, in the same statement, so that a write
+ * committed since the client read the row is never overwritten.
+ * <p>
+ * Outside a request that set it, updates are unconditional.
+ *
+ * @author books-authors-api
+ */
+public final class WriteCondition {
+
+    /**
+     * Error code the save procedures raise when the row is at another version
+     */
+    static final int VERSION_MISMATCH_ERROR = 20412;
+
+    private static final ThreadLocal<Long> EXPECTED_VERSION = new ThreadLocal<>();
+
+    private WriteCondition() {
+    }
+
+    /**
+     * Makes the updates of the current thread conditional
+     *
+     * @param version the version the updated row must be at
+     */
+    public static void expectVersion(long version) {
+        EXPECTED_VERSION.set(version);
+    }
+
+    /**
+     * Resets the current thread to unconditional updates
+     */
+    public static void clear() {
+        EXPECTED_VERSION.remove();
+    }
+
+    /**
+     * Returns the version the row updated by the current thread must be at.
+     * The update merges the request into the entity as it was read, so that
+     * read must be at the expected version too; otherwise the fields of
+     * another version would be written back.
+     *
+     * @param readVersion the version of the entity the update was applied to
+     * @return the version, or null for an unconditional update
+     * @throws VersionMismatchException if the entity was read at another version
+     */
+    static Long expectedVersion(Long readVersion) {
+        Long expected = EXPECTED_VERSION.get();
+        if (expected != null && !expected.equals(readVersion)) {
+            throw new VersionMismatchException("Updated entity was read at version " + readVersion
+                    + ", expected " + expected);
+        }
+        return expected;
+    }
+
+    /**
+     * Translates the error of a save procedure whose row was at another
+     * version
+     *
+     * @param e the error of the procedure call
+     * @return the mismatch, or the error itself if it has another cause
+     */
+    static RuntimeException translate(DataAccessException e) {
+        if (e.getMostSpecificCause() instanceof SQLException sql && sql.getErrorCode() == VERSION_MISMATCH_ERROR) {
+            return new VersionMismatchException(sql.getMessage());
+        }
+        return e;
+    }
+
+    /**
+     * Thrown when a conditional update finds the row at another version
+     */
+    public static final class VersionMismatchException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public VersionMismatchException(String message) {
+            super(message);
+        }
+    }
+}
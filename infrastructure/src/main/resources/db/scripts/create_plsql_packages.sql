@@ -4,7 +4,10 @@ CREATE TABLE authors (
     first_name VARCHAR2(100) NOT NULL,
     last_name VARCHAR2(100) NOT NULL,
     birth_date DATE,
-    biography CLOB
+    biography CLOB,
+    -- Bumped by every write to the author, or to the books it embeds
+    version NUMBER DEFAULT 1 NOT NULL,
+    updated_at TIMESTAMP DEFAULT SYS_EXTRACT_UTC(SYSTIMESTAMP) NOT NULL
 );
 
 CREATE TABLE books (
@@ -14,7 +17,10 @@ CREATE TABLE books (
     publication_date DATE,
     publisher VARCHAR2(100),
     genre VARCHAR2(50),
-    summary CLOB
+    summary CLOB,
+    -- Bumped by every write to the book, or to the authors it embeds
+    version NUMBER DEFAULT 1 NOT NULL,
+    updated_at TIMESTAMP DEFAULT SYS_EXTRACT_UTC(SYSTIMESTAMP) NOT NULL
 );
 
 CREATE TABLE book_authors (
@@ -43,6 +49,26 @@ CREATE OR REPLACE PACKAGE AUTHOR_PKG AS
         p_author_id IN NUMBER,
         p_author OUT SYS_REFCURSOR
     );
+
+    -- Get authors by a comma-separated list of IDs
+    PROCEDURE GET_AUTHORS_BY_IDS(
+        p_author_ids IN VARCHAR2,
+        p_authors OUT SYS_REFCURSOR
+    );
+
+    -- Get a page of authors without their books
+    PROCEDURE GET_ALL_AUTHORS_BASIC(
+        p_page_number IN NUMBER,
+        p_page_size   IN NUMBER,
+        p_authors OUT SYS_REFCURSOR
+    );
+
+    -- Get authors by a comma-separated list of IDs, without their books
+    PROCEDURE GET_AUTHORS_BASIC_BY_IDS(
+        p_author_ids IN VARCHAR2,
+        p_with_biography IN NUMBER,
+        p_authors OUT SYS_REFCURSOR
+    );
     
     -- Save (create or update) an author
     PROCEDURE SAVE_AUTHOR(
@@ -50,7 +76,8 @@ CREATE OR REPLACE PACKAGE AUTHOR_PKG AS
         p_first_name IN VARCHAR2,
         p_last_name IN VARCHAR2,
         p_birth_date IN DATE,
-        p_biography IN CLOB
+        p_biography IN CLOB,
+        p_expected_version IN NUMBER DEFAULT NULL
     );
     
     -- Delete an author
@@ -76,6 +103,34 @@ CREATE OR REPLACE PACKAGE AUTHOR_PKG AS
         p_book_id IN NUMBER,
         p_authors OUT SYS_REFCURSOR
     );
+
+    -- Read part of an author's biography
+    PROCEDURE READ_AUTHOR_BIOGRAPHY(
+        p_author_id IN NUMBER,
+        p_offset IN NUMBER,
+        p_amount IN NUMBER,
+        p_length OUT NUMBER,
+        p_text OUT VARCHAR2
+    );
+
+    -- Get the version of an author
+    PROCEDURE GET_AUTHOR_VERSION(
+        p_author_id IN NUMBER,
+        p_versions OUT SYS_REFCURSOR
+    );
+
+    -- Get the versions of the authors on a page
+    PROCEDURE GET_AUTHOR_PAGE_VERSIONS(
+        p_page_number IN NUMBER,
+        p_page_size   IN NUMBER,
+        p_versions OUT SYS_REFCURSOR
+    );
+
+    -- Get the versions of authors by a comma-separated list of IDs
+    PROCEDURE GET_AUTHOR_VERSIONS_BY_IDS(
+        p_author_ids IN VARCHAR2,
+        p_versions OUT SYS_REFCURSOR
+    );
 END AUTHOR_PKG;
 /
 
@@ -92,7 +147,9 @@ create or replace NONEDITIONABLE PACKAGE BODY AUTHOR_PKG AS
            a.first_name,
            a.last_name,
            a.birth_date,
-           DBMS_LOB.SUBSTR(a.biography, 4000, 1) AS biography,
+           NULL AS biography,
+           a.version,
+           a.updated_at,
            JSON_ARRAYAGG(
                JSON_OBJECT(
                    'bookId' VALUE b.book_id,
@@ -100,55 +157,122 @@ create or replace NONEDITIONABLE PACKAGE BODY AUTHOR_PKG AS
                    'isbn' VALUE b.isbn,
                    'publicationDate' VALUE b.publication_date,
                    'publisher' VALUE b.publisher,
-                   'genre' VALUE b.genre,
-                   'summary' VALUE b.summary
+                   'genre' VALUE b.genre
                )
            ) AS books_json
         FROM authors a
         LEFT JOIN book_authors ba ON a.author_id = ba.author_id
         LEFT JOIN books b ON ba.book_id = b.book_id
-        GROUP BY a.author_id, a.first_name, a.last_name, a.birth_date, DBMS_LOB.SUBSTR(a.biography, 4000, 1)
+        GROUP BY a.author_id, a.first_name, a.last_name, a.birth_date, a.version, a.updated_at
+        ORDER BY a.author_id
         OFFSET ((p_page_number - 1) * p_page_size) ROWS
         FETCH NEXT p_page_size ROWS ONLY;
     END GET_ALL_AUTHORS;
 
-    -- Get author by ID
+    -- Get author by ID. Returns the same columns as GET_AUTHORS_BY_IDS, so
+    -- that an author loaded alone or in a batch is the same entity.
     PROCEDURE GET_AUTHOR_BY_ID(
         p_author_id IN NUMBER,
         p_author OUT SYS_REFCURSOR
     ) IS
     BEGIN
-        OPEN p_author FOR
+        GET_AUTHORS_BY_IDS(TO_CHAR(p_author_id), p_author);
+    END GET_AUTHOR_BY_ID;
+
+    -- Get authors by a comma-separated list of IDs, in one round trip. The
+    -- books are aggregated in a subquery rather than with GROUP BY, which
+    -- cannot group on the biography CLOB, so the full biography is returned.
+    PROCEDURE GET_AUTHORS_BY_IDS(
+        p_author_ids IN VARCHAR2,
+        p_authors OUT SYS_REFCURSOR
+    ) IS
+    BEGIN
+        OPEN p_authors FOR
         SELECT a.author_id, 
            a.first_name,
            a.last_name,
            a.birth_date,
-           DBMS_LOB.SUBSTR(a.biography, 4000, 1) AS biography,
-           JSON_ARRAYAGG(
-               JSON_OBJECT(
-                   'bookId' VALUE b.book_id,
-                   'title' VALUE b.title,
-                   'isbn' VALUE b.isbn,
-                   'publicationDate' VALUE b.publication_date,
-                   'publisher' VALUE b.publisher,
-                   'genre' VALUE b.genre,
-                   'summary' VALUE b.summary
+           a.biography,
+           a.version,
+           a.updated_at,
+           NVL((
+               SELECT JSON_ARRAYAGG(
+                   JSON_OBJECT(
+                       'bookId' VALUE b.book_id,
+                       'title' VALUE b.title,
+                       'isbn' VALUE b.isbn,
+                       'publicationDate' VALUE b.publication_date,
+                       'publisher' VALUE b.publisher,
+                       'genre' VALUE b.genre,
+                       'summary' VALUE b.summary
+                       RETURNING CLOB
+                   )
+                   RETURNING CLOB
                )
-           ) AS books_json
+               FROM book_authors ba
+               JOIN books b ON ba.book_id = b.book_id
+               WHERE ba.author_id = a.author_id
+           ), TO_CLOB('[]')) AS books_json
         FROM authors a
-        LEFT JOIN book_authors ba ON a.author_id = ba.author_id
-        LEFT JOIN books b ON ba.book_id = b.book_id
-        WHERE a.author_id = p_author_id
-        GROUP BY a.author_id, a.first_name, a.last_name, a.birth_date, DBMS_LOB.SUBSTR(a.biography, 4000, 1);
-    END GET_AUTHOR_BY_ID;
+        WHERE a.author_id IN (
+            SELECT TO_NUMBER(REGEXP_SUBSTR(p_author_ids, '[^,]+', 1, LEVEL)) FROM dual
+            CONNECT BY REGEXP_SUBSTR(p_author_ids, '[^,]+', 1, LEVEL) IS NOT NULL
+        );
+    END GET_AUTHORS_BY_IDS;
 
-    -- Save (create or update) an author
+    -- Get a page of authors without the join to their books
+    PROCEDURE GET_ALL_AUTHORS_BASIC(
+        p_page_number IN NUMBER,
+        p_page_size   IN NUMBER,
+        p_authors OUT SYS_REFCURSOR
+    ) IS
+    BEGIN
+        OPEN p_authors FOR
+        SELECT a.author_id,
+           a.first_name,
+           a.last_name,
+           a.birth_date,
+           NULL AS biography,
+           a.version,
+           a.updated_at
+        FROM authors a
+        ORDER BY a.author_id
+        OFFSET ((p_page_number - 1) * p_page_size) ROWS
+        FETCH NEXT p_page_size ROWS ONLY;
+    END GET_ALL_AUTHORS_BASIC;
+
+    -- Get authors by a comma-separated list of IDs without the join to
+    -- their books
+    PROCEDURE GET_AUTHORS_BASIC_BY_IDS(
+        p_author_ids IN VARCHAR2,
+        p_with_biography IN NUMBER,
+        p_authors OUT SYS_REFCURSOR
+    ) IS
+    BEGIN
+        OPEN p_authors FOR
+        SELECT a.author_id,
+           a.first_name,
+           a.last_name,
+           a.birth_date,
+           CASE WHEN p_with_biography = 1 THEN DBMS_LOB.SUBSTR(a.biography, 4000, 1) END AS biography,
+           a.version,
+           a.updated_at
+        FROM authors a
+        WHERE a.author_id IN (
+            SELECT TO_NUMBER(REGEXP_SUBSTR(p_author_ids, '[^,]+', 1, LEVEL)) FROM dual
+            CONNECT BY REGEXP_SUBSTR(p_author_ids, '[^,]+', 1, LEVEL) IS NOT NULL
+        );
+    END GET_AUTHORS_BASIC_BY_IDS;
+
+    -- Save (create or update) an author. An update with p_expected_version
+    -- fails with ORA-20412 unless the author is still at that version.
     PROCEDURE SAVE_AUTHOR(
         p_author_id IN OUT NUMBER,
         p_first_name IN VARCHAR2,
         p_last_name IN VARCHAR2,
         p_birth_date IN DATE,
-        p_biography IN CLOB
+        p_biography IN CLOB,
+        p_expected_version IN NUMBER DEFAULT NULL
     ) IS
     BEGIN
         IF p_author_id IS NULL THEN
@@ -163,8 +287,21 @@ create or replace NONEDITIONABLE PACKAGE BODY AUTHOR_PKG AS
             SET first_name = p_first_name,
                 last_name = p_last_name,
                 birth_date = p_birth_date,
-                biography = p_biography
-            WHERE author_id = p_author_id;
+                biography = p_biography,
+                version = version + 1,
+                updated_at = SYS_EXTRACT_UTC(SYSTIMESTAMP)
+            WHERE author_id = p_author_id
+            AND (p_expected_version IS NULL OR version = p_expected_version);
+
+            IF SQL%ROWCOUNT = 0 AND p_expected_version IS NOT NULL THEN
+                RAISE_APPLICATION_ERROR(-20412, 'Author ' || p_author_id || ' is not at version ' || p_expected_version);
+            END IF;
+
+            -- Books embed their authors
+            UPDATE books
+            SET version = version + 1,
+                updated_at = SYS_EXTRACT_UTC(SYSTIMESTAMP)
+            WHERE book_id IN (SELECT book_id FROM book_authors WHERE author_id = p_author_id);
         END IF;
 
         COMMIT;
@@ -184,6 +321,12 @@ create or replace NONEDITIONABLE PACKAGE BODY AUTHOR_PKG AS
         SELECT COUNT(*) INTO v_count FROM authors WHERE author_id = p_author_id;
 
         IF v_count > 0 THEN
+            -- Books embed their authors
+            UPDATE books
+            SET version = version + 1,
+                updated_at = SYS_EXTRACT_UTC(SYSTIMESTAMP)
+            WHERE book_id IN (SELECT book_id FROM book_authors WHERE author_id = p_author_id);
+
             DELETE FROM authors WHERE author_id = p_author_id;
             p_success := TRUE;
             COMMIT;
@@ -208,7 +351,9 @@ create or replace NONEDITIONABLE PACKAGE BODY AUTHOR_PKG AS
            a.first_name,
            a.last_name,
            a.birth_date,
-           DBMS_LOB.SUBSTR(a.biography, 4000, 1) AS biography,
+           NULL AS biography,
+           a.version,
+           a.updated_at,
            JSON_ARRAYAGG(
                JSON_OBJECT(
                    'bookId' VALUE b.book_id,
@@ -216,15 +361,14 @@ create or replace NONEDITIONABLE PACKAGE BODY AUTHOR_PKG AS
                    'isbn' VALUE b.isbn,
                    'publicationDate' VALUE b.publication_date,
                    'publisher' VALUE b.publisher,
-                   'genre' VALUE b.genre,
-                   'summary' VALUE b.summary
+                   'genre' VALUE b.genre
                )
            ) AS books_json
         FROM authors a
         LEFT JOIN book_authors ba ON a.author_id = ba.author_id
         LEFT JOIN books b ON ba.book_id = b.book_id
         WHERE UPPER(a.last_name) LIKE UPPER(p_last_name)
-        GROUP BY a.author_id, a.first_name, a.last_name, a.birth_date, DBMS_LOB.SUBSTR(a.biography, 4000, 1)
+        GROUP BY a.author_id, a.first_name, a.last_name, a.birth_date, a.version, a.updated_at
         ORDER BY a.last_name, a.first_name;
     END FIND_AUTHORS_BY_LAST_NAME;
 
@@ -239,7 +383,9 @@ create or replace NONEDITIONABLE PACKAGE BODY AUTHOR_PKG AS
            a.first_name,
            a.last_name,
            a.birth_date,
-           DBMS_LOB.SUBSTR(a.biography, 4000, 1) AS biography,
+           NULL AS biography,
+           a.version,
+           a.updated_at,
            JSON_ARRAYAGG(
                JSON_OBJECT(
                    'bookId' VALUE b.book_id,
@@ -247,15 +393,14 @@ create or replace NONEDITIONABLE PACKAGE BODY AUTHOR_PKG AS
                    'isbn' VALUE b.isbn,
                    'publicationDate' VALUE b.publication_date,
                    'publisher' VALUE b.publisher,
-                   'genre' VALUE b.genre,
-                   'summary' VALUE b.summary
+                   'genre' VALUE b.genre
                )
            ) AS books_json
         FROM authors a
         LEFT JOIN book_authors ba ON a.author_id = ba.author_id
         LEFT JOIN books b ON ba.book_id = b.book_id
         WHERE UPPER(b.genre) = UPPER(p_genre)
-        GROUP BY a.author_id, a.first_name, a.last_name, a.birth_date, DBMS_LOB.SUBSTR(a.biography, 4000, 1)
+        GROUP BY a.author_id, a.first_name, a.last_name, a.birth_date, a.version, a.updated_at
         ORDER BY a.last_name, a.first_name;
     END FIND_AUTHORS_BY_BOOK_GENRE;
 
@@ -270,7 +415,9 @@ create or replace NONEDITIONABLE PACKAGE BODY AUTHOR_PKG AS
            a.first_name,
            a.last_name,
            a.birth_date,
-           DBMS_LOB.SUBSTR(a.biography, 4000, 1) AS biography,
+           NULL AS biography,
+           a.version,
+           a.updated_at,
            JSON_ARRAYAGG(
                JSON_OBJECT(
                    'bookId' VALUE b.book_id,
@@ -278,17 +425,90 @@ create or replace NONEDITIONABLE PACKAGE BODY AUTHOR_PKG AS
                    'isbn' VALUE b.isbn,
                    'publicationDate' VALUE b.publication_date,
                    'publisher' VALUE b.publisher,
-                   'genre' VALUE b.genre,
-                   'summary' VALUE b.summary
+                   'genre' VALUE b.genre
                )
            ) AS books_json
         FROM authors a
         LEFT JOIN book_authors ba ON a.author_id = ba.author_id
         LEFT JOIN books b ON ba.book_id = b.book_id
         WHERE b.book_id = p_book_id
-        GROUP BY a.author_id, a.first_name, a.last_name, a.birth_date, DBMS_LOB.SUBSTR(a.biography, 4000, 1)
+        GROUP BY a.author_id, a.first_name, a.last_name, a.birth_date, a.version, a.updated_at
         ORDER BY a.last_name, a.first_name;
     END FIND_AUTHORS_BY_BOOK_ID;
+
+    -- Read up to p_amount characters of an author's biography from the
+    -- 1-based p_offset. p_length is the length of the whole biography in
+    -- characters, or -1 if the author does not exist. p_amount must not
+    -- exceed 8000, so that the text fits a VARCHAR2 in any character set.
+    PROCEDURE READ_AUTHOR_BIOGRAPHY(
+        p_author_id IN NUMBER,
+        p_offset IN NUMBER,
+        p_amount IN NUMBER,
+        p_length OUT NUMBER,
+        p_text OUT VARCHAR2
+    ) IS
+        v_biography CLOB;
+    BEGIN
+        SELECT biography INTO v_biography FROM authors WHERE author_id = p_author_id;
+        p_length := NVL(DBMS_LOB.GETLENGTH(v_biography), 0);
+        IF p_amount > 0 AND p_offset <= p_length THEN
+            p_text := DBMS_LOB.SUBSTR(v_biography, p_amount, p_offset);
+        END IF;
+    EXCEPTION
+        WHEN NO_DATA_FOUND THEN
+            p_length := -1;
+    END READ_AUTHOR_BIOGRAPHY;
+
+    -- Get the version of an author from its row alone, without the join to
+    -- its books or the biography CLOB. No row if the author does not exist.
+    PROCEDURE GET_AUTHOR_VERSION(
+        p_author_id IN NUMBER,
+        p_versions OUT SYS_REFCURSOR
+    ) IS
+    BEGIN
+        OPEN p_versions FOR
+        SELECT a.author_id AS id,
+           a.version,
+           a.updated_at
+        FROM authors a
+        WHERE a.author_id = p_author_id;
+    END GET_AUTHOR_VERSION;
+
+    -- Get the versions of the authors on a page, in the order of
+    -- GET_ALL_AUTHORS
+    PROCEDURE GET_AUTHOR_PAGE_VERSIONS(
+        p_page_number IN NUMBER,
+        p_page_size   IN NUMBER,
+        p_versions OUT SYS_REFCURSOR
+    ) IS
+    BEGIN
+        OPEN p_versions FOR
+        SELECT a.author_id AS id,
+           a.version,
+           a.updated_at
+        FROM authors a
+        ORDER BY a.author_id
+        OFFSET ((p_page_number - 1) * p_page_size) ROWS
+        FETCH NEXT p_page_size ROWS ONLY;
+    END GET_AUTHOR_PAGE_VERSIONS;
+
+    -- Get the versions of authors by a comma-separated list of IDs, from
+    -- their rows alone. IDs of missing authors return no row.
+    PROCEDURE GET_AUTHOR_VERSIONS_BY_IDS(
+        p_author_ids IN VARCHAR2,
+        p_versions OUT SYS_REFCURSOR
+    ) IS
+    BEGIN
+        OPEN p_versions FOR
+        SELECT a.author_id AS id,
+           a.version,
+           a.updated_at
+        FROM authors a
+        WHERE a.author_id IN (
+            SELECT TO_NUMBER(REGEXP_SUBSTR(p_author_ids, '[^,]+', 1, LEVEL)) FROM dual
+            CONNECT BY REGEXP_SUBSTR(p_author_ids, '[^,]+', 1, LEVEL) IS NOT NULL
+        );
+    END GET_AUTHOR_VERSIONS_BY_IDS;
 END AUTHOR_PKG;
 /
 
@@ -306,6 +526,25 @@ CREATE OR REPLACE PACKAGE BOOK_PKG AS
         p_book_id IN NUMBER,
         p_book OUT SYS_REFCURSOR
     );
+
+    -- Get books by a comma-separated list of IDs
+    PROCEDURE GET_BOOKS_BY_IDS(
+        p_book_ids IN VARCHAR2,
+        p_books OUT SYS_REFCURSOR
+    );
+
+    -- Get a page of books without their authors
+    PROCEDURE GET_ALL_BOOKS_BASIC(
+        p_page_number IN NUMBER,
+        p_page_size   IN NUMBER,
+        p_books OUT SYS_REFCURSOR
+    );
+
+    -- Get books by a comma-separated list of IDs, without their authors
+    PROCEDURE GET_BOOKS_BASIC_BY_IDS(
+        p_book_ids IN VARCHAR2,
+        p_books OUT SYS_REFCURSOR
+    );
     
     -- Save (create or update) a book
     PROCEDURE SAVE_BOOK(
@@ -315,7 +554,8 @@ CREATE OR REPLACE PACKAGE BOOK_PKG AS
         p_publication_date IN DATE,
         p_publisher IN VARCHAR2,
         p_genre IN VARCHAR2,
-        p_summary IN CLOB
+        p_summary IN CLOB,
+        p_expected_version IN NUMBER DEFAULT NULL
     );
     
     -- Delete a book
@@ -354,6 +594,34 @@ CREATE OR REPLACE PACKAGE BOOK_PKG AS
         p_end_year IN NUMBER,
         p_books OUT SYS_REFCURSOR
     );
+
+    -- Read part of a book's summary
+    PROCEDURE READ_BOOK_SUMMARY(
+        p_book_id IN NUMBER,
+        p_offset IN NUMBER,
+        p_amount IN NUMBER,
+        p_length OUT NUMBER,
+        p_text OUT VARCHAR2
+    );
+
+    -- Get the version of a book
+    PROCEDURE GET_BOOK_VERSION(
+        p_book_id IN NUMBER,
+        p_versions OUT SYS_REFCURSOR
+    );
+
+    -- Get the versions of the books on a page
+    PROCEDURE GET_BOOK_PAGE_VERSIONS(
+        p_page_number IN NUMBER,
+        p_page_size   IN NUMBER,
+        p_versions OUT SYS_REFCURSOR
+    );
+
+    -- Get the versions of books by a comma-separated list of IDs
+    PROCEDURE GET_BOOK_VERSIONS_BY_IDS(
+        p_book_ids IN VARCHAR2,
+        p_versions OUT SYS_REFCURSOR
+    );
 END BOOK_PKG;
 /
 
@@ -373,14 +641,15 @@ create or replace NONEDITIONABLE PACKAGE BODY BOOK_PKG AS
             b.publication_date,
             b.publisher,
             b.genre,
-            DBMS_LOB.SUBSTR(b.summary, 4000, 1) AS summary,
+            NULL AS summary,
+            b.version,
+            b.updated_at,
             JSON_ARRAYAGG(
                 JSON_OBJECT(
                     'authorId' VALUE a.author_id,
                     'firstName' VALUE a.first_name,
                     'lastName' VALUE a.last_name,
-                    'birthDate' VALUE a.birth_date,
-                    'biography' VALUE DBMS_LOB.SUBSTR(a.biography, 4000, 1)
+                    'birthDate' VALUE a.birth_date
                 )
             ) AS authors_json
         FROM books b
@@ -393,19 +662,33 @@ create or replace NONEDITIONABLE PACKAGE BODY BOOK_PKG AS
             b.publication_date,
             b.publisher,
             b.genre,
-            DBMS_LOB.SUBSTR(b.summary, 4000, 1)
-        ORDER BY b.title
+            b.version,
+            b.updated_at
+        ORDER BY b.title, b.book_id
         OFFSET ((p_page_number - 1) * p_page_size) ROWS
         FETCH NEXT p_page_size ROWS ONLY;
     END GET_ALL_BOOKS;
 
-    -- Get book by ID
+    -- Get book by ID. Returns the same columns as GET_BOOKS_BY_IDS, so that a
+    -- book loaded alone or in a batch is the same entity.
     PROCEDURE GET_BOOK_BY_ID(
         p_book_id IN NUMBER,
         p_book OUT SYS_REFCURSOR
     ) IS
     BEGIN
-        OPEN p_book FOR
+        GET_BOOKS_BY_IDS(TO_CHAR(p_book_id), p_book);
+    END GET_BOOK_BY_ID;
+
+    -- Get books by a comma-separated list of IDs, in one round trip. The
+    -- authors are aggregated in a subquery rather than with GROUP BY, which
+    -- cannot group on the summary CLOB, so the full summary is returned. Only
+    -- books that have authors are returned, as by GET_ALL_BOOKS.
+    PROCEDURE GET_BOOKS_BY_IDS(
+        p_book_ids IN VARCHAR2,
+        p_books OUT SYS_REFCURSOR
+    ) IS
+    BEGIN
+        OPEN p_books FOR
         SELECT 
             b.book_id,
             b.title,
@@ -414,21 +697,85 @@ create or replace NONEDITIONABLE PACKAGE BODY BOOK_PKG AS
             b.publisher,
             b.genre,
             b.summary,
-            a.author_id  AS author_id,
-            a.first_name AS author_first_name,
-            a.last_name AS author_last_name,
-            a.birth_date AS author_birth_date,
-            a.biography AS author_biography
-        FROM 
-            books b
-        JOIN 
-            book_authors ba ON b.book_id = ba.book_id
-        JOIN 
-            authors a ON ba.author_id = a.author_id
-        WHERE b.book_id = p_book_id;
-    END GET_BOOK_BY_ID;
+            b.version,
+            b.updated_at,
+            (
+                SELECT JSON_ARRAYAGG(
+                    JSON_OBJECT(
+                        'authorId' VALUE a.author_id,
+                        'firstName' VALUE a.first_name,
+                        'lastName' VALUE a.last_name,
+                        'birthDate' VALUE a.birth_date,
+                        'biography' VALUE a.biography
+                        RETURNING CLOB
+                    )
+                    RETURNING CLOB
+                )
+                FROM book_authors ba
+                JOIN authors a ON ba.author_id = a.author_id
+                WHERE ba.book_id = b.book_id
+            ) AS authors_json
+        FROM books b
+        WHERE b.book_id IN (
+            SELECT TO_NUMBER(REGEXP_SUBSTR(p_book_ids, '[^,]+', 1, LEVEL)) FROM dual
+            CONNECT BY REGEXP_SUBSTR(p_book_ids, '[^,]+', 1, LEVEL) IS NOT NULL
+        )
+        AND EXISTS (SELECT 1 FROM book_authors ba WHERE ba.book_id = b.book_id);
+    END GET_BOOKS_BY_IDS;
 
-    -- Save (create or update) a book
+    -- Get a page of books without the join to their authors and without the
+    -- summary CLOB. Lists the same books as GET_ALL_BOOKS, which only
+    -- returns books that have authors.
+    PROCEDURE GET_ALL_BOOKS_BASIC(
+        p_page_number IN NUMBER,
+        p_page_size   IN NUMBER,
+        p_books OUT SYS_REFCURSOR
+    ) IS
+    BEGIN
+        OPEN p_books FOR
+        SELECT 
+            b.book_id,
+            b.title,
+            b.isbn,
+            b.publication_date,
+            b.publisher,
+            b.genre,
+            b.version,
+            b.updated_at
+        FROM books b
+        WHERE EXISTS (SELECT 1 FROM book_authors ba WHERE ba.book_id = b.book_id)
+        ORDER BY b.title, b.book_id
+        OFFSET ((p_page_number - 1) * p_page_size) ROWS
+        FETCH NEXT p_page_size ROWS ONLY;
+    END GET_ALL_BOOKS_BASIC;
+
+    -- Get books by a comma-separated list of IDs without the join to their
+    -- authors and without the summary CLOB
+    PROCEDURE GET_BOOKS_BASIC_BY_IDS(
+        p_book_ids IN VARCHAR2,
+        p_books OUT SYS_REFCURSOR
+    ) IS
+    BEGIN
+        OPEN p_books FOR
+        SELECT 
+            b.book_id,
+            b.title,
+            b.isbn,
+            b.publication_date,
+            b.publisher,
+            b.genre,
+            b.version,
+            b.updated_at
+        FROM books b
+        WHERE EXISTS (SELECT 1 FROM book_authors ba WHERE ba.book_id = b.book_id)
+        AND b.book_id IN (
+            SELECT TO_NUMBER(REGEXP_SUBSTR(p_book_ids, '[^,]+', 1, LEVEL)) FROM dual
+            CONNECT BY REGEXP_SUBSTR(p_book_ids, '[^,]+', 1, LEVEL) IS NOT NULL
+        );
+    END GET_BOOKS_BASIC_BY_IDS;
+
+    -- Save (create or update) a book. An update with p_expected_version
+    -- fails with ORA-20412 unless the book is still at that version.
     PROCEDURE SAVE_BOOK(
         p_book_id IN OUT NUMBER,
         p_title IN VARCHAR2,
@@ -436,7 +783,8 @@ create or replace NONEDITIONABLE PACKAGE BODY BOOK_PKG AS
         p_publication_date IN DATE,
         p_publisher IN VARCHAR2,
         p_genre IN VARCHAR2,
-        p_summary IN CLOB
+        p_summary IN CLOB,
+        p_expected_version IN NUMBER DEFAULT NULL
     ) IS
     BEGIN
         IF p_book_id IS NULL THEN
@@ -453,8 +801,21 @@ create or replace NONEDITIONABLE PACKAGE BODY BOOK_PKG AS
                 publication_date = p_publication_date,
                 publisher = p_publisher,
                 genre = p_genre,
-                summary = p_summary
-            WHERE book_id = p_book_id;
+                summary = p_summary,
+                version = version + 1,
+                updated_at = SYS_EXTRACT_UTC(SYSTIMESTAMP)
+            WHERE book_id = p_book_id
+            AND (p_expected_version IS NULL OR version = p_expected_version);
+
+            IF SQL%ROWCOUNT = 0 AND p_expected_version IS NOT NULL THEN
+                RAISE_APPLICATION_ERROR(-20412, 'Book ' || p_book_id || ' is not at version ' || p_expected_version);
+            END IF;
+
+            -- Authors embed their books
+            UPDATE authors
+            SET version = version + 1,
+                updated_at = SYS_EXTRACT_UTC(SYSTIMESTAMP)
+            WHERE author_id IN (SELECT author_id FROM book_authors WHERE book_id = p_book_id);
         END IF;
 
         COMMIT;
@@ -474,6 +835,12 @@ create or replace NONEDITIONABLE PACKAGE BODY BOOK_PKG AS
         SELECT COUNT(*) INTO v_count FROM books WHERE book_id = p_book_id;
 
         IF v_count > 0 THEN
+            -- Authors embed their books
+            UPDATE authors
+            SET version = version + 1,
+                updated_at = SYS_EXTRACT_UTC(SYSTIMESTAMP)
+            WHERE author_id IN (SELECT author_id FROM book_authors WHERE book_id = p_book_id);
+
             DELETE FROM books WHERE book_id = p_book_id;
             p_success := TRUE;
             COMMIT;
@@ -502,6 +869,16 @@ create or replace NONEDITIONABLE PACKAGE BODY BOOK_PKG AS
         IF v_count = 0 THEN
             INSERT INTO book_authors (book_id, author_id)
             VALUES (p_book_id, p_author_id);
+
+            -- Both now embed the other
+            UPDATE books
+            SET version = version + 1,
+                updated_at = SYS_EXTRACT_UTC(SYSTIMESTAMP)
+            WHERE book_id = p_book_id;
+            UPDATE authors
+            SET version = version + 1,
+                updated_at = SYS_EXTRACT_UTC(SYSTIMESTAMP)
+            WHERE author_id = p_author_id;
             COMMIT;
         END IF;
     EXCEPTION
@@ -524,12 +901,14 @@ create or replace NONEDITIONABLE PACKAGE BODY BOOK_PKG AS
             b.publication_date,
             b.publisher,
             b.genre,
-            b.summary,
+            NULL AS summary,
+            b.version,
+            b.updated_at,
             a.author_id  AS author_id,
             a.first_name AS author_first_name,
             a.last_name AS author_last_name,
             a.birth_date AS author_birth_date,
-            a.biography AS author_biography
+            NULL AS author_biography
         FROM 
             books b
         JOIN 
@@ -554,12 +933,14 @@ create or replace NONEDITIONABLE PACKAGE BODY BOOK_PKG AS
             b.publication_date,
             b.publisher,
             b.genre,
-            b.summary,
+            NULL AS summary,
+            b.version,
+            b.updated_at,
             a.author_id  AS author_id,
             a.first_name AS author_first_name,
             a.last_name AS author_last_name,
             a.birth_date AS author_birth_date,
-            a.biography AS author_biography
+            NULL AS author_biography
         FROM 
             books b
         JOIN 
@@ -584,12 +965,14 @@ create or replace NONEDITIONABLE PACKAGE BODY BOOK_PKG AS
             b.publication_date,
             b.publisher,
             b.genre,
-            b.summary,
+            NULL AS summary,
+            b.version,
+            b.updated_at,
             a.author_id  AS author_id,
             a.first_name AS author_first_name,
             a.last_name AS author_last_name,
             a.birth_date AS author_birth_date,
-            a.biography AS author_biography
+            NULL AS author_biography
         FROM 
             books b
         JOIN 
@@ -616,12 +999,14 @@ create or replace NONEDITIONABLE PACKAGE BODY BOOK_PKG AS
             b.publication_date,
             b.publisher,
             b.genre,
-            b.summary,
+            NULL AS summary,
+            b.version,
+            b.updated_at,
             a.author_id  AS author_id,
             a.first_name AS author_first_name,
             a.last_name AS author_last_name,
             a.birth_date AS author_birth_date,
-            a.biography AS author_biography
+            NULL AS author_biography
         FROM 
             books b
         JOIN 
@@ -632,6 +1017,83 @@ create or replace NONEDITIONABLE PACKAGE BODY BOOK_PKG AS
         ORDER BY b.publication_date;
     END FIND_BOOKS_BY_YEAR_RANGE;
 
+    -- Read up to p_amount characters of a book's summary from the 1-based
+    -- p_offset. p_length is the length of the whole summary in characters,
+    -- or -1 if the book does not exist. p_amount must not exceed 8000, so
+    -- that the text fits a VARCHAR2 in any character set.
+    PROCEDURE READ_BOOK_SUMMARY(
+        p_book_id IN NUMBER,
+        p_offset IN NUMBER,
+        p_amount IN NUMBER,
+        p_length OUT NUMBER,
+        p_text OUT VARCHAR2
+    ) IS
+        v_summary CLOB;
+    BEGIN
+        SELECT summary INTO v_summary FROM books WHERE book_id = p_book_id;
+        p_length := NVL(DBMS_LOB.GETLENGTH(v_summary), 0);
+        IF p_amount > 0 AND p_offset <= p_length THEN
+            p_text := DBMS_LOB.SUBSTR(v_summary, p_amount, p_offset);
+        END IF;
+    EXCEPTION
+        WHEN NO_DATA_FOUND THEN
+            p_length := -1;
+    END READ_BOOK_SUMMARY;
+
+    -- Get the version of a book from its row alone, without the join to its
+    -- authors or the summary CLOB. No row if the book does not exist.
+    PROCEDURE GET_BOOK_VERSION(
+        p_book_id IN NUMBER,
+        p_versions OUT SYS_REFCURSOR
+    ) IS
+    BEGIN
+        OPEN p_versions FOR
+        SELECT 
+            b.book_id AS id,
+            b.version,
+            b.updated_at
+        FROM books b
+        WHERE b.book_id = p_book_id;
+    END GET_BOOK_VERSION;
+
+    -- Get the versions of the books on a page, in the order of GET_ALL_BOOKS
+    PROCEDURE GET_BOOK_PAGE_VERSIONS(
+        p_page_number IN NUMBER,
+        p_page_size   IN NUMBER,
+        p_versions OUT SYS_REFCURSOR
+    ) IS
+    BEGIN
+        OPEN p_versions FOR
+        SELECT 
+            b.book_id AS id,
+            b.version,
+            b.updated_at
+        FROM books b
+        WHERE EXISTS (SELECT 1 FROM book_authors ba WHERE ba.book_id = b.book_id)
+        ORDER BY b.title, b.book_id
+        OFFSET ((p_page_number - 1) * p_page_size) ROWS
+        FETCH NEXT p_page_size ROWS ONLY;
+    END GET_BOOK_PAGE_VERSIONS;
+
+    -- Get the versions of books by a comma-separated list of IDs, from their
+    -- rows alone. IDs of missing books return no row.
+    PROCEDURE GET_BOOK_VERSIONS_BY_IDS(
+        p_book_ids IN VARCHAR2,
+        p_versions OUT SYS_REFCURSOR
+    ) IS
+    BEGIN
+        OPEN p_versions FOR
+        SELECT 
+            b.book_id AS id,
+            b.version,
+            b.updated_at
+        FROM books b
+        WHERE b.book_id IN (
+            SELECT TO_NUMBER(REGEXP_SUBSTR(p_book_ids, '[^,]+', 1, LEVEL)) FROM dual
+            CONNECT BY REGEXP_SUBSTR(p_book_ids, '[^,]+', 1, LEVEL) IS NOT NULL
+        );
+    END GET_BOOK_VERSIONS_BY_IDS;
+
 END BOOK_PKG;
 /
 
@@ -673,6 +1135,9 @@ END;
 CREATE INDEX idx_request_log_timestamp ON request_log(timestamp);
 CREATE INDEX idx_request_log_user_id ON request_log(user_id);
 CREATE INDEX idx_request_log_status_code ON request_log(status_code);
+-- Keyset pagination on (timestamp, id) and endpoint prefix searches
+CREATE INDEX idx_request_log_ts_id ON request_log(timestamp DESC, id DESC);
+CREATE INDEX idx_request_log_endpoint_ts ON request_log(endpoint, timestamp DESC);
 /
 
 COMMENT ON TABLE request_log IS 'HTTP requests log';
@@ -0,0 +1,242 @@
+package com.books.infrastructure.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.books.domain.model.Author;
+import com.books.domain.model.Book;
+import com.books.infrastructure.cache.CatalogCache.SnapshotRestore;
+
+/**
+ * Unit tests for {@link CatalogCache}, focused on reads and snapshot
+ * restores racing the invalidation of a write.
+ *
+ * @author books-authors-api
+ */
+public class CatalogCacheTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private final CatalogCache cache = new CatalogCache(true, 1_000_000, Duration.ofMinutes(10), false,
+            Duration.ofHours(1), ReadRouter.primaryOnly());
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should not cache a bulk load that an invalidation ran during")
+    void shouldNotStoreBulkLoadInvalidatedDuringLoad() {
+        // Given a bulk load that reads the old row while the write is invalidated
+        List<Book> first = cache.getBooks(List.of(1L), ids -> {
+            loads.incrementAndGet();
+            cache.invalidateBook(1L, null);
+            return Map.of(1L, book(1L, "Old title"));
+        });
+
+        // When
+        List<Book> second = cache.getBooks(List.of(1L), ids -> {
+            loads.incrementAndGet();
+            return Map.of(1L, book(1L, "New title"));
+        });
+
+        // Then the caller of the racing load still gets its result, but it was not cached
+        assertEquals("Old title", first.get(0).getTitle());
+        assertEquals("New title", second.get(0).getTitle());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should serve the written row after an invalidation that ran during a single load")
+    void shouldDropSingleLoadInvalidatedDuringLoad() throws Exception {
+        // Given a single load held while it reads the old row
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Optional<Book>> racing = executor.submit(() -> cache.getBook(1L, id -> {
+            entered.countDown();
+            await(release);
+            return Optional.of(book(1L, "Old title"));
+        }));
+        assertTrue(entered.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        // When the write is invalidated before the load finishes
+        Future<?> invalidation = executor.submit(() -> cache.invalidateBook(1L, null));
+        release.countDown();
+        racing.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        invalidation.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        // Then
+        Optional<Book> read = cache.getBook(1L, id -> Optional.of(book(1L, "New title")));
+        assertEquals("New title", read.orElseThrow().getTitle());
+    }
+
+    @Test
+    @DisplayName("Should invalidate again after commit, dropping a read of the old row made before it")
+    void shouldInvalidateAgainAfterCommit() {
+        // Given a write invalidated inside a transaction
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidateBook(1L, null);
+
+        // And a concurrent read that caches the old row before the commit
+        cache.getBook(1L, id -> Optional.of(book(1L, "Old title")));
+
+        // When
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        // Then
+        Optional<Book> read = cache.getBook(1L, id -> Optional.of(book(1L, "New title")));
+        assertEquals("New title", read.orElseThrow().getTitle());
+    }
+
+    @Test
+    @DisplayName("Should drop the cached authors that embed an invalidated book")
+    void shouldInvalidateEmbeddingAuthors() {
+        // Given an author cached with the book embedded
+        Author author = author(2L);
+        author.setBooks(Set.of(book(1L, "Old title")));
+        cache.getAuthor(2L, id -> Optional.of(author));
+
+        // When
+        cache.invalidateBook(1L, null);
+
+        // Then
+        Author updated = author(2L);
+        updated.setBooks(Set.of(book(1L, "New title")));
+        Optional<Author> read = cache.getAuthor(2L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(updated);
+        });
+        assertEquals(1, loads.get());
+        assertEquals("New title", read.orElseThrow().getBooks().iterator().next().getTitle());
+    }
+
+    @Test
+    @DisplayName("Should return copies that callers cannot use to change the cached entry")
+    void shouldReturnCopies() {
+        // Given
+        Book loaded = book(1L, "Title");
+        loaded.getAuthors().add(author(2L));
+        cache.getBook(1L, id -> Optional.of(loaded));
+
+        // When
+        Book returned = cache.getBook(1L, this::unexpectedLoad).orElseThrow();
+        returned.setTitle("Changed");
+        returned.getAuthors().clear();
+
+        // Then
+        Book cached = cache.getBooks(List.of(1L), this::unexpectedBulkLoad).get(0);
+        assertEquals("Title", cached.getTitle());
+        assertEquals(1, cached.getAuthors().size());
+    }
+
+    @Test
+    @DisplayName("Should restore only the snapshot entries whose rows are still at the cached version")
+    void shouldDiscardChangedEntriesOnRestore() throws IOException {
+        // Given books 1 to 3 cached at version 1 and written to a snapshot
+        cache.getBooks(List.of(1L, 2L, 3L), ids -> Map.of(1L, book(1L, "One"), 2L, book(2L, "Two"),
+                3L, book(3L, "Three")));
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        assertEquals(3, cache.writeSnapshot(snapshot, 10));
+        CatalogCache restarted = new CatalogCache(true, 1_000_000, Duration.ofMinutes(10), false,
+                Duration.ofHours(1), ReadRouter.primaryOnly());
+
+        // When book 2 was updated and book 3 deleted since
+        SnapshotRestore restore = restarted.restoreSnapshot(new ByteArrayInputStream(snapshot.toByteArray()),
+                ids -> Map.of(1L, 1L, 2L, 2L), ids -> Map.of(), 10);
+
+        // Then
+        assertEquals(new SnapshotRestore(1, 2), restore);
+        assertEquals("One", restarted.getBook(1L, this::unexpectedLoad).orElseThrow().getTitle());
+        Optional<Book> updated = restarted.getBook(2L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(book(2L, "Two, revised"));
+        });
+        assertEquals(1, loads.get());
+        assertEquals("Two, revised", updated.orElseThrow().getTitle());
+    }
+
+    @Test
+    @DisplayName("Should discard snapshot entries when a write is invalidated while their versions are read")
+    void shouldDiscardEntriesInvalidatedDuringRestore() throws IOException {
+        // Given
+        cache.getBook(1L, id -> Optional.of(book(1L, "One")));
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        cache.writeSnapshot(snapshot, 10);
+        CatalogCache restarted = new CatalogCache(true, 1_000_000, Duration.ofMinutes(10), false,
+                Duration.ofHours(1), ReadRouter.primaryOnly());
+
+        // When
+        SnapshotRestore restore = restarted.restoreSnapshot(new ByteArrayInputStream(snapshot.toByteArray()),
+                ids -> {
+                    restarted.invalidateBook(1L, null);
+                    return Map.of(1L, 1L);
+                }, ids -> Map.of(), 10);
+
+        // Then
+        assertEquals(new SnapshotRestore(0, 1), restore);
+    }
+
+    private Optional<Book> unexpectedLoad(Long id) {
+        throw new AssertionError("Book " + id + " should be cached");
+    }
+
+    private Map<Long, Book> unexpectedBulkLoad(Collection<Long> ids) {
+        throw new AssertionError("Books " + ids + " should be cached");
+    }
+
+    private static Book book(Long id, String title) {
+        return Book.builder()
+                .bookId(id)
+                .title(title)
+                .isbn("978-000000000" + id)
+                .version(1L)
+                .build();
+    }
+
+    private static Author author(Long id) {
+        return Author.builder()
+                .authorId(id)
+                .firstName("First")
+                .lastName("Last")
+                .version(1L)
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.books.infrastructure.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.books.domain.model.Author;
+import com.books.domain.model.Book;
+
+/**
+ * Unit tests for {@link CatalogSnapshot}.
+ *
+ * @author books-authors-api
+ */
+public class CatalogSnapshotTest {
+
+    @Test
+    @DisplayName("Should read back books and authors with every field, their embedded entities and related IDs")
+    void shouldRoundTripAllFields() throws IOException {
+        // Given
+        Book book = Book.builder()
+                .bookId(1L)
+                .title("Cien años de soledad")
+                .isbn("978-0060883287")
+                .publicationDate(LocalDate.of(1967, 5, 30))
+                .publisher("Sudamericana")
+                .genre("Fiction")
+                .summary("Multi-generational story of the Buendía family ✓")
+                .version(3L)
+                .updatedAt(Instant.parse("2024-03-01T10:15:30.123456789Z"))
+                .authors(Set.of(author(2L, 4L)))
+                .authorIds(Set.of(2L))
+                .build();
+        Author author = author(2L, 4L);
+        author.setBooks(Set.of(Book.builder().bookId(1L).title("Cien años de soledad").version(3L).build()));
+        author.setBooksIds(Set.of(1L, 5L));
+
+        // When
+        CatalogSnapshot.Contents contents = roundTrip(List.of(book), List.of(author));
+
+        // Then
+        assertEquals(List.of(book), contents.books());
+        assertEquals(List.of(author), contents.authors());
+        assertTrue(contents.writtenAt().isAfter(Instant.now().minusSeconds(60)));
+    }
+
+    @Test
+    @DisplayName("Should read back absent optional fields as null and absent related IDs as empty")
+    void shouldRoundTripNullFields() throws IOException {
+        // Given
+        Book book = Book.builder().bookId(1L).authorIds(null).build();
+        Author author = Author.builder().authorId(2L).lastName("").booksIds(null).build();
+
+        // When
+        CatalogSnapshot.Contents contents = roundTrip(List.of(book), List.of(author));
+
+        // Then
+        Book readBook = contents.books().get(0);
+        assertNull(readBook.getTitle());
+        assertNull(readBook.getPublicationDate());
+        assertNull(readBook.getSummary());
+        assertNull(readBook.getVersion());
+        assertNull(readBook.getUpdatedAt());
+        assertEquals(Set.of(), readBook.getAuthorIds());
+        Author readAuthor = contents.authors().get(0);
+        assertNull(readAuthor.getFirstName());
+        assertEquals("", readAuthor.getLastName());
+        assertNull(readAuthor.getBirthDate());
+        assertNull(readAuthor.getBiography());
+        assertEquals(Set.of(), readAuthor.getBooksIds());
+    }
+
+    @Test
+    @DisplayName("Should reject a stream in another format")
+    void shouldRejectOtherFormat() {
+        // Given
+        byte[] bytes = "not a snapshot".getBytes();
+
+        // Then
+        assertThrows(IOException.class,
+                () -> CatalogSnapshot.read(new DataInputStream(new ByteArrayInputStream(bytes))));
+    }
+
+    @Test
+    @DisplayName("Should reject a truncated snapshot")
+    void shouldRejectTruncatedSnapshot() throws IOException {
+        // Given
+        byte[] bytes = write(List.of(Book.builder().bookId(1L).title("Title").build()), List.of());
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 8);
+
+        // Then
+        assertThrows(EOFException.class,
+                () -> CatalogSnapshot.read(new DataInputStream(new ByteArrayInputStream(truncated))));
+    }
+
+    private static CatalogSnapshot.Contents roundTrip(List<Book> books, List<Author> authors) throws IOException {
+        return CatalogSnapshot.read(new DataInputStream(new ByteArrayInputStream(write(books, authors))));
+    }
+
+    private static byte[] write(List<Book> books, List<Author> authors) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CatalogSnapshot.write(new DataOutputStream(bytes), books, authors);
+        return bytes.toByteArray();
+    }
+
+    private static Author author(Long id, Long version) {
+        return Author.builder()
+                .authorId(id)
+                .firstName("Gabriel")
+                .lastName("García Márquez")
+                .birthDate(LocalDate.of(1927, 3, 6))
+                .biography("Colombian novelist")
+                .version(version)
+                .updatedAt(Instant.parse("2024-01-01T00:00:00Z"))
+                .build();
+    }
+}
@@ -0,0 +1,90 @@
+package com.books.infrastructure.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.books.domain.model.Author;
+import com.books.domain.model.Book;
+
+/**
+ * Unit tests for {@link CatalogTags}.
+ *
+ * @author books-authors-api
+ */
+public class CatalogTagsTest {
+
+    @Test
+    @DisplayName("Should normalize null and case the way the stored procedures compare text")
+    void shouldNormalizeText() {
+        // Then
+        assertEquals("", CatalogTags.normalize(null));
+        assertEquals("SCIENCE FICTION", CatalogTags.normalize("Science fiction"));
+        assertEquals(CatalogTags.genre("fiction"), CatalogTags.genre("FICTION"));
+    }
+
+    @Test
+    @DisplayName("Should tag narrow year ranges per year and wide ones as a whole")
+    void shouldTagYearRanges() {
+        // When
+        Set<String> narrow = CatalogTags.years(1999, 2001);
+        Set<String> wide = CatalogTags.years(1000, 2000);
+
+        // Then
+        assertEquals(Set.of("year:1999", "year:2000", "year:2001"), narrow);
+        assertEquals(1, wide.size());
+        assertTrue(CatalogTags.written(book(1L, 1500)).containsAll(wide));
+    }
+
+    @Test
+    @DisplayName("Should give last name patterns one shared tag that every author write affects")
+    void shouldShareLastNamePatternTag() {
+        // When
+        String pattern = CatalogTags.lastName("Her%");
+        String exact = CatalogTags.lastName("herbert");
+
+        // Then
+        assertEquals(CatalogTags.lastName("_erbert"), pattern);
+        assertEquals("last-name:HERBERT", exact);
+        Set<String> written = CatalogTags.written(Author.builder().authorId(7L).lastName("Herbert").build());
+        assertTrue(written.containsAll(Set.of(pattern, exact, CatalogTags.author(7L), CatalogTags.AUTHOR_PAGES)));
+    }
+
+    @Test
+    @DisplayName("Should tag a written book with its searches, its ID and its authors")
+    void shouldTagWrittenBook() {
+        // Given
+        Book book = book(1L, 1965);
+        book.setAuthorIds(Set.of(7L, 8L));
+
+        // When
+        Set<String> tags = CatalogTags.written(book);
+
+        // Then
+        assertTrue(tags.containsAll(Set.of(CatalogTags.BOOK_TITLES, CatalogTags.BOOK_PAGES, CatalogTags.book(1L),
+                CatalogTags.year(1965), CatalogTags.genre("fiction"), CatalogTags.author(7L),
+                CatalogTags.author(8L))));
+    }
+
+    @Test
+    @DisplayName("Should tag a deleted book with its ID and the listing pages only")
+    void shouldTagDeletedBook() {
+        // Then
+        assertEquals(Set.of(CatalogTags.book(1L), CatalogTags.BOOK_PAGES), CatalogTags.deletedBook(1L));
+        assertEquals(Set.of(CatalogTags.author(7L), CatalogTags.AUTHOR_PAGES), CatalogTags.deletedAuthor(7L));
+    }
+
+    private static Book book(Long id, int year) {
+        return Book.builder()
+                .bookId(id)
+                .title("Title")
+                .genre("Fiction")
+                .publicationDate(LocalDate.of(year, 1, 1))
+                .build();
+    }
+}
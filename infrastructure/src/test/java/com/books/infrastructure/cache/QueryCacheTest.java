@@ -0,0 +1,194 @@
+package com.books.infrastructure.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.books.domain.model.Author;
+import com.books.domain.model.Book;
+import com.books.infrastructure.cache.QueryCache.QueryKey;
+
+/**
+ * Unit tests for {@link QueryCache} with the tags of {@link CatalogTags},
+ * keyed and tagged the way the caching repositories run their searches.
+ *
+ * @author books-authors-api
+ */
+public class QueryCacheTest {
+
+    private final QueryCache cache = new QueryCache(true, 1_000, Duration.ofMinutes(5), false, Duration.ofHours(1),
+            ReadRouter.primaryOnly());
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    @DisplayName("Should serve a repeated search from the cache")
+    void shouldServeRepeatedSearch() {
+        // Given
+        byTitle("dune", book(1L, "Dune", "Fiction", 1965));
+
+        // When
+        List<Book> result = byTitle("DUNE", book(1L, "Dune", "Fiction", 1965));
+
+        // Then the normalized title is the same key
+        assertEquals(1, loads.get());
+        assertEquals(1, result.size());
+    }
+
+    @Test
+    @DisplayName("Should drop every title search when any book is written, and keep other genres warm")
+    void shouldInvalidateTitleSearchesOnAnyBookWrite() {
+        // Given
+        byTitle("dune", book(1L, "Dune", "Fiction", 1965));
+        byGenre("history", book(2L, "SPQR", "History", 2015));
+
+        // When a book that is not in the title result is written
+        cache.invalidate(CatalogTags.written(book(3L, "Dune Messiah", "Fiction", 1969)));
+
+        // Then it may match the title now, but the history search is unaffected
+        byTitle("dune", book(1L, "Dune", "Fiction", 1965));
+        byGenre("history", book(2L, "SPQR", "History", 2015));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should drop the listing pages when a book is written or deleted")
+    void shouldInvalidatePagesOnWriteAndDelete() {
+        // Given
+        page(0, book(1L, "Dune", "Fiction", 1965));
+
+        // When
+        cache.invalidate(CatalogTags.deletedBook(99L));
+        page(0, book(1L, "Dune", "Fiction", 1965));
+        cache.invalidate(CatalogTags.written(book(null, "New", "Poetry", 2020)));
+        page(0, book(1L, "Dune", "Fiction", 1965));
+
+        // Then
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should drop only the year ranges that contain the year of a written book")
+    void shouldInvalidateMatchingYearRanges() {
+        // Given
+        byYears(1960, 1970, book(1L, "Dune", "Fiction", 1965));
+        byYears(2000, 2010);
+
+        // When
+        cache.invalidate(CatalogTags.written(book(2L, "Solaris", "Fiction", 1961)));
+
+        // Then
+        byYears(1960, 1970, book(1L, "Dune", "Fiction", 1965), book(2L, "Solaris", "Fiction", 1961));
+        byYears(2000, 2010);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should drop a wide year range when any book is written")
+    void shouldInvalidateWideYearRanges() {
+        // Given
+        byYears(1000, 2000, book(1L, "Dune", "Fiction", 1965));
+
+        // When
+        cache.invalidate(CatalogTags.written(book(2L, "Recent", "Fiction", 2024)));
+
+        // Then
+        byYears(1000, 2000, book(1L, "Dune", "Fiction", 1965));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should drop the searches whose result embeds a written author")
+    void shouldInvalidateResultsEmbeddingAuthor() {
+        // Given
+        Book dune = book(1L, "Dune", "Fiction", 1965);
+        dune.getAuthors().add(Author.builder().authorId(7L).lastName("Herbert").build());
+        byGenre("fiction", dune);
+        byGenre("history", book(2L, "SPQR", "History", 2015));
+
+        // When
+        cache.invalidate(CatalogTags.written(Author.builder().authorId(7L).lastName("Herbert").build()));
+
+        // Then
+        byGenre("fiction", dune);
+        byGenre("history", book(2L, "SPQR", "History", 2015));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should not store a result loaded while a write was invalidated")
+    void shouldNotStoreResultLoadedDuringInvalidation() {
+        // Given a title search that reads the old rows while a book is written
+        cache.get(QueryKey.of("books.byTitle", CatalogTags.normalize("dune")), Set.of(CatalogTags.BOOK_TITLES),
+                () -> {
+                    loads.incrementAndGet();
+                    cache.invalidate(CatalogTags.written(book(3L, "Dune Messiah", "Fiction", 1969)));
+                    return List.of(book(1L, "Dune", "Fiction", 1965));
+                }, CatalogTags::ofBooks);
+
+        // When
+        byTitle("dune", book(1L, "Dune", "Fiction", 1965), book(3L, "Dune Messiah", "Fiction", 1969));
+
+        // Then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should return an unmodifiable result, shared between callers")
+    void shouldReturnUnmodifiableResult() {
+        // Given
+        List<Book> first = byTitle("dune", book(1L, "Dune", "Fiction", 1965));
+
+        // When
+        List<Book> second = byTitle("dune", book(1L, "Dune", "Fiction", 1965));
+
+        // Then
+        assertEquals(1, loads.get());
+        assertThrows(UnsupportedOperationException.class, () -> second.add(book(2L, "Other", "Fiction", 2000)));
+        assertEquals(first, second);
+    }
+
+    private List<Book> byTitle(String title, Book... result) {
+        return search(QueryKey.of("books.byTitle", CatalogTags.normalize(title)), Set.of(CatalogTags.BOOK_TITLES),
+                result);
+    }
+
+    private List<Book> byGenre(String genre, Book... result) {
+        return search(QueryKey.of("books.byGenre", CatalogTags.normalize(genre)), Set.of(CatalogTags.genre(genre)),
+                result);
+    }
+
+    private List<Book> byYears(int startYear, int endYear, Book... result) {
+        return search(QueryKey.of("books.byYearRange", startYear, endYear), CatalogTags.years(startYear, endYear),
+                result);
+    }
+
+    private List<Book> page(int page, Book... result) {
+        return search(QueryKey.of("books.page", page, 10), Set.of(CatalogTags.BOOK_PAGES), result);
+    }
+
+    private List<Book> search(QueryKey key, Collection<String> queryTags, Book... result) {
+        return cache.get(key, queryTags, () -> {
+            loads.incrementAndGet();
+            return new ArrayList<>(List.of(result));
+        }, CatalogTags::ofBooks);
+    }
+
+    private static Book book(Long id, String title, String genre, int year) {
+        return Book.builder()
+                .bookId(id)
+                .title(title)
+                .genre(genre)
+                .publicationDate(LocalDate.of(year, 1, 1))
+                .build();
+    }
+}
@@ -0,0 +1,91 @@
+package com.books.infrastructure.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ReadRouter}.
+ *
+ * @author books-authors-api
+ */
+public class ReadRouterTest {
+
+    private final ReadRouter router = new ReadRouter("jdbc:oracle:thin:@replica:1521/BOOKS", Duration.ofSeconds(5));
+
+    @AfterEach
+    void tearDown() {
+        ReadFreshness.end();
+    }
+
+    @Test
+    @DisplayName("Should read the replica only when the max-staleness covers its lag")
+    void shouldAcceptReplicaWithinLag() {
+        // Given no max-staleness
+        ReadFreshness.begin();
+        assertFalse(router.acceptsReplica());
+
+        // Given a max-staleness below the lag
+        ReadFreshness.begin(1_000);
+        assertFalse(router.acceptsReplica());
+
+        // Given a max-staleness covering the lag
+        ReadFreshness.begin(5_000);
+        assertTrue(router.acceptsReplica());
+        assertFalse(ReadRouter.primaryOnly().acceptsReplica());
+    }
+
+    @Test
+    @DisplayName("Should run an accepted replica read as a replica read and record its source")
+    void shouldLoadFromReplica() {
+        // Given
+        ReadFreshness.begin(10_000);
+
+        // When
+        boolean replicaRead = router.load(ReadRouter::isReplicaRead);
+
+        // Then
+        assertTrue(replicaRead);
+        assertFalse(ReadRouter.isReplicaRead());
+        assertEquals(Set.of(ReadFreshness.Source.REPLICA), ReadFreshness.current().getSources());
+        assertEquals(5_000, ReadFreshness.current().getAgeMillis());
+    }
+
+    @Test
+    @DisplayName("Should run other reads on the primary database and record its source")
+    void shouldLoadFromPrimary() {
+        // Given
+        ReadFreshness.begin(0);
+
+        // When
+        boolean replicaRead = router.load(ReadRouter::isReplicaRead);
+
+        // Then
+        assertFalse(replicaRead);
+        assertEquals(Set.of(ReadFreshness.Source.PRIMARY), ReadFreshness.current().getSources());
+    }
+
+    @Test
+    @DisplayName("Should accept cached values up to the max-staleness, or of any age without one")
+    void shouldAcceptCachedValuesWithinMaxAge() {
+        // Given
+        ReadFreshness.begin(1_000);
+
+        // Then
+        assertTrue(router.accepts(1_000));
+        assertFalse(router.accepts(1_001));
+
+        // Given
+        ReadFreshness.begin();
+
+        // Then
+        assertTrue(router.accepts(Long.MAX_VALUE));
+    }
+}
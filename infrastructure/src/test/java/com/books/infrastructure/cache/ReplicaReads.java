@@ -0,0 +1,25 @@
+package com.books.infrastructure.cache;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs code as a replica read, for tests outside the cache package.
+ *
+ * @author books-authors-api
+ */
+public final class ReplicaReads {
+
+    private ReplicaReads() {
+    }
+
+    /**
+     * Runs a read with {@link ReadRouter#isReplicaRead()} set
+     *
+     * @param loader the read
+     * @param <T>    the result type
+     * @return the result
+     */
+    public static <T> T onReplica(Supplier<T> loader) {
+        return ReadRouter.primaryOnly().onReplica(loader);
+    }
+}
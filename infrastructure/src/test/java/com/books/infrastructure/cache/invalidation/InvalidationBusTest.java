@@ -0,0 +1,255 @@
+package com.books.infrastructure.cache.invalidation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.books.infrastructure.cache.CatalogCache;
+import com.books.infrastructure.cache.QueryCache;
+import com.books.infrastructure.cache.invalidation.InvalidationBus.BusStatistics;
+import com.books.infrastructure.cache.invalidation.InvalidationEvent.Entity;
+
+/**
+ * Unit tests for {@link InvalidationBus} and
+ * {@link LoopbackInvalidationTransport}. Batches of a peer node are
+ * delivered by hand, in the order a lossy transport might deliver them.
+ *
+ * @author books-authors-api
+ */
+@ExtendWith(MockitoExtension.class)
+public class InvalidationBusTest {
+
+    private static final String PEER = "peer-node";
+
+    @Mock
+    private CatalogCache catalogCache;
+
+    @Mock
+    private QueryCache queryCache;
+
+    private final LoopbackInvalidationTransport history = new LoopbackInvalidationTransport(3);
+    private final ManualTransport transport = new ManualTransport(history);
+    private InvalidationBus bus;
+
+    @BeforeEach
+    void setUp() {
+        bus = new InvalidationBus(transport, catalogCache, queryCache, true, 60_000, 256);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bus.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should replay a missed batch before applying a later one, and ignore the missed one when it arrives")
+    void shouldReplayGapAndIgnoreLateBatch() {
+        // Given
+        transport.deliver(peerBatch(event(1, 100, 1L)));
+        InvalidationBatch second = peerBatch(event(2, 200, 2L));
+        InvalidationBatch third = peerBatch(event(3, 300, 3L));
+        history.publish(second);
+        history.publish(third);
+
+        // When the third batch overtakes the second
+        transport.deliver(third);
+        transport.deliver(second);
+
+        // Then
+        InOrder order = inOrder(catalogCache);
+        order.verify(catalogCache).invalidateBook(eq(1L), anyCollection());
+        order.verify(catalogCache).invalidateBook(eq(2L), anyCollection());
+        order.verify(catalogCache).invalidateBook(eq(3L), anyCollection());
+        verify(catalogCache, times(1)).invalidateBook(eq(2L), anyCollection());
+        verify(catalogCache, never()).clear();
+        BusStatistics statistics = bus.getStatistics();
+        assertEquals(3, statistics.received());
+        assertEquals(1, statistics.replays());
+        assertEquals(0, statistics.resyncs());
+    }
+
+    @Test
+    @DisplayName("Should clear the local caches when missed events are no longer retained")
+    void shouldResyncWhenGapCannotBeReplayed() {
+        // Given
+        transport.deliver(peerBatch(event(1, 100, 1L)));
+        for (int sequence = 2; sequence <= 5; sequence++) {
+            // The history keeps 3 events, so event 2 is evicted
+            history.publish(peerBatch(event(sequence, sequence * 100L, (long) sequence)));
+        }
+
+        // When
+        transport.deliver(peerBatch(event(5, 500, 5L)));
+
+        // Then
+        verify(catalogCache).clear();
+        verify(queryCache).clear();
+        verify(catalogCache).invalidateBook(eq(5L), anyCollection());
+        verify(catalogCache, never()).invalidateBook(eq(3L), anyCollection());
+        assertEquals(1, bus.getStatistics().resyncs());
+    }
+
+    @Test
+    @DisplayName("Should detect a lost final batch from a heartbeat")
+    void shouldReplayGapRevealedByHeartbeat() {
+        // Given
+        transport.deliver(peerBatch(event(1, 100, 1L)));
+        InvalidationBatch lost = peerBatch(event(2, 200, 2L));
+        history.publish(lost);
+
+        // When
+        transport.deliver(new InvalidationBatch(PEER, 2, List.of()));
+
+        // Then
+        verify(catalogCache).invalidateBook(eq(2L), anyCollection());
+        assertEquals(1, bus.getStatistics().replays());
+    }
+
+    @Test
+    @DisplayName("Should take a peer's first batch as its baseline without replaying earlier events")
+    void shouldStartFromFirstBatch() {
+        // When
+        transport.deliver(peerBatch(event(7, 700, 7L)));
+
+        // Then
+        verify(catalogCache).invalidateBook(eq(7L), anyCollection());
+        verify(catalogCache, never()).clear();
+        assertEquals(0, bus.getStatistics().replays());
+    }
+
+    @Test
+    @DisplayName("Should advance the version clock to the latest version received, whatever the arrival order")
+    void shouldKeepHighestVersion() {
+        // Given
+        InvalidationBatch second = peerBatch(event(2, Long.MAX_VALUE - 1, 2L));
+        history.publish(second);
+        transport.deliver(peerBatch(event(1, Long.MAX_VALUE - 2, 1L)));
+
+        // When
+        transport.deliver(peerBatch(event(3, Long.MAX_VALUE - 3, 3L)));
+
+        // Then
+        assertEquals(Long.MAX_VALUE - 1, bus.currentVersion());
+    }
+
+    @Test
+    @DisplayName("Should apply the tags and entity of a remote event to the local caches")
+    void shouldApplyRemoteEvent() {
+        // When
+        transport.deliver(peerBatch(new InvalidationEvent(1, 100, Entity.AUTHOR, 4L, Set.of(9L),
+                Set.of("author:4"))));
+
+        // Then
+        verify(catalogCache).invalidateAuthor(4L, Set.of(9L));
+        verify(queryCache).invalidate(Set.of("author:4"));
+    }
+
+    @Test
+    @DisplayName("Should deliver published events to the other buses of a loopback transport only")
+    void shouldDeliverToPeersOverLoopback() {
+        // Given
+        LoopbackInvalidationTransport loopback = new LoopbackInvalidationTransport();
+        CatalogCache peerCatalogCache = mock(CatalogCache.class);
+        QueryCache peerQueryCache = mock(QueryCache.class);
+        InvalidationBus writer = new InvalidationBus(loopback, catalogCache, queryCache, true, 60_000, 256);
+        InvalidationBus reader = new InvalidationBus(loopback, peerCatalogCache, peerQueryCache, true, 60_000, 256);
+
+        // When
+        writer.publish(Entity.BOOK, 1L, Set.of(2L), Set.of("book:1"));
+        writer.flush();
+
+        // Then
+        verify(peerCatalogCache).invalidateBook(1L, Set.of(2L));
+        verify(peerQueryCache).invalidate(Set.of("book:1"));
+        verify(catalogCache, never()).invalidateBook(any(), any());
+        assertEquals(1, writer.getStatistics().published());
+        assertEquals(1, reader.getStatistics().received());
+        writer.shutdown();
+        reader.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should refuse a replay from the loopback history once events were evicted")
+    void shouldRefuseReplayOfEvictedEvents() {
+        // Given
+        for (int sequence = 1; sequence <= 4; sequence++) {
+            history.publish(peerBatch(event(sequence, sequence, (long) sequence)));
+        }
+        List<InvalidationBatch> replayed = new ArrayList<>();
+
+        // When
+        boolean evicted = history.replay(PEER, 0, 2, replayed::add);
+        boolean retained = history.replay(PEER, 2, 4, replayed::add);
+
+        // Then
+        assertFalse(evicted);
+        assertTrue(retained);
+        assertEquals(1, replayed.size());
+        assertEquals(3, replayed.get(0).firstSequence());
+        assertEquals(4, replayed.get(0).sequence());
+    }
+
+    private static InvalidationBatch peerBatch(InvalidationEvent event) {
+        return new InvalidationBatch(PEER, event.sequence(), List.of(event));
+    }
+
+    private static InvalidationEvent event(long sequence, long version, Long bookId) {
+        return new InvalidationEvent(sequence, version, Entity.BOOK, bookId, Set.of(), Set.of("book:" + bookId));
+    }
+
+    /**
+     * Hands batches to the subscribed bus only when the test delivers them,
+     * and replays from a loopback history that nothing is subscribed to
+     */
+    private static final class ManualTransport implements InvalidationTransport {
+
+        private final LoopbackInvalidationTransport history;
+        private Consumer<InvalidationBatch> listener;
+
+        ManualTransport(LoopbackInvalidationTransport history) {
+            this.history = history;
+        }
+
+        void deliver(InvalidationBatch batch) {
+            listener.accept(batch);
+        }
+
+        @Override
+        public void publish(InvalidationBatch batch) {
+            // Heartbeats of the bus under test are not delivered anywhere
+        }
+
+        @Override
+        public void subscribe(Consumer<InvalidationBatch> listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public boolean replay(String node, long afterSequence, long throughSequence,
+                Consumer<InvalidationBatch> listener) {
+            return history.replay(node, afterSequence, throughSequence, listener);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.books.infrastructure.config;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.books.infrastructure.cache.ReplicaReads;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Unit tests for {@link ReplicaRoutingDataSource}, with stub primary and
+ * replica pools whose statements tell which pool served them.
+ *
+ * @author books-authors-api
+ */
+public class ReplicaRoutingDataSourceTest {
+
+    private final HikariDataSource primary = mock(HikariDataSource.class);
+    private final HikariDataSource replica = mock(HikariDataSource.class);
+    private final Statement primaryStatement = mock(Statement.class);
+    private final Statement replicaStatement = mock(Statement.class);
+    private ReplicaRoutingDataSource dataSource;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate writing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        stub(primary, primaryStatement);
+        stub(replica, replicaStatement);
+        dataSource = new ReplicaRoutingDataSource(primary, replica);
+        // Ignore the connection fetched to read the default connection settings
+        clearInvocations(primary, replica);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        writing = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    @DisplayName("Should run a replica read on the replica pool")
+    void shouldRouteReplicaReadToReplica() throws SQLException {
+        // When
+        Statement statement = ReplicaReads.onReplica(this::firstStatement);
+
+        // Then
+        assertSame(replicaStatement, statement);
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    @DisplayName("Should run any other read on the primary pool")
+    void shouldRouteOtherReadToPrimary() throws SQLException {
+        // When
+        Statement statement = firstStatement();
+
+        // Then
+        assertSame(primaryStatement, statement);
+        verify(replica, never()).getConnection();
+    }
+
+    @Test
+    @DisplayName("Should pick the pool at the first statement of a read-only transaction, not when it begins")
+    void shouldRouteReadOnlyTransactionAtFirstStatement() throws SQLException {
+        // When the transaction begins before the read is sent to the replica
+        Statement statement = readOnly.execute(status -> ReplicaReads.onReplica(this::transactionStatement));
+
+        // Then
+        assertSame(replicaStatement, statement);
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    @DisplayName("Should keep a read-only transaction on the connection of its first statement")
+    void shouldKeepReadOnlyTransactionOnFirstConnection() throws SQLException {
+        // When
+        Statement[] statements = readOnly.execute(status -> new Statement[] {
+                ReplicaReads.onReplica(this::transactionStatement),
+                transactionStatement()
+        });
+
+        // Then
+        assertSame(replicaStatement, statements[0]);
+        assertSame(replicaStatement, statements[1]);
+        verify(replica, times(1)).getConnection();
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    @DisplayName("Should read the primary pool inside a write transaction, even for a replica read")
+    void shouldRouteWriteTransactionToPrimary() throws SQLException {
+        // When
+        Statement statement = writing.execute(status -> ReplicaReads.onReplica(this::transactionStatement));
+
+        // Then
+        assertSame(primaryStatement, statement);
+        verify(replica, never()).getConnection();
+    }
+
+    private static void stub(HikariDataSource pool, Statement statement) throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(pool.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.getTransactionIsolation()).thenReturn(Connection.TRANSACTION_READ_COMMITTED);
+        when(connection.createStatement()).thenReturn(statement);
+    }
+
+    /**
+     * Creates a statement on a connection of its own, as a read outside a
+     * transaction does
+     */
+    private Statement firstStatement() {
+        return unchecked(() -> {
+            try (Connection connection = dataSource.getConnection()) {
+                return connection.createStatement();
+            }
+        });
+    }
+
+    /**
+     * Creates a statement on the connection bound to the current transaction
+     */
+    private Statement transactionStatement() {
+        return unchecked(() -> DataSourceUtils.getConnection(dataSource).createStatement());
+    }
+
+    private static <T> T unchecked(SqlSupplier<T> supplier) {
+        try {
+            return supplier.get();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlSupplier<T> {
+        T get() throws SQLException;
+    }
+}
@@ -0,0 +1,320 @@
+package com.books.infrastructure.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.books.infrastructure.cache.ReadRouter;
+import com.books.infrastructure.cache.ReplicaReads;
+
+/**
+ * Unit tests for {@link BatchLoader}, with stub loaders that record their
+ * calls.
+ *
+ * @author books-authors-api
+ */
+public class BatchLoaderTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final StubLoaders loaders = new StubLoaders();
+
+    @AfterEach
+    void tearDown() {
+        loaders.release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should share one query between concurrent lookups of the same ID")
+    void shouldCoalesceSameId() throws Exception {
+        // Given
+        BatchLoader<String> loader = loader(Duration.ZERO, 10);
+        loaders.blocking = true;
+        Future<Optional<String>> first = executor.submit(() -> loader.load(1L));
+        assertTrue(loaders.entered.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        // When
+        Future<Optional<String>> second = executor.submit(() -> loader.load(1L));
+        awaitCondition(() -> loader.statistics().coalesced() == 1);
+        loaders.release.countDown();
+
+        // Then
+        assertEquals(Optional.of("value-1"), get(first));
+        assertEquals(Optional.of("value-1"), get(second));
+        assertEquals(List.of(1L), loaders.singles);
+        assertTrue(loaders.batches.isEmpty());
+        assertEquals(1, loader.statistics().queries());
+        assertEquals(2, loader.statistics().lookups());
+    }
+
+    @Test
+    @DisplayName("Should load the distinct IDs requested within the window with one multi-ID query")
+    void shouldBatchIdsWithinWindow() throws Exception {
+        // Given
+        BatchLoader<String> loader = loader(Duration.ofMillis(500), 10);
+
+        // When
+        Future<Optional<String>> found = executor.submit(() -> loader.load(1L));
+        Future<Optional<String>> missing = executor.submit(() -> loader.load(StubLoaders.MISSING_ID));
+
+        // Then
+        assertEquals(Optional.of("value-1"), get(found));
+        assertEquals(Optional.empty(), get(missing));
+        assertEquals(1, loaders.batches.size());
+        assertEquals(Set.of(1L, StubLoaders.MISSING_ID), Set.copyOf(loaders.batches.get(0)));
+        assertTrue(loaders.singles.isEmpty());
+        assertEquals(1, loader.statistics().queries());
+    }
+
+    @Test
+    @DisplayName("Should use the single-ID query for a batch of one and give the same value as a batch")
+    void shouldLoadBatchOfOneWithSingleQuery() throws Exception {
+        // Given
+        BatchLoader<String> loader = loader(Duration.ZERO, 10);
+        BatchLoader<String> batching = loader(Duration.ofMillis(500), 10);
+
+        // When
+        Optional<String> alone = loader.load(1L);
+        Future<Optional<String>> batched = executor.submit(() -> batching.load(1L));
+        executor.submit(() -> batching.load(2L));
+
+        // Then
+        assertEquals(alone, get(batched));
+        assertEquals(List.of(1L), loaders.singles);
+        assertEquals(1, loaders.batches.size());
+    }
+
+    @Test
+    @DisplayName("Should give each ID the same result alone and in a batch, and query a repeated ID once")
+    void shouldMatchSingleAndBatchLookups() throws Exception {
+        // Given
+        List<Long> ids = List.of(1L, 2L, 2L, StubLoaders.MISSING_ID);
+        BatchLoader<String> single = loader(Duration.ZERO, 10);
+        BatchLoader<String> batching = loader(Duration.ofMillis(500), 10);
+
+        // When
+        List<Optional<String>> alone = new ArrayList<>();
+        for (Long id : ids) {
+            alone.add(single.load(id));
+        }
+        List<Future<Optional<String>>> batched = new ArrayList<>();
+        for (Long id : ids) {
+            batched.add(executor.submit(() -> batching.load(id)));
+        }
+
+        // Then
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(alone.get(i), get(batched.get(i)), "ID " + ids.get(i));
+        }
+        assertEquals(ids, loaders.singles);
+        assertEquals(1, loaders.batches.size());
+        assertEquals(List.of(1L, 2L, StubLoaders.MISSING_ID), loaders.batches.get(0).stream().sorted().toList());
+        assertEquals(1, batching.statistics().coalesced());
+    }
+
+    @Test
+    @DisplayName("Should use the single-ID query when batching is disabled or inside a write transaction")
+    void shouldNotBatchWhenDisabledOrWriting() throws Exception {
+        // Given
+        BatchLoader<String> disabled = new BatchLoader<>(false, Duration.ofSeconds(60), 10, loaders::single,
+                loaders::batch);
+        BatchLoader<String> batching = loader(Duration.ofSeconds(60), 10);
+
+        // When
+        Optional<String> unbatched = disabled.load(1L);
+        Optional<String> written = executor.submit(() -> {
+            TransactionSynchronizationManager.setActualTransactionActive(true);
+            try {
+                return batching.load(2L);
+            } finally {
+                TransactionSynchronizationManager.setActualTransactionActive(false);
+            }
+        }).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        // Then neither lookup waited for the window
+        assertEquals(Optional.of("value-1"), unbatched);
+        assertEquals(Optional.of("value-2"), written);
+        assertEquals(List.of(1L, 2L), loaders.singles);
+        assertTrue(loaders.batches.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should run a batch as soon as it is full, without waiting for the window")
+    void shouldRunFullBatchAtOnce() throws Exception {
+        // Given
+        BatchLoader<String> loader = loader(Duration.ofSeconds(60), 2);
+
+        // When
+        Future<Optional<String>> first = executor.submit(() -> loader.load(1L));
+        Future<Optional<String>> second = executor.submit(() -> loader.load(2L));
+
+        // Then
+        assertEquals(Optional.of("value-1"), get(first));
+        assertEquals(Optional.of("value-2"), get(second));
+        assertEquals(1, loaders.batches.size());
+        assertEquals(Set.of(1L, 2L), Set.copyOf(loaders.batches.get(0)));
+    }
+
+    @Test
+    @DisplayName("Should not share queries between primary and replica reads")
+    void shouldSplitPrimaryAndReplicaLanes() throws Exception {
+        // Given
+        BatchLoader<String> loader = loader(Duration.ofMillis(300), 10);
+
+        // When
+        Future<Optional<String>> primary = executor.submit(() -> loader.load(1L));
+        Future<Optional<String>> replica = executor.submit(() -> ReplicaReads.onReplica(() -> loader.load(1L)));
+
+        // Then
+        assertEquals(Optional.of("value-1"), get(primary));
+        assertEquals(Optional.of("value-1"), get(replica));
+        assertEquals(List.of(1L, 1L), loaders.singles);
+        assertEquals(Set.of(true, false), Set.copyOf(loaders.replicaReads));
+        assertEquals(0, loader.statistics().coalesced());
+        assertEquals(2, loader.statistics().queries());
+    }
+
+    @Test
+    @DisplayName("Should fail every waiting lookup when the loader throws an error, and load again afterwards")
+    void shouldReleaseLookupsOnError() throws Exception {
+        // Given
+        BatchLoader<String> loader = loader(Duration.ZERO, 10);
+        loaders.blocking = true;
+        loaders.failure = new NoClassDefFoundError("oracle/jdbc/OracleDriver");
+        Future<Optional<String>> leader = executor.submit(() -> loader.load(1L));
+        assertTrue(loaders.entered.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        Future<Optional<String>> waiter = executor.submit(() -> loader.load(1L));
+        awaitCondition(() -> loader.statistics().coalesced() == 1);
+
+        // When
+        loaders.release.countDown();
+
+        // Then
+        ExecutionException leaderFailure = assertThrows(ExecutionException.class,
+                () -> leader.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        ExecutionException waiterFailure = assertThrows(ExecutionException.class,
+                () -> waiter.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertSame(loaders.failure, leaderFailure.getCause());
+        assertSame(loaders.failure, waiterFailure.getCause());
+
+        // When the loader recovers
+        loaders.failure = null;
+
+        // Then the ID is no longer in flight
+        assertEquals(Optional.of("value-1"), get(executor.submit(() -> loader.load(1L))));
+    }
+
+    @Test
+    @DisplayName("Should propagate a database error unchanged")
+    void shouldPropagateRuntimeException() {
+        // Given
+        BatchLoader<String> loader = loader(Duration.ZERO, 10);
+        IllegalStateException failure = new IllegalStateException("pool exhausted");
+        loaders.failure = failure;
+
+        // When
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> loader.load(1L));
+
+        // Then
+        assertSame(failure, thrown);
+    }
+
+    private BatchLoader<String> loader(Duration window, int maxBatchSize) {
+        return new BatchLoader<>(true, window, maxBatchSize, loaders::single, loaders::batch);
+    }
+
+    private static <T> T get(Future<T> future) throws Exception {
+        return future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not reached");
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Single and multi-ID loaders that record their calls, and can be held
+     * until released
+     */
+    private static final class StubLoaders {
+
+        static final long MISSING_ID = 404L;
+
+        final List<Long> singles = new CopyOnWriteArrayList<>();
+        final List<List<Long>> batches = new CopyOnWriteArrayList<>();
+        final List<Boolean> replicaReads = new CopyOnWriteArrayList<>();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile boolean blocking;
+        volatile Throwable failure;
+
+        Optional<String> single(Long id) {
+            singles.add(id);
+            enter();
+            return Optional.ofNullable(value(id));
+        }
+
+        Map<Long, String> batch(Collection<Long> ids) {
+            batches.add(List.copyOf(ids));
+            enter();
+            Map<Long, String> found = new HashMap<>();
+            ids.forEach(id -> {
+                if (value(id) != null) {
+                    found.put(id, value(id));
+                }
+            });
+            return found;
+        }
+
+        private void enter() {
+            replicaReads.add(ReadRouter.isReplicaRead());
+            entered.countDown();
+            if (blocking) {
+                try {
+                    release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            Throwable thrown = failure;
+            if (thrown instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (thrown instanceof Error error) {
+                throw error;
+            }
+        }
+
+        private static String value(Long id) {
+            return id == MISSING_ID ? null : "value-" + id;
+        }
+    }
+}
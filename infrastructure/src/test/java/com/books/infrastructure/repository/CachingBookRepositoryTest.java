@@ -0,0 +1,98 @@
+package com.books.infrastructure.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.books.domain.model.Book;
+import com.books.infrastructure.cache.CatalogCache;
+import com.books.infrastructure.cache.QueryCache;
+import com.books.infrastructure.cache.invalidation.InvalidationBus;
+
+/**
+ * Unit tests for {@link CachingBookRepository}, focused on which reads may
+ * be served from the caches.
+ *
+ * @author books-authors-api
+ */
+@ExtendWith(MockitoExtension.class)
+public class CachingBookRepositoryTest {
+
+    @Mock
+    private BookRepositoryImpl delegate;
+
+    @Mock
+    private PointLookupLoader loader;
+
+    @Mock
+    private CatalogCache cache;
+
+    @Mock
+    private QueryCache queryCache;
+
+    @Mock
+    private InvalidationBus invalidationBus;
+
+    @InjectMocks
+    private CachingBookRepository repository;
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReadProjection.clear();
+    }
+
+    @Test
+    @DisplayName("Should serve a lookup by ID from the entity cache outside write transactions")
+    void shouldUseCacheForReads() {
+        // Given
+        Book cached = Book.builder().bookId(1L).version(3L).build();
+        when(cache.getBook(eq(1L), any())).thenReturn(Optional.of(cached));
+
+        // When
+        Optional<Book> found = repository.findById(1L);
+
+        // Then
+        assertSame(cached, found.orElseThrow());
+        verify(loader, never()).book(any());
+    }
+
+    @Test
+    @DisplayName("Should read the primary database, not the caches, inside a write transaction")
+    void shouldBypassCachesInWriteTransaction() {
+        // Given an update reading the book it modifies, with only some fields selected
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        ReadProjection.set(false, false);
+        Book current = Book.builder().bookId(1L).version(4L).build();
+        when(loader.book(1L)).thenReturn(Optional.of(current));
+        when(delegate.findAllByIds(List.of(1L))).thenReturn(List.of(current));
+
+        // When
+        Optional<Book> found = repository.findById(1L);
+        List<Book> all = repository.findAllByIds(List.of(1L));
+
+        // Then
+        assertSame(current, found.orElseThrow());
+        assertEquals(List.of(current), all);
+        verify(cache, never()).getBook(any(), any());
+        verify(cache, never()).getBooks(any(), any());
+        verify(queryCache, never()).get(any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,50 @@
+package com.books.infrastructure.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link WriteCondition}.
+ *
+ * @author books-authors-api
+ */
+public class WriteConditionTest {
+
+    @AfterEach
+    void tearDown() {
+        WriteCondition.clear();
+    }
+
+    @Test
+    @DisplayName("Should make no condition outside a conditional request")
+    void shouldBeUnconditionalByDefault() {
+        // Then
+        assertNull(WriteCondition.expectedVersion(7L));
+    }
+
+    @Test
+    @DisplayName("Should expect the version of the If-Match tag when the entity was read at it")
+    void shouldExpectMatchedVersion() {
+        // Given
+        WriteCondition.expectVersion(7L);
+
+        // Then
+        assertEquals(7L, WriteCondition.expectedVersion(7L));
+    }
+
+    @Test
+    @DisplayName("Should refuse an update applied to an entity read at another version")
+    void shouldRefuseEntityReadAtOtherVersion() {
+        // Given the client matched version 7, but the update read a stale version 6
+        WriteCondition.expectVersion(7L);
+
+        // Then
+        assertThrows(WriteCondition.VersionMismatchException.class, () -> WriteCondition.expectedVersion(6L));
+        assertThrows(WriteCondition.VersionMismatchException.class, () -> WriteCondition.expectedVersion(null));
+    }
+}